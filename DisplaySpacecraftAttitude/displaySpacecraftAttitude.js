@@ -70,6 +70,7 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   var canvasContext           = canvas.getContext("2d");
   var canvasAspectRatio       = 1/1;
   var ANIMATION_FRAME_PERIOD_MSECS = 100;
+  var TORQUE_NEWTON_METERS    = 10.0;
   var DRAWING_OFFSET          = canvas.width/5;
   var DRAWING_CENTER          = canvas.width/2;
   var DRAWING_RADIUS_PIXELS   = canvas.width/10;
@@ -80,6 +81,7 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   var torqueXClockwiseQuarternion = [ 0.0, -1.0, 0.0, 0.0 ];
   var torqueYCounterClockwiseQuarternion = [ 0.0, 0.0, 1.0, 0.0 ];
   var torqueYClockwiseQuarternion = [ 0.0, 0.0, -1.0, 0.0 ];
+  var sessionId = null;
 
   var drawSpacecraftPoints = function(spacecraftPointsRecords) {
     var drawingMaxLength = DRAWING_RADIUS_PIXELS/10;
@@ -155,7 +157,10 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
       clearCanvas();
       canvasContext.strokeText("Initializing...", 0, 25);
 
-      var spacecraftPolygonsArray = angular.fromJson(initializeResponse.data);
+      var simulationSessionRecord = angular.fromJson(initializeResponse.data);
+      sessionId = simulationSessionRecord.sessionId;
+
+      var spacecraftPolygonsArray = simulationSessionRecord.spacecraftPolygons;
       var spacecraftPolygonsRecords = [];
  
       spacecraftPolygonsRecords = spacecraftPolygonsArray;
@@ -179,7 +184,7 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
 
     while (true) {
 
-      $http.post("http://localhost:8080/step", ANIMATION_FRAME_PERIOD_MSECS/1000.0)
+      $http.post("http://localhost:8080/step?sessionId=" + sessionId, ANIMATION_FRAME_PERIOD_MSECS/1000.0)
         .then(function(stepResponse) {
 
         clearCanvas();
@@ -217,8 +222,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   };
 
   $scope.torqueZCounterClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueZCounterClockwiseQuarternion[0] + ", \"x\": " + torqueZCounterClockwiseQuarternion[1] + ", \"y\": " + torqueZCounterClockwiseQuarternion[2] + ", \"z\": " + torqueZCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueZCounterClockwiseQuarternion[0] + ", \"x\": " + torqueZCounterClockwiseQuarternion[1] + ", \"y\": " + torqueZCounterClockwiseQuarternion[2] + ", \"z\": " + torqueZCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueCounterClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueCounterClockwiseResponse.data);
 
@@ -232,8 +237,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   }
 
   $scope.torqueZClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueZClockwiseQuarternion[0] + ", \"x\": " + torqueZClockwiseQuarternion[1] + ", \"y\": " + torqueZClockwiseQuarternion[2] + ", \"z\": " + torqueZClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueZClockwiseQuarternion[0] + ", \"x\": " + torqueZClockwiseQuarternion[1] + ", \"y\": " + torqueZClockwiseQuarternion[2] + ", \"z\": " + torqueZClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueClockwiseResponse.data);
 
@@ -247,8 +252,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   }
 
   $scope.torqueXCounterClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueXCounterClockwiseQuarternion[0] + ", \"x\": " + torqueXCounterClockwiseQuarternion[1] + ", \"y\": " + torqueXCounterClockwiseQuarternion[2] + ", \"z\": " + torqueXCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueXCounterClockwiseQuarternion[0] + ", \"x\": " + torqueXCounterClockwiseQuarternion[1] + ", \"y\": " + torqueXCounterClockwiseQuarternion[2] + ", \"z\": " + torqueXCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueCounterClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueCounterClockwiseResponse.data);
 
@@ -262,8 +267,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   }
 
   $scope.torqueXClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueXClockwiseQuarternion[0] + ", \"x\": " + torqueXClockwiseQuarternion[1] + ", \"y\": " + torqueXClockwiseQuarternion[2] + ", \"z\": " + torqueXClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueXClockwiseQuarternion[0] + ", \"x\": " + torqueXClockwiseQuarternion[1] + ", \"y\": " + torqueXClockwiseQuarternion[2] + ", \"z\": " + torqueXClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueClockwiseResponse.data);
 
@@ -277,8 +282,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   }
 
   $scope.torqueYCounterClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueYCounterClockwiseQuarternion[0] + ", \"x\": " + torqueYCounterClockwiseQuarternion[1] + ", \"y\": " + torqueYCounterClockwiseQuarternion[2] + ", \"z\": " + torqueYCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueYCounterClockwiseQuarternion[0] + ", \"x\": " + torqueYCounterClockwiseQuarternion[1] + ", \"y\": " + torqueYCounterClockwiseQuarternion[2] + ", \"z\": " + torqueYCounterClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueClockwiseResponse.data);
 
@@ -292,8 +297,8 @@ angular.module('DisplaySpacecraftAttitude', []).controller("mainController", fun
   }
 
   $scope.torqueYClockwise = function() {
-    $http.post("http://localhost:8080/torque",
-               "{ \"torqueQuarternion\": { \"r\": " + torqueYClockwiseQuarternion[0] + ", \"x\": " + torqueYClockwiseQuarternion[1] + ", \"y\": " + torqueYClockwiseQuarternion[2] + ", \"z\": " + torqueYClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": 0.1, \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
+    $http.post("http://localhost:8080/torque?sessionId=" + sessionId,
+               "{ \"torqueQuarternion\": { \"r\": " + torqueYClockwiseQuarternion[0] + ", \"x\": " + torqueYClockwiseQuarternion[1] + ", \"y\": " + torqueYClockwiseQuarternion[2] + ", \"z\": " + torqueYClockwiseQuarternion[3] + "}, \"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\":  " + ANIMATION_FRAME_PERIOD_MSECS/1000.0 + " }")
       .then(function(torqueClockwiseResponse) {
       angularVelocityQuarternion = JSON.stringify(torqueClockwiseResponse.data);
 
@@ -0,0 +1,82 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.model.ProjectedFrame;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+// Run from the repository root, so that the shipped model files are found.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AttitudeModelBenchmark {
+
+    private static final double STEP_SECONDS = 0.1;
+
+    @Param({ SyntheticMeshes.SHIPPED, "10000", "100000", "1000000" })
+    public String mesh;
+
+    private AttitudeModelServiceImpl attitudeModelService;
+
+    @Setup
+    public void setup() {
+        attitudeModelService = new AttitudeModelServiceImpl(SyntheticMeshes.load(mesh), SyntheticMeshes.dynamics(),
+                                                            AttitudeIntegratorSettings.defaults().newIntegrator());
+        attitudeModelService.applyTorque(new Quarternion(0.0, 0.36, 0.48, 0.8), 0.1, STEP_SECONDS);
+    }
+
+    @Benchmark
+    public void advance() throws SimulationStepInvalidException {
+        attitudeModelService.advance(STEP_SECONDS);
+    }
+
+    @Benchmark
+    public ProjectedFrame projectVisibleSpacecraftPolygons() {
+        return attitudeModelService.projectVisibleSpacecraftPolygons();
+    }
+
+    @Benchmark
+    public List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons() {
+        return attitudeModelService.getVisible2DProjectedSpacecraftPolygons();
+    }
+
+    @Benchmark
+    public List<List<List<Double>>> step() throws SimulationStepInvalidException {
+        return attitudeModelService.step(STEP_SECONDS);
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.spacecraftpropagator.ensemble.EnsemblePropagator;
+import com.spacecraftpropagator.model.EnsembleRequest;
+
+// Ensemble throughput against pool parallelism; with linear scaling the time per run halves as
+// the parallelism doubles, up to the number of cores.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class EnsembleBenchmark {
+
+    private static final double[] INERTIA_TENSOR = { 3.3, 0.0, 0.0,
+                                                     0.0, 3.3, 0.0,
+                                                     0.0, 0.0, 10.0 };
+
+    @Param({ "10000" })
+    public int memberCount;
+
+    @Param({ "1", "2", "4", "8", "16" })
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private EnsemblePropagator ensemblePropagator;
+    private EnsembleRequest ensembleRequest;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(parallelism);
+        ensemblePropagator = new EnsemblePropagator(pool, 256);
+
+        ensembleRequest = new EnsembleRequest();
+        ensembleRequest.setMemberCount(memberCount);
+        ensembleRequest.setStepSeconds(0.1);
+        ensembleRequest.setStepCount(100);
+        ensembleRequest.setOutputEveryNSteps(10);
+        ensembleRequest.setInitialRadiansPerSecond(new double[] { 0.02, 0.3, 0.05 });
+        ensembleRequest.setInertiaDispersion(0.05);
+        ensembleRequest.setRateDispersion(0.01);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public void run(Blackhole blackhole) throws IOException {
+        ensemblePropagator.run(ensembleRequest, INERTIA_TENSOR, blackhole::consume);
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegrator;
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.DormandPrinceIntegrator;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+
+// Time to propagate a tumbling triaxial spacecraft over HORIZON_SECONDS with each integrator and
+// output step.  The attitude error against a tight-tolerance reference is printed after each
+// trial, so that the integrators can be compared at equal accuracy rather than equal step size.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntegratorBenchmark {
+
+    private static final double HORIZON_SECONDS = 1000.0;
+    private static final double[] INITIAL_STATE = { 1.0, 0.0, 0.0, 0.0, 0.02, 0.3, 0.05 };
+
+    @Param({ "rk4", "lie-midpoint", "dormand-prince" })
+    public String method;
+
+    @Param({ "0.1", "1.0", "10.0" })
+    public double stepSeconds;
+
+    @Param({ "1e-9" })
+    public double relativeTolerance;
+
+    private RigidBodyDynamics dynamics;
+    private AttitudeIntegrator integrator;
+    private double[] referenceState;
+    private final double[] state = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] noTorque = new double[3];
+
+    @Setup
+    public void setup() throws Exception {
+        dynamics = RigidBodyDynamics.fromInertiaTensor(new double[] { 3.3, 0.1, 0.0,
+                                                                      0.1, 5.0, 0.2,
+                                                                      0.0, 0.2, 7.5 });
+        integrator = new AttitudeIntegratorSettings(method, stepSeconds, relativeTolerance, relativeTolerance*1e-3).newIntegrator();
+
+        referenceState = INITIAL_STATE.clone();
+        final AttitudeIntegrator reference = new DormandPrinceIntegrator(1e-13, 1e-16, 1.0);
+        for (int i = 0; i < HORIZON_SECONDS; i++) {
+            reference.integrate(dynamics, referenceState, noTorque, 1.0);
+        }
+    }
+
+    @Benchmark
+    public double[] propagate() {
+        System.arraycopy(INITIAL_STATE, 0, state, 0, RigidBodyDynamics.STATE_SIZE);
+        final int steps = (int) Math.round(HORIZON_SECONDS/stepSeconds);
+        for (int i = 0; i < steps; i++) {
+            integrator.integrate(dynamics, state, noTorque, stepSeconds);
+        }
+        return state;
+    }
+
+    // angle of the rotation from the reference attitude to the propagated one
+    @TearDown
+    public void printAttitudeError() {
+        propagate();
+        final double[] q = referenceState;
+        final double r = q[0]*state[0] + q[1]*state[1] + q[2]*state[2] + q[3]*state[3];
+        final double x = q[0]*state[1] - q[1]*state[0] - q[2]*state[3] + q[3]*state[2];
+        final double y = q[0]*state[2] + q[1]*state[3] - q[2]*state[0] - q[3]*state[1];
+        final double z = q[0]*state[3] - q[1]*state[2] + q[2]*state[1] - q[3]*state[0];
+        final double angle = 2.0*Math.atan2(Math.sqrt(x*x + y*y + z*z), Math.abs(r));
+
+        System.out.printf("%n%s, stepSeconds %s:  attitude error after %.0f s is %.3e radians%n",
+                          method, stepSeconds, HORIZON_SECONDS, angle);
+    }
+}
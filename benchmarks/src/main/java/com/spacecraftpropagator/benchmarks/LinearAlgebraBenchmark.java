@@ -0,0 +1,81 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spacecraftpropagator.model.LinearAlgebra;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinearAlgebraBenchmark {
+
+    private List<Double> u = Arrays.asList(8.3, -1.6, -11.0);
+    private List<Double> v = Arrays.asList(0.36, 0.48, 0.8);
+    private List<List<Double>> matrix = Arrays.asList(Arrays.asList(0.0, 1.0, 0.0),
+                                                      Arrays.asList(-1.0, 0.0, 0.0),
+                                                      Arrays.asList(0.0, 0.0, 1.0));
+
+    private double[] packedMatrix = { 0.0, -1.0, 0.0,
+                                      1.0,  0.0, 0.0,
+                                      0.0,  0.0, 1.0 };
+    private double[] packedVector = { 8.3, -1.6, -11.0 };
+    private double[] packedResult = new double[3];
+
+    @Benchmark
+    public double dotProduct3x3() {
+        return LinearAlgebra.dotProduct3x3(u, v);
+    }
+
+    @Benchmark
+    public List<Double> crossProduct3x3() {
+        return LinearAlgebra.crossProduct3x3(u, v);
+    }
+
+    @Benchmark
+    public List<Double> matrixVectorMult3x3() {
+        return LinearAlgebra.matrixVectorMult3x3(matrix, u);
+    }
+
+    @Benchmark
+    public double[] packedMatrixVectorMult3x3() {
+        LinearAlgebra.matrixVectorMult3x3(packedMatrix, packedVector, packedResult, 1);
+        return packedResult;
+    }
+
+    @Benchmark
+    public double[] rotationMatrix3x3() {
+        LinearAlgebra.rotationMatrix3x3(0.99, 0.036, 0.048, 0.08, packedMatrix);
+        return packedMatrix;
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.model.ProjectedFrame;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+// Sequential against chunked ForkJoinPool projection over a range of mesh sizes, to choose
+// spacecraft.projection.parallel-threshold-polygons for a machine:  the threshold should be the
+// smallest mesh at which the parallel score beats the sequential one.  For example,
+//     java -jar benchmarks/target/benchmarks.jar ParallelProjectionBenchmark -p chunkPolygons=4096
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParallelProjectionBenchmark {
+
+    private static final double STEP_SECONDS = 0.1;
+
+    @Param({ SyntheticMeshes.SHIPPED, "1000", "4000", "16000", "64000", "256000", "1000000" })
+    public String mesh;
+
+    @Param({ "false", "true" })
+    public boolean parallel;
+
+    @Param({ "4096" })
+    public int chunkPolygons;
+
+    private ForkJoinPool projectionPool;
+    private AttitudeModelServiceImpl attitudeModelService;
+
+    @Setup
+    public void setup() {
+        projectionPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        attitudeModelService = new AttitudeModelServiceImpl(SyntheticMeshes.load(mesh), SyntheticMeshes.dynamics(),
+                                                            AttitudeIntegratorSettings.defaults().newIntegrator(),
+                                                            projectionPool,
+                                                            parallel ? 0 : Integer.MAX_VALUE,
+                                                            chunkPolygons);
+        attitudeModelService.applyTorque(new Quarternion(0.0, 0.36, 0.48, 0.8), 0.1, STEP_SECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        projectionPool.shutdownNow();
+    }
+
+    @Benchmark
+    public ProjectedFrame projectVisibleSpacecraftPolygons() throws SimulationStepInvalidException {
+        attitudeModelService.advance(STEP_SECONDS);
+        return attitudeModelService.projectVisibleSpacecraftPolygons();
+    }
+}
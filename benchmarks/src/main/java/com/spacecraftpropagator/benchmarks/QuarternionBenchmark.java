@@ -0,0 +1,68 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.spacecraftpropagator.model.Quarternion;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuarternionBenchmark {
+
+    private Quarternion vector = new Quarternion(0.0, 8.3, -1.6, -11.0);
+    private Quarternion axis = new Quarternion(0.0, 0.36, 0.48, 0.8);
+    private Quarternion xAxis = new Quarternion(0.0, 0.0, 1.0, 0.0);
+    private Quarternion yAxis = new Quarternion(0.0, -1.0, 0.0, 0.0);
+    private Quarternion zAxis = new Quarternion(0.0, 0.0, 0.0, 1.0);
+    private double angle = 0.03;
+
+    @Benchmark
+    public Quarternion rotate() {
+        return vector.rotate(axis, angle);
+    }
+
+    @Benchmark
+    public Quarternion coordinateTransform() {
+        return vector.coordinateTransform(xAxis, yAxis, zAxis);
+    }
+
+    @Benchmark
+    public Quarternion qMultiply() {
+        return vector.qMultiply(axis.getR(), axis.getX(), axis.getY(), axis.getZ(),
+                                vector.getR(), vector.getX(), vector.getY(), vector.getZ());
+    }
+
+    @Benchmark
+    public Quarternion qInverse() {
+        return vector.qInverse(axis.getR(), axis.getX(), axis.getY(), axis.getZ());
+    }
+}
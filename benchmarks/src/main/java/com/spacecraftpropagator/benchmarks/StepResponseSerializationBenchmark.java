@@ -0,0 +1,70 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+// Jackson serialization of the nested list returned by /step, as the controller writes it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepResponseSerializationBenchmark {
+
+    @Param({ SyntheticMeshes.SHIPPED, "10000" })
+    public String mesh;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<List<List<Double>>> stepResponse;
+
+    @Setup
+    public void setup() throws SimulationStepInvalidException {
+        AttitudeModelServiceImpl attitudeModelService =
+                new AttitudeModelServiceImpl(SyntheticMeshes.load(mesh), SyntheticMeshes.dynamics(),
+                                             AttitudeIntegratorSettings.defaults().newIntegrator());
+        attitudeModelService.applyTorque(new Quarternion(0.0, 0.36, 0.48, 0.8), 0.1, 0.1);
+        stepResponse = attitudeModelService.step(0.1);
+    }
+
+    @Benchmark
+    public byte[] serializeStepResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(stepResponse);
+    }
+}
@@ -0,0 +1,84 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.benchmarks;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.services.SpacecraftModelLoader;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+
+// Meshes for the benchmarks:  the shipped spacecraftPolygonsData.json model, or a synthetic
+// sphere of quadrilaterals with about the requested number of faces.
+public class SyntheticMeshes {
+
+    public static final String SHIPPED = "shipped";
+
+    private static final double SPHERE_RADIUS = 10.0; // about the size of the shipped model
+
+    // the shipped momentOfInertiaValues.json
+    public static RigidBodyDynamics dynamics() {
+        try {
+            return RigidBodyDynamics.principal(3.3, 3.3, 10.0);
+        } catch (MomentOfInertiaInvalidException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static SpacecraftMesh load(String meshName) {
+        if (SHIPPED.equals(meshName)) {
+            return new SpacecraftModelLoader().getSpacecraftMesh(); // reads from the working directory
+        }
+        return sphere(Integer.parseInt(meshName));
+    }
+
+    // Latitude bands stop short of the poles, so that no quadrilateral is degenerate.  Vertices are
+    // ordered counter-clockwise as seen from outside, which makes the outward half front-facing.
+    public static SpacecraftMesh sphere(int polygonCount) {
+        final int latitudeBands = Math.max(1, (int) Math.round(Math.sqrt(polygonCount/2.0)));
+        final int longitudeBands = Math.max(3, (int) Math.round((double) polygonCount/latitudeBands));
+
+        final double[] vertices = new double[latitudeBands*longitudeBands*4*3];
+        final int[] polygonOffsets = new int[latitudeBands*longitudeBands + 1];
+
+        int vertexIndex = 0;
+        int polygonIndex = 0;
+        for (int i = 0; i < latitudeBands; i++) {
+            final double theta0 = Math.PI*(0.05 + 0.9*i/latitudeBands);
+            final double theta1 = Math.PI*(0.05 + 0.9*(i + 1)/latitudeBands);
+            for (int j = 0; j < longitudeBands; j++) {
+                final double phi0 = 2.0*Math.PI*j/longitudeBands;
+                final double phi1 = 2.0*Math.PI*(j + 1)/longitudeBands;
+
+                polygonOffsets[polygonIndex++] = vertexIndex;
+                vertexIndex = putSpherePoint(vertices, vertexIndex, theta0, phi0);
+                vertexIndex = putSpherePoint(vertices, vertexIndex, theta1, phi0);
+                vertexIndex = putSpherePoint(vertices, vertexIndex, theta1, phi1);
+                vertexIndex = putSpherePoint(vertices, vertexIndex, theta0, phi1);
+            }
+        }
+        polygonOffsets[polygonIndex] = vertexIndex;
+
+        return new SpacecraftMesh(vertices, polygonOffsets);
+    }
+
+    private static int putSpherePoint(double[] vertices, int vertexIndex, double theta, double phi) {
+        vertices[vertexIndex*3]     = SPHERE_RADIUS*Math.sin(theta)*Math.cos(phi);
+        vertices[vertexIndex*3 + 1] = SPHERE_RADIUS*Math.sin(theta)*Math.sin(phi);
+        vertices[vertexIndex*3 + 2] = SPHERE_RADIUS*Math.cos(theta);
+        return vertexIndex + 1;
+    }
+}
@@ -0,0 +1,123 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Latencies of one endpoint across all virtual users, recorded wait-free from the HTTP client's
+// threads.  Latency runs from the time a request was due, not the time it was sent, so a
+// stalled client or server shows up in the percentiles instead of hiding behind fewer samples.
+public class EndpointStatistics {
+
+    private final String endpoint;
+    private final Recorder latencies = new Recorder(3);
+    // by HTTP status or exception
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public EndpointStatistics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void recordLatency(long latencyNanos) {
+        latencies.recordValue(Math.max(0L, latencyNanos));
+    }
+
+    public void recordError(String kind) {
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    // An HTTP error status, or the exception a request failed with
+    public void recordError(int statusCode, Throwable error) {
+        Throwable cause = error;
+        while (cause != null && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        recordError(cause != null ? cause.getClass().getSimpleName() : "HTTP " + statusCode);
+    }
+
+    // a request that was due while too many were outstanding
+    public void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    // Returns what was recorded since the last call, and starts over.
+    public Interval takeInterval() {
+        final Map<String, Long> intervalErrors = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> error : errors.entrySet()) {
+            final long count = error.getValue().sumThenReset();
+            if (count > 0) {
+                intervalErrors.put(error.getKey(), count);
+            }
+        }
+        return new Interval(endpoint, latencies.getIntervalHistogram(), intervalErrors, dropped.getAndSet(0L));
+    }
+
+    public static class Interval {
+
+        private final String endpoint;
+        private final Histogram latencies;
+        private final Map<String, Long> errors;
+        private final long dropped;
+
+        Interval(String endpoint, Histogram latencies, Map<String, Long> errors, long dropped) {
+            this.endpoint = endpoint;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.dropped = dropped;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public long getRequests() {
+            return latencies.getTotalCount();
+        }
+
+        public long getErrors() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public Map<String, Long> getErrorsByKind() {
+            return errors;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            return latencies.getTotalCount() == 0 ? 0.0 : latencies.getValueAtPercentile(percentile)/1e6;
+        }
+
+        public double getMaximumMillis() {
+            return latencies.getTotalCount() == 0 ? 0.0 : latencies.getMaxValue()/1e6;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cumulative garbage collection pauses, of the server as Actuator reports them at
+// /actuator/metrics/jvm.gc.pause, or of the load generator itself, whose own pauses would
+// otherwise pass for server latency.  Subtract a reading at the start of a stage from one at its
+// end for the pauses during the stage.
+public class GcPauses {
+
+    private final long count;
+    private final double totalMillis;
+    // the longest pause in Micrometer's recent window, for server readings only
+    private final double recentMaximumMillis;
+
+    private GcPauses(long count, double totalMillis, double recentMaximumMillis) {
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.recentMaximumMillis = recentMaximumMillis;
+    }
+
+    // null if the server's metrics are not exposed
+    public static GcPauses readServer(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl) {
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/jvm.gc.pause"))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            final HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                return null;
+            }
+
+            long count = 0;
+            double totalMillis = 0.0;
+            double recentMaximumMillis = 0.0;
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                final double value = measurement.path("value").asDouble();
+                switch (measurement.path("statistic").asText()) {
+                    case "COUNT":
+                        count = (long) value;
+                        break;
+                    case "TOTAL_TIME":
+                        totalMillis = value*1000.0;
+                        break;
+                    case "MAX":
+                        recentMaximumMillis = value*1000.0;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return new GcPauses(count, totalMillis, recentMaximumMillis);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static GcPauses readLocal() {
+        long count = 0;
+        long totalMillis = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, garbageCollector.getCollectionCount());
+            totalMillis += Math.max(0L, garbageCollector.getCollectionTime());
+        }
+        return new GcPauses(count, totalMillis, 0.0);
+    }
+
+    public GcPauses since(GcPauses start) {
+        return new GcPauses(count - start.count, totalMillis - start.totalMillis, recentMaximumMillis);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getRecentMaximumMillis() {
+        return recentMaximumMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "GcPauses [count=" + count
+                + ", totalMillis=" + totalMillis
+                + ", recentMaximumMillis=" + recentMaximumMillis
+                + "]";
+    }
+}
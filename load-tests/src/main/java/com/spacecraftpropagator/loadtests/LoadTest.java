@@ -0,0 +1,161 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Replays the call pattern of displaySpacecraftAttitude.js from many virtual users against a
+// running propagator-web, one stage per entry of --users, and reports each endpoint's throughput
+// and p50/p99/p999 latency over the stage after its warmup, with the garbage collection pauses
+// of the server and of the generator over the same time:
+//
+//     LoadTest [--base-url=http://localhost:8080] [--users=10,50,100] [--duration-seconds=30]
+//              [--warmup-seconds=5] [--frame-period-ms=100] [--torque-period-ms=2000]
+//              [--sensor-period-ms=100] [--frames=polygons|attitude] [--max-outstanding=16]
+//              [--max-step-p99-ms=0]
+//
+// With --max-step-p99-ms, the exit status is 1 if any stage's step p99 exceeds it, or any
+// request failed, so that a build can catch latency regressions.
+public class LoadTest {
+
+    private static final double[] PERCENTILES = { 50.0, 99.0, 99.9 };
+    private static final long DRAIN_MILLIS = 10000;
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestSettings settings;
+        try {
+            settings = LoadTestSettings.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            final Thread thread = new Thread(runnable, "load-test-pacer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        System.out.println(settings);
+        boolean passed = true;
+        for (int users : settings.getUsers()) {
+            passed &= runStage(settings, users, httpClient, scheduler, objectMapper);
+        }
+        scheduler.shutdownNow();
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean runStage(LoadTestSettings settings, int userCount, HttpClient httpClient,
+                                    ScheduledExecutorService scheduler, ObjectMapper objectMapper) throws InterruptedException {
+        final LoadTestEndpoints endpoints = new LoadTestEndpoints(settings.getFrames());
+        final GcPauses serverGcStart = GcPauses.readServer(httpClient, objectMapper, settings.getBaseUrl());
+        final GcPauses localGcStart = GcPauses.readLocal();
+
+        // the users start spread over one frame period, each creating its session first
+        final List<VirtualUser> users = new ArrayList<>(userCount);
+        final List<CompletableFuture<Void>> started = new ArrayList<>(userCount);
+        final long framePeriodNanos = (long) (settings.getFramePeriodMillis()*1e6);
+        for (int i = 0; i < userCount; i++) {
+            final VirtualUser user = new VirtualUser(httpClient, settings, scheduler, endpoints, objectMapper, i);
+            users.add(user);
+            started.add(user.start(framePeriodNanos*i/userCount));
+        }
+
+        Thread.sleep((long) (settings.getWarmupSeconds()*1000.0));
+        for (EndpointStatistics statistics : endpoints.getAll()) {
+            if (statistics != endpoints.getInit()) {
+                statistics.takeInterval();
+            }
+        }
+        final long measurementStartNanos = System.nanoTime();
+        Thread.sleep((long) (settings.getDurationSeconds()*1000.0));
+
+        final List<EndpointStatistics.Interval> intervals = new ArrayList<>();
+        for (EndpointStatistics statistics : endpoints.getAll()) {
+            intervals.add(statistics.takeInterval());
+        }
+        final double measuredSeconds = (System.nanoTime() - measurementStartNanos)/1e9;
+        final long runningUsers = users.stream().filter(VirtualUser::isRunning).count();
+
+        for (VirtualUser user : users) {
+            user.stop();
+        }
+        final long drainDeadline = System.currentTimeMillis() + DRAIN_MILLIS;
+        while (System.currentTimeMillis() < drainDeadline
+                && (started.stream().anyMatch(future -> !future.isDone()) || users.stream().anyMatch(user -> user.getOutstandingRequests() > 0))) {
+            Thread.sleep(10);
+        }
+
+        final GcPauses serverGcEnd = GcPauses.readServer(httpClient, objectMapper, settings.getBaseUrl());
+        final GcPauses localGc = GcPauses.readLocal().since(localGcStart);
+
+        System.out.println();
+        System.out.printf("%d users (%d running), %.1f s measured after %.1f s warmup%n",
+                          userCount, runningUsers, measuredSeconds, settings.getWarmupSeconds());
+        System.out.printf("%-26s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                          "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors", "dropped");
+        boolean passed = true;
+        for (EndpointStatistics.Interval interval : intervals) {
+            // /init runs at the start of the stage and is reported over all of it
+            final boolean wholeStage = interval.getEndpoint().equals(endpoints.getInit().getEndpoint());
+            final double seconds = wholeStage ? measuredSeconds + settings.getWarmupSeconds() : measuredSeconds;
+            System.out.printf("%-26s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d %8d%n",
+                              interval.getEndpoint(), interval.getRequests(), interval.getRequests()/seconds,
+                              interval.getPercentileMillis(PERCENTILES[0]), interval.getPercentileMillis(PERCENTILES[1]),
+                              interval.getPercentileMillis(PERCENTILES[2]), interval.getMaximumMillis(),
+                              interval.getErrors(), interval.getDropped());
+            passed &= interval.getErrors() == 0;
+        }
+        for (EndpointStatistics.Interval interval : intervals) {
+            if (!interval.getErrorsByKind().isEmpty()) {
+                System.out.printf("%s errors:  %s%n", interval.getEndpoint(), interval.getErrorsByKind());
+            }
+        }
+
+        if (serverGcStart != null && serverGcEnd != null) {
+            final GcPauses serverGc = serverGcEnd.since(serverGcStart);
+            System.out.printf("Server GC:  %d pauses, %.1f ms in all, longest recent %.1f ms%n",
+                              serverGc.getCount(), serverGc.getTotalMillis(), serverGc.getRecentMaximumMillis());
+        } else {
+            System.out.println("Server GC:  not available; expose the metrics endpoint with management.endpoints.web.exposure.include");
+        }
+        System.out.printf("Load generator GC:  %d collections, %d ms in all%n", localGc.getCount(), (long) localGc.getTotalMillis());
+
+        final double stepP99Millis = intervals.get(1).getPercentileMillis(PERCENTILES[1]);
+        if (settings.getMaximumStepP99Millis() > 0 && stepP99Millis > settings.getMaximumStepP99Millis()) {
+            System.out.printf("FAILED:  step p99 %.2f ms is over %.2f ms%n", stepP99Millis, settings.getMaximumStepP99Millis());
+            passed = false;
+        }
+        return passed || settings.getMaximumStepP99Millis() <= 0;
+    }
+}
@@ -0,0 +1,59 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.util.Arrays;
+import java.util.List;
+
+// The statistics of every endpoint the virtual users call, for one stage of a load test.
+public class LoadTestEndpoints {
+
+    private final EndpointStatistics init = new EndpointStatistics("PUT /init");
+    private final EndpointStatistics step;
+    private final EndpointStatistics torque = new EndpointStatistics("POST /torque");
+    private final EndpointStatistics sunSensor = new EndpointStatistics("GET /getSunSensorValue");
+    private final EndpointStatistics irSensor = new EndpointStatistics("GET /getIRValue");
+
+    public LoadTestEndpoints(String frames) {
+        this.step = new EndpointStatistics(LoadTestSettings.FRAMES_ATTITUDE.equals(frames) ? "POST /stepAttitude" : "POST /step");
+    }
+
+    public EndpointStatistics getInit() {
+        return init;
+    }
+
+    public EndpointStatistics getStep() {
+        return step;
+    }
+
+    public EndpointStatistics getTorque() {
+        return torque;
+    }
+
+    public EndpointStatistics getSunSensor() {
+        return sunSensor;
+    }
+
+    public EndpointStatistics getIRSensor() {
+        return irSensor;
+    }
+
+    // /init first, as the report lists them
+    public List<EndpointStatistics> getAll() {
+        return Arrays.asList(init, step, torque, sunSensor, irSensor);
+    }
+}
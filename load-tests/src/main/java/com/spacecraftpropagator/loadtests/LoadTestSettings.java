@@ -0,0 +1,161 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.util.Arrays;
+
+// Command line options of LoadTest, each given as --name=value.  users is a comma-separated list
+// of stages, run one after the other with that many virtual users each, so that one run climbs
+// to the saturation point.
+public class LoadTestSettings {
+
+    public static final String FRAMES_POLYGONS = "polygons";
+    public static final String FRAMES_ATTITUDE = "attitude";
+
+    private String baseUrl = "http://localhost:8080";
+    private int[] users = { 10 };
+    private double durationSeconds = 30.0;
+    private double warmupSeconds = 5.0;
+    // as ANIMATION_FRAME_PERIOD_MSECS of displaySpacecraftAttitude.js
+    private double framePeriodMillis = 100.0;
+    private double torquePeriodMillis = 2000.0;
+    private double sensorPeriodMillis = 100.0;
+    private String frames = FRAMES_POLYGONS;
+    private int maximumOutstandingRequests = 16;
+    private double maximumStepP99Millis = 0.0;
+
+    public static LoadTestSettings fromArgs(String[] args) {
+        final LoadTestSettings settings = new LoadTestSettings();
+        for (String arg : args) {
+            final int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, not " + arg);
+            }
+            final String name = arg.substring(2, equals);
+            final String value = arg.substring(equals + 1);
+            switch (name) {
+                case "base-url":
+                    settings.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "users":
+                    settings.users = Arrays.stream(value.split(",")).mapToInt(users -> Integer.parseInt(users.trim())).toArray();
+                    break;
+                case "duration-seconds":
+                    settings.durationSeconds = Double.parseDouble(value);
+                    break;
+                case "warmup-seconds":
+                    settings.warmupSeconds = Double.parseDouble(value);
+                    break;
+                case "frame-period-ms":
+                    settings.framePeriodMillis = Double.parseDouble(value);
+                    break;
+                case "torque-period-ms":
+                    settings.torquePeriodMillis = Double.parseDouble(value);
+                    break;
+                case "sensor-period-ms":
+                    settings.sensorPeriodMillis = Double.parseDouble(value);
+                    break;
+                case "frames":
+                    settings.frames = value;
+                    break;
+                case "max-outstanding":
+                    settings.maximumOutstandingRequests = Integer.parseInt(value);
+                    break;
+                case "max-step-p99-ms":
+                    settings.maximumStepP99Millis = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+
+        if (settings.users.length == 0 || Arrays.stream(settings.users).anyMatch(users -> users <= 0)) {
+            throw new IllegalArgumentException("--users must list positive user counts");
+        }
+        if (!(settings.durationSeconds > 0) || !(settings.warmupSeconds >= 0) || !(settings.framePeriodMillis > 0)
+                || !(settings.torquePeriodMillis >= 0) || !(settings.sensorPeriodMillis >= 0)) {
+            throw new IllegalArgumentException("Durations and the frame period must be positive, and the torque and sensor periods not negative");
+        }
+        if (!FRAMES_POLYGONS.equals(settings.frames) && !FRAMES_ATTITUDE.equals(settings.frames)) {
+            throw new IllegalArgumentException("--frames must be " + FRAMES_POLYGONS + " or " + FRAMES_ATTITUDE);
+        }
+        if (settings.maximumOutstandingRequests <= 0) {
+            throw new IllegalArgumentException("--max-outstanding must be positive");
+        }
+        return settings;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int[] getUsers() {
+        return users.clone();
+    }
+
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public double getFramePeriodMillis() {
+        return framePeriodMillis;
+    }
+
+    // 0 for no torques
+    public double getTorquePeriodMillis() {
+        return torquePeriodMillis;
+    }
+
+    // 0 for no sensor reads
+    public double getSensorPeriodMillis() {
+        return sensorPeriodMillis;
+    }
+
+    public String getFrames() {
+        return frames;
+    }
+
+    // per user and endpoint; a request due while this many are outstanding is dropped, as a browser
+    // would run out of connections
+    public int getMaximumOutstandingRequests() {
+        return maximumOutstandingRequests;
+    }
+
+    // 0 for no limit
+    public double getMaximumStepP99Millis() {
+        return maximumStepP99Millis;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestSettings [baseUrl=" + baseUrl
+                + ", users=" + Arrays.toString(users)
+                + ", durationSeconds=" + durationSeconds
+                + ", warmupSeconds=" + warmupSeconds
+                + ", framePeriodMillis=" + framePeriodMillis
+                + ", torquePeriodMillis=" + torquePeriodMillis
+                + ", sensorPeriodMillis=" + sensorPeriodMillis
+                + ", frames=" + frames
+                + ", maximumOutstandingRequests=" + maximumOutstandingRequests
+                + ", maximumStepP99Millis=" + maximumStepP99Millis
+                + "]";
+    }
+}
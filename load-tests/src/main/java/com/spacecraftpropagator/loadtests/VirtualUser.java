@@ -0,0 +1,186 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.loadtests;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// One browser running displaySpacecraftAttitude.js:  PUT /init, then a step every frame period
+// whether or not the last one has returned, a torque about a random body axis every torque
+// period, as the torque buttons send, and the sun and IR sensors every sensor period, as a
+// student's control loop polls them.  Requests are sent asynchronously on the shared HttpClient,
+// so one thread drives any number of users.
+public class VirtualUser {
+
+    private static final double TORQUE_NEWTON_METERS = 10.0;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // the six torque buttons:  X, Y and Z, counter-clockwise and clockwise
+    private static final double[][] TORQUE_AXES = { { 1.0, 0.0, 0.0 }, { -1.0, 0.0, 0.0 },
+                                                    { 0.0, 1.0, 0.0 }, { 0.0, -1.0, 0.0 },
+                                                    { 0.0, 0.0, 1.0 }, { 0.0, 0.0, -1.0 } };
+
+    private final HttpClient httpClient;
+    private final LoadTestSettings settings;
+    private final ScheduledExecutorService scheduler;
+    private final LoadTestEndpoints endpoints;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+
+    private final List<ScheduledFuture<?>> pacers = new ArrayList<>();
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private volatile String sessionId;
+    private volatile boolean stopped;
+
+    public VirtualUser(HttpClient httpClient, LoadTestSettings settings, ScheduledExecutorService scheduler,
+                       LoadTestEndpoints endpoints, ObjectMapper objectMapper, long seed) {
+        this.httpClient = httpClient;
+        this.settings = settings;
+        this.scheduler = scheduler;
+        this.endpoints = endpoints;
+        this.objectMapper = objectMapper;
+        this.random = new Random(seed);
+    }
+
+    // Creates the session after startDelayNanos, then starts the user's request loops; the returned
+    // future completes once they are started, or the session could not be created.
+    public CompletableFuture<Void> start(long startDelayNanos) {
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            final long dueNanos = System.nanoTime();
+            final HttpRequest request = newRequest("/init?frames=" + settings.getFrames())
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                try {
+                    if (error != null || response.statusCode() >= 400) {
+                        endpoints.getInit().recordError(response != null ? response.statusCode() : 0, error);
+                        return;
+                    }
+                    endpoints.getInit().recordLatency(System.nanoTime() - dueNanos);
+                    sessionId = objectMapper.readTree(response.body()).get("sessionId").asText();
+                    startPacers();
+                } catch (Exception e) {
+                    endpoints.getInit().recordError(0, e);
+                } finally {
+                    started.complete(null);
+                }
+            });
+        }, startDelayNanos, TimeUnit.NANOSECONDS);
+        return started;
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        for (ScheduledFuture<?> pacer : pacers) {
+            pacer.cancel(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return sessionId != null && !stopped;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    private synchronized void startPacers() {
+        if (stopped) {
+            return;
+        }
+
+        final String stepSeconds = Double.toString(settings.getFramePeriodMillis()/1000.0);
+        final String stepPath = LoadTestSettings.FRAMES_ATTITUDE.equals(settings.getFrames()) ? "/stepAttitude" : "/step";
+        startPacer(settings.getFramePeriodMillis(), endpoints.getStep(),
+                   () -> newRequest(stepPath + "?sessionId=" + sessionId)
+                           .header("Content-Type", "application/json")
+                           .POST(HttpRequest.BodyPublishers.ofString(stepSeconds))
+                           .build());
+
+        if (settings.getTorquePeriodMillis() > 0) {
+            startPacer(settings.getTorquePeriodMillis(), endpoints.getTorque(), () -> {
+                final double[] axis = TORQUE_AXES[random.nextInt(TORQUE_AXES.length)];
+                final String torqueRecord = "{ \"torqueQuarternion\": { \"r\": 0.0, \"x\": " + axis[0] + ", \"y\": " + axis[1] + ", \"z\": " + axis[2] + " }, "
+                        + "\"torqueNewtonMeters\": " + TORQUE_NEWTON_METERS + ", \"secondsToApplyTorque\": " + stepSeconds + " }";
+                return newRequest("/torque?sessionId=" + sessionId)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(torqueRecord))
+                        .build();
+            });
+        }
+
+        if (settings.getSensorPeriodMillis() > 0) {
+            startPacer(settings.getSensorPeriodMillis(), endpoints.getSunSensor(),
+                       () -> newRequest("/getSunSensorValue?sessionId=" + sessionId).GET().build());
+            startPacer(settings.getSensorPeriodMillis(), endpoints.getIRSensor(),
+                       () -> newRequest("/getIRValue?sessionId=" + sessionId).GET().build());
+        }
+    }
+
+    // Sends a request every periodMillis, starting at a random phase so that users do not step in
+    // lockstep.  Each latency is measured from the time its request was due.
+    private void startPacer(double periodMillis, EndpointStatistics statistics, Supplier<HttpRequest> requests) {
+        final long periodNanos = (long) (periodMillis*1e6);
+        final long phaseNanos = (long) (random.nextDouble()*periodNanos);
+        final long firstDueNanos = System.nanoTime() + phaseNanos;
+        final AtomicInteger outstanding = new AtomicInteger();
+
+        pacers.add(scheduler.scheduleAtFixedRate(new Runnable() {
+            private long tick;
+
+            @Override
+            public void run() {
+                final long dueNanos = firstDueNanos + tick++*periodNanos;
+                if (outstanding.get() >= settings.getMaximumOutstandingRequests()) {
+                    statistics.recordDropped();
+                    return;
+                }
+
+                outstanding.incrementAndGet();
+                outstandingRequests.incrementAndGet();
+                httpClient.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    outstanding.decrementAndGet();
+                    outstandingRequests.decrementAndGet();
+                    if (error != null || response.statusCode() >= 400) {
+                        statistics.recordError(response != null ? response.statusCode() : 0, error);
+                    } else {
+                        statistics.recordLatency(System.nanoTime() - dueNanos);
+                    }
+                });
+            }
+        }, phaseNanos, periodNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private HttpRequest.Builder newRequest(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(settings.getBaseUrl() + pathAndQuery)).timeout(REQUEST_TIMEOUT);
+    }
+}
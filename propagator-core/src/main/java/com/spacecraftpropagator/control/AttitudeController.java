@@ -0,0 +1,271 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.control;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.spacecraftpropagator.utils.ControllerSettingsInvalidException;
+
+// Proportional-derivative attitude feedback, run by the session inside its step loop.  Each step
+// is split into substeps of at most 1/controlRateHertz seconds, and the torque computed from the
+// state at the start of a substep is held through it, as a flight computer's would be.
+//
+// The error is a rotation in body coordinates, given as an axis times an angle:  the rotation
+// from the current to the target attitude in attitude mode, or the rotation taking a body-fixed
+// boresight onto a viewing-frame direction in the pointing modes.  The session passes the sun and
+// Earth directions of its ephemeris, with the boresights of its primary sun and horizon sensors,
+// so that sun pointing drives the sun sensor value to 1 and nadir pointing the IR value.  The body
+// torque is then
+//
+//     torque = proportionalGain*angle*axis - derivativeGain*w
+//
+// limited to maximumTorqueNewtonMeters in magnitude.  The controller keeps no state of its own,
+// so a journaled run replays exactly.  Instances are immutable.
+public final class AttitudeController {
+
+    public static final String MODE_OFF = "off";
+    public static final String MODE_ATTITUDE = "attitude";
+    public static final String MODE_SUN = "sun";
+    public static final String MODE_NADIR = "nadir";
+
+    public static final List<String> MODES = Arrays.asList(MODE_OFF, MODE_ATTITUDE, MODE_SUN, MODE_NADIR);
+
+    public static final double MAXIMUM_CONTROL_RATE_HERTZ = 100000.0;
+
+    // mode, target r, x, y, z, proportionalGain, derivativeGain, maximumTorqueNewtonMeters, controlRateHertz
+    public static final int SETTINGS_SIZE = 9;
+
+    public static final AttitudeController OFF = new AttitudeController(0, new double[] { 1.0, 0.0, 0.0, 0.0 }, 1.0, 3.0, 10.0, 100.0);
+
+    private final int mode;
+    // unit quarternion r, x, y, z rotating body coordinates into viewing coordinates
+    private final double[] targetQuarternion;
+    private final double proportionalGain;         // N-m per radian
+    private final double derivativeGain;           // N-m per radian per second
+    private final double maximumTorqueNewtonMeters;
+    private final double controlRateHertz;
+
+    private AttitudeController(int mode, double[] targetQuarternion, double proportionalGain, double derivativeGain,
+                               double maximumTorqueNewtonMeters, double controlRateHertz) {
+        this.mode = mode;
+        this.targetQuarternion = targetQuarternion;
+        this.proportionalGain = proportionalGain;
+        this.derivativeGain = derivativeGain;
+        this.maximumTorqueNewtonMeters = maximumTorqueNewtonMeters;
+        this.controlRateHertz = controlRateHertz;
+    }
+
+    // targetQuarternion is only used in attitude mode, and is normalized.
+    public static AttitudeController create(String mode, double[] targetQuarternion, double proportionalGain, double derivativeGain,
+                                            double maximumTorqueNewtonMeters, double controlRateHertz) throws ControllerSettingsInvalidException {
+        final int modeIndex = MODES.indexOf(mode);
+        if (modeIndex < 0) {
+            throw new ControllerSettingsInvalidException("Unknown controller mode " + mode + "; expected one of " + MODES);
+        }
+        if (!(proportionalGain >= 0) || !(derivativeGain >= 0) || !Double.isFinite(proportionalGain) || !Double.isFinite(derivativeGain)) {
+            throw new ControllerSettingsInvalidException("Controller gains must be finite and not negative");
+        }
+        if (!(maximumTorqueNewtonMeters > 0) || !Double.isFinite(maximumTorqueNewtonMeters)) {
+            throw new ControllerSettingsInvalidException("maximumTorqueNewtonMeters must be positive");
+        }
+        if (!(controlRateHertz > 0) || controlRateHertz > MAXIMUM_CONTROL_RATE_HERTZ) {
+            throw new ControllerSettingsInvalidException("controlRateHertz must be positive and at most " + MAXIMUM_CONTROL_RATE_HERTZ);
+        }
+
+        final double[] target = { 1.0, 0.0, 0.0, 0.0 };
+        if (modeIndex == 1) {
+            if (targetQuarternion == null || targetQuarternion.length != 4) {
+                throw new ControllerSettingsInvalidException("Attitude mode needs a target quarternion");
+            }
+            final double norm = Math.sqrt(targetQuarternion[0]*targetQuarternion[0] + targetQuarternion[1]*targetQuarternion[1]
+                                          + targetQuarternion[2]*targetQuarternion[2] + targetQuarternion[3]*targetQuarternion[3]);
+            if (!(norm > 0) || !Double.isFinite(norm)) {
+                throw new ControllerSettingsInvalidException("The target quarternion must be finite and not zero");
+            }
+            for (int i = 0; i < 4; i++) {
+                target[i] = targetQuarternion[i]/norm;
+            }
+        }
+        return new AttitudeController(modeIndex, target, proportionalGain, derivativeGain, maximumTorqueNewtonMeters, controlRateHertz);
+    }
+
+    // The inverse of toArray(), for the session journal; null if the values are not valid settings.
+    public static AttitudeController fromArray(double[] settings, int offset) {
+        final int modeIndex = (int) settings[offset];
+        if (modeIndex == 0) {
+            return OFF;
+        }
+        try {
+            return create(modeIndex > 0 && modeIndex < MODES.size() ? MODES.get(modeIndex) : "",
+                          Arrays.copyOfRange(settings, offset + 1, offset + 5),
+                          settings[offset + 5], settings[offset + 6], settings[offset + 7], settings[offset + 8]);
+        } catch (ControllerSettingsInvalidException e) {
+            return null;
+        }
+    }
+
+    public void toArray(double[] settings, int offset) {
+        settings[offset] = mode;
+        System.arraycopy(targetQuarternion, 0, settings, offset + 1, 4);
+        settings[offset + 5] = proportionalGain;
+        settings[offset + 6] = derivativeGain;
+        settings[offset + 7] = maximumTorqueNewtonMeters;
+        settings[offset + 8] = controlRateHertz;
+    }
+
+    public boolean isOff() {
+        return mode == 0;
+    }
+
+    public String getMode() {
+        return MODES.get(mode);
+    }
+
+    public double[] getTargetQuarternion() {
+        return targetQuarternion.clone();
+    }
+
+    public double getProportionalGain() {
+        return proportionalGain;
+    }
+
+    public double getDerivativeGain() {
+        return derivativeGain;
+    }
+
+    public double getMaximumTorqueNewtonMeters() {
+        return maximumTorqueNewtonMeters;
+    }
+
+    public double getControlRateHertz() {
+        return controlRateHertz;
+    }
+
+    // Number of equal substeps stepSeconds is split into, so that none is longer than the control period
+    public int getSubstepCount(double stepSeconds) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (long) Math.ceil(stepSeconds*controlRateHertz - 1e-9)));
+    }
+
+    // Writes the body-frame control torque for a RigidBodyDynamics state.  The boresights are unit
+    // vectors in body coordinates, the directions unit vectors in viewing coordinates.
+    public void computeTorque(double[] state, double[] sunSensorBoresight, double[] sunDirection,
+                              double[] horizonSensorBoresight, double[] earthDirection, double[] bodyTorque) {
+        double errorX = 0.0;
+        double errorY = 0.0;
+        double errorZ = 0.0;
+
+        if (mode == 1) {
+            // conjugate(q) * target, the rotation from the current to the target attitude in body coordinates
+            final double r = state[0];
+            final double x = state[1];
+            final double y = state[2];
+            final double z = state[3];
+            final double tr = targetQuarternion[0];
+            final double tx = targetQuarternion[1];
+            final double ty = targetQuarternion[2];
+            final double tz = targetQuarternion[3];
+            double er = r*tr + x*tx + y*ty + z*tz;
+            double ex = r*tx - x*tr - y*tz + z*ty;
+            double ey = r*ty + x*tz - y*tr - z*tx;
+            double ez = r*tz - x*ty + y*tx - z*tr;
+            // the shorter way round
+            if (er < 0) {
+                er = -er;
+                ex = -ex;
+                ey = -ey;
+                ez = -ez;
+            }
+            final double sine = Math.sqrt(ex*ex + ey*ey + ez*ez);
+            if (sine > 0) {
+                final double angle = 2.0*Math.atan2(sine, er);
+                errorX = ex/sine*angle;
+                errorY = ey/sine*angle;
+                errorZ = ez/sine*angle;
+            }
+        } else if (mode == 2 || mode == 3) {
+            final double[] direction = mode == 2 ? sunDirection : earthDirection;
+            final double[] boresight = mode == 2 ? sunSensorBoresight : horizonSensorBoresight;
+
+            // the direction in body coordinates, d' = conjugate(q) d q:  with u the conjugate's
+            // vector part and t = 2 (u x d), d' = d + r t + u x t
+            final double r = state[0];
+            final double ux = -state[1];
+            final double uy = -state[2];
+            final double uz = -state[3];
+            final double tx = 2.0*(uy*direction[2] - uz*direction[1]);
+            final double ty = 2.0*(uz*direction[0] - ux*direction[2]);
+            final double tz = 2.0*(ux*direction[1] - uy*direction[0]);
+            final double bodyDirectionX = direction[0] + r*tx + (uy*tz - uz*ty);
+            final double bodyDirectionY = direction[1] + r*ty + (uz*tx - ux*tz);
+            final double bodyDirectionZ = direction[2] + r*tz + (ux*ty - uy*tx);
+
+            double axisX = boresight[1]*bodyDirectionZ - boresight[2]*bodyDirectionY;
+            double axisY = boresight[2]*bodyDirectionX - boresight[0]*bodyDirectionZ;
+            double axisZ = boresight[0]*bodyDirectionY - boresight[1]*bodyDirectionX;
+            final double sine = Math.sqrt(axisX*axisX + axisY*axisY + axisZ*axisZ);
+            final double cosine = boresight[0]*bodyDirectionX + boresight[1]*bodyDirectionY + boresight[2]*bodyDirectionZ;
+            final double angle = Math.atan2(sine, cosine);
+
+            if (sine < 1e-12 && cosine < 0) {
+                // pointing directly away:  any axis perpendicular to the boresight will do, but this one
+                // vanishes for a boresight along (1, 1, 1), which is far from the X axis, so then b x e_x
+                axisX = boresight[1] - boresight[2];
+                axisY = boresight[2] - boresight[0];
+                axisZ = boresight[0] - boresight[1];
+                double norm = Math.sqrt(axisX*axisX + axisY*axisY + axisZ*axisZ);
+                if (norm < 0.5) {
+                    axisX = 0.0;
+                    axisY = boresight[2];
+                    axisZ = -boresight[1];
+                    norm = Math.sqrt(axisY*axisY + axisZ*axisZ);
+                }
+                errorX = axisX/norm*angle;
+                errorY = axisY/norm*angle;
+                errorZ = axisZ/norm*angle;
+            } else if (sine > 0) {
+                errorX = axisX/sine*angle;
+                errorY = axisY/sine*angle;
+                errorZ = axisZ/sine*angle;
+            }
+        }
+
+        double torqueX = proportionalGain*errorX - derivativeGain*state[4];
+        double torqueY = proportionalGain*errorY - derivativeGain*state[5];
+        double torqueZ = proportionalGain*errorZ - derivativeGain*state[6];
+        final double torque = Math.sqrt(torqueX*torqueX + torqueY*torqueY + torqueZ*torqueZ);
+        if (torque > maximumTorqueNewtonMeters) {
+            torqueX *= maximumTorqueNewtonMeters/torque;
+            torqueY *= maximumTorqueNewtonMeters/torque;
+            torqueZ *= maximumTorqueNewtonMeters/torque;
+        }
+        bodyTorque[0] = mode == 0 ? 0.0 : torqueX;
+        bodyTorque[1] = mode == 0 ? 0.0 : torqueY;
+        bodyTorque[2] = mode == 0 ? 0.0 : torqueZ;
+    }
+
+    @Override
+    public String toString() {
+        return "AttitudeController [mode=" + getMode()
+                + ", targetQuarternion=" + Arrays.toString(targetQuarternion)
+                + ", proportionalGain=" + proportionalGain
+                + ", derivativeGain=" + derivativeGain
+                + ", maximumTorqueNewtonMeters=" + maximumTorqueNewtonMeters
+                + ", controlRateHertz=" + controlRateHertz
+                + "]";
+    }
+}
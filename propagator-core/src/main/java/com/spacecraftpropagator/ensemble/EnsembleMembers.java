@@ -0,0 +1,264 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.ensemble;
+
+import java.util.SplittableRandom;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+
+// Every ensemble member's state in structure-of-arrays form:  one primitive array per quantity,
+// indexed by member, so that there is no per-member object and a chunk of members is a contiguous
+// slice of each array.  The symmetric inertia tensors and their inverses are stored as their six
+// distinct elements.
+//
+// Members are advanced with fixed-step fourth-order Runge-Kutta, so that all of them stay on the
+// same time grid and their statistics can be taken at each output step.
+class EnsembleMembers {
+
+    private final int memberCount;
+
+    // attitude quarternion, body coordinates to viewing coordinates
+    final double[] qr;
+    final double[] qx;
+    final double[] qy;
+    final double[] qz;
+
+    // body rates, radians per second
+    final double[] wx;
+    final double[] wy;
+    final double[] wz;
+
+    // inertia tensor, kg-m^2
+    final double[] ixx;
+    final double[] iyy;
+    final double[] izz;
+    final double[] ixy;
+    final double[] ixz;
+    final double[] iyz;
+
+    // inverse inertia tensor
+    final double[] jxx;
+    final double[] jyy;
+    final double[] jzz;
+    final double[] jxy;
+    final double[] jxz;
+    final double[] jyz;
+
+    // multiplies every scheduled torque for this member
+    final double[] torqueScale;
+
+    // outputs of measure()
+    final double[] pointingErrors;
+    final double[] sunSensorValues;
+    final double[] irSensorValues;
+
+    EnsembleMembers(int memberCount) {
+        this.memberCount = memberCount;
+        qr = new double[memberCount];
+        qx = new double[memberCount];
+        qy = new double[memberCount];
+        qz = new double[memberCount];
+        wx = new double[memberCount];
+        wy = new double[memberCount];
+        wz = new double[memberCount];
+        ixx = new double[memberCount];
+        iyy = new double[memberCount];
+        izz = new double[memberCount];
+        ixy = new double[memberCount];
+        ixz = new double[memberCount];
+        iyz = new double[memberCount];
+        jxx = new double[memberCount];
+        jyy = new double[memberCount];
+        jzz = new double[memberCount];
+        jxy = new double[memberCount];
+        jxz = new double[memberCount];
+        jyz = new double[memberCount];
+        torqueScale = new double[memberCount];
+        pointingErrors = new double[memberCount];
+        sunSensorValues = new double[memberCount];
+        irSensorValues = new double[memberCount];
+    }
+
+    // Bytes of primitive state per member, for sizing limits.
+    static long bytesPerMember() {
+        return 23L*Double.BYTES;
+    }
+
+    int getMemberCount() {
+        return memberCount;
+    }
+
+    // Draws every member from one sequential random stream, so the ensemble depends only on the seed
+    // and not on how the members are later split between threads.  Dispersed tensors that are not
+    // positive definite are drawn again.
+    void initialize(long seed,
+                    double[] nominalInertiaTensor, double inertiaDispersion,
+                    double[] nominalRadiansPerSecond, double rateDispersion,
+                    double torqueDispersion) {
+        final SplittableRandom random = new SplittableRandom(seed);
+
+        for (int i = 0; i < memberCount; i++) {
+            qr[i] = 1.0;
+            qx[i] = 0.0;
+            qy[i] = 0.0;
+            qz[i] = 0.0;
+
+            wx[i] = nominalRadiansPerSecond[0] + rateDispersion*gaussian(random);
+            wy[i] = nominalRadiansPerSecond[1] + rateDispersion*gaussian(random);
+            wz[i] = nominalRadiansPerSecond[2] + rateDispersion*gaussian(random);
+
+            torqueScale[i] = 1.0 + torqueDispersion*gaussian(random);
+
+            double determinant;
+            do {
+                ixx[i] = nominalInertiaTensor[0]*(1.0 + inertiaDispersion*gaussian(random));
+                iyy[i] = nominalInertiaTensor[4]*(1.0 + inertiaDispersion*gaussian(random));
+                izz[i] = nominalInertiaTensor[8]*(1.0 + inertiaDispersion*gaussian(random));
+                ixy[i] = nominalInertiaTensor[1];
+                ixz[i] = nominalInertiaTensor[2];
+                iyz[i] = nominalInertiaTensor[5];
+
+                determinant = ixx[i]*(iyy[i]*izz[i] - iyz[i]*iyz[i])
+                            - ixy[i]*(ixy[i]*izz[i] - iyz[i]*ixz[i])
+                            + ixz[i]*(ixy[i]*iyz[i] - iyy[i]*ixz[i]);
+            } while (!(ixx[i] > 0) || !(ixx[i]*iyy[i] - ixy[i]*ixy[i] > 0) || !(determinant > 0));
+
+            jxx[i] = (iyy[i]*izz[i] - iyz[i]*iyz[i])/determinant;
+            jyy[i] = (ixx[i]*izz[i] - ixz[i]*ixz[i])/determinant;
+            jzz[i] = (ixx[i]*iyy[i] - ixy[i]*ixy[i])/determinant;
+            jxy[i] = (ixz[i]*iyz[i] - ixy[i]*izz[i])/determinant;
+            jxz[i] = (ixy[i]*iyz[i] - ixz[i]*iyy[i])/determinant;
+            jyz[i] = (ixy[i]*ixz[i] - ixx[i]*iyz[i])/determinant;
+        }
+    }
+
+    // Advances members fromMember (inclusive) to toMember (exclusive) over steps firstStep
+    // (inclusive) to lastStep (exclusive).  Scheduled torque e, with body-frame angular momentum
+    // impulse torqueImpulses[3e .. 3e + 3), is applied before step torqueSteps[e]; torqueSteps is
+    // sorted.  Scratch arrays are per call, not per member.
+    void advance(int fromMember, int toMember, int firstStep, int lastStep, double stepSeconds,
+                 int[] torqueSteps, double[] torqueImpulses) {
+        final double[] inertiaTensor = new double[9];
+        final double[] inverseInertiaTensor = new double[9];
+        final double[] state = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] stage = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] k1 = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] k2 = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] k3 = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] k4 = new double[RigidBodyDynamics.STATE_SIZE];
+        final double[] noTorque = new double[3];
+
+        int firstTorque = 0;
+        while (firstTorque < torqueSteps.length && torqueSteps[firstTorque] < firstStep) {
+            firstTorque++;
+        }
+
+        for (int m = fromMember; m < toMember; m++) {
+            loadTensor(inertiaTensor, ixx[m], iyy[m], izz[m], ixy[m], ixz[m], iyz[m]);
+            loadTensor(inverseInertiaTensor, jxx[m], jyy[m], jzz[m], jxy[m], jxz[m], jyz[m]);
+            state[0] = qr[m];
+            state[1] = qx[m];
+            state[2] = qy[m];
+            state[3] = qz[m];
+            state[4] = wx[m];
+            state[5] = wy[m];
+            state[6] = wz[m];
+
+            int nextTorque = firstTorque;
+            for (int step = firstStep; step < lastStep; step++) {
+                while (nextTorque < torqueSteps.length && torqueSteps[nextTorque] == step) {
+                    final double hx = torqueImpulses[nextTorque*3]*torqueScale[m];
+                    final double hy = torqueImpulses[nextTorque*3 + 1]*torqueScale[m];
+                    final double hz = torqueImpulses[nextTorque*3 + 2]*torqueScale[m];
+                    state[4] += jxx[m]*hx + jxy[m]*hy + jxz[m]*hz;
+                    state[5] += jxy[m]*hx + jyy[m]*hy + jyz[m]*hz;
+                    state[6] += jxz[m]*hx + jyz[m]*hy + jzz[m]*hz;
+                    nextTorque++;
+                }
+
+                RigidBodyDynamics.derivatives(inertiaTensor, inverseInertiaTensor, state, noTorque, k1);
+                for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                    stage[i] = state[i] + 0.5*stepSeconds*k1[i];
+                }
+                RigidBodyDynamics.derivatives(inertiaTensor, inverseInertiaTensor, stage, noTorque, k2);
+                for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                    stage[i] = state[i] + 0.5*stepSeconds*k2[i];
+                }
+                RigidBodyDynamics.derivatives(inertiaTensor, inverseInertiaTensor, stage, noTorque, k3);
+                for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                    stage[i] = state[i] + stepSeconds*k3[i];
+                }
+                RigidBodyDynamics.derivatives(inertiaTensor, inverseInertiaTensor, stage, noTorque, k4);
+                for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                    state[i] += stepSeconds/6.0*(k1[i] + 2.0*k2[i] + 2.0*k3[i] + k4[i]);
+                }
+
+                final double norm = Math.sqrt(state[0]*state[0] + state[1]*state[1] + state[2]*state[2] + state[3]*state[3]);
+                state[0] /= norm;
+                state[1] /= norm;
+                state[2] /= norm;
+                state[3] /= norm;
+            }
+
+            qr[m] = state[0];
+            qx[m] = state[1];
+            qy[m] = state[2];
+            qz[m] = state[3];
+            wx[m] = state[4];
+            wy[m] = state[5];
+            wz[m] = state[6];
+        }
+    }
+
+    // Pointing error is the angle of the rotation from the target attitude to the member's attitude.
+    // The sun and IR sensor values are the same attitude matrix elements as a session's.
+    void measure(int fromMember, int toMember, double tr, double tx, double ty, double tz) {
+        for (int m = fromMember; m < toMember; m++) {
+            final double r = qr[m];
+            final double x = qx[m];
+            final double y = qy[m];
+            final double z = qz[m];
+
+            // conjugate(target)*q
+            final double er = tr*r + tx*x + ty*y + tz*z;
+            final double ex = tr*x - tx*r - ty*z + tz*y;
+            final double ey = tr*y + tx*z - ty*r - tz*x;
+            final double ez = tr*z - tx*y + ty*x - tz*r;
+            pointingErrors[m] = 2.0*Math.atan2(Math.sqrt(ex*ex + ey*ey + ez*ez), Math.abs(er));
+
+            sunSensorValues[m] = 1.0 - 2.0*(y*y + z*z);
+            irSensorValues[m] = 1.0 - 2.0*(x*x + z*z);
+        }
+    }
+
+    private static void loadTensor(double[] tensor, double xx, double yy, double zz, double xy, double xz, double yz) {
+        tensor[0] = xx;
+        tensor[1] = xy;
+        tensor[2] = xz;
+        tensor[3] = xy;
+        tensor[4] = yy;
+        tensor[5] = yz;
+        tensor[6] = xz;
+        tensor[7] = yz;
+        tensor[8] = zz;
+    }
+
+    // Box-Muller transform; SplittableRandom has no nextGaussian()
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2.0*Math.log(1.0 - random.nextDouble()))*Math.cos(2.0*Math.PI*random.nextDouble());
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.ensemble;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.spacecraftpropagator.model.EnsembleRequest;
+import com.spacecraftpropagator.model.EnsembleStatisticsRecord;
+import com.spacecraftpropagator.model.ScheduledTorqueRecord;
+import com.spacecraftpropagator.model.TorqueRecord;
+
+// Runs a Monte Carlo ensemble in lockstep:  for each output step, every member is advanced
+// outputEveryNSteps steps on the pool, then the statistics over all members are handed to the
+// listener.  Memory is the member arrays plus one sort buffer, whatever the number of steps.
+public class EnsemblePropagator {
+
+    private final ForkJoinPool pool;
+    private final int chunkMembers;
+
+    public EnsemblePropagator(ForkJoinPool pool, int chunkMembers) {
+        this.pool = pool;
+        this.chunkMembers = Math.max(1, chunkMembers);
+    }
+
+    public static long estimateMemoryBytes(int memberCount) {
+        return (EnsembleMembers.bytesPerMember() + Double.BYTES)*memberCount;
+    }
+
+    // The request must already be validated; nominalInertiaTensor is row-major.
+    public void run(EnsembleRequest request, double[] nominalInertiaTensor, EnsembleStatisticsListener listener) throws IOException {
+        final int memberCount = request.getMemberCount();
+        final double stepSeconds = request.getStepSeconds();
+
+        final EnsembleMembers members = new EnsembleMembers(memberCount);
+        members.initialize(request.getSeed(),
+                           nominalInertiaTensor, request.getInertiaDispersion(),
+                           request.getInitialRadiansPerSecond(), request.getRateDispersion(),
+                           request.getTorqueDispersion());
+
+        // As for a session's propagate(), a torque is applied before the first step starting at or after its time.
+        final List<ScheduledTorqueRecord> torqueSchedule = new ArrayList<>();
+        if (request.getTorqueSchedule() != null) {
+            torqueSchedule.addAll(request.getTorqueSchedule());
+        }
+        torqueSchedule.sort(Comparator.comparingDouble(ScheduledTorqueRecord::getSecondsFromStart));
+
+        final int[] torqueSteps = new int[torqueSchedule.size()];
+        final double[] torqueImpulses = new double[torqueSchedule.size()*3];
+        for (int e = 0; e < torqueSchedule.size(); e++) {
+            final TorqueRecord torqueRecord = torqueSchedule.get(e).getTorqueRecord();
+            final double impulse = torqueRecord.getTorqueNewtonMeters()*torqueRecord.getSecondsToApplyTorque();
+
+            torqueSteps[e] = (int) Math.max(0, Math.ceil(torqueSchedule.get(e).getSecondsFromStart()/stepSeconds));
+            torqueImpulses[e*3]     = torqueRecord.getTorqueQuarternion().getX()*impulse;
+            torqueImpulses[e*3 + 1] = torqueRecord.getTorqueQuarternion().getY()*impulse;
+            torqueImpulses[e*3 + 2] = torqueRecord.getTorqueQuarternion().getZ()*impulse;
+        }
+
+        final double[] target = normalized(request.getTargetAttitudeQuarternion());
+        final EnsembleStatistics statistics = new EnsembleStatistics(memberCount, request.getPercentiles());
+        final int outputEveryNSteps = request.getOutputEveryNSteps();
+
+        for (int firstStep = 0; firstStep + outputEveryNSteps <= request.getStepCount(); firstStep += outputEveryNSteps) {
+            final int lastStep = firstStep + outputEveryNSteps;
+            pool.invoke(new EnsembleTask(members, 0, memberCount, chunkMembers, firstStep, lastStep, stepSeconds,
+                                         torqueSteps, torqueImpulses, target));
+
+            listener.onStatistics(new EnsembleStatisticsRecord(lastStep*stepSeconds,
+                                                               memberCount,
+                                                               statistics.summarize(members.pointingErrors, 0),
+                                                               statistics.summarize(members.sunSensorValues, request.getHistogramBins()),
+                                                               statistics.summarize(members.irSensorValues, request.getHistogramBins())));
+        }
+    }
+
+    private static double[] normalized(double[] quarternion) {
+        final double norm = Math.sqrt(quarternion[0]*quarternion[0] + quarternion[1]*quarternion[1]
+                                    + quarternion[2]*quarternion[2] + quarternion[3]*quarternion[3]);
+        return new double[] { quarternion[0]/norm, quarternion[1]/norm, quarternion[2]/norm, quarternion[3]/norm };
+    }
+}
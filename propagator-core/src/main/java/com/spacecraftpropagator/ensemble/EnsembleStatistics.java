@@ -0,0 +1,76 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.ensemble;
+
+import java.util.Arrays;
+
+import com.spacecraftpropagator.model.DistributionRecord;
+
+// Summarizes member values into a DistributionRecord, reusing one sort buffer for every quantity
+// and output step.
+class EnsembleStatistics {
+
+    private static final double HISTOGRAM_MINIMUM = -1.0;
+    private static final double HISTOGRAM_MAXIMUM = 1.0;
+
+    private final double[] percentileLevels;
+    private final double[] sorted;
+
+    EnsembleStatistics(int memberCount, double[] percentileLevels) {
+        this.percentileLevels = percentileLevels;
+        this.sorted = new double[memberCount];
+    }
+
+    // Percentiles interpolate linearly between the closest ranks.  A histogramBins of zero
+    // leaves the histogram out.
+    DistributionRecord summarize(double[] values, int histogramBins) {
+        final int count = sorted.length;
+        System.arraycopy(values, 0, sorted, 0, count);
+        Arrays.sort(sorted);
+
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            sum += sorted[i];
+        }
+        final double mean = sum/count;
+
+        double sumOfSquares = 0.0;
+        for (int i = 0; i < count; i++) {
+            sumOfSquares += (sorted[i] - mean)*(sorted[i] - mean);
+        }
+
+        final double[] percentiles = new double[percentileLevels.length];
+        for (int p = 0; p < percentileLevels.length; p++) {
+            final double rank = percentileLevels[p]/100.0*(count - 1);
+            final int lower = (int) Math.floor(rank);
+            final int upper = Math.min(count - 1, lower + 1);
+            percentiles[p] = sorted[lower] + (rank - lower)*(sorted[upper] - sorted[lower]);
+        }
+
+        int[] histogram = null;
+        if (histogramBins > 0) {
+            histogram = new int[histogramBins];
+            final double binWidth = (HISTOGRAM_MAXIMUM - HISTOGRAM_MINIMUM)/histogramBins;
+            for (int i = 0; i < count; i++) {
+                final int bin = (int) ((sorted[i] - HISTOGRAM_MINIMUM)/binWidth);
+                histogram[Math.max(0, Math.min(histogramBins - 1, bin))]++;
+            }
+        }
+
+        return new DistributionRecord(mean, Math.sqrt(sumOfSquares/count), sorted[0], sorted[count - 1], percentiles, histogram);
+    }
+}
@@ -0,0 +1,28 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.ensemble;
+
+import java.io.IOException;
+
+import com.spacecraftpropagator.model.EnsembleStatisticsRecord;
+
+// Receives the statistics of each output step as soon as it is computed.  Throwing stops the run,
+// for example when the client streaming the statistics has disconnected.
+public interface EnsembleStatisticsListener {
+
+    void onStatistics(EnsembleStatisticsRecord ensembleStatisticsRecord) throws IOException;
+}
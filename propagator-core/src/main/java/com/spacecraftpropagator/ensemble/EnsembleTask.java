@@ -0,0 +1,69 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.ensemble;
+
+import java.util.concurrent.RecursiveAction;
+
+// Advances and measures a range of ensemble members, split in halves down to chunkMembers so that
+// idle workers can steal the remaining halves.  Each member is written by exactly one task.
+class EnsembleTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EnsembleMembers members;
+    private final int fromMember;
+    private final int toMember;
+    private final int chunkMembers;
+    private final int firstStep;
+    private final int lastStep;
+    private final double stepSeconds;
+    private final int[] torqueSteps;
+    private final double[] torqueImpulses;
+    private final double[] targetAttitudeQuarternion;
+
+    EnsembleTask(EnsembleMembers members, int fromMember, int toMember, int chunkMembers,
+                 int firstStep, int lastStep, double stepSeconds,
+                 int[] torqueSteps, double[] torqueImpulses, double[] targetAttitudeQuarternion) {
+        this.members = members;
+        this.fromMember = fromMember;
+        this.toMember = toMember;
+        this.chunkMembers = chunkMembers;
+        this.firstStep = firstStep;
+        this.lastStep = lastStep;
+        this.stepSeconds = stepSeconds;
+        this.torqueSteps = torqueSteps;
+        this.torqueImpulses = torqueImpulses;
+        this.targetAttitudeQuarternion = targetAttitudeQuarternion;
+    }
+
+    @Override
+    protected void compute() {
+        if (toMember - fromMember <= chunkMembers) {
+            members.advance(fromMember, toMember, firstStep, lastStep, stepSeconds, torqueSteps, torqueImpulses);
+            members.measure(fromMember, toMember,
+                            targetAttitudeQuarternion[0], targetAttitudeQuarternion[1],
+                            targetAttitudeQuarternion[2], targetAttitudeQuarternion[3]);
+            return;
+        }
+
+        final int middleMember = (fromMember + toMember) >>> 1;
+        invokeAll(new EnsembleTask(members, fromMember, middleMember, chunkMembers, firstStep, lastStep, stepSeconds,
+                                   torqueSteps, torqueImpulses, targetAttitudeQuarternion),
+                  new EnsembleTask(members, middleMember, toMember, chunkMembers, firstStep, lastStep, stepSeconds,
+                                   torqueSteps, torqueImpulses, targetAttitudeQuarternion));
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Solves torque-free steps in closed form with TorqueFreeMotion and hands every other step, and
+// any coast too close to the separatrix, to the wrapped integrator.
+public class AnalyticCoastIntegrator implements AttitudeIntegrator {
+
+    private final AttitudeIntegrator integrator;
+
+    private TorqueFreeMotion torqueFreeMotion;
+    private boolean lastStepAnalytic;
+
+    public AnalyticCoastIntegrator(AttitudeIntegrator integrator) {
+        this.integrator = integrator;
+    }
+
+    @Override
+    public void integrate(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double stepSeconds) {
+        if (bodyTorque[0] == 0.0 && bodyTorque[1] == 0.0 && bodyTorque[2] == 0.0) {
+            if (torqueFreeMotion == null || torqueFreeMotion.getDynamics() != dynamics) {
+                torqueFreeMotion = new TorqueFreeMotion(dynamics);
+            }
+            if (torqueFreeMotion.propagate(state, stepSeconds)) {
+                lastStepAnalytic = true;
+                return;
+            }
+        }
+        lastStepAnalytic = false;
+        integrator.integrate(dynamics, state, bodyTorque, stepSeconds);
+    }
+
+    @Override
+    public String getName() {
+        return integrator.getName();
+    }
+
+    @Override
+    public double getCarriedSubstepSeconds() {
+        return integrator.getCarriedSubstepSeconds();
+    }
+
+    @Override
+    public void setCarriedSubstepSeconds(double carriedSubstepSeconds) {
+        integrator.setCarriedSubstepSeconds(carriedSubstepSeconds);
+    }
+
+    // A closed-form step has no truncation error to report.
+    @Override
+    public double getLastErrorNorm() {
+        return lastStepAnalytic ? 0.0 : integrator.getLastErrorNorm();
+    }
+}
@@ -0,0 +1,43 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Advances a RigidBodyDynamics state.  Integrators may keep scratch arrays and step size history,
+// so each simulation session needs its own instance.
+public interface AttitudeIntegrator {
+
+    // Advances state by stepSeconds, holding the body-frame torque constant, and leaves the
+    // quarternion in state normalized.
+    void integrate(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double stepSeconds);
+
+    String getName();
+
+    // The substep size an adaptive integrator carries from one call to the next, saved with session
+    // snapshots so that a restored session integrates exactly as the original did.  0 for
+    // integrators that carry nothing between calls.
+    default double getCarriedSubstepSeconds() {
+        return 0.0;
+    }
+
+    default void setCarriedSubstepSeconds(double carriedSubstepSeconds) {
+    }
+
+    // Normalized error estimate of the last substep, for metrics; NaN for integrators that make none.
+    default double getLastErrorNorm() {
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,100 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Integrator choice and tuning, from the spacecraft.integrator.* properties.  Every session gets
+// a fresh integrator from newIntegrator().
+public class AttitudeIntegratorSettings {
+
+    public static final List<String> METHODS = Arrays.asList(RungeKutta4Integrator.NAME,
+                                                             LieGroupMidpointIntegrator.NAME,
+                                                             DormandPrinceIntegrator.NAME);
+
+    private final String method;
+    private final double maximumStepSeconds;
+    private final double relativeTolerance;
+    private final double absoluteTolerance;
+    // torque-free steps solved in closed form by AnalyticCoastIntegrator
+    private final boolean analyticCoast;
+
+    public AttitudeIntegratorSettings(String method, double maximumStepSeconds, double relativeTolerance, double absoluteTolerance) {
+        this(method, maximumStepSeconds, relativeTolerance, absoluteTolerance, false);
+    }
+
+    public AttitudeIntegratorSettings(String method, double maximumStepSeconds, double relativeTolerance, double absoluteTolerance, boolean analyticCoast) {
+        if (!METHODS.contains(method)) {
+            throw new IllegalArgumentException("Unknown integrator " + method + "; expected one of " + METHODS);
+        }
+        if (!(maximumStepSeconds > 0) || !(relativeTolerance > 0) || !(absoluteTolerance > 0)) {
+            throw new IllegalArgumentException("Integrator step size and tolerances must be positive");
+        }
+        this.method = method;
+        this.maximumStepSeconds = maximumStepSeconds;
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+        this.analyticCoast = analyticCoast;
+    }
+
+    public static AttitudeIntegratorSettings defaults() {
+        return new AttitudeIntegratorSettings(DormandPrinceIntegrator.NAME, 10.0, 1e-9, 1e-12);
+    }
+
+    public AttitudeIntegrator newIntegrator() {
+        final AttitudeIntegrator integrator = newNumericalIntegrator();
+        return analyticCoast ? new AnalyticCoastIntegrator(integrator) : integrator;
+    }
+
+    private AttitudeIntegrator newNumericalIntegrator() {
+        switch (method) {
+            case RungeKutta4Integrator.NAME:
+                return new RungeKutta4Integrator(maximumStepSeconds);
+            case LieGroupMidpointIntegrator.NAME:
+                return new LieGroupMidpointIntegrator(maximumStepSeconds);
+            default:
+                return new DormandPrinceIntegrator(relativeTolerance, absoluteTolerance, maximumStepSeconds);
+        }
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public double getMaximumStepSeconds() {
+        return maximumStepSeconds;
+    }
+
+    public double getRelativeTolerance() {
+        return relativeTolerance;
+    }
+
+    public double getAbsoluteTolerance() {
+        return absoluteTolerance;
+    }
+
+    public boolean isAnalyticCoast() {
+        return analyticCoast;
+    }
+
+    @Override
+    public String toString() {
+        return "AttitudeIntegratorSettings [method=" + method + ", maximumStepSeconds=" + maximumStepSeconds
+                + ", relativeTolerance=" + relativeTolerance + ", absoluteTolerance=" + absoluteTolerance + ", analyticCoast=" + analyticCoast + "]";
+    }
+}
@@ -0,0 +1,191 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Dormand-Prince 5(4) with adaptive step size control.  Each substep is accepted when the
+// difference between the fifth and the embedded fourth order solutions is within
+// absoluteTolerance + relativeTolerance*|state| (root mean square over the state), and the next
+// substep is scaled from the error estimate.  The last accepted substep size is remembered between
+// calls, so a quiet spacecraft is covered by a few long substeps whatever the requested step.
+public class DormandPrinceIntegrator implements AttitudeIntegrator {
+
+    public static final String NAME = "dormand-prince";
+
+    private static final double SAFETY = 0.9;
+    private static final double MINIMUM_SCALE = 0.2;
+    private static final double MAXIMUM_SCALE = 5.0;
+    private static final int MAXIMUM_SUBSTEPS = 1000000;
+
+    private static final double A21 = 1.0/5.0;
+    private static final double A31 = 3.0/40.0, A32 = 9.0/40.0;
+    private static final double A41 = 44.0/45.0, A42 = -56.0/15.0, A43 = 32.0/9.0;
+    private static final double A51 = 19372.0/6561.0, A52 = -25360.0/2187.0, A53 = 64448.0/6561.0, A54 = -212.0/729.0;
+    private static final double A61 = 9017.0/3168.0, A62 = -355.0/33.0, A63 = 46732.0/5247.0, A64 = 49.0/176.0, A65 = -5103.0/18656.0;
+    private static final double B1 = 35.0/384.0, B3 = 500.0/1113.0, B4 = 125.0/192.0, B5 = -2187.0/6784.0, B6 = 11.0/84.0;
+
+    // fifth order weights minus fourth order weights
+    private static final double E1 = 71.0/57600.0, E3 = -71.0/16695.0, E4 = 71.0/1920.0,
+                                E5 = -17253.0/339200.0, E6 = 22.0/525.0, E7 = -1.0/40.0;
+
+    private final double relativeTolerance;
+    private final double absoluteTolerance;
+    private final double maximumStepSeconds;
+
+    private double substepSeconds;
+    private double lastErrorNorm;
+
+    private final double[] k1 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k2 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k3 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k4 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k5 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k6 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k7 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] stage = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] next = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] startState = new double[RigidBodyDynamics.STATE_SIZE];
+
+    Logger logger = LoggerFactory.getLogger(DormandPrinceIntegrator.class);
+
+    public DormandPrinceIntegrator(double relativeTolerance, double absoluteTolerance, double maximumStepSeconds) {
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+        this.maximumStepSeconds = maximumStepSeconds;
+        this.substepSeconds = maximumStepSeconds;
+    }
+
+    @Override
+    public void integrate(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double stepSeconds) {
+        double remainingSeconds = stepSeconds;
+        boolean haveDerivatives = false;
+        System.arraycopy(state, 0, startState, 0, RigidBodyDynamics.STATE_SIZE);
+        final double startSubstepSeconds = substepSeconds;
+
+        for (int n = 0; n < MAXIMUM_SUBSTEPS && remainingSeconds > 0; n++) {
+            if (!haveDerivatives) {
+                dynamics.derivatives(state, bodyTorque, k1);
+            }
+
+            final boolean lastSubstep = substepSeconds >= remainingSeconds;
+            final double h = lastSubstep ? remainingSeconds : substepSeconds;
+
+            final double errorNorm = trySubstep(dynamics, state, bodyTorque, h);
+            final double scale = errorNorm == 0.0
+                    ? MAXIMUM_SCALE
+                    : Math.min(MAXIMUM_SCALE, Math.max(MINIMUM_SCALE, SAFETY*Math.pow(errorNorm, -0.2)));
+
+            if (errorNorm <= 1.0 || h <= Math.ulp(stepSeconds)*16) {
+                System.arraycopy(next, 0, state, 0, RigidBodyDynamics.STATE_SIZE);
+                remainingSeconds -= h;
+                lastErrorNorm = errorNorm;
+
+                // first same as last:  k7 is the derivative at the accepted state
+                System.arraycopy(k7, 0, k1, 0, RigidBodyDynamics.STATE_SIZE);
+                haveDerivatives = true;
+
+                // a substep shortened to land on the end of the step says nothing about the next size
+                if (!lastSubstep || h == substepSeconds) {
+                    substepSeconds = Math.min(maximumStepSeconds, h*scale);
+                }
+            } else {
+                substepSeconds = h*Math.min(1.0, scale);
+            }
+        }
+
+        // Out of substeps short of the end of the step:  the state is put back as it was and the
+        // step fails, rather than leaving the state behind the time the caller is about to count.
+        if (remainingSeconds > 0) {
+            System.arraycopy(startState, 0, state, 0, RigidBodyDynamics.STATE_SIZE);
+            substepSeconds = startSubstepSeconds;
+            logger.warn("{} substeps covered only {} s of a step of {} s", MAXIMUM_SUBSTEPS, stepSeconds - remainingSeconds, stepSeconds);
+            throw new IllegalStateException(MAXIMUM_SUBSTEPS + " substeps did not cover a step of " + stepSeconds + " s");
+        }
+
+        RigidBodyDynamics.normalizeQuarternion(state);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getCarriedSubstepSeconds() {
+        return substepSeconds;
+    }
+
+    @Override
+    public void setCarriedSubstepSeconds(double carriedSubstepSeconds) {
+        if (carriedSubstepSeconds > 0) {
+            this.substepSeconds = Math.min(maximumStepSeconds, carriedSubstepSeconds);
+        }
+    }
+
+    // Normalized error estimate of the last accepted substep, at most 1 unless the substep was too
+    // short to be reduced further.
+    @Override
+    public double getLastErrorNorm() {
+        return lastErrorNorm;
+    }
+
+    // Writes the fifth order solution to next and k7, and returns the error norm.  k1 must hold
+    // the derivatives at state.
+    private double trySubstep(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double h) {
+        final int size = RigidBodyDynamics.STATE_SIZE;
+
+        for (int i = 0; i < size; i++) {
+            stage[i] = state[i] + h*A21*k1[i];
+        }
+        dynamics.derivatives(stage, bodyTorque, k2);
+
+        for (int i = 0; i < size; i++) {
+            stage[i] = state[i] + h*(A31*k1[i] + A32*k2[i]);
+        }
+        dynamics.derivatives(stage, bodyTorque, k3);
+
+        for (int i = 0; i < size; i++) {
+            stage[i] = state[i] + h*(A41*k1[i] + A42*k2[i] + A43*k3[i]);
+        }
+        dynamics.derivatives(stage, bodyTorque, k4);
+
+        for (int i = 0; i < size; i++) {
+            stage[i] = state[i] + h*(A51*k1[i] + A52*k2[i] + A53*k3[i] + A54*k4[i]);
+        }
+        dynamics.derivatives(stage, bodyTorque, k5);
+
+        for (int i = 0; i < size; i++) {
+            stage[i] = state[i] + h*(A61*k1[i] + A62*k2[i] + A63*k3[i] + A64*k4[i] + A65*k5[i]);
+        }
+        dynamics.derivatives(stage, bodyTorque, k6);
+
+        for (int i = 0; i < size; i++) {
+            next[i] = state[i] + h*(B1*k1[i] + B3*k3[i] + B4*k4[i] + B5*k5[i] + B6*k6[i]);
+        }
+        dynamics.derivatives(next, bodyTorque, k7);
+
+        double sumOfSquares = 0.0;
+        for (int i = 0; i < size; i++) {
+            final double error = h*(E1*k1[i] + E3*k3[i] + E4*k4[i] + E5*k5[i] + E6*k6[i] + E7*k7[i]);
+            final double tolerance = absoluteTolerance + relativeTolerance*Math.max(Math.abs(state[i]), Math.abs(next[i]));
+            sumOfSquares += (error/tolerance)*(error/tolerance);
+        }
+        return Math.sqrt(sumOfSquares/size);
+    }
+}
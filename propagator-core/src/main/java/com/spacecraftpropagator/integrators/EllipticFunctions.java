@@ -0,0 +1,111 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Jacobi elliptic functions and the elliptic integral of the first kind, for parameter m = k^2
+// in [0, 1).  Used by TorqueFreeMotion.
+final class EllipticFunctions {
+
+    private static final int MAXIMUM_AGM_ITERATIONS = 16;
+    private static final double AGM_TOLERANCE = 1e-16;
+    private static final double CARLSON_TOLERANCE = 0.0025;
+
+    // scratch for the descending AGM sequence, so each instance belongs to one thread
+    private final double[] agmA = new double[MAXIMUM_AGM_ITERATIONS + 1];
+    private final double[] agmC = new double[MAXIMUM_AGM_ITERATIONS + 1];
+
+    // K(m) = pi/(2 agm(1, sqrt(1 - m)))
+    static double completeFirstKind(double m) {
+        double a = 1.0;
+        double b = Math.sqrt(1.0 - m);
+        for (int n = 0; n < MAXIMUM_AGM_ITERATIONS && Math.abs(a - b) > AGM_TOLERANCE*a; n++) {
+            final double mean = 0.5*(a + b);
+            b = Math.sqrt(a*b);
+            a = mean;
+        }
+        return Math.PI/(a + b);
+    }
+
+    // F(phi | m) for any real phi, using F(phi + n pi) = F(phi) + 2 n K(m) to reduce phi to
+    // [-pi/2, pi/2], where F(phi) = sin(phi) RF(cos^2(phi), 1 - m sin^2(phi), 1).
+    static double incompleteFirstKind(double phi, double m, double completeK) {
+        final double turns = Math.rint(phi/Math.PI);
+        final double reduced = phi - turns*Math.PI;
+        final double s = Math.sin(reduced);
+        final double c = Math.cos(reduced);
+        return 2.0*turns*completeK + s*carlsonRF(c*c, 1.0 - m*s*s, 1.0);
+    }
+
+    // Carlson's symmetric integral RF(x, y, z) by the duplication theorem, to double precision.
+    static double carlsonRF(double x, double y, double z) {
+        double average;
+        double dx;
+        double dy;
+        double dz;
+        while (true) {
+            average = (x + y + z)/3.0;
+            dx = (average - x)/average;
+            dy = (average - y)/average;
+            dz = (average - z)/average;
+            if (Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))) <= CARLSON_TOLERANCE) {
+                break;
+            }
+            final double sx = Math.sqrt(x);
+            final double sy = Math.sqrt(y);
+            final double sz = Math.sqrt(z);
+            final double lambda = sx*(sy + sz) + sy*sz;
+            x = 0.25*(x + lambda);
+            y = 0.25*(y + lambda);
+            z = 0.25*(z + lambda);
+        }
+        final double e2 = dx*dy - dz*dz;
+        final double e3 = dx*dy*dz;
+        return (1.0 + (e2/24.0 - 0.1 - 3.0*e3/44.0)*e2 + e3/14.0)/Math.sqrt(average);
+    }
+
+    // sn, cn, dn of u into out[0 .. 3) by the descending Landen (AGM) method of Abramowitz and
+    // Stegun 16.4, after reducing u to within half a period 4K(m) of zero.
+    void jacobi(double u, double m, double completeK, double[] out) {
+        final double period = 4.0*completeK;
+        final double reduced = u - period*Math.rint(u/period);
+
+        agmA[0] = 1.0;
+        agmC[0] = Math.sqrt(m);
+        double b = Math.sqrt(1.0 - m);
+        int n = 0;
+        while (n < MAXIMUM_AGM_ITERATIONS && Math.abs(agmC[n]) > AGM_TOLERANCE) {
+            final double a = agmA[n];
+            agmA[n + 1] = 0.5*(a + b);
+            agmC[n + 1] = 0.5*(a - b);
+            b = Math.sqrt(a*b);
+            n++;
+        }
+
+        // phi_n = 2^n a_n u, then phi_(j-1) = (phi_j + asin(c_j sin(phi_j)/a_j))/2
+        double phi = Math.scalb(agmA[n]*reduced, n);
+        double previous = phi;
+        for (int j = n; j > 0; j--) {
+            previous = phi;
+            phi = 0.5*(phi + Math.asin(agmC[j]*Math.sin(phi)/agmA[j]));
+        }
+
+        out[0] = Math.sin(phi);
+        out[1] = Math.cos(phi);
+        // dn = cos(phi_0)/cos(phi_1 - phi_0), which keeps its precision as dn approaches zero
+        out[2] = n == 0 ? 1.0 : out[1]/Math.cos(previous - phi);
+    }
+}
@@ -0,0 +1,121 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Second-order geometric integrator.  The body angular momentum h = I w is advanced by the implicit
+// midpoint rule, which conserves every quadratic invariant of Euler's equations, so without torque
+// |h| and the kinetic energy stay exact however long the step.  The attitude is then advanced on
+// the rotation group by the exact rotation through the midpoint rates,
+//
+//     q' = q*exp(w_mid stepSeconds/2)
+//
+// which keeps it a unit quarternion without any projection.
+public class LieGroupMidpointIntegrator implements AttitudeIntegrator {
+
+    public static final String NAME = "lie-midpoint";
+
+    private static final int MAXIMUM_ITERATIONS = 50;
+    private static final double ITERATION_TOLERANCE = 1e-14;
+
+    private final double maximumStepSeconds;
+
+    private final double[] momentum = new double[3];
+    private final double[] midpointMomentum = new double[3];
+    private final double[] midpointRates = new double[3];
+
+    public LieGroupMidpointIntegrator(double maximumStepSeconds) {
+        this.maximumStepSeconds = maximumStepSeconds;
+    }
+
+    @Override
+    public void integrate(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double stepSeconds) {
+        final int substeps = Math.max(1, (int) Math.ceil(stepSeconds/maximumStepSeconds));
+        final double h = stepSeconds/substeps;
+
+        for (int n = 0; n < substeps; n++) {
+            dynamics.angularMomentum(state[4], state[5], state[6], momentum, 0);
+            solveMidpoint(dynamics, bodyTorque, h);
+
+            // h' = 2 h_mid - h
+            dynamics.angularVelocity(2.0*midpointMomentum[0] - momentum[0],
+                                     2.0*midpointMomentum[1] - momentum[1],
+                                     2.0*midpointMomentum[2] - momentum[2],
+                                     state, 4);
+
+            rotate(state, midpointRates[0]*h, midpointRates[1]*h, midpointRates[2]*h);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // Fixed-point iteration for h_mid = h + (h_mid x w_mid + torque) stepSeconds/2, starting from the
+    // explicit estimate.  It converges while |w| stepSeconds is well below one radian.
+    private void solveMidpoint(RigidBodyDynamics dynamics, double[] bodyTorque, double h) {
+        midpointMomentum[0] = momentum[0];
+        midpointMomentum[1] = momentum[1];
+        midpointMomentum[2] = momentum[2];
+
+        final double scale = Math.abs(momentum[0]) + Math.abs(momentum[1]) + Math.abs(momentum[2])
+                           + (Math.abs(bodyTorque[0]) + Math.abs(bodyTorque[1]) + Math.abs(bodyTorque[2]))*h;
+
+        for (int iteration = 0; iteration < MAXIMUM_ITERATIONS; iteration++) {
+            dynamics.angularVelocity(midpointMomentum[0], midpointMomentum[1], midpointMomentum[2], midpointRates, 0);
+
+            final double x = momentum[0] + 0.5*h*(midpointMomentum[1]*midpointRates[2] - midpointMomentum[2]*midpointRates[1] + bodyTorque[0]);
+            final double y = momentum[1] + 0.5*h*(midpointMomentum[2]*midpointRates[0] - midpointMomentum[0]*midpointRates[2] + bodyTorque[1]);
+            final double z = momentum[2] + 0.5*h*(midpointMomentum[0]*midpointRates[1] - midpointMomentum[1]*midpointRates[0] + bodyTorque[2]);
+
+            final double change = Math.abs(x - midpointMomentum[0]) + Math.abs(y - midpointMomentum[1]) + Math.abs(z - midpointMomentum[2]);
+            midpointMomentum[0] = x;
+            midpointMomentum[1] = y;
+            midpointMomentum[2] = z;
+
+            if (change <= ITERATION_TOLERANCE*scale) {
+                break;
+            }
+        }
+
+        dynamics.angularVelocity(midpointMomentum[0], midpointMomentum[1], midpointMomentum[2], midpointRates, 0);
+    }
+
+    // q' = q*(cos(|a|/2), sin(|a|/2) a/|a|) for the body-frame rotation vector a
+    static void rotate(double[] state, double ax, double ay, double az) {
+        final double angle = Math.sqrt(ax*ax + ay*ay + az*az);
+        if (angle == 0.0) {
+            return;
+        }
+        final double dr = Math.cos(angle/2.0);
+        final double s = Math.sin(angle/2.0)/angle;
+        final double dx = ax*s;
+        final double dy = ay*s;
+        final double dz = az*s;
+
+        final double qr = state[0];
+        final double qx = state[1];
+        final double qy = state[2];
+        final double qz = state[3];
+
+        state[0] = qr*dr - qx*dx - qy*dy - qz*dz;
+        state[1] = qr*dx + qx*dr + qy*dz - qz*dy;
+        state[2] = qr*dy - qx*dz + qy*dr + qz*dx;
+        state[3] = qr*dz + qx*dy - qy*dx + qz*dr;
+        RigidBodyDynamics.normalizeQuarternion(state);
+    }
+}
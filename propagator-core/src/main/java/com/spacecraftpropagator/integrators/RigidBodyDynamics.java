@@ -0,0 +1,161 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+
+// Euler's equations for a rigid body with a full inertia tensor, together with the attitude
+// kinematics.  The state is { qr, qx, qy, qz, wx, wy, wz }:  the unit quarternion rotating body
+// coordinates into viewing coordinates, and the angular velocity in body coordinates.
+//
+//     dq/dt = q*(0, w)/2
+//     I dw/dt = torque - w x (I w)
+//
+// Instances are immutable and shared by every session with the same spacecraft.
+public final class RigidBodyDynamics {
+
+    public static final int STATE_SIZE = 7;
+
+    // row-major inertia tensor and its inverse, kg-m^2
+    private final double[] inertiaTensor;
+    private final double[] inverseInertiaTensor;
+
+    private RigidBodyDynamics(double[] inertiaTensor, double[] inverseInertiaTensor) {
+        this.inertiaTensor = inertiaTensor;
+        this.inverseInertiaTensor = inverseInertiaTensor;
+    }
+
+    public static RigidBodyDynamics principal(double momentOfInertiaX, double momentOfInertiaY, double momentOfInertiaZ) throws MomentOfInertiaInvalidException {
+        return fromInertiaTensor(new double[] { momentOfInertiaX, 0.0, 0.0,
+                                                0.0, momentOfInertiaY, 0.0,
+                                                0.0, 0.0, momentOfInertiaZ });
+    }
+
+    // The tensor must be symmetric and positive definite.  The triangle inequality between the
+    // principal moments is not enforced, as the shipped model (3.3, 3.3, 10.0) does not satisfy it.
+    public static RigidBodyDynamics fromInertiaTensor(double[] inertiaTensor) throws MomentOfInertiaInvalidException {
+        if (inertiaTensor.length != 9) {
+            throw new MomentOfInertiaInvalidException("The inertia tensor must have 9 elements, not " + inertiaTensor.length);
+        }
+        for (int i = 0; i < 9; i++) {
+            if (!Double.isFinite(inertiaTensor[i])) {
+                throw new MomentOfInertiaInvalidException("The inertia tensor elements must be finite");
+            }
+        }
+
+        final double[] m = inertiaTensor.clone();
+        final double tolerance = 1e-9*(Math.abs(m[0]) + Math.abs(m[4]) + Math.abs(m[8]));
+        if (Math.abs(m[1] - m[3]) > tolerance || Math.abs(m[2] - m[6]) > tolerance || Math.abs(m[5] - m[7]) > tolerance) {
+            throw new MomentOfInertiaInvalidException("The inertia tensor must be symmetric");
+        }
+
+        // leading principal minors, all positive for a positive definite matrix
+        final double minor1 = m[0];
+        final double minor2 = m[0]*m[4] - m[1]*m[3];
+        final double determinant = m[0]*(m[4]*m[8] - m[5]*m[7])
+                                 - m[1]*(m[3]*m[8] - m[5]*m[6])
+                                 + m[2]*(m[3]*m[7] - m[4]*m[6]);
+        if (!(minor1 > 0) || !(minor2 > 0) || !(determinant > 0)) {
+            throw new MomentOfInertiaInvalidException("The inertia tensor must be positive definite");
+        }
+
+        final double[] inverse = { (m[4]*m[8] - m[5]*m[7])/determinant,
+                                   (m[2]*m[7] - m[1]*m[8])/determinant,
+                                   (m[1]*m[5] - m[2]*m[4])/determinant,
+                                   (m[5]*m[6] - m[3]*m[8])/determinant,
+                                   (m[0]*m[8] - m[2]*m[6])/determinant,
+                                   (m[2]*m[3] - m[0]*m[5])/determinant,
+                                   (m[3]*m[7] - m[4]*m[6])/determinant,
+                                   (m[1]*m[6] - m[0]*m[7])/determinant,
+                                   (m[0]*m[4] - m[1]*m[3])/determinant };
+
+        return new RigidBodyDynamics(m, inverse);
+    }
+
+    public double[] getInertiaTensor() {
+        return inertiaTensor.clone();
+    }
+
+    // Writes d(state)/dt for a torque given in body coordinates.  derivatives must not be state.
+    public void derivatives(double[] state, double[] bodyTorque, double[] derivatives) {
+        derivatives(inertiaTensor, inverseInertiaTensor, state, bodyTorque, derivatives);
+    }
+
+    // Same as above for any row-major inertia tensor and its inverse, for callers such as the
+    // ensemble engine that keep many tensors in primitive arrays instead of RigidBodyDynamics objects.
+    public static void derivatives(double[] inertiaTensor, double[] inverseInertiaTensor,
+                                   double[] state, double[] bodyTorque, double[] derivatives) {
+        final double r = state[0];
+        final double x = state[1];
+        final double y = state[2];
+        final double z = state[3];
+        final double wx = state[4];
+        final double wy = state[5];
+        final double wz = state[6];
+
+        derivatives[0] = 0.5*(-x*wx - y*wy - z*wz);
+        derivatives[1] = 0.5*( r*wx + y*wz - z*wy);
+        derivatives[2] = 0.5*( r*wy - x*wz + z*wx);
+        derivatives[3] = 0.5*( r*wz + x*wy - y*wx);
+
+        // angular momentum I w
+        final double hx = inertiaTensor[0]*wx + inertiaTensor[1]*wy + inertiaTensor[2]*wz;
+        final double hy = inertiaTensor[3]*wx + inertiaTensor[4]*wy + inertiaTensor[5]*wz;
+        final double hz = inertiaTensor[6]*wx + inertiaTensor[7]*wy + inertiaTensor[8]*wz;
+
+        // torque - w x (I w)
+        final double mx = bodyTorque[0] - (wy*hz - wz*hy);
+        final double my = bodyTorque[1] - (wz*hx - wx*hz);
+        final double mz = bodyTorque[2] - (wx*hy - wy*hx);
+
+        derivatives[4] = inverseInertiaTensor[0]*mx + inverseInertiaTensor[1]*my + inverseInertiaTensor[2]*mz;
+        derivatives[5] = inverseInertiaTensor[3]*mx + inverseInertiaTensor[4]*my + inverseInertiaTensor[5]*mz;
+        derivatives[6] = inverseInertiaTensor[6]*mx + inverseInertiaTensor[7]*my + inverseInertiaTensor[8]*mz;
+    }
+
+    // Body angular momentum I w for the given body rates, into out[offset .. offset + 3).
+    public void angularMomentum(double wx, double wy, double wz, double[] out, int offset) {
+        out[offset]     = inertiaTensor[0]*wx + inertiaTensor[1]*wy + inertiaTensor[2]*wz;
+        out[offset + 1] = inertiaTensor[3]*wx + inertiaTensor[4]*wy + inertiaTensor[5]*wz;
+        out[offset + 2] = inertiaTensor[6]*wx + inertiaTensor[7]*wy + inertiaTensor[8]*wz;
+    }
+
+    // Body rates I^-1 h for the given body angular momentum, into out[offset .. offset + 3).
+    public void angularVelocity(double hx, double hy, double hz, double[] out, int offset) {
+        out[offset]     = inverseInertiaTensor[0]*hx + inverseInertiaTensor[1]*hy + inverseInertiaTensor[2]*hz;
+        out[offset + 1] = inverseInertiaTensor[3]*hx + inverseInertiaTensor[4]*hy + inverseInertiaTensor[5]*hz;
+        out[offset + 2] = inverseInertiaTensor[6]*hx + inverseInertiaTensor[7]*hy + inverseInertiaTensor[8]*hz;
+    }
+
+    // Rotational kinetic energy w.(I w)/2, which is conserved without torque.
+    public double kineticEnergy(double[] state) {
+        final double wx = state[4];
+        final double wy = state[5];
+        final double wz = state[6];
+        return 0.5*(wx*(inertiaTensor[0]*wx + inertiaTensor[1]*wy + inertiaTensor[2]*wz)
+                  + wy*(inertiaTensor[3]*wx + inertiaTensor[4]*wy + inertiaTensor[5]*wz)
+                  + wz*(inertiaTensor[6]*wx + inertiaTensor[7]*wy + inertiaTensor[8]*wz));
+    }
+
+    static void normalizeQuarternion(double[] state) {
+        final double norm = Math.sqrt(state[0]*state[0] + state[1]*state[1] + state[2]*state[2] + state[3]*state[3]);
+        state[0] /= norm;
+        state[1] /= norm;
+        state[2] /= norm;
+        state[3] /= norm;
+    }
+}
@@ -0,0 +1,71 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Classical fourth-order Runge-Kutta.  Steps longer than maximumStepSeconds are split into equal
+// substeps, since the fixed step gives no error control of its own.
+public class RungeKutta4Integrator implements AttitudeIntegrator {
+
+    public static final String NAME = "rk4";
+
+    private final double maximumStepSeconds;
+
+    private final double[] k1 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k2 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k3 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] k4 = new double[RigidBodyDynamics.STATE_SIZE];
+    private final double[] stage = new double[RigidBodyDynamics.STATE_SIZE];
+
+    public RungeKutta4Integrator(double maximumStepSeconds) {
+        this.maximumStepSeconds = maximumStepSeconds;
+    }
+
+    @Override
+    public void integrate(RigidBodyDynamics dynamics, double[] state, double[] bodyTorque, double stepSeconds) {
+        final int substeps = Math.max(1, (int) Math.ceil(stepSeconds/maximumStepSeconds));
+        final double h = stepSeconds/substeps;
+
+        for (int n = 0; n < substeps; n++) {
+            dynamics.derivatives(state, bodyTorque, k1);
+
+            for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                stage[i] = state[i] + 0.5*h*k1[i];
+            }
+            dynamics.derivatives(stage, bodyTorque, k2);
+
+            for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                stage[i] = state[i] + 0.5*h*k2[i];
+            }
+            dynamics.derivatives(stage, bodyTorque, k3);
+
+            for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                stage[i] = state[i] + h*k3[i];
+            }
+            dynamics.derivatives(stage, bodyTorque, k4);
+
+            for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                state[i] += h/6.0*(k1[i] + 2.0*k2[i] + 2.0*k3[i] + k4[i]);
+            }
+            RigidBodyDynamics.normalizeQuarternion(state);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,377 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+// Closed-form torque-free motion of a rigid body, so a coast of any length costs the same few
+// microseconds.  In principal axes ordered so that Ja < Jb < Jc and the body rates (wa, wb, wc)
+// follow Euler's solution
+//
+//     wa = A1 cn(u),  wb = A2 sn(u),  wc = A3 dn(u),  u = u0 + p t
+//
+// with parameter m of the elliptic functions fixed by the energy and the momentum; a body
+// spinning nearer its major axis is solved with the axes relabelled so that c is always the axis
+// the rates circulate around.  The attitude follows from the 3-1-3 Euler angles of the body
+// relative to the inertially fixed angular momentum: the nutation and spin angles come directly
+// from the rates and the precession angle from the integral of
+//
+//     dphi/dt = |H| (Ja wa^2 + Jb wb^2)/((Ja wa)^2 + (Jb wb)^2)
+//
+// which is periodic in u, so whole periods are counted and only the remainder is integrated.
+// Axisymmetric bodies, with Ja = Jb, have dphi/dt constant and are exact throughout.
+//
+// A state on or within a relative 1e-10 of the separatrix, where the motion takes infinitely long
+// to leave the intermediate axis, is not propagated and the caller falls back to an integrator.
+// Instances keep scratch arrays, so each thread needs its own.
+public final class TorqueFreeMotion {
+
+    private static final double STEADY_TOLERANCE = 1e-12;
+    private static final double SEPARATRIX_TOLERANCE = 1e-10;
+    private static final double MAXIMUM_PARAMETER = 1.0 - 1e-9;
+    private static final int JACOBI_SWEEPS = 50;
+    private static final int PERIOD_SAMPLES = 128;
+    private static final int PANELS_PER_PERIOD = 32;
+
+    // 8-point Gauss-Legendre nodes and weights on [-1, 1], positive half
+    private static final double[] GAUSS_NODES = { 0.1834346424956498, 0.5255324099163290, 0.7966664774136267, 0.9602898564975363 };
+    private static final double[] GAUSS_WEIGHTS = { 0.3626837833783620, 0.3137066458778873, 0.2223810344533745, 0.1012285362903763 };
+
+    private final RigidBodyDynamics dynamics;
+
+    // ascending principal moments, and the principal axes in body coordinates as the rows of a
+    // right-handed rotation matrix
+    private final double[] principalMoments = new double[3];
+    private final double[] principalAxes = new double[9];
+
+    private final EllipticFunctions ellipticFunctions = new EllipticFunctions();
+    private final double[] roleAxes = new double[9];
+    private final double[] roleQuarternion = new double[4];
+    private final double[] jacobi = new double[3];
+    private final double[] quarternion = new double[4];
+    private final double[] product = new double[4];
+    private final double[] euler = new double[4];
+
+    // precession integrand coefficients:  |H| (cn^2/ca + sn^2/cb)/(Ja cn^2/ca + Jb sn^2/cb)
+    private double precessionMomentum;
+    private double precessionA;
+    private double precessionB;
+    private double precessionJa;
+    private double precessionJb;
+    private double precessionParameter;
+    private double precessionK;
+
+    public TorqueFreeMotion(RigidBodyDynamics dynamics) {
+        this.dynamics = dynamics;
+        diagonalize(dynamics.getInertiaTensor());
+    }
+
+    public RigidBodyDynamics getDynamics() {
+        return dynamics;
+    }
+
+    // Ascending principal moments of inertia, kg-m^2.
+    public double[] getPrincipalMoments() {
+        return principalMoments.clone();
+    }
+
+    // Advances state by seconds, which may be negative, and returns true; or returns false and
+    // leaves state untouched when the motion is too close to the separatrix to solve in closed form.
+    public boolean propagate(double[] state, double seconds) {
+        if (!Double.isFinite(seconds)) {
+            return false;
+        }
+        final double bx = state[4];
+        final double by = state[5];
+        final double bz = state[6];
+        if (seconds == 0.0 || (bx == 0.0 && by == 0.0 && bz == 0.0)) {
+            return true;
+        }
+
+        final double[] e = principalAxes;
+        final double[] moments = principalMoments;
+        final double w0 = e[0]*bx + e[1]*by + e[2]*bz;
+        final double w1 = e[3]*bx + e[4]*by + e[5]*bz;
+        final double w2 = e[6]*bx + e[7]*by + e[8]*bz;
+        final double h0 = moments[0]*w0;
+        final double h1 = moments[1]*w1;
+        final double h2 = moments[2]*w2;
+        final double momentumSquared = h0*h0 + h1*h1 + h2*h2;
+
+        // w parallel to I w is a steady spin about a principal axis, or any spin of a spherical body
+        final double cx = w1*h2 - w2*h1;
+        final double cy = w2*h0 - w0*h2;
+        final double cz = w0*h1 - w1*h0;
+        final double ratesSquared = w0*w0 + w1*w1 + w2*w2;
+        if (cx*cx + cy*cy + cz*cz <= STEADY_TOLERANCE*STEADY_TOLERANCE*ratesSquared*momentumSquared) {
+            LieGroupMidpointIntegrator.rotate(state, bx*seconds, by*seconds, bz*seconds);
+            return true;
+        }
+
+        // H^2 - 2 T J1, positive when the rates circulate around the major axis
+        final double separatrix = moments[0]*w0*w0*(moments[0] - moments[1]) + moments[2]*w2*w2*(moments[2] - moments[1]);
+        if (Math.abs(separatrix) <= SEPARATRIX_TOLERANCE*momentumSquared) {
+            return false;
+        }
+
+        // rows of roleAxes are the a, b, c axes in body coordinates
+        final int a = separatrix > 0 ? 0 : 2;
+        final int c = 2 - a;
+        final double bSign = separatrix > 0 ? 1.0 : -1.0;
+        for (int k = 0; k < 3; k++) {
+            roleAxes[k] = e[3*a + k];
+            roleAxes[3 + k] = bSign*e[3 + k];
+            roleAxes[6 + k] = e[3*c + k];
+        }
+        final double ja = moments[a];
+        final double jb = moments[1];
+        final double jc = moments[c];
+        final double wa = a == 0 ? w0 : w2;
+        final double wb = bSign*w1;
+        final double wc = c == 2 ? w2 : w0;
+
+        // 2 T Jc - H^2 and H^2 - 2 T Ja, written without cancellation; both have the sign of Jc - Ja
+        final double d13 = ja*wa*wa*(jc - ja) + jb*wb*wb*(jc - jb);
+        final double d31 = jb*wb*wb*(jb - ja) + jc*wc*wc*(jc - ja);
+        if (!(d13*(jc - ja) > 0) || !(d31*(jc - ja) > 0)) {
+            return false;
+        }
+        final double amplitudeA = Math.sqrt(d13/(ja*(jc - ja)));
+        final double amplitudeB = Math.sqrt(d13/(jb*(jc - jb)));
+        final double amplitudeC = Math.sqrt(d31/(jc*(jc - ja)));
+        final double rate = Math.sqrt((jc - jb)*d31/(ja*jb*jc));
+        final double m = Math.max(0.0, (jb - ja)*d13/((jc - jb)*d31));
+        if (!(m < MAXIMUM_PARAMETER)) {
+            return false;
+        }
+        final double completeK = EllipticFunctions.completeFirstKind(m);
+
+        // sn carries the sign with which wb leads wa around the circulation
+        final double cSign = wc >= 0.0 ? 1.0 : -1.0;
+        final double bDirection = jb < jc ? cSign : -cSign;
+        final double u0 = EllipticFunctions.incompleteFirstKind(Math.atan2(bDirection*wb/amplitudeB, wa/amplitudeA), m, completeK);
+        final double u1 = u0 + rate*seconds;
+
+        ellipticFunctions.jacobi(u1, m, completeK, jacobi);
+        final double wa1 = amplitudeA*jacobi[1];
+        final double wb1 = bDirection*amplitudeB*jacobi[0];
+        final double wc1 = cSign*amplitudeC*jacobi[2];
+
+        final double momentum = Math.sqrt(momentumSquared);
+        final double precession;
+        if (ja == jb) {
+            precession = momentum*seconds/ja;
+        } else {
+            precessionMomentum = momentum;
+            precessionA = jc - ja;
+            precessionB = jc - jb;
+            precessionJa = ja;
+            precessionJb = jb;
+            precessionParameter = m;
+            precessionK = completeK;
+            precession = precessionIntegral(u0, u1)/rate;
+        }
+
+        // q' = q qQ^-1 qM(0)^-1 qM(t) qQ, where qQ rotates body into role coordinates and qM is
+        // the 3-1-3 rotation from role coordinates into a frame with z along the angular momentum
+        quarternionFromMatrix(roleAxes, roleQuarternion);
+        quarternion[0] = state[0];
+        quarternion[1] = state[1];
+        quarternion[2] = state[2];
+        quarternion[3] = state[3];
+        multiplyConjugate(quarternion, roleQuarternion, product);
+        eulerQuarternion(0.0, Math.atan2(Math.hypot(ja*wa, jb*wb), jc*wc), Math.atan2(ja*wa, jb*wb), euler);
+        multiplyConjugate(product, euler, quarternion);
+        eulerQuarternion(precession, Math.atan2(Math.hypot(ja*wa1, jb*wb1), jc*wc1), Math.atan2(ja*wa1, jb*wb1), euler);
+        multiply(quarternion, euler, product);
+        multiply(product, roleQuarternion, quarternion);
+
+        final double norm = Math.sqrt(quarternion[0]*quarternion[0] + quarternion[1]*quarternion[1] + quarternion[2]*quarternion[2] + quarternion[3]*quarternion[3]);
+        final double sign = quarternion[0]*state[0] + quarternion[1]*state[1] + quarternion[2]*state[2] + quarternion[3]*state[3] < 0.0 ? -1.0 : 1.0;
+        state[0] = sign*quarternion[0]/norm;
+        state[1] = sign*quarternion[1]/norm;
+        state[2] = sign*quarternion[2]/norm;
+        state[3] = sign*quarternion[3]/norm;
+
+        // body rates from role coordinates, w_body = Q^T w_role
+        state[4] = roleAxes[0]*wa1 + roleAxes[3]*wb1 + roleAxes[6]*wc1;
+        state[5] = roleAxes[1]*wa1 + roleAxes[4]*wb1 + roleAxes[7]*wc1;
+        state[6] = roleAxes[2]*wa1 + roleAxes[5]*wb1 + roleAxes[8]*wc1;
+        return true;
+    }
+
+    // Integral of the precession rate over u from u0 to u1.  The integrand has period 2K, over
+    // which the trapezoid rule converges geometrically; the partial period left over is split into
+    // Gauss-Legendre panels.
+    private double precessionIntegral(double u0, double u1) {
+        final double low = Math.min(u0, u1);
+        final double span = Math.abs(u1 - u0);
+        final double period = 2.0*precessionK;
+        final double periods = Math.floor(span/period);
+
+        double total = 0.0;
+        if (periods > 0) {
+            double sum = 0.0;
+            for (int i = 0; i < PERIOD_SAMPLES; i++) {
+                sum += precessionRate(low + period*i/PERIOD_SAMPLES);
+            }
+            total += periods*sum*period/PERIOD_SAMPLES;
+        }
+
+        final double start = low + periods*period;
+        final double remainder = span - periods*period;
+        final int panels = Math.max(1, (int) Math.ceil(PANELS_PER_PERIOD*remainder/period));
+        final double halfWidth = 0.5*remainder/panels;
+        for (int panel = 0; panel < panels; panel++) {
+            final double middle = start + (2*panel + 1)*halfWidth;
+            double sum = 0.0;
+            for (int i = 0; i < GAUSS_NODES.length; i++) {
+                sum += GAUSS_WEIGHTS[i]*(precessionRate(middle - halfWidth*GAUSS_NODES[i]) + precessionRate(middle + halfWidth*GAUSS_NODES[i]));
+            }
+            total += halfWidth*sum;
+        }
+        return u1 >= u0 ? total : -total;
+    }
+
+    private double precessionRate(double u) {
+        ellipticFunctions.jacobi(u, precessionParameter, precessionK, jacobi);
+        final double cn2 = jacobi[1]*jacobi[1]/precessionA;
+        final double sn2 = jacobi[0]*jacobi[0]/precessionB;
+        return precessionMomentum*(cn2 + sn2)/(precessionJa*cn2 + precessionJb*sn2);
+    }
+
+    // Cyclic Jacobi eigenvalue iteration on the symmetric inertia tensor.
+    private void diagonalize(double[] tensor) {
+        final double[] m = tensor.clone();
+        final double[] v = { 1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 1.0 };
+        final double scale = m[0]*m[0] + m[4]*m[4] + m[8]*m[8];
+
+        for (int sweep = 0; sweep < JACOBI_SWEEPS; sweep++) {
+            if (m[1]*m[1] + m[2]*m[2] + m[5]*m[5] <= 1e-32*scale) {
+                break;
+            }
+            for (int p = 0; p < 2; p++) {
+                for (int q = p + 1; q < 3; q++) {
+                    final double apq = m[3*p + q];
+                    if (apq == 0.0) {
+                        continue;
+                    }
+                    final double theta = (m[3*q + q] - m[3*p + p])/(2.0*apq);
+                    final double t = Math.signum(theta == 0.0 ? 1.0 : theta)/(Math.abs(theta) + Math.sqrt(theta*theta + 1.0));
+                    final double cos = 1.0/Math.sqrt(t*t + 1.0);
+                    final double sin = t*cos;
+                    // m = G^T m G and v = v G for the rotation G in the (p, q) plane
+                    for (int k = 0; k < 3; k++) {
+                        final double mkp = m[3*k + p];
+                        final double mkq = m[3*k + q];
+                        m[3*k + p] = cos*mkp - sin*mkq;
+                        m[3*k + q] = sin*mkp + cos*mkq;
+                    }
+                    for (int k = 0; k < 3; k++) {
+                        final double mpk = m[3*p + k];
+                        final double mqk = m[3*q + k];
+                        m[3*p + k] = cos*mpk - sin*mqk;
+                        m[3*q + k] = sin*mpk + cos*mqk;
+                    }
+                    for (int k = 0; k < 3; k++) {
+                        final double vkp = v[3*k + p];
+                        final double vkq = v[3*k + q];
+                        v[3*k + p] = cos*vkp - sin*vkq;
+                        v[3*k + q] = sin*vkp + cos*vkq;
+                    }
+                }
+            }
+        }
+
+        // sort ascending; eigenvector i is column i of v
+        final int[] order = { 0, 1, 2 };
+        for (int i = 0; i < 2; i++) {
+            for (int j = i + 1; j < 3; j++) {
+                if (m[4*order[j]] < m[4*order[i]]) {
+                    final int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                }
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            principalMoments[i] = m[4*order[i]];
+            principalAxes[3*i] = v[order[i]];
+            principalAxes[3*i + 1] = v[3 + order[i]];
+            principalAxes[3*i + 2] = v[6 + order[i]];
+        }
+        // third axis = first x second, so the frame is right-handed
+        principalAxes[6] = principalAxes[1]*principalAxes[5] - principalAxes[2]*principalAxes[4];
+        principalAxes[7] = principalAxes[2]*principalAxes[3] - principalAxes[0]*principalAxes[5];
+        principalAxes[8] = principalAxes[0]*principalAxes[4] - principalAxes[1]*principalAxes[3];
+    }
+
+    // qz(phi) qx(theta) qz(psi)
+    private static void eulerQuarternion(double phi, double theta, double psi, double[] out) {
+        final double cTheta = Math.cos(0.5*theta);
+        final double sTheta = Math.sin(0.5*theta);
+        final double sum = 0.5*(phi + psi);
+        final double difference = 0.5*(phi - psi);
+        out[0] = cTheta*Math.cos(sum);
+        out[1] = sTheta*Math.cos(difference);
+        out[2] = sTheta*Math.sin(difference);
+        out[3] = cTheta*Math.sin(sum);
+    }
+
+    // Unit quarternion whose rotation matrix is the row-major rotation matrix m (Shepperd's method).
+    private static void quarternionFromMatrix(double[] m, double[] out) {
+        final double trace = m[0] + m[4] + m[8];
+        if (trace >= m[0] && trace >= m[4] && trace >= m[8]) {
+            final double s = 2.0*Math.sqrt(1.0 + trace);
+            out[0] = 0.25*s;
+            out[1] = (m[7] - m[5])/s;
+            out[2] = (m[2] - m[6])/s;
+            out[3] = (m[3] - m[1])/s;
+        } else if (m[0] >= m[4] && m[0] >= m[8]) {
+            final double s = 2.0*Math.sqrt(1.0 + m[0] - m[4] - m[8]);
+            out[0] = (m[7] - m[5])/s;
+            out[1] = 0.25*s;
+            out[2] = (m[1] + m[3])/s;
+            out[3] = (m[2] + m[6])/s;
+        } else if (m[4] >= m[8]) {
+            final double s = 2.0*Math.sqrt(1.0 - m[0] + m[4] - m[8]);
+            out[0] = (m[2] - m[6])/s;
+            out[1] = (m[1] + m[3])/s;
+            out[2] = 0.25*s;
+            out[3] = (m[5] + m[7])/s;
+        } else {
+            final double s = 2.0*Math.sqrt(1.0 - m[0] - m[4] + m[8]);
+            out[0] = (m[3] - m[1])/s;
+            out[1] = (m[2] + m[6])/s;
+            out[2] = (m[5] + m[7])/s;
+            out[3] = 0.25*s;
+        }
+    }
+
+    private static void multiply(double[] p, double[] q, double[] out) {
+        out[0] = p[0]*q[0] - p[1]*q[1] - p[2]*q[2] - p[3]*q[3];
+        out[1] = p[0]*q[1] + p[1]*q[0] + p[2]*q[3] - p[3]*q[2];
+        out[2] = p[0]*q[2] - p[1]*q[3] + p[2]*q[0] + p[3]*q[1];
+        out[3] = p[0]*q[3] + p[1]*q[2] - p[2]*q[1] + p[3]*q[0];
+    }
+
+    // p q^-1 for a unit quarternion q
+    private static void multiplyConjugate(double[] p, double[] q, double[] out) {
+        out[0] =  p[0]*q[0] + p[1]*q[1] + p[2]*q[2] + p[3]*q[3];
+        out[1] = -p[0]*q[1] + p[1]*q[0] - p[2]*q[3] + p[3]*q[2];
+        out[2] = -p[0]*q[2] + p[1]*q[3] + p[2]*q[0] - p[3]*q[1];
+        out[3] = -p[0]*q[3] - p[1]*q[2] + p[2]*q[1] + p[3]*q[0];
+    }
+}
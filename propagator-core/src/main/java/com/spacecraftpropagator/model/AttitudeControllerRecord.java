@@ -0,0 +1,67 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Settings of a session's attitude controller:  mode off, attitude (hold targetQuarternion r, x, y,
+// z, body to viewing coordinates), sun (point the sun sensor at the sun) or nadir (point the IR sensor at
+// the Earth).  Fields left out of a request take the defaults below.
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttitudeControllerRecord {
+
+    private String mode = "off";
+    private double[] targetQuarternion;
+    private double proportionalGain = 1.0;          // N-m per radian
+    private double derivativeGain = 3.0;            // N-m per radian per second
+    private double maximumTorqueNewtonMeters = 10.0;
+    private double controlRateHertz = 100.0;
+
+    public AttitudeControllerRecord(String mode,
+                                    double[] targetQuarternion,
+                                    double proportionalGain,
+                                    double derivativeGain,
+                                    double maximumTorqueNewtonMeters,
+                                    double controlRateHertz) {
+        this.mode = mode;
+        this.targetQuarternion = targetQuarternion;
+        this.proportionalGain = proportionalGain;
+        this.derivativeGain = derivativeGain;
+        this.maximumTorqueNewtonMeters = maximumTorqueNewtonMeters;
+        this.controlRateHertz = controlRateHertz;
+    }
+
+    @Override
+    public String toString() {
+        return "AttitudeControllerRecord [mode=" + mode
+                + ", targetQuarternion=" + Arrays.toString(targetQuarternion)
+                + ", proportionalGain=" + proportionalGain
+                + ", derivativeGain=" + derivativeGain
+                + ", maximumTorqueNewtonMeters=" + maximumTorqueNewtonMeters
+                + ", controlRateHertz=" + controlRateHertz
+                + "]";
+    }
+}
@@ -0,0 +1,52 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One step in attitude frame mode.  The client keeps the body-frame mesh from /init and renders it
+// with attitudeQuarternion (r, x, y, z, body to viewing coordinates).  visiblePolygonMask has bit i,
+// least significant bit first within each byte, set when mesh polygon i faces the viewer, and is
+// written as base64 in JSON.
+@NoArgsConstructor
+@Getter
+@Setter
+public class AttitudeFrameRecord {
+
+    private double[] attitudeQuarternion;
+    private double[] radiansPerSecond;
+    private byte[] visiblePolygonMask;
+
+    public AttitudeFrameRecord(double[] attitudeQuarternion,
+                               double[] radiansPerSecond,
+                               byte[] visiblePolygonMask) {
+        this.attitudeQuarternion = attitudeQuarternion;
+        this.radiansPerSecond = radiansPerSecond;
+        this.visiblePolygonMask = visiblePolygonMask;
+    }
+
+    @Override
+    public String toString() {
+        return "AttitudeFrameRecord [attitudeQuarternion=" + Arrays.toString(attitudeQuarternion)
+                + ", radiansPerSecond=" + Arrays.toString(radiansPerSecond)
+                + "]";
+    }
+}
@@ -0,0 +1,115 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.Arrays;
+
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.sensors.SensorSuite;
+
+// Immutable copy of a session's state as of the end of a step, torque or other change, which
+// AttitudeModelServiceImpl publishes through a volatile reference.  Readers get the attitude,
+// rates, sensor values and axes of one and the same instant without taking the session lock.
+// Projected frames are not included:  they are reusable buffers written under the lock, and
+// SimulationTickService publishes its own immutable frames.
+public class AttitudeState {
+
+    private final double simulationSeconds;
+    private final double[] state;
+    private final double[] attitudeMatrix;
+    private final AttitudeController attitudeController;
+    private final SensorSuite sensorSuite;
+    private final double[] sensorValues;
+
+    // state is r, x, y, z, wx, wy, wz, attitudeMatrix the row-major rotation matrix of the same
+    // quarternion and sensorValues those SensorSuite.evaluate() wrote for them; all are copied
+    public AttitudeState(double simulationSeconds, double[] state, double[] attitudeMatrix,
+                         AttitudeController attitudeController, SensorSuite sensorSuite, double[] sensorValues) {
+        this.simulationSeconds = simulationSeconds;
+        this.state = state.clone();
+        this.attitudeMatrix = attitudeMatrix.clone();
+        this.attitudeController = attitudeController;
+        this.sensorSuite = sensorSuite;
+        this.sensorValues = sensorValues.clone();
+    }
+
+    public double getSimulationSeconds() {
+        return simulationSeconds;
+    }
+
+    // r, x, y, z
+    public double[] getAttitudeQuarternion() {
+        return Arrays.copyOf(state, 4);
+    }
+
+    // body rates about X, Y, Z
+    public double[] getRadiansPerSecond() {
+        return Arrays.copyOfRange(state, 4, 7);
+    }
+
+    // Cosine of the angle between the boresight of the first sun sensor and the sun direction; with the
+    // default suite and ephemeris, the spacecraft -X axis and the sun vector (-1, 0, 0) towards the left
+    // side of the screen, which is the X coordinate of the spacecraft X axis
+    public double getSunSensorValue() {
+        return sensorSuite.getSunSensorValue(sensorValues);
+    }
+
+    // Cosine of the angle between the boresight of the first horizon sensor and the Earth direction; with
+    // the default suite and ephemeris, the spacecraft -Y axis and the IR vector (0, -1, 0) towards the
+    // bottom of the screen, representing IR emissions from Earth
+    public double getIRValue() {
+        return sensorSuite.getIRValue(sensorValues);
+    }
+
+    public SensorSuite getSensorSuite() {
+        return sensorSuite;
+    }
+
+    // The values of every sensor of the suite, laid out by its value offsets
+    public double[] getSensorValues() {
+        return sensorValues.clone();
+    }
+
+    public double getSensorValue(int index) {
+        return sensorValues[index];
+    }
+
+    public Quarternion getXAxisQuarternion() {
+        return new Quarternion(0.0, attitudeMatrix[0], attitudeMatrix[3], attitudeMatrix[6]);
+    }
+
+    public Quarternion getYAxisQuarternion() {
+        return new Quarternion(0.0, attitudeMatrix[1], attitudeMatrix[4], attitudeMatrix[7]);
+    }
+
+    public Quarternion getZAxisQuarternion() {
+        return new Quarternion(0.0, attitudeMatrix[2], attitudeMatrix[5], attitudeMatrix[8]);
+    }
+
+    public AttitudeController getAttitudeController() {
+        return attitudeController;
+    }
+
+    @Override
+    public String toString() {
+        return "AttitudeState [simulationSeconds=" + simulationSeconds
+                + ", state=" + Arrays.toString(state)
+                + ", attitudeController=" + attitudeController
+                + ", sensorValues=" + Arrays.toString(sensorValues)
+                + "]";
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Summary of one quantity across the ensemble members.  percentiles[i] is at the i-th level of
+// EnsembleRequest.percentiles.  histogram, for sensor values only, counts the members in equal
+// bins from -1 to 1.
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DistributionRecord {
+
+    private double mean;
+    private double standardDeviation;
+    private double minimum;
+    private double maximum;
+    private double[] percentiles;
+    private int[] histogram;
+
+    public DistributionRecord(double mean,
+                              double standardDeviation,
+                              double minimum,
+                              double maximum,
+                              double[] percentiles,
+                              int[] histogram) {
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.percentiles = percentiles;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributionRecord [mean=" + mean
+                + ", standardDeviation=" + standardDeviation
+                + ", minimum=" + minimum
+                + ", maximum=" + maximum
+                + "]";
+    }
+}
@@ -0,0 +1,98 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Monte Carlo ensemble of memberCount spacecraft, all starting at the identity attitude.  Each
+// member draws its diagonal moments of inertia, initial body rates and torque magnitudes from
+// normal distributions about the nominal values, with the given standard deviations:
+// inertiaDispersion and torqueDispersion are relative, rateDispersion is in radians per second.
+// The torque quarternions of the schedule are in spacecraft body coordinates.  The same seed
+// always gives the same ensemble.
+@NoArgsConstructor
+@Getter
+@Setter
+public class EnsembleRequest {
+
+    private int memberCount;
+    private long seed = 1;
+    private double stepSeconds;
+    private int stepCount;
+    private int outputEveryNSteps = 1;
+
+    private double[] inertiaTensor; // row-major, kg-m^2; the shipped model's when null
+    private double inertiaDispersion = 0.0;
+    private double[] initialRadiansPerSecond = { 0.0, 0.0, 0.0 };
+    private double rateDispersion = 0.0;
+    private List<ScheduledTorqueRecord> torqueSchedule = new ArrayList<>();
+    private double torqueDispersion = 0.0;
+
+    // pointing error is the rotation angle from this attitude to each member's attitude
+    private double[] targetAttitudeQuarternion = { 1.0, 0.0, 0.0, 0.0 };
+    private double[] percentiles = { 5.0, 50.0, 95.0 };
+    private int histogramBins = 20;
+
+    public EnsembleRequest(int memberCount,
+                           long seed,
+                           double stepSeconds,
+                           int stepCount,
+                           int outputEveryNSteps,
+                           double[] inertiaTensor,
+                           double inertiaDispersion,
+                           double[] initialRadiansPerSecond,
+                           double rateDispersion,
+                           List<ScheduledTorqueRecord> torqueSchedule,
+                           double torqueDispersion,
+                           double[] targetAttitudeQuarternion,
+                           double[] percentiles,
+                           int histogramBins) {
+        this.memberCount = memberCount;
+        this.seed = seed;
+        this.stepSeconds = stepSeconds;
+        this.stepCount = stepCount;
+        this.outputEveryNSteps = outputEveryNSteps;
+        this.inertiaTensor = inertiaTensor;
+        this.inertiaDispersion = inertiaDispersion;
+        this.initialRadiansPerSecond = initialRadiansPerSecond;
+        this.rateDispersion = rateDispersion;
+        this.torqueSchedule = torqueSchedule;
+        this.torqueDispersion = torqueDispersion;
+        this.targetAttitudeQuarternion = targetAttitudeQuarternion;
+        this.percentiles = percentiles;
+        this.histogramBins = histogramBins;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleRequest [memberCount=" + memberCount
+                + ", seed=" + seed
+                + ", stepSeconds=" + stepSeconds
+                + ", stepCount=" + stepCount
+                + ", outputEveryNSteps=" + outputEveryNSteps
+                + ", inertiaDispersion=" + inertiaDispersion
+                + ", rateDispersion=" + rateDispersion
+                + ", torqueSchedule=" + torqueSchedule
+                + ", torqueDispersion=" + torqueDispersion
+                + "]";
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Ensemble statistics at one output step, streamed as each output step completes.
+@NoArgsConstructor
+@Getter
+@Setter
+public class EnsembleStatisticsRecord {
+
+    private double seconds;
+    private int memberCount;
+    private DistributionRecord pointingErrorRadians;
+    private DistributionRecord sunSensorValues;
+    private DistributionRecord irSensorValues;
+
+    public EnsembleStatisticsRecord(double seconds,
+                                    int memberCount,
+                                    DistributionRecord pointingErrorRadians,
+                                    DistributionRecord sunSensorValues,
+                                    DistributionRecord irSensorValues) {
+        this.seconds = seconds;
+        this.memberCount = memberCount;
+        this.pointingErrorRadians = pointingErrorRadians;
+        this.sunSensorValues = sunSensorValues;
+        this.irSensorValues = irSensorValues;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleStatisticsRecord [seconds=" + seconds
+                + ", memberCount=" + memberCount
+                + ", pointingErrorRadians=" + pointingErrorRadians
+                + "]";
+    }
+}
@@ -0,0 +1,49 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// The frame a subscribed session reached at the last server tick.  simulationSeconds counts the
+// simulated time since the session was subscribed, including skipped ticks.
+@NoArgsConstructor
+@Getter
+@Setter
+public class LatestFrameRecord {
+
+    private long tick;
+    private double simulationSeconds;
+    private AttitudeFrameRecord frame;
+
+    public LatestFrameRecord(long tick,
+                             double simulationSeconds,
+                             AttitudeFrameRecord frame) {
+        this.tick = tick;
+        this.simulationSeconds = simulationSeconds;
+        this.frame = frame;
+    }
+
+    @Override
+    public String toString() {
+        return "LatestFrameRecord [tick=" + tick
+                + ", simulationSeconds=" + simulationSeconds
+                + ", frame=" + frame
+                + "]";
+    }
+}
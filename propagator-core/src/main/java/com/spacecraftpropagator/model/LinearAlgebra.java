@@ -68,4 +68,53 @@ public class LinearAlgebra {
 
         return Arrays.asList(outputX, outputY, outputZ);
     }
+
+    // Fills the row-major matrix that rotates a vector the same way as the quarternion product
+    // q*v*q^-1 does, for any non-zero (not necessarily unit) quarternion q = (r, x, y, z).
+    public static void rotationMatrix3x3(double r, double x, double y, double z, double[] matrix) {
+        final double inverseNormSquared = 1.0/(r*r + x*x + y*y + z*z);
+
+        matrix[0] = (r*r + x*x - y*y - z*z)*inverseNormSquared;
+        matrix[1] = 2.0*(x*y - r*z)*inverseNormSquared;
+        matrix[2] = 2.0*(x*z + r*y)*inverseNormSquared;
+
+        matrix[3] = 2.0*(x*y + r*z)*inverseNormSquared;
+        matrix[4] = (r*r - x*x + y*y - z*z)*inverseNormSquared;
+        matrix[5] = 2.0*(y*z - r*x)*inverseNormSquared;
+
+        matrix[6] = 2.0*(x*z - r*y)*inverseNormSquared;
+        matrix[7] = 2.0*(y*z + r*x)*inverseNormSquared;
+        matrix[8] = (r*r - x*x - y*y + z*z)*inverseNormSquared;
+    }
+
+    // Multiplies each of the vectorCount packed x, y, z input vectors by the row-major matrix.
+    // outputVectors may be the same array as inputVectors.
+    public static void matrixVectorMult3x3(double[] matrix, double[] inputVectors, double[] outputVectors, int vectorCount) {
+        matrixVectorMult3x3(matrix, inputVectors, outputVectors, 0, vectorCount);
+    }
+
+    // Same as above, for the packed vectors fromVector (inclusive) to toVector (exclusive) only.
+    public static void matrixVectorMult3x3(double[] matrix, double[] inputVectors, double[] outputVectors, int fromVector, int toVector) {
+        final double a11 = matrix[0];
+        final double a12 = matrix[1];
+        final double a13 = matrix[2];
+
+        final double a21 = matrix[3];
+        final double a22 = matrix[4];
+        final double a23 = matrix[5];
+
+        final double a31 = matrix[6];
+        final double a32 = matrix[7];
+        final double a33 = matrix[8];
+
+        for (int j = fromVector*3; j < toVector*3; j += 3) {
+            final double x = inputVectors[j];
+            final double y = inputVectors[j + 1];
+            final double z = inputVectors[j + 2];
+
+            outputVectors[j]     = x*a11 + y*a12 + z*a13;
+            outputVectors[j + 1] = x*a21 + y*a22 + z*a23;
+            outputVectors[j + 2] = x*a31 + y*a32 + z*a33;
+        }
+    }
 } 
@@ -0,0 +1,266 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// The binary spacecraft mesh format, little-endian throughout:
+//
+//     int magic, int version, int flags, int polygonCount, int vertexCount, int cornerCount,
+//     byte meshId[16], double inertiaTensor[9],
+//     double vertices[vertexCount*3],
+//     double normalX[polygonCount], normalY[polygonCount], normalZ[polygonCount], planeOffsets[polygonCount],
+//     int polygonOffsets[polygonCount + 1], int vertexIndices[cornerCount]
+//
+// Polygon i has corners polygonOffsets[i] (inclusive) to polygonOffsets[i+1] (exclusive), and
+// each corner is an index into the shared vertices.  The inertia tensor is present if bit 0 of
+// flags is set.  The mesh id and the normals are those SpacecraftMesh computes, so loading is a
+// memory-mapped bulk copy with no hashing or normal computation.
+public class MeshFile {
+
+    public static final String FILE_EXTENSION = ".scmesh";
+
+    static final int MAGIC = 0x48534353; // "SCSH" in file order
+    static final int VERSION = 1;
+    static final int FLAG_INERTIA_TENSOR = 1;
+    static final int MESH_ID_BYTES = 16;
+    static final int HEADER_BYTES = 6*4 + MESH_ID_BYTES + 9*8;
+
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final SpacecraftMesh spacecraftMesh;
+    private final double[] inertiaTensor;
+
+    public MeshFile(SpacecraftMesh spacecraftMesh, double[] inertiaTensor) {
+        this.spacecraftMesh = spacecraftMesh;
+        this.inertiaTensor = inertiaTensor;
+    }
+
+    public SpacecraftMesh getSpacecraftMesh() {
+        return spacecraftMesh;
+    }
+
+    // null if the file has none
+    public double[] getInertiaTensor() {
+        return inertiaTensor;
+    }
+
+    public static MeshFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a mesh file of at most 2 GB");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a mesh file");
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " is mesh file version " + version + ", not " + VERSION);
+            }
+            final int flags = buffer.getInt();
+            final int polygonCount = buffer.getInt();
+            final int vertexCount = buffer.getInt();
+            final int cornerCount = buffer.getInt();
+            final long expectedBytes = HEADER_BYTES + vertexCount*24L + polygonCount*32L + (polygonCount + 1)*4L + cornerCount*4L;
+            if (polygonCount < 0 || vertexCount < 0 || cornerCount < 0 || expectedBytes != channel.size()) {
+                throw new IOException(file + " is truncated or corrupt:  expected " + expectedBytes + " bytes");
+            }
+
+            final byte[] meshIdBytes = new byte[MESH_ID_BYTES];
+            buffer.get(meshIdBytes);
+            final String meshId = new String(meshIdBytes, StandardCharsets.US_ASCII);
+
+            double[] inertiaTensor = new double[9];
+            buffer.asDoubleBuffer().get(inertiaTensor);
+            buffer.position(buffer.position() + 9*8);
+            if ((flags & FLAG_INERTIA_TENSOR) == 0) {
+                inertiaTensor = null;
+            }
+
+            final double[] sharedVertices = getDoubles(buffer, vertexCount*3);
+            final double[] normalX = getDoubles(buffer, polygonCount);
+            final double[] normalY = getDoubles(buffer, polygonCount);
+            final double[] normalZ = getDoubles(buffer, polygonCount);
+            final double[] planeOffsets = getDoubles(buffer, polygonCount);
+            final int[] polygonOffsets = getInts(buffer, polygonCount + 1);
+            final int[] vertexIndices = getInts(buffer, cornerCount);
+
+            if (polygonOffsets[0] != 0 || polygonOffsets[polygonCount] != cornerCount) {
+                throw new IOException(file + " has invalid polygon offsets");
+            }
+            for (int i = 0; i < polygonCount; i++) {
+                if (polygonOffsets[i + 1] < polygonOffsets[i]) {
+                    throw new IOException(file + " has invalid polygon offsets");
+                }
+            }
+
+            // each polygon gets its own copy of its vertices, as SpacecraftMesh keeps them
+            final double[] vertices = new double[cornerCount*3];
+            for (int corner = 0; corner < cornerCount; corner++) {
+                final int vertex = vertexIndices[corner];
+                if (vertex < 0 || vertex >= vertexCount) {
+                    throw new IOException(file + " has an invalid vertex index at corner " + corner);
+                }
+                vertices[corner*3] = sharedVertices[vertex*3];
+                vertices[corner*3 + 1] = sharedVertices[vertex*3 + 1];
+                vertices[corner*3 + 2] = sharedVertices[vertex*3 + 2];
+            }
+
+            return new MeshFile(new SpacecraftMesh(vertices, polygonOffsets, meshId, normalX, normalY, normalZ, planeOffsets),
+                                inertiaTensor);
+        }
+    }
+
+    // Vertices that are repeated exactly are stored once.
+    public void write(Path file) throws IOException {
+        final int polygonCount = spacecraftMesh.getPolygonCount();
+        final int cornerCount = spacecraftMesh.getVertexCount();
+
+        final int[] vertexIndices = new int[cornerCount];
+        final int[] firstCorners = new int[cornerCount];
+        final int vertexCount = findSharedVertices(vertexIndices, firstCorners);
+
+        final String meshId = spacecraftMesh.getMeshId();
+        if (meshId.length() != MESH_ID_BYTES) {
+            throw new IllegalStateException("Expected a mesh id of " + MESH_ID_BYTES + " characters, not " + meshId);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(inertiaTensor != null ? FLAG_INERTIA_TENSOR : 0);
+            buffer.putInt(polygonCount);
+            buffer.putInt(vertexCount);
+            buffer.putInt(cornerCount);
+            buffer.put(meshId.getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < 9; i++) {
+                buffer.putDouble(inertiaTensor != null ? inertiaTensor[i] : 0.0);
+            }
+
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                for (int coordinate = 0; coordinate < 3; coordinate++) {
+                    buffer.putDouble(spacecraftMesh.getVertexCoordinate(firstCorners[vertex], coordinate));
+                }
+                flushIfFull(channel, buffer, 3*8);
+            }
+            for (int i = 0; i < polygonCount; i++) {
+                buffer.putDouble(spacecraftMesh.getNormalX(i));
+                flushIfFull(channel, buffer, 8);
+            }
+            for (int i = 0; i < polygonCount; i++) {
+                buffer.putDouble(spacecraftMesh.getNormalY(i));
+                flushIfFull(channel, buffer, 8);
+            }
+            for (int i = 0; i < polygonCount; i++) {
+                buffer.putDouble(spacecraftMesh.getNormalZ(i));
+                flushIfFull(channel, buffer, 8);
+            }
+            for (int i = 0; i < polygonCount; i++) {
+                buffer.putDouble(spacecraftMesh.getPlaneOffset(i));
+                flushIfFull(channel, buffer, 8);
+            }
+            for (int i = 0; i <= polygonCount; i++) {
+                buffer.putInt(i < polygonCount ? spacecraftMesh.getPolygonStart(i) : cornerCount);
+                flushIfFull(channel, buffer, 4);
+            }
+            for (int corner = 0; corner < cornerCount; corner++) {
+                buffer.putInt(vertexIndices[corner]);
+                flushIfFull(channel, buffer, 4);
+            }
+            flushIfFull(channel, buffer, WRITE_BUFFER_BYTES);
+        }
+    }
+
+    // Sets vertexIndices[corner] to the index of the corner's vertex among the distinct vertices,
+    // and firstCorners[vertex] to the first corner with that vertex.  Returns the number of
+    // distinct vertices.  Open addressing on the coordinates' bits, so no boxing.
+    private int findSharedVertices(int[] vertexIndices, int[] firstCorners) {
+        final int cornerCount = vertexIndices.length;
+        final int[] table = new int[Math.max(16, Integer.highestOneBit(Math.max(1, cornerCount)) << 2)];
+        Arrays.fill(table, -1);
+        final int mask = table.length - 1;
+
+        int vertexCount = 0;
+        for (int corner = 0; corner < cornerCount; corner++) {
+            final long x = Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(corner, 0));
+            final long y = Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(corner, 1));
+            final long z = Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(corner, 2));
+            long hash = (x*31 + y)*31 + z;
+            hash ^= hash >>> 29;
+            hash *= 0xbf58476d1ce4e5b9L;
+            hash ^= hash >>> 32;
+
+            int slot = (int) hash & mask;
+            while (true) {
+                final int vertex = table[slot];
+                if (vertex < 0) {
+                    table[slot] = vertexCount;
+                    firstCorners[vertexCount] = corner;
+                    vertexIndices[corner] = vertexCount++;
+                    break;
+                }
+                final int other = firstCorners[vertex];
+                if (Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(other, 0)) == x
+                        && Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(other, 1)) == y
+                        && Double.doubleToLongBits(spacecraftMesh.getVertexCoordinate(other, 2)) == z) {
+                    vertexIndices[corner] = vertex;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return vertexCount;
+    }
+
+    private static void flushIfFull(FileChannel channel, ByteBuffer buffer, int nextBytes) throws IOException {
+        if (buffer.remaining() >= nextBytes) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int count) {
+        final double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count*8);
+        return values;
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count*4);
+        return values;
+    }
+}
@@ -0,0 +1,285 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A spacecraft mesh together with coarser versions of it, computed once at load time by vertex
+// clustering:  vertices are snapped to the mean of their cell in a grid, and polygons left with
+// fewer than three distinct corners are removed.  Level 0 is the full mesh, and each further
+// level has at most half the polygons of the one before.
+//
+// A level may be used when its vertices move by less than tolerancePixels on screen, given how
+// many pixels a meter of the projected spacecraft takes up.  A coarser level is used anyway while
+// the typical polygon of the level would be smaller than minimumPolygonPixels, since such
+// polygons are left out of the projection and a dense mesh would otherwise lose its surface.
+public class MeshLevelsOfDetail {
+
+    // the finest grid tried, in cells across the largest dimension of the mesh
+    private static final int FINEST_GRID_CELLS = 256;
+    private static final double MAXIMUM_LEVEL_POLYGON_RATIO = 0.5;
+    private static final int TYPICAL_POLYGON_SIZE_SAMPLES = 10000;
+
+    private final SpacecraftMesh[] levels;
+    // the farthest any vertex of a level is from where it is in the full mesh, in meters
+    private final double[] featureSizes;
+    // the median of the polygons' largest extents in x, y or z, in meters
+    private final double[] typicalPolygonSizes;
+    private final double boundingRadius;
+
+    private final double defaultPixelsPerMeter;
+    private final double tolerancePixels;
+    private final double minimumPolygonPixels;
+
+    MeshLevelsOfDetail(SpacecraftMesh[] levels, double[] featureSizes,
+                       double defaultPixelsPerMeter, double tolerancePixels, double minimumPolygonPixels) {
+        if (!(defaultPixelsPerMeter > 0) || !(tolerancePixels > 0) || !(minimumPolygonPixels >= 0)) {
+            throw new IllegalArgumentException("Pixels per meter and tolerance must be positive, and the minimum polygon size not negative");
+        }
+        this.levels = levels;
+        this.featureSizes = featureSizes;
+        this.typicalPolygonSizes = new double[levels.length];
+        for (int level = 0; level < levels.length; level++) {
+            typicalPolygonSizes[level] = computeTypicalPolygonSize(levels[level]);
+        }
+        this.boundingRadius = computeBoundingRadius(levels[0]);
+        this.defaultPixelsPerMeter = defaultPixelsPerMeter;
+        this.tolerancePixels = tolerancePixels;
+        this.minimumPolygonPixels = minimumPolygonPixels;
+    }
+
+    // The full mesh only, with nothing culled.
+    public static MeshLevelsOfDetail of(SpacecraftMesh spacecraftMesh) {
+        return new MeshLevelsOfDetail(new SpacecraftMesh[] { spacecraftMesh }, new double[] { 0.0 }, 1.0, 1.0, 0.0);
+    }
+
+    // Meshes of fewer than minimumPolygons polygons are not decimated.
+    public static MeshLevelsOfDetail build(SpacecraftMesh spacecraftMesh, int maximumLevels, int minimumPolygons,
+                                           double defaultPixelsPerMeter, double tolerancePixels, double minimumPolygonPixels) {
+        final List<SpacecraftMesh> levels = new ArrayList<>();
+        final List<Double> featureSizes = new ArrayList<>();
+        levels.add(spacecraftMesh);
+        featureSizes.add(0.0);
+
+        if (spacecraftMesh.getPolygonCount() >= minimumPolygons && spacecraftMesh.getVertexCount() > 0) {
+            final double[] minimum = new double[3];
+            final double[] maximum = new double[3];
+            findBounds(spacecraftMesh, minimum, maximum);
+            final double extent = Math.max(maximum[0] - minimum[0], Math.max(maximum[1] - minimum[1], maximum[2] - minimum[2]));
+
+            // every level is decimated from the full mesh, so errors do not accumulate
+            for (double cellSize = extent/FINEST_GRID_CELLS; levels.size() < maximumLevels && cellSize < extent; cellSize *= 2) {
+                final SpacecraftMesh decimated = decimate(spacecraftMesh, minimum, cellSize);
+                final int previousPolygonCount = levels.get(levels.size() - 1).getPolygonCount();
+                if (decimated.getPolygonCount() > 0 && decimated.getPolygonCount() <= previousPolygonCount*MAXIMUM_LEVEL_POLYGON_RATIO) {
+                    levels.add(decimated);
+                    featureSizes.add(cellSize*Math.sqrt(3.0));
+                }
+            }
+        }
+
+        final double[] featureSizeArray = new double[featureSizes.size()];
+        for (int i = 0; i < featureSizeArray.length; i++) {
+            featureSizeArray[i] = featureSizes.get(i);
+        }
+        return new MeshLevelsOfDetail(levels.toArray(new SpacecraftMesh[0]), featureSizeArray,
+                                      defaultPixelsPerMeter, tolerancePixels, minimumPolygonPixels);
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public SpacecraftMesh getLevel(int level) {
+        return levels[level];
+    }
+
+    public double getFeatureSize(int level) {
+        return featureSizes[level];
+    }
+
+    public double getTypicalPolygonSize(int level) {
+        return typicalPolygonSizes[level];
+    }
+
+    // the largest distance of a vertex from the body origin, which the attitude rotates about
+    public double getBoundingRadius() {
+        return boundingRadius;
+    }
+
+    // screenPixels is the diameter the client draws the spacecraft's bounding sphere at; 0 (or
+    // anything not positive) means the default scale.
+    public double getPixelsPerMeter(double screenPixels) {
+        if (screenPixels > 0 && boundingRadius > 0) {
+            return screenPixels/(2*boundingRadius);
+        }
+        return defaultPixelsPerMeter;
+    }
+
+    // The coarsest level whose vertices move by less than tolerancePixels, even at the nearest
+    // point of the bounding sphere, which perspective enlarges the most; or a coarser one, while
+    // the level's typical polygon would be left out as too small.
+    public int selectLevel(double pixelsPerMeter, double viewingDistance) {
+        int selectedLevel = 0;
+        if (boundingRadius < viewingDistance) {
+            final double largestFeatureSize = tolerancePixels/(pixelsPerMeter*viewingDistance/(viewingDistance - boundingRadius));
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (featureSizes[level] <= largestFeatureSize) {
+                    selectedLevel = level;
+                    break;
+                }
+            }
+        }
+        while (selectedLevel < levels.length - 1 && typicalPolygonSizes[selectedLevel]*pixelsPerMeter < minimumPolygonPixels) {
+            selectedLevel++;
+        }
+        return selectedLevel;
+    }
+
+    // Projected polygons smaller than this in both x and y cover less than minimumPolygonPixels.
+    public double getMinimumPolygonExtent(double pixelsPerMeter) {
+        return minimumPolygonPixels/pixelsPerMeter;
+    }
+
+    private static void findBounds(SpacecraftMesh mesh, double[] minimum, double[] maximum) {
+        Arrays.fill(minimum, Double.POSITIVE_INFINITY);
+        Arrays.fill(maximum, Double.NEGATIVE_INFINITY);
+        for (int vertex = 0; vertex < mesh.getVertexCount(); vertex++) {
+            for (int coordinate = 0; coordinate < 3; coordinate++) {
+                minimum[coordinate] = Math.min(minimum[coordinate], mesh.getVertexCoordinate(vertex, coordinate));
+                maximum[coordinate] = Math.max(maximum[coordinate], mesh.getVertexCoordinate(vertex, coordinate));
+            }
+        }
+    }
+
+    // from at most TYPICAL_POLYGON_SIZE_SAMPLES evenly spaced polygons
+    private static double computeTypicalPolygonSize(SpacecraftMesh mesh) {
+        if (mesh.getPolygonCount() == 0) {
+            return 0.0;
+        }
+        final int stride = Math.max(1, mesh.getPolygonCount()/TYPICAL_POLYGON_SIZE_SAMPLES);
+        final double[] sizes = new double[(mesh.getPolygonCount() + stride - 1)/stride];
+        for (int sample = 0; sample < sizes.length; sample++) {
+            final int polygonIndex = sample*stride;
+            for (int coordinate = 0; coordinate < 3; coordinate++) {
+                double minimum = Double.POSITIVE_INFINITY;
+                double maximum = Double.NEGATIVE_INFINITY;
+                for (int vertex = mesh.getPolygonStart(polygonIndex); vertex < mesh.getPolygonEnd(polygonIndex); vertex++) {
+                    minimum = Math.min(minimum, mesh.getVertexCoordinate(vertex, coordinate));
+                    maximum = Math.max(maximum, mesh.getVertexCoordinate(vertex, coordinate));
+                }
+                sizes[sample] = Math.max(sizes[sample], maximum - minimum);
+            }
+        }
+        Arrays.sort(sizes);
+        return sizes[sizes.length/2];
+    }
+
+    private static double computeBoundingRadius(SpacecraftMesh mesh) {
+        double radiusSquared = 0.0;
+        for (int vertex = 0; vertex < mesh.getVertexCount(); vertex++) {
+            final double x = mesh.getVertexCoordinate(vertex, 0);
+            final double y = mesh.getVertexCoordinate(vertex, 1);
+            final double z = mesh.getVertexCoordinate(vertex, 2);
+            radiusSquared = Math.max(radiusSquared, x*x + y*y + z*z);
+        }
+        return Math.sqrt(radiusSquared);
+    }
+
+    // Vertex clustering on a grid of cellSize cells with its corner at minimum.  Cells are found
+    // by open addressing on the packed cell coordinates, so no boxing.
+    static SpacecraftMesh decimate(SpacecraftMesh mesh, double[] minimum, double cellSize) {
+        final int cornerCount = mesh.getVertexCount();
+        final int[] cornerClusters = new int[cornerCount];
+        final int[] table = new int[Math.max(16, Integer.highestOneBit(Math.max(1, cornerCount)) << 2)];
+        Arrays.fill(table, -1);
+        final int mask = table.length - 1;
+
+        long[] clusterCells = new long[1024];
+        double[] clusterSums = new double[1024*3];
+        int[] clusterSizes = new int[1024];
+        int clusterCount = 0;
+
+        for (int corner = 0; corner < cornerCount; corner++) {
+            final double x = mesh.getVertexCoordinate(corner, 0);
+            final double y = mesh.getVertexCoordinate(corner, 1);
+            final double z = mesh.getVertexCoordinate(corner, 2);
+            final long cell = ((long) ((x - minimum[0])/cellSize) << 42)
+                              | ((long) ((y - minimum[1])/cellSize) << 21)
+                              | (long) ((z - minimum[2])/cellSize);
+            long hash = cell;
+            hash ^= hash >>> 29;
+            hash *= 0xbf58476d1ce4e5b9L;
+            hash ^= hash >>> 32;
+
+            int slot = (int) hash & mask;
+            while (table[slot] >= 0 && clusterCells[table[slot]] != cell) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] < 0) {
+                if (clusterCount == clusterSizes.length) {
+                    clusterCells = Arrays.copyOf(clusterCells, clusterCount*2);
+                    clusterSums = Arrays.copyOf(clusterSums, clusterCount*2*3);
+                    clusterSizes = Arrays.copyOf(clusterSizes, clusterCount*2);
+                }
+                clusterCells[clusterCount] = cell;
+                table[slot] = clusterCount++;
+            }
+
+            final int cluster = table[slot];
+            clusterSums[cluster*3]     += x;
+            clusterSums[cluster*3 + 1] += y;
+            clusterSums[cluster*3 + 2] += z;
+            clusterSizes[cluster]++;
+            cornerClusters[corner] = cluster;
+        }
+
+        // each polygon keeps its corners in order, without runs of the same cluster
+        final int[] keptClusters = new int[cornerCount];
+        final int[] polygonOffsets = new int[mesh.getPolygonCount() + 1];
+        int keptCornerCount = 0;
+        int keptPolygonCount = 0;
+        for (int i = 0; i < mesh.getPolygonCount(); i++) {
+            final int start = keptCornerCount;
+            for (int corner = mesh.getPolygonStart(i); corner < mesh.getPolygonEnd(i); corner++) {
+                if (keptCornerCount == start || keptClusters[keptCornerCount - 1] != cornerClusters[corner]) {
+                    keptClusters[keptCornerCount++] = cornerClusters[corner];
+                }
+            }
+            while (keptCornerCount - start > 1 && keptClusters[keptCornerCount - 1] == keptClusters[start]) {
+                keptCornerCount--;
+            }
+            if (keptCornerCount - start < 3) {
+                keptCornerCount = start;
+            } else {
+                polygonOffsets[keptPolygonCount++] = start;
+            }
+        }
+        polygonOffsets[keptPolygonCount] = keptCornerCount;
+
+        final double[] vertices = new double[keptCornerCount*3];
+        for (int corner = 0; corner < keptCornerCount; corner++) {
+            final int cluster = keptClusters[corner];
+            vertices[corner*3]     = clusterSums[cluster*3]/clusterSizes[cluster];
+            vertices[corner*3 + 1] = clusterSums[cluster*3 + 1]/clusterSizes[cluster];
+            vertices[corner*3 + 2] = clusterSums[cluster*3 + 2]/clusterSizes[cluster];
+        }
+        return new SpacecraftMesh(vertices, Arrays.copyOf(polygonOffsets, keptPolygonCount + 1));
+    }
+}
@@ -0,0 +1,209 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reusable output buffer for one projected frame of a SpacecraftMesh.  The indices of the
+// front-facing polygons are listed in visiblePolygons[0 .. visiblePolygonCount), and their
+// projected coordinates are stored at the same vertex positions as in the mesh.  Coordinates of
+// hidden polygons are not computed.
+public class ProjectedFrame {
+
+    private final SpacecraftMesh mesh;
+    private final double[] projectedVertices;
+    private final int[] visiblePolygons;
+    private final boolean[] frontFacing;
+    private int visiblePolygonCount;
+
+    public ProjectedFrame(SpacecraftMesh mesh) {
+        this.mesh = mesh;
+        this.projectedVertices = new double[mesh.getVertexCount()*3];
+        this.visiblePolygons = new int[mesh.getPolygonCount()];
+        this.frontFacing = new boolean[mesh.getPolygonCount()];
+    }
+
+    public SpacecraftMesh getMesh() {
+        return mesh;
+    }
+
+    public double[] getProjectedVertices() {
+        return projectedVertices;
+    }
+
+    public int[] getVisiblePolygons() {
+        return visiblePolygons;
+    }
+
+    public int getVisiblePolygonCount() {
+        return visiblePolygonCount;
+    }
+
+    public void clearVisiblePolygons() {
+        visiblePolygonCount = 0;
+    }
+
+    public void addVisiblePolygon(int polygonIndex) {
+        visiblePolygons[visiblePolygonCount++] = polygonIndex;
+    }
+
+    // Culls, rotates and perspective-projects polygons fromPolygon (inclusive) to toPolygon (exclusive)
+    // for the given row-major attitude matrix and a viewer at (0, 0, viewingDistance).  Disjoint
+    // ranges write disjoint parts of this frame, so they may be projected on different threads;
+    // collectVisiblePolygons() must then be called once all of them are done.
+    public void projectPolygons(double[] attitudeMatrix, double viewingDistance, int fromPolygon, int toPolygon) {
+        // the viewer in body coordinates:  the transpose of the attitude matrix times the viewer
+        // position, which is the third row of the matrix scaled
+        mesh.findFrontFacingPolygons(attitudeMatrix[6]*viewingDistance,
+                                     attitudeMatrix[7]*viewingDistance,
+                                     attitudeMatrix[8]*viewingDistance,
+                                     frontFacing, fromPolygon, toPolygon);
+
+        for (int i = fromPolygon; i < toPolygon; i++) {
+            if (frontFacing[i]) {
+                projectPolygon(attitudeMatrix, viewingDistance, i);
+            }
+        }
+    }
+
+    // Rotates and projects the polygons listed in polygons[fromIndex .. toIndex) without culling, as
+    // when their visibility is already known.  Like projectPolygons(), disjoint index ranges may be
+    // projected on different threads; setVisiblePolygons() then lists them.
+    public void projectListedPolygons(double[] attitudeMatrix, double viewingDistance, int[] polygons, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            projectPolygon(attitudeMatrix, viewingDistance, polygons[i]);
+        }
+    }
+
+    private void projectPolygon(double[] attitudeMatrix, double viewingDistance, int polygonIndex) {
+        mesh.rotatePolygonVertices(attitudeMatrix, polygonIndex, projectedVertices);
+
+        final int end = mesh.getPolygonEnd(polygonIndex)*3;
+        for (int j = mesh.getPolygonStart(polygonIndex)*3; j < end; j += 3) {
+            final double z = projectedVertices[j + 2];
+
+            projectedVertices[j]     = projectedVertices[j] / (1 - (z/viewingDistance));
+            projectedVertices[j + 1] = projectedVertices[j + 1] / (1 - (z/viewingDistance));
+        }
+    }
+
+    // Lists the given polygons, in mesh order, as the visible ones.
+    public void setVisiblePolygons(int[] polygons) {
+        System.arraycopy(polygons, 0, visiblePolygons, 0, polygons.length);
+        visiblePolygonCount = polygons.length;
+    }
+
+    // The visible polygons in mesh order, in an array of their own.
+    public int[] copyVisiblePolygons() {
+        return Arrays.copyOf(visiblePolygons, visiblePolygonCount);
+    }
+
+    // Lists the front-facing polygons in mesh order, however the projection was split up.
+    public void collectVisiblePolygons() {
+        clearVisiblePolygons();
+        for (int i = 0; i < frontFacing.length; i++) {
+            if (frontFacing[i]) {
+                addVisiblePolygon(i);
+            }
+        }
+    }
+
+    // Same as above, but leaves out polygons whose projection fits within minimumExtent in both
+    // x and y, as when they would be smaller than a pixel on screen.
+    public void collectVisiblePolygons(double minimumExtent) {
+        clearVisiblePolygons();
+        for (int i = 0; i < frontFacing.length; i++) {
+            if (frontFacing[i] && isAtLeast(i, minimumExtent)) {
+                addVisiblePolygon(i);
+            }
+        }
+    }
+
+    private boolean isAtLeast(int polygonIndex, double minimumExtent) {
+        final int start = mesh.getPolygonStart(polygonIndex)*3;
+        final int end = mesh.getPolygonEnd(polygonIndex)*3;
+        double minimumX = Double.POSITIVE_INFINITY;
+        double maximumX = Double.NEGATIVE_INFINITY;
+        double minimumY = Double.POSITIVE_INFINITY;
+        double maximumY = Double.NEGATIVE_INFINITY;
+        for (int j = start; j < end; j += 3) {
+            minimumX = Math.min(minimumX, projectedVertices[j]);
+            maximumX = Math.max(maximumX, projectedVertices[j]);
+            minimumY = Math.min(minimumY, projectedVertices[j + 1]);
+            maximumY = Math.max(maximumY, projectedVertices[j + 1]);
+        }
+        return maximumX - minimumX >= minimumExtent || maximumY - minimumY >= minimumExtent;
+    }
+
+    // Bit i (least significant bit first within each byte) is set when polygon i is visible.
+    public byte[] getVisiblePolygonMask() {
+        return toVisiblePolygonMask(mesh.getPolygonCount(), visiblePolygons, visiblePolygonCount);
+    }
+
+    public static byte[] toVisiblePolygonMask(int polygonCount, int[] visiblePolygons, int visiblePolygonCount) {
+        final byte[] visiblePolygonMask = new byte[(polygonCount + 7)/8];
+        for (int i = 0; i < visiblePolygonCount; i++) {
+            visiblePolygonMask[visiblePolygons[i] >> 3] |= 1 << (visiblePolygons[i] & 7);
+        }
+        return visiblePolygonMask;
+    }
+
+    // Adapter to the nested list form returned by the AttitudeModelService contract.
+    public List<List<List<Double>>> toVisiblePolygons() {
+        final List<List<List<Double>>> polygons = new ArrayList<>(visiblePolygonCount);
+        for (int i = 0; i < visiblePolygonCount; i++) {
+            final int polygonIndex = visiblePolygons[i];
+            polygons.add(SpacecraftMesh.toPolygon(projectedVertices,
+                                                  mesh.getPolygonStart(polygonIndex),
+                                                  mesh.getPolygonEnd(polygonIndex)));
+        }
+        return polygons;
+    }
+
+    // Size of encode()'s output:  the polygon count, one vertex count per polygon, and x, y, z per vertex.
+    public int getEncodedSize() {
+        int visibleVertexCount = 0;
+        for (int i = 0; i < visiblePolygonCount; i++) {
+            visibleVertexCount += mesh.getPolygonEnd(visiblePolygons[i]) - mesh.getPolygonStart(visiblePolygons[i]);
+        }
+        return Integer.BYTES*(1 + visiblePolygonCount) + Float.BYTES*3*visibleVertexCount;
+    }
+
+    // Packs the visible polygons as little-endian binary:  an int32 polygon count, an int32 vertex
+    // count for each polygon, then float32 projected x, y, z coordinates for every vertex in order.
+    public ByteBuffer encode() {
+        final ByteBuffer buffer = ByteBuffer.allocate(getEncodedSize()).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(visiblePolygonCount);
+        for (int i = 0; i < visiblePolygonCount; i++) {
+            buffer.putInt(mesh.getPolygonEnd(visiblePolygons[i]) - mesh.getPolygonStart(visiblePolygons[i]));
+        }
+        for (int i = 0; i < visiblePolygonCount; i++) {
+            final int end = mesh.getPolygonEnd(visiblePolygons[i])*3;
+            for (int j = mesh.getPolygonStart(visiblePolygons[i])*3; j < end; j++) {
+                buffer.putFloat((float) projectedVertices[j]);
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class PropagationRequest {
+
+    private double stepSeconds;
+    private int stepCount;
+    private int outputEveryNSteps = 1;
+    private boolean includePolygons = false;
+    private List<ScheduledTorqueRecord> torqueSchedule = new ArrayList<>();
+
+    public PropagationRequest(double stepSeconds,
+                              int stepCount,
+                              int outputEveryNSteps,
+                              boolean includePolygons,
+                              List<ScheduledTorqueRecord> torqueSchedule) {
+        this.stepSeconds = stepSeconds;
+        this.stepCount = stepCount;
+        this.outputEveryNSteps = outputEveryNSteps;
+        this.includePolygons = includePolygons;
+        this.torqueSchedule = torqueSchedule;
+    }
+
+    @Override
+    public String toString() {
+        return "PropagationRequest [stepSeconds=" + stepSeconds
+                + ", stepCount=" + stepCount
+                + ", outputEveryNSteps=" + outputEveryNSteps
+                + ", includePolygons=" + includePolygons
+                + ", torqueSchedule=" + torqueSchedule
+                + "]";
+    }
+}
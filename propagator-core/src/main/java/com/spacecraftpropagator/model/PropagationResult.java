@@ -0,0 +1,69 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spacecraftpropagator.sensors.SensorSuite;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Trajectory in flat arrays, one sample per output step:  attitudeQuarternions holds r, x, y, z
+// and radiansPerSecond holds the X, Y, Z body rates for each sample.  sensorValues holds the values of
+// every sensor named in sensorNames for each sample, one per sensor and four per star tracker.
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PropagationResult {
+
+    private int sampleCount;
+    private double[] seconds;
+    private double[] attitudeQuarternions;
+    private double[] radiansPerSecond;
+    private double[] sunSensorValues;
+    private double[] irSensorValues;
+    private List<String> sensorNames;
+    private double[] sensorValues;
+    private List<List<List<List<Double>>>> spacecraftPolygons;
+
+    public PropagationResult(int sampleCount, SensorSuite sensorSuite, boolean includePolygons) {
+        this.sampleCount = sampleCount;
+        this.seconds = new double[sampleCount];
+        this.attitudeQuarternions = new double[sampleCount*4];
+        this.radiansPerSecond = new double[sampleCount*3];
+        this.sunSensorValues = new double[sampleCount];
+        this.irSensorValues = new double[sampleCount];
+        this.sensorNames = new ArrayList<>(sensorSuite.getSensorCount());
+        for (int i = 0; i < sensorSuite.getSensorCount(); i++) {
+            this.sensorNames.add(sensorSuite.getName(i));
+        }
+        this.sensorValues = new double[sampleCount*sensorSuite.getValueCount()];
+        if (includePolygons) {
+            this.spacecraftPolygons = new ArrayList<>(sampleCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PropagationResult [sampleCount=" + sampleCount + "]";
+    }
+}
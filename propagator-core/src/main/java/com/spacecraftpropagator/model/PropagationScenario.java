@@ -0,0 +1,89 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Input of the ScenarioRunner:  the spacecraft model, the integrator, an optional attitude
+// controller and the propagation to run.  File names are relative to the scenario file.  A binary
+// meshFile, if given, replaces polygonsFile, and its inertia tensor, if it has one, replaces
+// momentOfInertiaFile.  Without a sensorSuiteFile the spacecraft has the original sun and IR sensors;
+// an orbitPeriodSeconds above 0 turns the Earth direction about +Z from -Y once per period.
+// analyticCoast solves torque-free steps in closed form instead of with the integrator.
+@NoArgsConstructor
+@Getter
+@Setter
+public class PropagationScenario {
+
+    private String polygonsFile = "spacecraftPolygonsData.json";
+    private String momentOfInertiaFile = "momentOfInertiaValues.json";
+    private String meshFile;
+    private String sensorSuiteFile;
+    private double orbitPeriodSeconds;
+    private String integratorMethod = "dormand-prince";
+    private double maximumStepSeconds = 10.0;
+    private double relativeTolerance = 1e-9;
+    private double absoluteTolerance = 1e-12;
+    private boolean analyticCoast = true;
+    private AttitudeControllerRecord attitudeController;
+    private PropagationRequest propagation;
+
+    public PropagationScenario(String polygonsFile,
+                               String momentOfInertiaFile,
+                               String meshFile,
+                               String sensorSuiteFile,
+                               double orbitPeriodSeconds,
+                               String integratorMethod,
+                               double maximumStepSeconds,
+                               double relativeTolerance,
+                               double absoluteTolerance,
+                               boolean analyticCoast,
+                               AttitudeControllerRecord attitudeController,
+                               PropagationRequest propagation) {
+        this.polygonsFile = polygonsFile;
+        this.momentOfInertiaFile = momentOfInertiaFile;
+        this.meshFile = meshFile;
+        this.sensorSuiteFile = sensorSuiteFile;
+        this.orbitPeriodSeconds = orbitPeriodSeconds;
+        this.integratorMethod = integratorMethod;
+        this.maximumStepSeconds = maximumStepSeconds;
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+        this.analyticCoast = analyticCoast;
+        this.attitudeController = attitudeController;
+        this.propagation = propagation;
+    }
+
+    @Override
+    public String toString() {
+        return "PropagationScenario [polygonsFile=" + polygonsFile
+                + ", momentOfInertiaFile=" + momentOfInertiaFile
+                + ", meshFile=" + meshFile
+                + ", sensorSuiteFile=" + sensorSuiteFile
+                + ", orbitPeriodSeconds=" + orbitPeriodSeconds
+                + ", integratorMethod=" + integratorMethod
+                + ", maximumStepSeconds=" + maximumStepSeconds
+                + ", relativeTolerance=" + relativeTolerance
+                + ", absoluteTolerance=" + absoluteTolerance
+                + ", analyticCoast=" + analyticCoast
+                + ", attitudeController=" + attitudeController
+                + ", propagation=" + propagation
+                + "]";
+    }
+}
@@ -106,7 +106,7 @@ public class Quarternion {
         return new Quarternion(0.0, outputVector.get(0), outputVector.get(1), outputVector.get(2));
     }
     
-    private Quarternion qMultiply(double r0,
+    public Quarternion qMultiply(double r0,
                                   double x0,
                                   double y0,
                                   double z0,
@@ -121,7 +121,7 @@ public class Quarternion {
                               );
     }
     
-    private Quarternion qInverse(double r, double x, double y, double z) {
+    public Quarternion qInverse(double r, double x, double y, double z) {
         double normSquared = (r*r) + (x*x) + (y*y) + (z*z);
         return new Quarternion(r/normSquared, -x/normSquared, -y/normSquared, -z/normSquared);
     }
@@ -0,0 +1,43 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class ScheduledTorqueRecord {
+
+    private double secondsFromStart; // applied before the first step that starts at or after this time
+    private TorqueRecord torqueRecord;
+
+    public ScheduledTorqueRecord(double secondsFromStart,
+                                 TorqueRecord torqueRecord) {
+        this.secondsFromStart = secondsFromStart;
+        this.torqueRecord = torqueRecord;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledTorqueRecord [secondsFromStart=" + secondsFromStart
+                + ", torqueRecord=" + torqueRecord
+                + "]";
+    }
+}
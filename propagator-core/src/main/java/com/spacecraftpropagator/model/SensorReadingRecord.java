@@ -0,0 +1,50 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// The reading of one sensor:  a single value, or r, x, y, z for a star tracker.
+@NoArgsConstructor
+@Getter
+@Setter
+public class SensorReadingRecord {
+
+    private String name;
+    private String type;
+    private double[] values;
+
+    public SensorReadingRecord(String name,
+                               String type,
+                               double[] values) {
+        this.name = name;
+        this.type = type;
+        this.values = values;
+    }
+
+    @Override
+    public String toString() {
+        return "SensorReadingRecord [name=" + name
+                + ", type=" + type
+                + ", values=" + Arrays.toString(values)
+                + "]";
+    }
+}
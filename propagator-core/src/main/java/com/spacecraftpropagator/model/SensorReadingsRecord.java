@@ -0,0 +1,62 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.spacecraftpropagator.sensors.SensorSuite;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Every sensor of a session's suite, read at one instant.
+@NoArgsConstructor
+@Getter
+@Setter
+public class SensorReadingsRecord {
+
+    private double simulationSeconds;
+    private List<SensorReadingRecord> sensors;
+
+    public SensorReadingsRecord(double simulationSeconds,
+                                List<SensorReadingRecord> sensors) {
+        this.simulationSeconds = simulationSeconds;
+        this.sensors = sensors;
+    }
+
+    public static SensorReadingsRecord fromAttitudeState(AttitudeState attitudeState) {
+        final SensorSuite sensorSuite = attitudeState.getSensorSuite();
+        final double[] sensorValues = attitudeState.getSensorValues();
+        final List<SensorReadingRecord> sensors = new ArrayList<>(sensorSuite.getSensorCount());
+        for (int i = 0; i < sensorSuite.getSensorCount(); i++) {
+            final int offset = sensorSuite.getValueOffset(i);
+            sensors.add(new SensorReadingRecord(sensorSuite.getName(i), sensorSuite.getType(i),
+                                                Arrays.copyOfRange(sensorValues, offset, offset + sensorSuite.getValueCount(i))));
+        }
+        return new SensorReadingsRecord(attitudeState.getSimulationSeconds(), sensors);
+    }
+
+    @Override
+    public String toString() {
+        return "SensorReadingsRecord [simulationSeconds=" + simulationSeconds
+                + ", sensors=" + sensors
+                + "]";
+    }
+}
@@ -0,0 +1,59 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One sensor of a sensor suite file.  Sun and horizon sensors look along boresight, and a gyro
+// measures the body rate about boresight, both in body coordinates.  A star tracker's
+// mountingQuarternion r, x, y, z rotates its sensor coordinates into body coordinates.
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SensorRecord {
+
+    private String name;
+    private String type;    // sun, horizon, gyro or star-tracker
+    private double[] boresight;
+    private double[] mountingQuarternion;
+
+    public SensorRecord(String name,
+                        String type,
+                        double[] boresight,
+                        double[] mountingQuarternion) {
+        this.name = name;
+        this.type = type;
+        this.boresight = boresight;
+        this.mountingQuarternion = mountingQuarternion;
+    }
+
+    @Override
+    public String toString() {
+        return "SensorRecord [name=" + name
+                + ", type=" + type
+                + ", boresight=" + Arrays.toString(boresight)
+                + ", mountingQuarternion=" + Arrays.toString(mountingQuarternion)
+                + "]";
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SimulationSessionRecord {
+
+    private String sessionId;
+    private String meshId;
+    private List<List<List<Double>>> spacecraftPolygons;    // projected, visible polygons
+    private List<List<List<Double>>> bodyFramePolygons;     // the whole mesh, in attitude frame mode
+
+    public SimulationSessionRecord(String sessionId,
+                                   String meshId,
+                                   List<List<List<Double>>> spacecraftPolygons,
+                                   List<List<List<Double>>> bodyFramePolygons) {
+        this.sessionId = sessionId;
+        this.meshId = meshId;
+        this.spacecraftPolygons = spacecraftPolygons;
+        this.bodyFramePolygons = bodyFramePolygons;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationSessionRecord [sessionId=" + sessionId
+                + ", meshId=" + meshId
+                + ", spacecraftPolygons=" + spacecraftPolygons
+                + ", bodyFramePolygons=" + bodyFramePolygons
+                + "]";
+    }
+}
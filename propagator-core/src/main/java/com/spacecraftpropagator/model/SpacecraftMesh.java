@@ -0,0 +1,251 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Packed, primitive storage of the spacecraft polygons.  Vertex coordinates are stored as
+// x0, y0, z0, x1, y1, z1, ... and polygon i owns vertices polygonOffsets[i] (inclusive)
+// to polygonOffsets[i+1] (exclusive).
+//
+// Each polygon's outward normal n and plane offset n.c, with c the polygon centroid, are computed
+// once at load time and stored as separate primitive arrays, so that back-face culling for any
+// attitude is a single pass of multiply-adds the JIT can vectorize.
+public class SpacecraftMesh {
+
+    private final double[] vertices;
+    private final int[] polygonOffsets;
+    private final String meshId;
+
+    private final double[] normalX;
+    private final double[] normalY;
+    private final double[] normalZ;
+    private final double[] planeOffsets;
+
+    public SpacecraftMesh(double[] vertices, int[] polygonOffsets) {
+        if (polygonOffsets.length == 0 || polygonOffsets[polygonOffsets.length - 1]*3 != vertices.length) {
+            throw new IllegalArgumentException("Polygon offsets do not match vertex array length " + vertices.length);
+        }
+        this.vertices = vertices;
+        this.polygonOffsets = polygonOffsets;
+        this.meshId = computeMeshId(vertices, polygonOffsets);
+
+        final int polygonCount = polygonOffsets.length - 1;
+        this.normalX = new double[polygonCount];
+        this.normalY = new double[polygonCount];
+        this.normalZ = new double[polygonCount];
+        this.planeOffsets = new double[polygonCount];
+        computeNormals();
+    }
+
+    // For meshes whose id and normals were computed when they were saved, as by MeshFile.
+    public SpacecraftMesh(double[] vertices, int[] polygonOffsets, String meshId,
+                          double[] normalX, double[] normalY, double[] normalZ, double[] planeOffsets) {
+        final int polygonCount = polygonOffsets.length - 1;
+        if (polygonOffsets.length == 0 || polygonOffsets[polygonCount]*3 != vertices.length) {
+            throw new IllegalArgumentException("Polygon offsets do not match vertex array length " + vertices.length);
+        }
+        if (normalX.length != polygonCount || normalY.length != polygonCount
+                || normalZ.length != polygonCount || planeOffsets.length != polygonCount) {
+            throw new IllegalArgumentException("Expected normals for " + polygonCount + " polygons");
+        }
+        this.vertices = vertices;
+        this.polygonOffsets = polygonOffsets;
+        this.meshId = meshId;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.normalZ = normalZ;
+        this.planeOffsets = planeOffsets;
+    }
+
+    public static SpacecraftMesh fromPolygons(List<List<List<Double>>> polygons) {
+        int vertexCount = 0;
+        for (List<List<Double>> polygon : polygons) {
+            vertexCount += polygon.size();
+        }
+
+        final double[] vertices = new double[vertexCount*3];
+        final int[] polygonOffsets = new int[polygons.size() + 1];
+
+        int vertexIndex = 0;
+        for (int i = 0; i < polygons.size(); i++) {
+            polygonOffsets[i] = vertexIndex;
+            for (List<Double> coords : polygons.get(i)) {
+                vertices[vertexIndex*3]     = coords.get(0);
+                vertices[vertexIndex*3 + 1] = coords.get(1);
+                vertices[vertexIndex*3 + 2] = coords.get(2);
+                vertexIndex++;
+            }
+        }
+        polygonOffsets[polygons.size()] = vertexIndex;
+
+        return new SpacecraftMesh(vertices, polygonOffsets);
+    }
+
+    // Content hash of the mesh, so that clients can cache the body-frame mesh by id (or ETag).
+    public String getMeshId() {
+        return meshId;
+    }
+
+    public int getPolygonCount() {
+        return polygonOffsets.length - 1;
+    }
+
+    public int getVertexCount() {
+        return polygonOffsets[polygonOffsets.length - 1];
+    }
+
+    // coordinate 0, 1 or 2 (x, y or z) of vertex vertexIndex
+    public double getVertexCoordinate(int vertexIndex, int coordinate) {
+        return vertices[vertexIndex*3 + coordinate];
+    }
+
+    public double getNormalX(int polygonIndex) {
+        return normalX[polygonIndex];
+    }
+
+    public double getNormalY(int polygonIndex) {
+        return normalY[polygonIndex];
+    }
+
+    public double getNormalZ(int polygonIndex) {
+        return normalZ[polygonIndex];
+    }
+
+    public double getPlaneOffset(int polygonIndex) {
+        return planeOffsets[polygonIndex];
+    }
+
+    public int getPolygonStart(int polygonIndex) {
+        return polygonOffsets[polygonIndex];
+    }
+
+    public int getPolygonEnd(int polygonIndex) {
+        return polygonOffsets[polygonIndex + 1];
+    }
+
+    // The mesh is shared read-only between sessions, so rotated coordinates go to the caller's array.
+    public void rotateVertices(double[] rotationMatrix, double[] rotatedVertices) {
+        LinearAlgebra.matrixVectorMult3x3(rotationMatrix, vertices, rotatedVertices, 0, getVertexCount());
+    }
+
+    public void rotatePolygonVertices(double[] rotationMatrix, int polygonIndex, double[] rotatedVertices) {
+        LinearAlgebra.matrixVectorMult3x3(rotationMatrix, vertices, rotatedVertices,
+                                          polygonOffsets[polygonIndex], polygonOffsets[polygonIndex + 1]);
+    }
+
+    // Sets frontFacing[i] for every polygon whose outward side faces a viewer at (eyeX, eyeY, eyeZ),
+    // given in body coordinates:  n.(eye - c) > 0, or n.eye > n.c.  The loop has no branches or
+    // calls, so it compiles to SIMD code.
+    public void findFrontFacingPolygons(double eyeX, double eyeY, double eyeZ, boolean[] frontFacing) {
+        findFrontFacingPolygons(eyeX, eyeY, eyeZ, frontFacing, 0, getPolygonCount());
+    }
+
+    // Same as above, for polygons fromPolygon (inclusive) to toPolygon (exclusive) only.
+    public void findFrontFacingPolygons(double eyeX, double eyeY, double eyeZ, boolean[] frontFacing,
+                                        int fromPolygon, int toPolygon) {
+        for (int i = fromPolygon; i < toPolygon; i++) {
+            frontFacing[i] = normalX[i]*eyeX + normalY[i]*eyeY + normalZ[i]*eyeZ > planeOffsets[i];
+        }
+    }
+
+    public List<List<List<Double>>> toPolygons() {
+        final List<List<List<Double>>> polygons = new ArrayList<>(getPolygonCount());
+        for (int i = 0; i < getPolygonCount(); i++) {
+            polygons.add(toPolygon(vertices, polygonOffsets[i], polygonOffsets[i + 1]));
+        }
+        return polygons;
+    }
+
+    static List<List<Double>> toPolygon(double[] vertices, int start, int end) {
+        final List<List<Double>> polygon = new ArrayList<>(end - start);
+        for (int j = start; j < end; j++) {
+            polygon.add(Arrays.asList(vertices[j*3], vertices[j*3 + 1], vertices[j*3 + 2]));
+        }
+        return polygon;
+    }
+
+    // Newell's method, which sums over all the edges and so still gives a good normal for polygons
+    // that are slightly non-planar.  Polygons are counter-clockwise when seen from outside.
+    private void computeNormals() {
+        for (int i = 0; i < getPolygonCount(); i++) {
+            final int start = polygonOffsets[i];
+            final int end = polygonOffsets[i + 1];
+
+            double nx = 0.0;
+            double ny = 0.0;
+            double nz = 0.0;
+            double cx = 0.0;
+            double cy = 0.0;
+            double cz = 0.0;
+            for (int j = start; j < end; j++) {
+                final int current = j*3;
+                final int next = (j + 1 < end ? j + 1 : start)*3;
+
+                nx += (vertices[current + 1] - vertices[next + 1])*(vertices[current + 2] + vertices[next + 2]);
+                ny += (vertices[current + 2] - vertices[next + 2])*(vertices[current] + vertices[next]);
+                nz += (vertices[current] - vertices[next])*(vertices[current + 1] + vertices[next + 1]);
+
+                cx += vertices[current];
+                cy += vertices[current + 1];
+                cz += vertices[current + 2];
+            }
+
+            final int vertexCount = Math.max(1, end - start);
+            normalX[i] = nx;
+            normalY[i] = ny;
+            normalZ[i] = nz;
+            planeOffsets[i] = (nx*cx + ny*cy + nz*cz)/vertexCount;
+        }
+    }
+
+    private static String computeMeshId(double[] vertices, int[] polygonOffsets) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            for (double coordinate : vertices) {
+                if (buffer.remaining() < Double.BYTES) {
+                    messageDigest.update(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                buffer.putDouble(coordinate);
+            }
+            for (int polygonOffset : polygonOffsets) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    messageDigest.update(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                buffer.putInt(polygonOffset);
+            }
+            messageDigest.update(buffer.array(), 0, buffer.position());
+
+            final StringBuilder meshId = new StringBuilder();
+            final byte[] digest = messageDigest.digest();
+            for (int i = 0; i < 8; i++) {
+                meshId.append(String.format("%02x", digest[i]));
+            }
+            return meshId.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
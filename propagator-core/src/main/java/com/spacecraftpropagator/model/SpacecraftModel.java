@@ -0,0 +1,77 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.sensors.SensorSuite;
+
+// A loaded spacecraft:  its mesh, with its levels of detail, its mass properties and its sensors,
+// shared read-only by every session of it.
+public class SpacecraftModel {
+
+    private final String name;
+    private final SpacecraftMesh spacecraftMesh;
+    private final MeshLevelsOfDetail levelsOfDetail;
+    private final RigidBodyDynamics rigidBodyDynamics;
+    private final SensorSuite sensorSuite;
+
+    public SpacecraftModel(String name, SpacecraftMesh spacecraftMesh, RigidBodyDynamics rigidBodyDynamics) {
+        this(name, MeshLevelsOfDetail.of(spacecraftMesh), rigidBodyDynamics);
+    }
+
+    public SpacecraftModel(String name, MeshLevelsOfDetail levelsOfDetail, RigidBodyDynamics rigidBodyDynamics) {
+        this(name, levelsOfDetail, rigidBodyDynamics, SensorSuite.DEFAULT);
+    }
+
+    public SpacecraftModel(String name, MeshLevelsOfDetail levelsOfDetail, RigidBodyDynamics rigidBodyDynamics, SensorSuite sensorSuite) {
+        this.name = name;
+        this.spacecraftMesh = levelsOfDetail.getLevel(0);
+        this.levelsOfDetail = levelsOfDetail;
+        this.rigidBodyDynamics = rigidBodyDynamics;
+        this.sensorSuite = sensorSuite;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SpacecraftMesh getSpacecraftMesh() {
+        return spacecraftMesh;
+    }
+
+    public MeshLevelsOfDetail getLevelsOfDetail() {
+        return levelsOfDetail;
+    }
+
+    public RigidBodyDynamics getRigidBodyDynamics() {
+        return rigidBodyDynamics;
+    }
+
+    public SensorSuite getSensorSuite() {
+        return sensorSuite;
+    }
+
+    @Override
+    public String toString() {
+        return "SpacecraftModel [name=" + name
+                + ", meshId=" + spacecraftMesh.getMeshId()
+                + ", polygons=" + spacecraftMesh.getPolygonCount()
+                + ", levelsOfDetail=" + levelsOfDetail.getLevelCount()
+                + ", sensors=" + sensorSuite.getSensorCount()
+                + "]";
+    }
+}
@@ -0,0 +1,136 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spacecraftpropagator.sensors.SensorSuite;
+import com.spacecraftpropagator.utils.SensorSuiteInvalidException;
+
+// Reads the JSON spacecraft model files.  The polygons are streamed token by token straight into
+// packed arrays, so a mesh of millions of vertices never exists as boxed lists.
+public class SpacecraftModelFiles {
+
+    private SpacecraftModelFiles() {
+    }
+
+    // [ [ [x, y, z], [x, y, z], ... ], ... ]:  a list of polygons, each a list of vertices
+    public static SpacecraftMesh readPolygons(Path file) throws IOException {
+        double[] vertices = new double[3*1024];
+        int[] polygonOffsets = new int[256];
+        int vertexCount = 0;
+        int polygonCount = 0;
+
+        try (InputStream inputStream = Files.newInputStream(file);
+             JsonParser parser = new JsonFactory().createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            for (JsonToken polygon = parser.nextToken(); polygon != JsonToken.END_ARRAY; polygon = parser.nextToken()) {
+                expect(parser, polygon, JsonToken.START_ARRAY);
+                if (polygonCount + 2 > polygonOffsets.length) {
+                    polygonOffsets = Arrays.copyOf(polygonOffsets, polygonOffsets.length*2);
+                }
+                polygonOffsets[polygonCount++] = vertexCount;
+
+                for (JsonToken vertex = parser.nextToken(); vertex != JsonToken.END_ARRAY; vertex = parser.nextToken()) {
+                    expect(parser, vertex, JsonToken.START_ARRAY);
+                    if ((vertexCount + 1)*3 > vertices.length) {
+                        vertices = Arrays.copyOf(vertices, vertices.length*2);
+                    }
+                    for (int coordinate = 0; coordinate < 3; coordinate++) {
+                        parser.nextToken();
+                        if (!parser.currentToken().isNumeric()) {
+                            throw new IOException("Expected a vertex coordinate at " + parser.getCurrentLocation());
+                        }
+                        vertices[vertexCount*3 + coordinate] = parser.getDoubleValue();
+                    }
+                    // further coordinates are ignored
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                    }
+                    vertexCount++;
+                }
+            }
+        }
+        polygonOffsets[polygonCount] = vertexCount;
+
+        return new SpacecraftMesh(Arrays.copyOf(vertices, vertexCount*3), Arrays.copyOf(polygonOffsets, polygonCount + 1));
+    }
+
+    // Accepts the principal moments [ Ixx, Iyy, Izz ], the six distinct elements
+    // [ Ixx, Iyy, Izz, Ixy, Ixz, Iyz ] of the tensor, or the full 3x3 tensor as nested lists.
+    // Off-diagonal elements are tensor elements, that is the negated products of inertia.  Values of
+    // any other shape throw IllegalArgumentException or ClassCastException.
+    @SuppressWarnings("unchecked")
+    public static double[] readInertiaTensor(Path file) throws IOException {
+        final List<Object> momentOfInertiaValues;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            momentOfInertiaValues = new ObjectMapper().readValue(inputStream, List.class);
+        }
+
+        if (momentOfInertiaValues.size() == 3 && momentOfInertiaValues.get(0) instanceof List) {
+            final double[] inertiaTensor = new double[9];
+            for (int row = 0; row < 3; row++) {
+                final List<Number> values = (List<Number>) momentOfInertiaValues.get(row);
+                for (int column = 0; column < 3; column++) {
+                    inertiaTensor[row*3 + column] = values.get(column).doubleValue();
+                }
+            }
+            return inertiaTensor;
+        }
+
+        final double[] values = new double[momentOfInertiaValues.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Number) momentOfInertiaValues.get(i)).doubleValue();
+        }
+        if (values.length == 3) {
+            return new double[] { values[0], 0.0, 0.0,
+                                  0.0, values[1], 0.0,
+                                  0.0, 0.0, values[2] };
+        }
+        if (values.length == 6) {
+            return new double[] { values[0], values[3], values[4],
+                                  values[3], values[1], values[5],
+                                  values[4], values[5], values[2] };
+        }
+        throw new IllegalArgumentException("Expected 3, 6 or 3x3 moment of inertia values, not " + values.length);
+    }
+
+    // [ { "name": ..., "type": ..., "boresight": [x, y, z] }, ... ], as SensorRecords
+    public static SensorSuite readSensorSuite(Path file) throws IOException, SensorSuiteInvalidException {
+        final List<SensorRecord> sensorRecords;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            sensorRecords = new ObjectMapper().readValue(inputStream, new TypeReference<List<SensorRecord>>() { });
+        }
+        return SensorSuite.fromRecords(sensorRecords);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expected) throws IOException {
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but found " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One page of a recorded run, restricted to a range of simulated time.  morePages tells whether
+// the next page has any records.
+@NoArgsConstructor
+@Getter
+@Setter
+public class TelemetryPageRecord {
+
+    private String runId;
+    private double fromSeconds;
+    private double toSeconds;
+    private int page;
+    private int pageSize;
+    private boolean morePages;
+    private List<TelemetrySampleRecord> samples;
+
+    public TelemetryPageRecord(String runId,
+                               double fromSeconds,
+                               double toSeconds,
+                               int page,
+                               int pageSize,
+                               boolean morePages,
+                               List<TelemetrySampleRecord> samples) {
+        this.runId = runId;
+        this.fromSeconds = fromSeconds;
+        this.toSeconds = toSeconds;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.morePages = morePages;
+        this.samples = samples;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryPageRecord [runId=" + runId
+                + ", fromSeconds=" + fromSeconds
+                + ", toSeconds=" + toSeconds
+                + ", page=" + page
+                + ", pageSize=" + pageSize
+                + ", morePages=" + morePages
+                + "]";
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One recorded step or applied torque.  Step records carry the attitude, the rates and the
+// sensor values after the step; torque records carry the torque as applied, in spacecraft
+// coordinates.
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TelemetrySampleRecord {
+
+    public static final String KIND_STEP = "step";
+    public static final String KIND_TORQUE = "torque";
+
+    private long sequence;
+    private String kind;
+    private double simulationSeconds;
+    private long recordedAtMillis;
+    private double[] attitudeQuarternion;
+    private double[] radiansPerSecond;
+    private Double sunSensorValue;
+    private Double irSensorValue;
+    private double[] torqueAxis;
+    private Double torqueNewtonMeters;
+    private Double secondsToApplyTorque;
+
+    public TelemetrySampleRecord(long sequence,
+                                 String kind,
+                                 double simulationSeconds,
+                                 long recordedAtMillis,
+                                 double[] attitudeQuarternion,
+                                 double[] radiansPerSecond,
+                                 Double sunSensorValue,
+                                 Double irSensorValue,
+                                 double[] torqueAxis,
+                                 Double torqueNewtonMeters,
+                                 Double secondsToApplyTorque) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.simulationSeconds = simulationSeconds;
+        this.recordedAtMillis = recordedAtMillis;
+        this.attitudeQuarternion = attitudeQuarternion;
+        this.radiansPerSecond = radiansPerSecond;
+        this.sunSensorValue = sunSensorValue;
+        this.irSensorValue = irSensorValue;
+        this.torqueAxis = torqueAxis;
+        this.torqueNewtonMeters = torqueNewtonMeters;
+        this.secondsToApplyTorque = secondsToApplyTorque;
+    }
+
+    public static TelemetrySampleRecord step(long sequence, double simulationSeconds, long recordedAtMillis,
+                                             double[] attitudeQuarternion, double[] radiansPerSecond,
+                                             double sunSensorValue, double irSensorValue) {
+        return new TelemetrySampleRecord(sequence, KIND_STEP, simulationSeconds, recordedAtMillis,
+                                         attitudeQuarternion, radiansPerSecond, sunSensorValue, irSensorValue,
+                                         null, null, null);
+    }
+
+    public static TelemetrySampleRecord torque(long sequence, double simulationSeconds, long recordedAtMillis,
+                                               double[] torqueAxis, double torqueNewtonMeters, double secondsToApplyTorque) {
+        return new TelemetrySampleRecord(sequence, KIND_TORQUE, simulationSeconds, recordedAtMillis,
+                                         null, null, null, null,
+                                         torqueAxis, torqueNewtonMeters, secondsToApplyTorque);
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetrySampleRecord [sequence=" + sequence
+                + ", kind=" + kind
+                + ", simulationSeconds=" + simulationSeconds
+                + ", recordedAtMillis=" + recordedAtMillis
+                + "]";
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Counters of the server tick since startup.  An overrun tick took longer than the tick period;
+// the ticks it crowded out are skipped, and counted in skippedTicks, with the sessions advanced
+// over the skipped time in the next tick instead.
+@NoArgsConstructor
+@Getter
+@Setter
+public class TickStatisticsRecord {
+
+    private double ticksPerSecond;
+    private int subscribedSessions;
+    private long ticks;
+    private long overrunTicks;
+    private long skippedTicks;
+    private long lastTickMicros;
+    private long maximumTickMicros;
+
+    public TickStatisticsRecord(double ticksPerSecond,
+                                int subscribedSessions,
+                                long ticks,
+                                long overrunTicks,
+                                long skippedTicks,
+                                long lastTickMicros,
+                                long maximumTickMicros) {
+        this.ticksPerSecond = ticksPerSecond;
+        this.subscribedSessions = subscribedSessions;
+        this.ticks = ticks;
+        this.overrunTicks = overrunTicks;
+        this.skippedTicks = skippedTicks;
+        this.lastTickMicros = lastTickMicros;
+        this.maximumTickMicros = maximumTickMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "TickStatisticsRecord [ticksPerSecond=" + ticksPerSecond
+                + ", subscribedSessions=" + subscribedSessions
+                + ", ticks=" + ticks
+                + ", overrunTicks=" + overrunTicks
+                + ", skippedTicks=" + skippedTicks
+                + ", lastTickMicros=" + lastTickMicros
+                + ", maximumTickMicros=" + maximumTickMicros
+                + "]";
+    }
+}
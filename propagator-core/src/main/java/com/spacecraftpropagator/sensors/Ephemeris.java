@@ -0,0 +1,128 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.sensors;
+
+// Sun and Earth directions in viewing coordinates over simulation time.  A fixed ephemeris keeps
+// the original geometry, the sun along -X and the Earth along -Y.  A circular orbit precomputes
+// one period of Earth directions into a table at construction, so a lookup during a step is an
+// index, a linear interpolation and a renormalization instead of trigonometry.  The sun direction
+// is held fixed over the orbit; its yearly drift is far below anything a session runs for.
+// Instances are immutable and shared by every session.
+public final class Ephemeris {
+
+    public static final Ephemeris FIXED = fixed(new double[] { -1.0, 0.0, 0.0 }, new double[] { 0.0, -1.0, 0.0 });
+
+    private final double[] sunDirection;
+    // x, y, z per sample, sampleCount + 1 samples so that the last interval needs no wrap
+    private final double[] earthDirections;
+    private final double periodSeconds;
+    private final int sampleCount;
+
+    private Ephemeris(double[] sunDirection, double[] earthDirections, double periodSeconds, int sampleCount) {
+        this.sunDirection = sunDirection;
+        this.earthDirections = earthDirections;
+        this.periodSeconds = periodSeconds;
+        this.sampleCount = sampleCount;
+    }
+
+    public static Ephemeris fixed(double[] sunDirection, double[] earthDirection) {
+        return new Ephemeris(unit(sunDirection, "sun direction"), unit(earthDirection, "Earth direction"), 0.0, 0);
+    }
+
+    // The Earth direction turns about orbitNormal once every periodSeconds, starting from earthAtEpoch
+    // at simulation time zero; the part of earthAtEpoch along the normal is dropped.
+    public static Ephemeris circularOrbit(double[] sunDirection, double[] earthAtEpoch, double[] orbitNormal, double periodSeconds, int sampleCount) {
+        if (!(periodSeconds > 0) || Double.isInfinite(periodSeconds)) {
+            throw new IllegalArgumentException("The orbit period must be positive, not " + periodSeconds);
+        }
+        if (sampleCount < 4) {
+            throw new IllegalArgumentException("An orbit needs at least 4 ephemeris samples, not " + sampleCount);
+        }
+
+        final double[] normal = unit(orbitNormal, "orbit normal");
+        final double[] earth = unit(earthAtEpoch, "Earth direction");
+        final double along = earth[0]*normal[0] + earth[1]*normal[1] + earth[2]*normal[2];
+        final double[] e0 = unit(new double[] { earth[0] - along*normal[0], earth[1] - along*normal[1], earth[2] - along*normal[2] },
+                                 "Earth direction out of the orbit plane");
+        final double[] e90 = { normal[1]*e0[2] - normal[2]*e0[1],
+                               normal[2]*e0[0] - normal[0]*e0[2],
+                               normal[0]*e0[1] - normal[1]*e0[0] };
+
+        final double[] earthDirections = new double[(sampleCount + 1)*3];
+        for (int i = 0; i <= sampleCount; i++) {
+            final double angle = 2.0*Math.PI*i/sampleCount;
+            final double cos = Math.cos(angle);
+            final double sin = Math.sin(angle);
+            for (int j = 0; j < 3; j++) {
+                earthDirections[i*3 + j] = cos*e0[j] + sin*e90[j];
+            }
+        }
+        return new Ephemeris(unit(sunDirection, "sun direction"), earthDirections, periodSeconds, sampleCount);
+    }
+
+    public boolean isFixed() {
+        return sampleCount == 0;
+    }
+
+    public double getPeriodSeconds() {
+        return periodSeconds;
+    }
+
+    public void sunDirection(double seconds, double[] direction) {
+        direction[0] = sunDirection[0];
+        direction[1] = sunDirection[1];
+        direction[2] = sunDirection[2];
+    }
+
+    public void earthDirection(double seconds, double[] direction) {
+        if (sampleCount == 0) {
+            direction[0] = earthDirections[0];
+            direction[1] = earthDirections[1];
+            direction[2] = earthDirections[2];
+            return;
+        }
+
+        double phase = seconds/periodSeconds;
+        phase = (phase - Math.floor(phase))*sampleCount;
+        final int sample = Math.min((int) phase, sampleCount - 1);
+        final double fraction = phase - sample;
+        final int i = sample*3;
+        final double x = earthDirections[i] + fraction*(earthDirections[i + 3] - earthDirections[i]);
+        final double y = earthDirections[i + 1] + fraction*(earthDirections[i + 4] - earthDirections[i + 1]);
+        final double z = earthDirections[i + 2] + fraction*(earthDirections[i + 5] - earthDirections[i + 2]);
+        final double norm = Math.sqrt(x*x + y*y + z*z);
+        direction[0] = x/norm;
+        direction[1] = y/norm;
+        direction[2] = z/norm;
+    }
+
+    private static double[] unit(double[] vector, String what) {
+        if (vector == null || vector.length != 3) {
+            throw new IllegalArgumentException("The " + what + " needs three components");
+        }
+        final double norm = Math.sqrt(vector[0]*vector[0] + vector[1]*vector[1] + vector[2]*vector[2]);
+        if (!(norm > 1e-12) || Double.isInfinite(norm)) {
+            throw new IllegalArgumentException("The " + what + " must be finite and non-zero");
+        }
+        return new double[] { vector[0]/norm, vector[1]/norm, vector[2]/norm };
+    }
+
+    @Override
+    public String toString() {
+        return isFixed() ? "Ephemeris [fixed]" : "Ephemeris [period " + periodSeconds + " s, " + sampleCount + " samples]";
+    }
+}
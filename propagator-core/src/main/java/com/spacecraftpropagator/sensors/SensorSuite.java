@@ -0,0 +1,231 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.sensors;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.spacecraftpropagator.model.SensorRecord;
+import com.spacecraftpropagator.utils.SensorSuiteInvalidException;
+
+// The sensors of a spacecraft, with their mountings packed into one primitive array, so that
+// evaluating the whole suite for a step is two 3x3 transforms and a few multiply-adds per sensor.
+// Each sensor contributes one value, or four for a star tracker:
+//
+//     sun, horizon   cosine of the angle between the boresight and the sun or Earth direction
+//     gyro           body rate about the boresight, in radians per second
+//     star-tracker   quarternion r, x, y, z rotating sensor coordinates into viewing coordinates
+//
+// A suite has at least one sun and one horizon sensor; the first of each are the sun and IR
+// sensors of /getSunSensorValue and /getIRValue, telemetry, and the controller's pointing modes.
+// Instances are immutable and shared by every session of a spacecraft.
+public final class SensorSuite {
+
+    public static final String TYPE_SUN = "sun";
+    public static final String TYPE_HORIZON = "horizon";
+    public static final String TYPE_GYRO = "gyro";
+    public static final String TYPE_STAR_TRACKER = "star-tracker";
+
+    public static final List<String> TYPES = Arrays.asList(TYPE_SUN, TYPE_HORIZON, TYPE_GYRO, TYPE_STAR_TRACKER);
+
+    private static final int SUN = 0;
+    private static final int HORIZON = 1;
+    private static final int GYRO = 2;
+    private static final int STAR_TRACKER = 3;
+
+    // the sun sensor on the spacecraft -X axis and the IR sensor on its -Y axis
+    public static final SensorSuite DEFAULT = new SensorSuite(new String[] { "sun", "ir" },
+                                                              new int[] { SUN, HORIZON },
+                                                              new double[] { -1.0, 0.0, 0.0, 0.0,
+                                                                             0.0, -1.0, 0.0, 0.0 });
+
+    private final String[] names;
+    private final int[] types;
+    // four per sensor:  the unit boresight x, y, z and 0, or the unit mounting quarternion r, x, y, z
+    private final double[] mountings;
+    // index of each sensor's first value
+    private final int[] valueOffsets;
+    private final int valueCount;
+    private final int sunSensor;
+    private final int horizonSensor;
+
+    private SensorSuite(String[] names, int[] types, double[] mountings) {
+        this.names = names;
+        this.types = types;
+        this.mountings = mountings;
+        this.valueOffsets = new int[types.length];
+
+        int valueCount = 0;
+        int sunSensor = -1;
+        int horizonSensor = -1;
+        for (int i = 0; i < types.length; i++) {
+            valueOffsets[i] = valueCount;
+            valueCount += types[i] == STAR_TRACKER ? 4 : 1;
+            if (types[i] == SUN && sunSensor < 0) {
+                sunSensor = i;
+            } else if (types[i] == HORIZON && horizonSensor < 0) {
+                horizonSensor = i;
+            }
+        }
+        this.valueCount = valueCount;
+        this.sunSensor = sunSensor;
+        this.horizonSensor = horizonSensor;
+    }
+
+    public static SensorSuite fromRecords(List<SensorRecord> sensorRecords) throws SensorSuiteInvalidException {
+        if (sensorRecords == null || sensorRecords.isEmpty()) {
+            throw new SensorSuiteInvalidException("A sensor suite needs at least one sun and one horizon sensor");
+        }
+
+        final String[] names = new String[sensorRecords.size()];
+        final int[] types = new int[sensorRecords.size()];
+        final double[] mountings = new double[sensorRecords.size()*4];
+        final Set<String> uniqueNames = new HashSet<>();
+
+        for (int i = 0; i < sensorRecords.size(); i++) {
+            final SensorRecord sensorRecord = sensorRecords.get(i);
+            names[i] = sensorRecord.getName();
+            types[i] = TYPES.indexOf(sensorRecord.getType());
+            if (names[i] == null || names[i].isEmpty() || !uniqueNames.add(names[i])) {
+                throw new SensorSuiteInvalidException("Sensor " + i + " needs a name of its own");
+            }
+            if (types[i] < 0) {
+                throw new SensorSuiteInvalidException("Unknown type " + sensorRecord.getType() + " of sensor " + names[i] + "; expected one of " + TYPES);
+            }
+
+            final double[] mounting = types[i] == STAR_TRACKER ? sensorRecord.getMountingQuarternion() : sensorRecord.getBoresight();
+            final int size = types[i] == STAR_TRACKER ? 4 : 3;
+            if (mounting == null || mounting.length != size) {
+                throw new SensorSuiteInvalidException("Sensor " + names[i] + " needs "
+                        + (types[i] == STAR_TRACKER ? "a mountingQuarternion r, x, y, z" : "a boresight x, y, z"));
+            }
+            double norm = 0.0;
+            for (int j = 0; j < size; j++) {
+                norm += mounting[j]*mounting[j];
+            }
+            norm = Math.sqrt(norm);
+            if (!(norm > 0) || Double.isInfinite(norm)) {
+                throw new SensorSuiteInvalidException("The mounting of sensor " + names[i] + " must be finite and non-zero");
+            }
+            for (int j = 0; j < size; j++) {
+                mountings[i*4 + j] = mounting[j]/norm;
+            }
+        }
+
+        final SensorSuite sensorSuite = new SensorSuite(names, types, mountings);
+        if (sensorSuite.sunSensor < 0 || sensorSuite.horizonSensor < 0) {
+            throw new SensorSuiteInvalidException("A sensor suite needs at least one sun and one horizon sensor");
+        }
+        return sensorSuite;
+    }
+
+    public int getSensorCount() {
+        return types.length;
+    }
+
+    public String getName(int sensor) {
+        return names[sensor];
+    }
+
+    public String getType(int sensor) {
+        return TYPES.get(types[sensor]);
+    }
+
+    public int getValueOffset(int sensor) {
+        return valueOffsets[sensor];
+    }
+
+    public int getValueCount(int sensor) {
+        return types[sensor] == STAR_TRACKER ? 4 : 1;
+    }
+
+    // length of the values evaluate() writes
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public double getSunSensorValue(double[] values) {
+        return values[valueOffsets[sunSensor]];
+    }
+
+    public double getIRValue(double[] values) {
+        return values[valueOffsets[horizonSensor]];
+    }
+
+    // Body-frame boresights of the first sun and horizon sensors, for pointing them; not to be modified.
+    public double[] getSunSensorBoresight() {
+        return Arrays.copyOfRange(mountings, sunSensor*4, sunSensor*4 + 3);
+    }
+
+    public double[] getHorizonSensorBoresight() {
+        return Arrays.copyOfRange(mountings, horizonSensor*4, horizonSensor*4 + 3);
+    }
+
+    // Writes every sensor's values for a RigidBodyDynamics state, its row-major attitude matrix
+    // and the sun and Earth directions in viewing coordinates.  Allocates nothing.
+    public void evaluate(double[] state, double[] attitudeMatrix, double[] sunDirection, double[] earthDirection, double[] values) {
+        // the directions in body coordinates, by the transpose of the attitude matrix
+        final double sunX = attitudeMatrix[0]*sunDirection[0] + attitudeMatrix[3]*sunDirection[1] + attitudeMatrix[6]*sunDirection[2];
+        final double sunY = attitudeMatrix[1]*sunDirection[0] + attitudeMatrix[4]*sunDirection[1] + attitudeMatrix[7]*sunDirection[2];
+        final double sunZ = attitudeMatrix[2]*sunDirection[0] + attitudeMatrix[5]*sunDirection[1] + attitudeMatrix[8]*sunDirection[2];
+        final double earthX = attitudeMatrix[0]*earthDirection[0] + attitudeMatrix[3]*earthDirection[1] + attitudeMatrix[6]*earthDirection[2];
+        final double earthY = attitudeMatrix[1]*earthDirection[0] + attitudeMatrix[4]*earthDirection[1] + attitudeMatrix[7]*earthDirection[2];
+        final double earthZ = attitudeMatrix[2]*earthDirection[0] + attitudeMatrix[5]*earthDirection[1] + attitudeMatrix[8]*earthDirection[2];
+
+        for (int i = 0; i < types.length; i++) {
+            final int m = i*4;
+            final int v = valueOffsets[i];
+            switch (types[i]) {
+                case SUN:
+                    values[v] = mountings[m]*sunX + mountings[m + 1]*sunY + mountings[m + 2]*sunZ;
+                    break;
+                case HORIZON:
+                    values[v] = mountings[m]*earthX + mountings[m + 1]*earthY + mountings[m + 2]*earthZ;
+                    break;
+                case GYRO:
+                    values[v] = mountings[m]*state[4] + mountings[m + 1]*state[5] + mountings[m + 2]*state[6];
+                    break;
+                default:
+                    // attitude times mounting:  sensor to body, then body to viewing coordinates
+                    final double r = state[0];
+                    final double x = state[1];
+                    final double y = state[2];
+                    final double z = state[3];
+                    final double mr = mountings[m];
+                    final double mx = mountings[m + 1];
+                    final double my = mountings[m + 2];
+                    final double mz = mountings[m + 3];
+                    values[v]     = r*mr - x*mx - y*my - z*mz;
+                    values[v + 1] = r*mx + x*mr + y*mz - z*my;
+                    values[v + 2] = r*my - x*mz + y*mr + z*mx;
+                    values[v + 3] = r*mz + x*my - y*mx + z*mr;
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sensors = new StringBuilder();
+        for (int i = 0; i < types.length; i++) {
+            sensors.append(i == 0 ? "" : ", ").append(names[i]).append(' ').append(getType(i));
+        }
+        return "SensorSuite [" + sensors + "]";
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.model.AttitudeFrameRecord;
+import com.spacecraftpropagator.model.AttitudeState;
+import com.spacecraftpropagator.model.PredictedStateRecord;
+import com.spacecraftpropagator.model.ProjectedFrame;
+import com.spacecraftpropagator.model.PropagationRequest;
+import com.spacecraftpropagator.model.PropagationResult;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.TorqueRecord;
+import com.spacecraftpropagator.sensors.SensorSuite;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+public interface AttitudeModelService {
+    List<List<List<Double>>> init();
+    List<List<List<Double>>> step(double stepSeconds) throws SimulationStepInvalidException;
+    List<List<List<Double>>> step(double stepSeconds, double screenPixels) throws SimulationStepInvalidException;
+    void advance(double stepSeconds) throws SimulationStepInvalidException;
+    AttitudeFrameRecord stepAttitudeFrame(double stepSeconds) throws SimulationStepInvalidException;
+    List<Double> applyTorque(Quarternion torqueQuarternion, double torqueNewtonMeters, double numSeconds);
+    List<Double> applyTorque(TorqueRecord torqueRecord);
+    void setAttitudeController(AttitudeController attitudeController);
+    AttitudeController getAttitudeController();
+    AttitudeState getAttitudeState();
+    PropagationResult propagate(PropagationRequest propagationRequest) throws SimulationStepInvalidException;
+    AttitudeFrameRecord seekAttitudeFrame(double simulationSeconds) throws SimulationStepInvalidException;
+    PredictedStateRecord predictState(double simulationSeconds) throws SimulationStepInvalidException;
+    byte[] saveSnapshot();
+    void restoreSnapshot(byte[] snapshot) throws SnapshotInvalidException;
+    double getSimulationSeconds();
+    double getSunSensorValue();
+    double getIRValue();
+    Quarternion getXAxisQuarternion();
+    Quarternion getYAxisQuarternion();
+    Quarternion getZAxisQuarternion();
+    List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons();
+    List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons(double screenPixels);
+    ProjectedFrame projectVisibleSpacecraftPolygons();
+    ProjectedFrame projectVisibleSpacecraftPolygons(double screenPixels);
+    ByteBuffer encodeVisibleSpacecraftPolygons(double screenPixels);
+    SpacecraftMesh getSpacecraftMesh();
+    SensorSuite getSensorSuite();
+}
@@ -0,0 +1,775 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.integrators.AttitudeIntegrator;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.integrators.TorqueFreeMotion;
+import com.spacecraftpropagator.model.AttitudeFrameRecord;
+import com.spacecraftpropagator.model.AttitudeState;
+import com.spacecraftpropagator.model.LinearAlgebra;
+import com.spacecraftpropagator.model.MeshLevelsOfDetail;
+import com.spacecraftpropagator.model.PredictedStateRecord;
+import com.spacecraftpropagator.model.ProjectedFrame;
+import com.spacecraftpropagator.model.PropagationRequest;
+import com.spacecraftpropagator.model.PropagationResult;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.ScheduledTorqueRecord;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.TorqueRecord;
+import com.spacecraftpropagator.sensors.Ephemeris;
+import com.spacecraftpropagator.sensors.SensorSuite;
+import com.spacecraftpropagator.snapshots.SessionJournal;
+import com.spacecraftpropagator.snapshots.SessionSnapshot;
+import com.spacecraftpropagator.telemetry.TelemetryRecorder;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+// One independent simulated spacecraft.  Instances are created per simulation session by
+// SimulationSessionServiceImpl, and the synchronized methods lock only this session.
+//
+// Every change of state ends by publishing an immutable AttitudeState through a volatile field,
+// so the sensor, axis, time and controller getters read it without locking and never see a
+// step half done.  Only writers, and projections into the reusable frames, take the lock.
+public class AttitudeModelServiceImpl implements AttitudeModelService {
+
+    private static double VIEWING_DISTANCE = 100; // 100 m
+
+    private static final int MAXIMUM_PROPAGATION_SAMPLES = 1000000;
+
+    // with the attitude controller on, the longest step and the most controller substeps in one step
+    public static final double DEFAULT_MAXIMUM_CONTROL_STEP_SECONDS = 60.0;
+    public static final int DEFAULT_MAXIMUM_CONTROL_SUBSTEPS = 100000;
+
+    private static final double[] NO_TORQUE = { 0.0, 0.0, 0.0 };
+
+    // shared by every session with this spacecraft
+    private final RigidBodyDynamics dynamics;
+    private final AttitudeIntegrator integrator;
+
+    // unit quarternion r, x, y, z rotating spacecraft body coordinates into viewing coordinates,
+    // followed by the body rates in radians per second, as laid out by RigidBodyDynamics
+    private final double[] state = { 1.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0 };
+    // scratch for the state at the start of a step, restored if the step fails
+    private final double[] stepStartState = new double[RigidBodyDynamics.STATE_SIZE];
+
+    private double simulationSeconds;
+
+    // applied inside every step; its body torque is held through each control period
+    private AttitudeController attitudeController = AttitudeController.OFF;
+    private final double[] controlTorque = new double[3];
+    private double maximumControlStepSeconds = DEFAULT_MAXIMUM_CONTROL_STEP_SECONDS;
+    private int maximumControlSubsteps = DEFAULT_MAXIMUM_CONTROL_SUBSTEPS;
+
+    // shared by every session with this spacecraft, and the boresights the controller points
+    private final SensorSuite sensorSuite;
+    private final Ephemeris ephemeris;
+    private final double[] sunSensorBoresight;
+    private final double[] horizonSensorBoresight;
+    // scratch for the sun and Earth directions and the sensor values of the current instant
+    private final double[] sunDirection = new double[3];
+    private final double[] earthDirection = new double[3];
+    private final double[] sensorValues;
+
+    // the steps and torques that led to state, with checkpoints for seeking
+    private SessionJournal journal;
+
+    // the state as of the end of the last change, for readers that do not lock
+    private volatile AttitudeState publishedState;
+
+    // the attitude quarternion as a row-major rotation matrix, whose columns are the spacecraft X, Y and Z axes
+    private final double[] attitudeMatrix = { 1.0, 0.0, 0.0,
+                                              0.0, 1.0, 0.0,
+                                              0.0, 0.0, 1.0 };
+
+    // read-only body-frame mesh and its coarser levels, shared by every session
+    private final SpacecraftMesh spacecraftMesh;
+    private final MeshLevelsOfDetail levelsOfDetail;
+    // one reusable frame per level, created when the level is first used
+    private final ProjectedFrame[] projectedFrames;
+
+    // shared by every session; null to always project on the calling thread
+    private final ForkJoinPool projectionPool;
+    private final int parallelProjectionThresholdPolygons;
+    private final int parallelProjectionChunkPolygons;
+
+    // null unless projections are shared with other sessions
+    private ProjectionCache projectionCache;
+
+    // null unless this session is recorded
+    private TelemetryRecorder telemetryRecorder;
+    private String telemetryRunId;
+
+    // null unless this session is measured
+    private PropagationMetrics propagationMetrics;
+    private String metricsSessionId;
+    private long stepCount;
+
+    Logger logger = LoggerFactory.getLogger(AttitudeModelServiceImpl.class);
+
+    public AttitudeModelServiceImpl(SpacecraftMesh spacecraftMesh,
+                                    RigidBodyDynamics dynamics,
+                                    AttitudeIntegrator integrator) {
+        this(spacecraftMesh, dynamics, integrator, null, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public AttitudeModelServiceImpl(SpacecraftMesh spacecraftMesh,
+                                    RigidBodyDynamics dynamics,
+                                    AttitudeIntegrator integrator,
+                                    ForkJoinPool projectionPool,
+                                    int parallelProjectionThresholdPolygons,
+                                    int parallelProjectionChunkPolygons) {
+        this(MeshLevelsOfDetail.of(spacecraftMesh), dynamics, integrator, projectionPool, parallelProjectionThresholdPolygons, parallelProjectionChunkPolygons,
+             new SessionJournal(SessionJournal.DEFAULT_CHECKPOINT_INTERVAL_SECONDS, SessionJournal.DEFAULT_MAXIMUM_ENTRIES));
+    }
+
+    public AttitudeModelServiceImpl(MeshLevelsOfDetail levelsOfDetail,
+                                    RigidBodyDynamics dynamics,
+                                    AttitudeIntegrator integrator,
+                                    ForkJoinPool projectionPool,
+                                    int parallelProjectionThresholdPolygons,
+                                    int parallelProjectionChunkPolygons,
+                                    SessionJournal journal) {
+        this(levelsOfDetail, dynamics, integrator, projectionPool, parallelProjectionThresholdPolygons, parallelProjectionChunkPolygons,
+             journal, SensorSuite.DEFAULT, Ephemeris.FIXED);
+    }
+
+    public AttitudeModelServiceImpl(MeshLevelsOfDetail levelsOfDetail,
+                                    RigidBodyDynamics dynamics,
+                                    AttitudeIntegrator integrator,
+                                    ForkJoinPool projectionPool,
+                                    int parallelProjectionThresholdPolygons,
+                                    int parallelProjectionChunkPolygons,
+                                    SessionJournal journal,
+                                    SensorSuite sensorSuite,
+                                    Ephemeris ephemeris) {
+        this.spacecraftMesh = levelsOfDetail.getLevel(0);
+        this.levelsOfDetail = levelsOfDetail;
+        this.projectedFrames = new ProjectedFrame[levelsOfDetail.getLevelCount()];
+        this.projectedFrames[0] = new ProjectedFrame(spacecraftMesh);
+        this.projectionPool = projectionPool;
+        this.parallelProjectionThresholdPolygons = parallelProjectionThresholdPolygons;
+        this.parallelProjectionChunkPolygons = Math.max(1, parallelProjectionChunkPolygons);
+        this.dynamics = dynamics;
+        this.integrator = integrator;
+        this.journal = journal;
+        this.sensorSuite = sensorSuite;
+        this.ephemeris = ephemeris;
+        this.sunSensorBoresight = sensorSuite.getSunSensorBoresight();
+        this.horizonSensorBoresight = sensorSuite.getHorizonSensorBoresight();
+        this.sensorValues = new double[sensorSuite.getValueCount()];
+        journal.addCheckpoint(simulationSeconds, state, integrator.getCarriedSubstepSeconds());
+        publishState();
+    }
+
+    // Records every following step and torque as the run telemetryRunId.
+    public synchronized void startRecording(TelemetryRecorder telemetryRecorder, String telemetryRunId) {
+        this.telemetryRecorder = telemetryRecorder;
+        this.telemetryRunId = telemetryRunId;
+    }
+
+    // Steps longer than maximumStepSeconds, or split into more than maximumSubsteps control periods,
+    // are rejected while the attitude controller is on.  Journaled steps replay whatever the limits.
+    public synchronized void setControlStepLimits(double maximumStepSeconds, int maximumSubsteps) {
+        if (!(maximumStepSeconds > 0) || maximumSubsteps < 1) {
+            throw new IllegalArgumentException("maximumStepSeconds and maximumSubsteps must be positive");
+        }
+        this.maximumControlStepSeconds = maximumStepSeconds;
+        this.maximumControlSubsteps = maximumSubsteps;
+    }
+
+    // Reuses the visible polygons, and frames if the cache keeps them, of every session showing the
+    // same mesh at an attitude within the cache's quantization.
+    public synchronized void startProjectionCache(ProjectionCache projectionCache) {
+        this.projectionCache = projectionCache;
+    }
+
+    // Times every following step and projection, and samples steps for tracing.
+    public synchronized void startMetrics(PropagationMetrics propagationMetrics, String sessionId) {
+        this.propagationMetrics = propagationMetrics;
+        this.metricsSessionId = sessionId;
+    }
+
+    @Override
+    public synchronized List<List<List<Double>>> init() {        
+        return getVisible2DProjectedSpacecraftPolygons();
+    }
+
+    @Override
+    public synchronized List<List<List<Double>>> step(double stepSeconds) throws SimulationStepInvalidException {
+        return step(stepSeconds, 0.0);
+    }
+
+    // screenPixels is the size the client draws the spacecraft at, as for projectVisibleSpacecraftPolygons(double).
+    @Override
+    public synchronized List<List<List<Double>>> step(double stepSeconds, double screenPixels) throws SimulationStepInvalidException {
+        advance(stepSeconds);
+        return getVisible2DProjectedSpacecraftPolygons(screenPixels);
+    }
+
+    // Attitude frame mode:  only the attitude, the rates and the visible polygon mask are returned,
+    // and the client renders its cached copy of the body-frame mesh.
+    @Override
+    public synchronized AttitudeFrameRecord stepAttitudeFrame(double stepSeconds) throws SimulationStepInvalidException {
+        advance(stepSeconds);
+        return new AttitudeFrameRecord(Arrays.copyOf(state, 4),
+                                       Arrays.copyOfRange(state, 4, 7),
+                                       getVisiblePolygonMask());
+    }
+
+    // Only the attitude and the body rates are propagated, so a step costs the same for any mesh size.
+    // The mesh itself is never modified; it is rotated into view when a projection is requested.
+    @Override
+    public synchronized void advance(double stepSeconds) throws SimulationStepInvalidException {
+        advanceUnpublished(stepSeconds);
+        publishState();
+    }
+
+    // Steps of a propagation or seek publish only their final state.  A step the integrator cannot
+    // finish leaves the state, and the journal, as they were before it.
+    private void advanceUnpublished(double stepSeconds) throws SimulationStepInvalidException {
+        if (!(stepSeconds > 0)) {
+            return;
+        }
+        checkControlStep(stepSeconds);
+
+        final long startNanos = propagationMetrics != null ? System.nanoTime() : 0L;
+        final boolean traced = propagationMetrics != null && propagationMetrics.isTraced(++stepCount);
+        final long startAllocatedBytes = traced ? propagationMetrics.getAllocatedBytes() : 0L;
+
+        final double stepStartSeconds = simulationSeconds;
+        System.arraycopy(state, 0, stepStartState, 0, state.length);
+        final double carriedSubstepSeconds = integrator.getCarriedSubstepSeconds();
+        try {
+            integrateStep(stepSeconds);
+        } catch (RuntimeException e) {
+            System.arraycopy(stepStartState, 0, state, 0, state.length);
+            integrator.setCarriedSubstepSeconds(carriedSubstepSeconds);
+            simulationSeconds = stepStartSeconds;
+            LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], attitudeMatrix);
+            throw e;
+        }
+        journal.recordStep(stepStartSeconds, stepSeconds);
+        checkpointIfDue();
+
+        if (propagationMetrics != null) {
+            final long stepNanos = System.nanoTime() - startNanos;
+            propagationMetrics.recordStep(stepNanos);
+            if (traced) {
+                final long allocatedBytes = startAllocatedBytes < 0 ? -1 : propagationMetrics.getAllocatedBytes() - startAllocatedBytes;
+                propagationMetrics.traceStep(metricsSessionId, simulationSeconds, state, stepNanos, allocatedBytes, integrator.getLastErrorNorm());
+            }
+        }
+
+        if (telemetryRecorder != null) {
+            evaluateSensors();
+            telemetryRecorder.recordStep(telemetryRunId, simulationSeconds, state,
+                                         sensorSuite.getSunSensorValue(sensorValues), sensorSuite.getIRValue(sensorValues));
+        }
+    }
+
+    private void checkControlStep(double stepSeconds) throws SimulationStepInvalidException {
+        if (attitudeController.isOff()) {
+            return;
+        }
+        if (stepSeconds > maximumControlStepSeconds) {
+            throw new SimulationStepInvalidException("Steps may be at most " + maximumControlStepSeconds + " s while the attitude controller is on");
+        }
+        if (attitudeController.getSubstepCount(stepSeconds) > maximumControlSubsteps) {
+            throw new SimulationStepInvalidException("A step of " + stepSeconds + " s at " + attitudeController.getControlRateHertz()
+                                                     + " Hz would take more than " + maximumControlSubsteps + " controller substeps");
+        }
+    }
+
+    // The torque axis is given in viewing coordinates.  The torque acts as an angular momentum impulse
+    // of torqueNewtonMeters*numSeconds, which changes the body rates by the inverse inertia tensor
+    // times its body-frame components.
+    @Override
+    public synchronized List<Double> applyTorque(Quarternion torqueQuarternion, double torqueNewtonMeters, double numSeconds) {
+        applyTorqueUnpublished(torqueQuarternion, torqueNewtonMeters, numSeconds);
+        publishState();
+
+        return Arrays.asList(attitudeMatrix[2], attitudeMatrix[5], attitudeMatrix[8]);
+    }
+
+    // Torques of a propagation are published with its final state, like its steps.
+    private void applyTorqueUnpublished(Quarternion torqueQuarternion, double torqueNewtonMeters, double numSeconds) {
+        journal.recordTorque(simulationSeconds, torqueQuarternion.getX(), torqueQuarternion.getY(), torqueQuarternion.getZ(),
+                             torqueNewtonMeters, numSeconds);
+        applyTorqueImpulse(torqueQuarternion.getX(), torqueQuarternion.getY(), torqueQuarternion.getZ(), torqueNewtonMeters, numSeconds);
+        checkpointIfDue();
+    }
+
+    // The torque acts as an instantaneous impulse:  the rates jump by I^-1 * torque * numSeconds at the current
+    // time, which does not advance, so the attitude does not turn during the burn.  Integrating it over
+    // numSeconds would advance the session and change what the journal replays.
+    private void applyTorqueImpulse(double tx, double ty, double tz, double torqueNewtonMeters, double numSeconds) {
+        final double impulse = torqueNewtonMeters*numSeconds; // N-m-s
+
+        // the transpose of the attitude matrix takes viewing coordinates to body coordinates
+        final double[] angularVelocityDelta = new double[3];
+        dynamics.angularVelocity((attitudeMatrix[0]*tx + attitudeMatrix[3]*ty + attitudeMatrix[6]*tz)*impulse,
+                                 (attitudeMatrix[1]*tx + attitudeMatrix[4]*ty + attitudeMatrix[7]*tz)*impulse,
+                                 (attitudeMatrix[2]*tx + attitudeMatrix[5]*ty + attitudeMatrix[8]*tz)*impulse,
+                                 angularVelocityDelta, 0);
+
+        state[4] += angularVelocityDelta[0];
+        state[5] += angularVelocityDelta[1];
+        state[6] += angularVelocityDelta[2];
+    }
+
+    // The torque quarternion is given in spacecraft coordinates.
+    @Override
+    public synchronized List<Double> applyTorque(TorqueRecord torqueRecord) {
+        applyTorqueUnpublished(torqueRecord);
+        publishState();
+
+        return Arrays.asList(attitudeMatrix[2], attitudeMatrix[5], attitudeMatrix[8]);
+    }
+
+    private void applyTorqueUnpublished(TorqueRecord torqueRecord) {
+        if (telemetryRecorder != null) {
+            final Quarternion torqueQuarternion = torqueRecord.getTorqueQuarternion();
+            telemetryRecorder.recordTorque(telemetryRunId, simulationSeconds,
+                                           torqueQuarternion.getX(), torqueQuarternion.getY(), torqueQuarternion.getZ(),
+                                           torqueRecord.getTorqueNewtonMeters(), torqueRecord.getSecondsToApplyTorque());
+        }
+
+        final Quarternion coordTransformedTorqueQ = torqueRecord.getTorqueQuarternion().coordinateTransform(
+                new Quarternion(0.0, attitudeMatrix[0], attitudeMatrix[3], attitudeMatrix[6]),
+                new Quarternion(0.0, attitudeMatrix[1], attitudeMatrix[4], attitudeMatrix[7]),
+                new Quarternion(0.0, attitudeMatrix[2], attitudeMatrix[5], attitudeMatrix[8]));
+
+        applyTorqueUnpublished(coordTransformedTorqueQ,
+                               torqueRecord.getTorqueNewtonMeters(),
+                               torqueRecord.getSecondsToApplyTorque());
+    }
+
+    // Runs the whole step loop under one acquisition of the session lock, applying each scheduled
+    // torque before the first step that starts at or after its time.
+    @Override
+    public synchronized PropagationResult propagate(PropagationRequest propagationRequest) throws SimulationStepInvalidException {
+        final double stepSeconds = propagationRequest.getStepSeconds();
+        final int stepCount = propagationRequest.getStepCount();
+        final int outputEveryNSteps = propagationRequest.getOutputEveryNSteps();
+
+        if (!(stepSeconds > 0) || stepCount <= 0 || outputEveryNSteps <= 0) {
+            throw new SimulationStepInvalidException("stepSeconds, stepCount and outputEveryNSteps must be positive");
+        }
+        final int sampleCount = stepCount/outputEveryNSteps;
+        if (sampleCount > MAXIMUM_PROPAGATION_SAMPLES) {
+            throw new SimulationStepInvalidException("At most " + MAXIMUM_PROPAGATION_SAMPLES + " samples per propagation; increase outputEveryNSteps");
+        }
+        // before any scheduled torque is applied
+        checkControlStep(stepSeconds);
+
+        final List<ScheduledTorqueRecord> torqueSchedule = new ArrayList<>();
+        if (propagationRequest.getTorqueSchedule() != null) {
+            torqueSchedule.addAll(propagationRequest.getTorqueSchedule());
+        }
+        // a torque after the start of the last step would have no step to be applied before
+        final double lastStepStartSeconds = (stepCount - 1)*stepSeconds;
+        for (ScheduledTorqueRecord scheduledTorque : torqueSchedule) {
+            if (scheduledTorque == null || scheduledTorque.getTorqueRecord() == null
+                    || scheduledTorque.getTorqueRecord().getTorqueQuarternion() == null) {
+                throw new SimulationStepInvalidException("Every torqueSchedule entry needs a torque");
+            }
+            final double secondsFromStart = scheduledTorque.getSecondsFromStart();
+            if (!(secondsFromStart >= 0) || secondsFromStart > lastStepStartSeconds) {
+                throw new SimulationStepInvalidException("torqueSchedule secondsFromStart " + secondsFromStart
+                                                         + " is not from 0 to " + lastStepStartSeconds + ", the start of the last step");
+            }
+        }
+        torqueSchedule.sort(Comparator.comparingDouble(ScheduledTorqueRecord::getSecondsFromStart));
+
+        final PropagationResult propagationResult = new PropagationResult(sampleCount, sensorSuite, propagationRequest.isIncludePolygons());
+        int nextTorque = 0;
+        int sample = 0;
+
+        // the steps taken are journaled, so they are published even if a later one fails
+        try {
+            for (int step = 0; step < stepCount; step++) {
+                final double stepStartSeconds = step*stepSeconds;
+                while (nextTorque < torqueSchedule.size()
+                        && torqueSchedule.get(nextTorque).getSecondsFromStart() <= stepStartSeconds) {
+                    applyTorqueUnpublished(torqueSchedule.get(nextTorque++).getTorqueRecord());
+                }
+
+                advanceUnpublished(stepSeconds);
+
+                if ((step + 1) % outputEveryNSteps == 0) {
+                    propagationResult.getSeconds()[sample] = (step + 1)*stepSeconds;
+                    System.arraycopy(state, 0, propagationResult.getAttitudeQuarternions(), sample*4, 4);
+                    System.arraycopy(state, 4, propagationResult.getRadiansPerSecond(), sample*3, 3);
+                    evaluateSensors();
+                    System.arraycopy(sensorValues, 0, propagationResult.getSensorValues(), sample*sensorValues.length, sensorValues.length);
+                    propagationResult.getSunSensorValues()[sample] = sensorSuite.getSunSensorValue(sensorValues);
+                    propagationResult.getIrSensorValues()[sample] = sensorSuite.getIRValue(sensorValues);
+                    if (propagationRequest.isIncludePolygons()) {
+                        propagationResult.getSpacecraftPolygons().add(getVisible2DProjectedSpacecraftPolygons());
+                    }
+                    sample++;
+                }
+            }
+        } finally {
+            publishState();
+        }
+
+        return propagationResult;
+    }
+
+    // Journaled like a torque, so that seeks and snapshots replay the controller as it was run.
+    @Override
+    public synchronized void setAttitudeController(AttitudeController attitudeController) {
+        journal.recordControl(simulationSeconds, attitudeController);
+        this.attitudeController = attitudeController;
+        checkpointIfDue();
+        publishState();
+    }
+
+    @Override
+    public AttitudeController getAttitudeController() {
+        return publishedState.getAttitudeController();
+    }
+
+    // Seconds of simulated time this session has been advanced by
+    @Override
+    public double getSimulationSeconds() {
+        return publishedState.getSimulationSeconds();
+    }
+
+    @Override
+    public AttitudeState getAttitudeState() {
+        return publishedState;
+    }
+
+    // Fast-forwards or rewinds the session to simulationSeconds by restoring the latest checkpoint at or
+    // before it and replaying the journal from there, which reproduces the original run exactly.
+    // Past the end of the journal, or between the ends of two journaled steps, the rest of the way
+    // is one more step.  Whatever was journaled after the new time is discarded.
+    @Override
+    public synchronized AttitudeFrameRecord seekAttitudeFrame(double targetSeconds) throws SimulationStepInvalidException {
+        final int checkpoint = Double.isFinite(targetSeconds) ? journal.findCheckpoint(targetSeconds) : -1;
+        if (checkpoint < 0) {
+            throw new SimulationStepInvalidException("simulationSeconds must be finite and at least " + journal.getEarliestSeconds());
+        }
+
+        journal.copyCheckpointState(checkpoint, state);
+        integrator.setCarriedSubstepSeconds(journal.getCheckpointCarriedSubstepSeconds(checkpoint));
+        simulationSeconds = journal.getCheckpointSeconds(checkpoint);
+        attitudeController = journal.getCheckpointController(checkpoint);
+        LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], attitudeMatrix);
+
+        journal.replay(checkpoint, targetSeconds, new SessionJournal.Replayer() {
+            @Override
+            public void step(double stepSeconds) {
+                integrateStep(stepSeconds);
+            }
+
+            @Override
+            public void torque(double torqueX, double torqueY, double torqueZ, double torqueNewtonMeters, double numSeconds) {
+                applyTorqueImpulse(torqueX, torqueY, torqueZ, torqueNewtonMeters, numSeconds);
+            }
+
+            @Override
+            public void control(AttitudeController replayedController) {
+                attitudeController = replayedController;
+            }
+        });
+        try {
+            if (targetSeconds > simulationSeconds) {
+                advanceUnpublished(targetSeconds - simulationSeconds);
+            }
+        } finally {
+            publishState();
+        }
+
+        return new AttitudeFrameRecord(Arrays.copyOf(state, 4),
+                                       Arrays.copyOfRange(state, 4, 7),
+                                       getVisiblePolygonMask());
+    }
+
+    // The attitude and rates at a future time if no torque is applied until then, solved in closed
+    // form from the published state, so it costs the same however far ahead and takes no lock.
+    @Override
+    public PredictedStateRecord predictState(double targetSeconds) throws SimulationStepInvalidException {
+        final AttitudeState attitudeState = publishedState;
+        if (!Double.isFinite(targetSeconds) || targetSeconds < attitudeState.getSimulationSeconds()) {
+            throw new SimulationStepInvalidException("simulationSeconds must be finite and at least " + attitudeState.getSimulationSeconds());
+        }
+        if (!attitudeState.getAttitudeController().isOff()) {
+            throw new SimulationStepInvalidException("The state can only be predicted while the attitude controller is off");
+        }
+
+        final double[] quarternion = attitudeState.getAttitudeQuarternion();
+        final double[] rates = attitudeState.getRadiansPerSecond();
+        final double[] predicted = { quarternion[0], quarternion[1], quarternion[2], quarternion[3], rates[0], rates[1], rates[2] };
+        if (!new TorqueFreeMotion(dynamics).propagate(predicted, targetSeconds - attitudeState.getSimulationSeconds())) {
+            throw new SimulationStepInvalidException("The spacecraft is spinning too close to its intermediate axis to predict its state");
+        }
+        return new PredictedStateRecord(targetSeconds, Arrays.copyOf(predicted, 4), Arrays.copyOfRange(predicted, 4, 7));
+    }
+
+    @Override
+    public synchronized byte[] saveSnapshot() {
+        return new SessionSnapshot(spacecraftMesh.getMeshId(), integrator.getName(), simulationSeconds,
+                                   state.clone(), integrator.getCarriedSubstepSeconds(), journal).encode();
+    }
+
+    // Replaces the whole state of this session, journal included, with a saved one.
+    @Override
+    public synchronized void restoreSnapshot(byte[] snapshot) throws SnapshotInvalidException {
+        final SessionSnapshot sessionSnapshot = SessionSnapshot.decode(snapshot, journal.getCheckpointIntervalSeconds(), journal.getMaximumEntries());
+        if (!spacecraftMesh.getMeshId().equals(sessionSnapshot.getMeshId())) {
+            throw new SnapshotInvalidException("Session snapshot is of spacecraft mesh " + sessionSnapshot.getMeshId()
+                    + ", not " + spacecraftMesh.getMeshId());
+        }
+        if (!integrator.getName().equals(sessionSnapshot.getIntegratorName())) {
+            logger.warn("Session snapshot was integrated with {}, and is restored with {}; replays will differ slightly",
+                        sessionSnapshot.getIntegratorName(), integrator.getName());
+        }
+
+        System.arraycopy(sessionSnapshot.getState(), 0, state, 0, RigidBodyDynamics.STATE_SIZE);
+        integrator.setCarriedSubstepSeconds(sessionSnapshot.getCarriedSubstepSeconds());
+        simulationSeconds = sessionSnapshot.getSimulationSeconds();
+        journal = sessionSnapshot.getJournal();
+        attitudeController = journal.getLatestController();
+        LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], attitudeMatrix);
+        publishState();
+    }
+
+    // See AttitudeState.getSunSensorValue()
+    @Override
+    public double getSunSensorValue() {
+        return publishedState.getSunSensorValue();
+    }
+
+    // See AttitudeState.getIRValue()
+    @Override
+    public double getIRValue() {
+        return publishedState.getIRValue();
+    }
+
+    // Each axis is read from the latest state; use getAttitudeState() for all three of the same instant.
+    @Override
+    public Quarternion getXAxisQuarternion() {
+        return publishedState.getXAxisQuarternion();
+    }
+
+    @Override
+    public Quarternion getYAxisQuarternion() {
+        return publishedState.getYAxisQuarternion();
+    }
+
+    @Override
+    public Quarternion getZAxisQuarternion() {
+        return publishedState.getZAxisQuarternion();
+    }
+    
+    @Override
+    public synchronized List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons() {
+        return getVisible2DProjectedSpacecraftPolygons(0.0);
+    }
+
+    @Override
+    public synchronized List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons(double screenPixels) {
+        return projectVisibleSpacecraftPolygons(screenPixels).toVisiblePolygons();
+    }
+
+    @Override
+    public SpacecraftMesh getSpacecraftMesh() {
+        return spacecraftMesh;
+    }
+
+    @Override
+    public SensorSuite getSensorSuite() {
+        return sensorSuite;
+    }
+
+    // Advances without journaling, as when replaying the journal
+    private void integrateStep(double stepSeconds) {
+        if (!attitudeController.isOff()) {
+            final int substepCount = attitudeController.getSubstepCount(stepSeconds);
+            final double substepSeconds = stepSeconds/substepCount;
+            for (int i = 0; i < substepCount; i++) {
+                if (i == 0 || !ephemeris.isFixed()) {
+                    ephemeris.sunDirection(simulationSeconds + i*substepSeconds, sunDirection);
+                    ephemeris.earthDirection(simulationSeconds + i*substepSeconds, earthDirection);
+                }
+                attitudeController.computeTorque(state, sunSensorBoresight, sunDirection, horizonSensorBoresight, earthDirection, controlTorque);
+                integrator.integrate(dynamics, state, controlTorque, substepSeconds);
+            }
+            LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], attitudeMatrix);
+        } else if (state[4] != 0 || state[5] != 0 || state[6] != 0) {
+            integrator.integrate(dynamics, state, NO_TORQUE, stepSeconds);
+            LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], attitudeMatrix);
+        }
+        simulationSeconds += stepSeconds;
+    }
+
+    // Called by the writers, under the lock, once the state is consistent again.
+    private void publishState() {
+        evaluateSensors();
+        publishedState = new AttitudeState(simulationSeconds, state, attitudeMatrix, attitudeController, sensorSuite, sensorValues);
+    }
+
+    // Fills sensorValues for the current state and time
+    private void evaluateSensors() {
+        ephemeris.sunDirection(simulationSeconds, sunDirection);
+        ephemeris.earthDirection(simulationSeconds, earthDirection);
+        sensorSuite.evaluate(state, attitudeMatrix, sunDirection, earthDirection, sensorValues);
+    }
+
+    private void checkpointIfDue() {
+        if (journal.isCheckpointDue(simulationSeconds)) {
+            journal.addCheckpoint(simulationSeconds, state, integrator.getCarriedSubstepSeconds());
+        }
+    }
+
+    // Projects the full mesh into this session's reusable frame without allocating, so the visible
+    // polygon indices are those of the mesh clients cache.  The returned frame is overwritten by
+    // the next projection, so callers must hold the session lock while reading it.
+    @Override
+    public synchronized ProjectedFrame projectVisibleSpacecraftPolygons() {
+        final ProjectedFrame projectedFrame = projectedFrames[0];
+        projectVisiblePolygons(projectedFrame, 0.0, projectionKey(projectedFrame, 0.0));
+        return projectedFrame;
+    }
+
+    // Projects the coarsest level of detail that looks the same at screenPixels, the diameter in
+    // pixels the client draws the spacecraft at (0 for the configured default scale), and leaves
+    // out polygons smaller than a pixel.
+    @Override
+    public synchronized ProjectedFrame projectVisibleSpacecraftPolygons(double screenPixels) {
+        final double pixelsPerMeter = levelsOfDetail.getPixelsPerMeter(screenPixels);
+        final ProjectedFrame projectedFrame = getProjectedFrame(pixelsPerMeter);
+        final double minimumExtent = levelsOfDetail.getMinimumPolygonExtent(pixelsPerMeter);
+        projectVisiblePolygons(projectedFrame, minimumExtent, projectionKey(projectedFrame, minimumExtent));
+        return projectedFrame;
+    }
+
+    // ProjectedFrame.encode() of projectVisibleSpacecraftPolygons(screenPixels).  A frame the
+    // projection cache holds for an attitude within its quantization is returned as it is.
+    @Override
+    public synchronized ByteBuffer encodeVisibleSpacecraftPolygons(double screenPixels) {
+        final double pixelsPerMeter = levelsOfDetail.getPixelsPerMeter(screenPixels);
+        final ProjectedFrame projectedFrame = getProjectedFrame(pixelsPerMeter);
+        final double minimumExtent = levelsOfDetail.getMinimumPolygonExtent(pixelsPerMeter);
+        final ProjectionKey key = projectionKey(projectedFrame, minimumExtent);
+        if (key == null) {
+            projectVisiblePolygons(projectedFrame, minimumExtent, null);
+            return projectedFrame.encode();
+        }
+
+        final ByteBuffer cachedFrame = projectionCache.getEncodedFrame(key);
+        if (cachedFrame != null) {
+            return cachedFrame;
+        }
+        projectVisiblePolygons(projectedFrame, minimumExtent, key);
+        final ByteBuffer encodedFrame = projectedFrame.encode();
+        projectionCache.putEncodedFrame(key, encodedFrame);
+        return encodedFrame;
+    }
+
+    // The frame of the coarsest level of detail that looks the same at pixelsPerMeter
+    private ProjectedFrame getProjectedFrame(double pixelsPerMeter) {
+        final int level = levelsOfDetail.selectLevel(pixelsPerMeter, VIEWING_DISTANCE);
+        if (projectedFrames[level] == null) {
+            projectedFrames[level] = new ProjectedFrame(levelsOfDetail.getLevel(level));
+        }
+        return projectedFrames[level];
+    }
+
+    // null without a projection cache
+    private ProjectionKey projectionKey(ProjectedFrame projectedFrame, double minimumExtent) {
+        return projectionCache != null
+                ? new ProjectionKey(projectedFrame.getMesh().getMeshId(), minimumExtent, state, projectionCache.getQuantization())
+                : null;
+    }
+
+    // With cached visible polygons only those are projected, and culling is skipped; otherwise
+    // the whole mesh is culled and projected, and the visible polygons are cached under key.
+    private void projectVisiblePolygons(ProjectedFrame projectedFrame, double minimumExtent, ProjectionKey key) {
+        final int[] cachedPolygons = key != null ? projectionCache.getVisiblePolygons(key) : null;
+        if (cachedPolygons != null) {
+            projectPolygons(projectedFrame, cachedPolygons);
+            projectedFrame.setVisiblePolygons(cachedPolygons);
+            return;
+        }
+
+        cullAndProjectPolygons(projectedFrame, minimumExtent, key);
+    }
+
+    private void cullAndProjectPolygons(ProjectedFrame projectedFrame, double minimumExtent, ProjectionKey key) {
+        projectPolygons(projectedFrame, null);
+        if (minimumExtent > 0) {
+            projectedFrame.collectVisiblePolygons(minimumExtent);
+        } else {
+            projectedFrame.collectVisiblePolygons();
+        }
+        if (key != null) {
+            projectionCache.putVisiblePolygons(key, projectedFrame.copyVisiblePolygons());
+        }
+    }
+
+    // The visible polygon mask of the full mesh, straight from the projection cache when it holds
+    // the visible polygons, since the mask needs no projected coordinates.
+    private byte[] getVisiblePolygonMask() {
+        final ProjectedFrame projectedFrame = projectedFrames[0];
+        final ProjectionKey key = projectionKey(projectedFrame, 0.0);
+        final int[] cachedPolygons = key != null ? projectionCache.getVisiblePolygons(key) : null;
+        if (cachedPolygons != null) {
+            return ProjectedFrame.toVisiblePolygonMask(spacecraftMesh.getPolygonCount(), cachedPolygons, cachedPolygons.length);
+        }
+        cullAndProjectPolygons(projectedFrame, 0.0, key);
+        return projectedFrame.getVisiblePolygonMask();
+    }
+
+    // Culls and projects the mesh, or projects only listedPolygons when they are given.  At least
+    // parallelProjectionThresholdPolygons polygons are projected in chunks on the projection pool;
+    // the visible polygons are listed in mesh order either way.
+    private void projectPolygons(ProjectedFrame projectedFrame, int[] listedPolygons) {
+        final long startNanos = propagationMetrics != null ? System.nanoTime() : 0L;
+        final int polygonCount = listedPolygons != null ? listedPolygons.length : projectedFrame.getMesh().getPolygonCount();
+
+        if (projectionPool == null || polygonCount < parallelProjectionThresholdPolygons) {
+            if (listedPolygons != null) {
+                projectedFrame.projectListedPolygons(attitudeMatrix, VIEWING_DISTANCE, listedPolygons, 0, polygonCount);
+            } else {
+                projectedFrame.projectPolygons(attitudeMatrix, VIEWING_DISTANCE, 0, polygonCount);
+            }
+        } else {
+            projectionPool.invoke(new ProjectionTask(projectedFrame, listedPolygons, attitudeMatrix, VIEWING_DISTANCE,
+                                                     0, polygonCount, parallelProjectionChunkPolygons));
+        }
+
+        if (propagationMetrics != null) {
+            propagationMetrics.recordProjection(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+
+// Shares visible polygon sets, and optionally encoded frames, between all the sessions showing a
+// mesh, keyed by quantized attitude, so that a repeated attitude costs a lookup instead of a cull.
+// The core only defines the contract, so that it needs no cache library; the web application
+// backs it with Caffeine.  Implementations must be thread-safe.
+public interface ProjectionCache {
+
+    // largest difference in a quarternion component between attitudes sharing a ProjectionKey
+    double getQuantization();
+
+    // Indices of the visible polygons in mesh order, or null if not cached.  The array is shared
+    // and must not be modified.
+    int[] getVisiblePolygons(ProjectionKey key);
+
+    void putVisiblePolygons(ProjectionKey key, int[] visiblePolygons);
+
+    // A ProjectedFrame.encode() output, or null if not cached or if frames are not cached.  Each
+    // call returns a buffer of its own over the shared bytes.
+    ByteBuffer getEncodedFrame(ProjectionKey key);
+
+    void putEncodedFrame(ProjectionKey key, ByteBuffer encodedFrame);
+}
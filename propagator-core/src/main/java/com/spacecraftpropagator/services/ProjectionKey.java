@@ -0,0 +1,82 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+// A mesh seen at a quantized attitude, the key of a ProjectionCache.  q and -q are the same
+// attitude, so the sign whose first non-zero component is positive is taken, r being exactly 0
+// for half turns, before each component is rounded to a multiple of the quantization.
+// Attitudes closer than the quantization share a key unless a rounding boundary falls between
+// them.  minimumExtent is the size below which polygons are left out, 0 for none.
+public final class ProjectionKey {
+
+    private final String meshId;
+    private final double minimumExtent;
+    private final long r;
+    private final long x;
+    private final long y;
+    private final long z;
+    private final int hashCode;
+
+    public ProjectionKey(String meshId, double minimumExtent, double[] state, double quantization) {
+        final double leading = state[0] != 0 ? state[0] : state[1] != 0 ? state[1] : state[2] != 0 ? state[2] : state[3];
+        final double sign = leading < 0 ? -1.0 : 1.0;
+        this.meshId = meshId;
+        this.minimumExtent = minimumExtent;
+        this.r = Math.round(sign*state[0]/quantization);
+        this.x = Math.round(sign*state[1]/quantization);
+        this.y = Math.round(sign*state[2]/quantization);
+        this.z = Math.round(sign*state[3]/quantization);
+
+        int h = meshId.hashCode();
+        h = 31*h + Double.hashCode(minimumExtent);
+        h = 31*h + Long.hashCode(r);
+        h = 31*h + Long.hashCode(x);
+        h = 31*h + Long.hashCode(y);
+        h = 31*h + Long.hashCode(z);
+        this.hashCode = h;
+    }
+
+    public String getMeshId() {
+        return meshId;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ProjectionKey)) {
+            return false;
+        }
+        final ProjectionKey other = (ProjectionKey) object;
+        return hashCode == other.hashCode
+                && r == other.r && x == other.x && y == other.y && z == other.z
+                && Double.compare(minimumExtent, other.minimumExtent) == 0
+                && meshId.equals(other.meshId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionKey [meshId=" + meshId + ", minimumExtent=" + minimumExtent
+                + ", r=" + r + ", x=" + x + ", y=" + y + ", z=" + z + "]";
+    }
+}
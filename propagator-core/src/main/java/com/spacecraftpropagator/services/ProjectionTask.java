@@ -0,0 +1,66 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.util.concurrent.RecursiveAction;
+
+import com.spacecraftpropagator.model.ProjectedFrame;
+
+// Splits a projection into halves until each piece has at most chunkPolygons polygons.  Each
+// piece writes only its own polygons' entries of the frame, so no further synchronization is
+// needed, and ForkJoinPool.invoke() publishes the results back to the calling thread.  With
+// listedPolygons the range indexes that list, whose polygons are projected without culling.
+class ProjectionTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ProjectedFrame projectedFrame;
+    // null to cull and project the mesh's own polygons
+    private final int[] listedPolygons;
+    private final double[] attitudeMatrix;
+    private final double viewingDistance;
+    private final int fromPolygon;
+    private final int toPolygon;
+    private final int chunkPolygons;
+
+    ProjectionTask(ProjectedFrame projectedFrame, int[] listedPolygons, double[] attitudeMatrix, double viewingDistance,
+                   int fromPolygon, int toPolygon, int chunkPolygons) {
+        this.projectedFrame = projectedFrame;
+        this.listedPolygons = listedPolygons;
+        this.attitudeMatrix = attitudeMatrix;
+        this.viewingDistance = viewingDistance;
+        this.fromPolygon = fromPolygon;
+        this.toPolygon = toPolygon;
+        this.chunkPolygons = chunkPolygons;
+    }
+
+    @Override
+    protected void compute() {
+        if (toPolygon - fromPolygon <= chunkPolygons) {
+            if (listedPolygons != null) {
+                projectedFrame.projectListedPolygons(attitudeMatrix, viewingDistance, listedPolygons, fromPolygon, toPolygon);
+            } else {
+                projectedFrame.projectPolygons(attitudeMatrix, viewingDistance, fromPolygon, toPolygon);
+            }
+            return;
+        }
+
+        final int middlePolygon = (fromPolygon + toPolygon) >>> 1;
+        invokeAll(new ProjectionTask(projectedFrame, listedPolygons, attitudeMatrix, viewingDistance, fromPolygon, middlePolygon, chunkPolygons),
+                  new ProjectionTask(projectedFrame, listedPolygons, attitudeMatrix, viewingDistance, middlePolygon, toPolygon, chunkPolygons));
+    }
+}
@@ -0,0 +1,36 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+// Receives the timings of a session's steps and projections, so that the core can be measured
+// without depending on a metrics library.  The web application publishes them with Micrometer.
+public interface PropagationMetrics {
+
+    // stepCount counts the session's steps from 1
+    boolean isTraced(long stepCount);
+
+    // bytes allocated by the calling thread so far, or -1 if unknown
+    long getAllocatedBytes();
+
+    void recordStep(long stepNanos);
+
+    void recordProjection(long projectionNanos);
+
+    // allocatedBytes is negative when unknown, and errorNorm NaN for integrators that estimate none
+    void traceStep(String sessionId, double simulationSeconds, double[] state,
+                   long stepNanos, long allocatedBytes, double errorNorm);
+}
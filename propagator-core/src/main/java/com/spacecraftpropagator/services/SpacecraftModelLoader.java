@@ -0,0 +1,200 @@
+// Copyright (C) 2024, M. Yang
+//
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+//
+//     This program is distributed in the hope that it will be useful,
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//     GNU General Public License for more details.
+//
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.MeshFile;
+import com.spacecraftpropagator.model.MeshLevelsOfDetail;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.SpacecraftModel;
+import com.spacecraftpropagator.model.SpacecraftModelFiles;
+import com.spacecraftpropagator.sensors.SensorSuite;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+import com.spacecraftpropagator.utils.SensorSuiteInvalidException;
+
+// Reads the spacecraft models once at startup, so that each simulation session can be created
+// from memory instead of re-reading and re-parsing the model files.  The default model comes from
+// the JSON files in the working directory; every binary mesh file in the models directory is
+// another model, named after its file.  Sessions of a model share its mesh read-only.  Without a
+// sensor suite file the spacecraft has the original sun and IR sensors; mesh file models carry
+// the default model's sensors.
+//
+// Levels of detail are computed here too, for meshes large enough to need them.  The web
+// application creates the loader from its properties in ModelConfig.
+public class SpacecraftModelLoader {
+
+    public static final String DEFAULT_MODEL_NAME = "default";
+
+    private static final String SPACECRAFT_POLYGONS_DATA_JSON_FILENAME = "spacecraftPolygonsData.json";
+    private static final String MOMENT_OF_INERTIA_VALUES_JSON_FILENAME = "momentOfInertiaValues.json";
+    private static final String SENSOR_SUITE_JSON_FILENAME = "sensorSuite.json";
+
+    private final Map<String, SpacecraftModel> models = new LinkedHashMap<>();
+
+    private final SpacecraftModel defaultModel;
+
+    private final int maximumLevelsOfDetail;
+    private final int levelOfDetailMinimumPolygons;
+    private final double defaultPixelsPerMeter;
+    private final double tolerancePixels;
+    private final double minimumPolygonPixels;
+
+    Logger logger = LoggerFactory.getLogger(SpacecraftModelLoader.class);
+
+    public SpacecraftModelLoader() {
+        this(null, 1, Integer.MAX_VALUE, 1.0, 1.0, 0.0);
+    }
+
+    // modelsDirectory may be null or missing, for the default model only
+    public SpacecraftModelLoader(String modelsDirectory,
+                                 int maximumLevelsOfDetail,
+                                 int levelOfDetailMinimumPolygons,
+                                 double defaultPixelsPerMeter,
+                                 double tolerancePixels,
+                                 double minimumPolygonPixels) {
+        this.maximumLevelsOfDetail = maximumLevelsOfDetail;
+        this.levelOfDetailMinimumPolygons = levelOfDetailMinimumPolygons;
+        this.defaultPixelsPerMeter = defaultPixelsPerMeter;
+        this.tolerancePixels = tolerancePixels;
+        this.minimumPolygonPixels = minimumPolygonPixels;
+
+        SpacecraftMesh spacecraftMesh = SpacecraftMesh.fromPolygons(Collections.emptyList());
+        try {
+            spacecraftMesh = SpacecraftModelFiles.readPolygons(Paths.get(SPACECRAFT_POLYGONS_DATA_JSON_FILENAME));
+            logger.info("spacecraftPolygons read in:  {} polygons, {} vertices", spacecraftMesh.getPolygonCount(), spacecraftMesh.getVertexCount());
+        } catch (IOException e) {
+            logger.error("Error reading spacecraftPolygons filename {}:  ", SPACECRAFT_POLYGONS_DATA_JSON_FILENAME, e);
+        }
+
+        RigidBodyDynamics rigidBodyDynamics = null;
+        try {
+            final double[] inertiaTensor = SpacecraftModelFiles.readInertiaTensor(Paths.get(MOMENT_OF_INERTIA_VALUES_JSON_FILENAME));
+            rigidBodyDynamics = RigidBodyDynamics.fromInertiaTensor(inertiaTensor);
+
+            logger.info("momentOfInertia initialization:  {}", Arrays.toString(inertiaTensor));
+
+        } catch (IOException e) {
+            logger.error("Error reading momentOfInertia values filename {}:  ", MOMENT_OF_INERTIA_VALUES_JSON_FILENAME, e);
+        } catch (MomentOfInertiaInvalidException | RuntimeException e) {
+            throw new IllegalStateException("Invalid momentOfInertia values in " + MOMENT_OF_INERTIA_VALUES_JSON_FILENAME + ":  " + e.getMessage(), e);
+        }
+
+        SensorSuite sensorSuite = SensorSuite.DEFAULT;
+        if (Files.exists(Paths.get(SENSOR_SUITE_JSON_FILENAME))) {
+            try {
+                sensorSuite = SpacecraftModelFiles.readSensorSuite(Paths.get(SENSOR_SUITE_JSON_FILENAME));
+                logger.info("sensorSuite read in:  {}", sensorSuite);
+            } catch (IOException | SensorSuiteInvalidException e) {
+                throw new IllegalStateException("Invalid sensor suite in " + SENSOR_SUITE_JSON_FILENAME + ":  " + e.getMessage(), e);
+            }
+        }
+
+        this.defaultModel = new SpacecraftModel(DEFAULT_MODEL_NAME, buildLevelsOfDetail(spacecraftMesh), rigidBodyDynamics, sensorSuite);
+        models.put(DEFAULT_MODEL_NAME, defaultModel);
+
+        if (modelsDirectory != null && Files.isDirectory(Paths.get(modelsDirectory))) {
+            loadMeshFiles(Paths.get(modelsDirectory));
+        }
+
+        logger.info("Finished SpacecraftModelLoader() constructor:  models {}", models.keySet());
+    }
+
+    public SpacecraftMesh getSpacecraftMesh() {
+        return defaultModel.getSpacecraftMesh();
+    }
+
+    public RigidBodyDynamics getRigidBodyDynamics() {
+        return defaultModel.getRigidBodyDynamics();
+    }
+
+    public SpacecraftModel getDefaultModel() {
+        return defaultModel;
+    }
+
+    // null if there is no such model
+    public SpacecraftModel getModel(String name) {
+        return models.get(name);
+    }
+
+    public SpacecraftModel getModelByMeshId(String meshId) {
+        for (SpacecraftModel model : models.values()) {
+            if (model.getSpacecraftMesh().getMeshId().equals(meshId)) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    public List<String> getModelNames() {
+        return new ArrayList<>(models.keySet());
+    }
+
+    private MeshLevelsOfDetail buildLevelsOfDetail(SpacecraftMesh spacecraftMesh) {
+        final long startNanos = System.nanoTime();
+        final MeshLevelsOfDetail levelsOfDetail = MeshLevelsOfDetail.build(spacecraftMesh, maximumLevelsOfDetail, levelOfDetailMinimumPolygons,
+                                                                           defaultPixelsPerMeter, tolerancePixels, minimumPolygonPixels);
+        for (int level = 1; level < levelsOfDetail.getLevelCount(); level++) {
+            logger.info("Level of detail {}:  {} polygons, feature size {} m",
+                        level, levelsOfDetail.getLevel(level).getPolygonCount(), levelsOfDetail.getFeatureSize(level));
+        }
+        if (levelsOfDetail.getLevelCount() > 1) {
+            logger.info("Levels of detail computed in {} ms", (System.nanoTime() - startNanos)/1000000);
+        }
+        return levelsOfDetail;
+    }
+
+    // A mesh file without an inertia tensor takes the default model's.
+    private void loadMeshFiles(Path modelsDirectory) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(modelsDirectory, "*" + MeshFile.FILE_EXTENSION)) {
+            for (Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final String name = fileName.substring(0, fileName.length() - MeshFile.FILE_EXTENSION.length());
+                try {
+                    final long startNanos = System.nanoTime();
+                    final MeshFile meshFile = MeshFile.read(file);
+                    final RigidBodyDynamics rigidBodyDynamics = meshFile.getInertiaTensor() != null
+                            ? RigidBodyDynamics.fromInertiaTensor(meshFile.getInertiaTensor())
+                            : defaultModel.getRigidBodyDynamics();
+
+                    final SpacecraftModel model = new SpacecraftModel(name, buildLevelsOfDetail(meshFile.getSpacecraftMesh()), rigidBodyDynamics,
+                                                                      defaultModel.getSensorSuite());
+                    models.put(name, model);
+                    logger.info("Loaded {} from {} in {} ms", model, file, (System.nanoTime() - startNanos)/1000000);
+                } catch (IOException | MomentOfInertiaInvalidException e) {
+                    logger.error("Error reading spacecraft model file {}:  ", file, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading spacecraft models directory {}:  ", modelsDirectory, e);
+        }
+    }
+}
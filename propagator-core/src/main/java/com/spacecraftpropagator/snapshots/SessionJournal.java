@@ -0,0 +1,434 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.snapshots;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+// Everything that changed a session, in order:  runs of equal steps and the torques applied and
+// attitude controller settings made between them, each at its simulated time, along with
+// checkpoints of the session state taken every checkpointIntervalSeconds of simulated time.
+// Restoring the last checkpoint before a time, with the controller settings in effect there, and
+// replaying the journal from there reproduces the session exactly, since the steps, torques and
+// settings are replayed in the same order with the same floating point operations.
+//
+// Once the journal holds maximumEntries entries or checkpoints, the history before the latest
+// checkpoint is discarded, except for the controller settings in effect at it.  Not thread-safe;
+// a session only uses its journal under its own lock.
+public class SessionJournal {
+
+    public static final double DEFAULT_CHECKPOINT_INTERVAL_SECONDS = 10.0;
+    public static final int DEFAULT_MAXIMUM_ENTRIES = 10000;
+
+    private static final int KIND_STEPS = 1;
+    private static final int KIND_TORQUE = 2;
+    private static final int KIND_CONTROL = 3;
+
+    // kind, simulated seconds at the start, then stepSeconds, stepCount for steps, the viewing
+    // coordinates torque axis x, y, z, torqueNewtonMeters, numSeconds for torques, or the
+    // AttitudeController.toArray() settings
+    private static final int ENTRY_SIZE = 2 + AttitudeController.SETTINGS_SIZE;
+    private static final int TORQUE_ENTRY_SIZE = 7;
+
+    // simulated seconds, the state, the integrator's carried substep, then the replay position:
+    // the index of the first entry to replay and the number of its steps already taken
+    private static final int CHECKPOINT_SIZE = RigidBodyDynamics.STATE_SIZE + 4;
+    private static final int CHECKPOINT_CARRIED_SUBSTEP = RigidBodyDynamics.STATE_SIZE + 1;
+    private static final int CHECKPOINT_ENTRY = RigidBodyDynamics.STATE_SIZE + 2;
+    private static final int CHECKPOINT_STEPS_DONE = RigidBodyDynamics.STATE_SIZE + 3;
+
+    // how far from 1 a decoded state's squared quarternion norm may be; the integrators renormalize
+    // every step, so anything further off was not written by a session
+    private static final double QUARTERNION_NORM_TOLERANCE = 1e-6;
+
+    private final double checkpointIntervalSeconds;
+    private final int maximumEntries;
+
+    private double[] entries = new double[16*ENTRY_SIZE];
+    private int entryCount;
+
+    private double[] checkpoints = new double[4*CHECKPOINT_SIZE];
+    private int checkpointCount;
+
+    // Receives the journal entries being replayed.
+    public interface Replayer {
+        void step(double stepSeconds);
+        void torque(double torqueX, double torqueY, double torqueZ, double torqueNewtonMeters, double numSeconds);
+        void control(AttitudeController attitudeController);
+    }
+
+    public SessionJournal(double checkpointIntervalSeconds, int maximumEntries) {
+        if (!(checkpointIntervalSeconds > 0) || maximumEntries < 2) {
+            throw new IllegalArgumentException("checkpointIntervalSeconds must be positive and maximumEntries at least 2");
+        }
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+        this.maximumEntries = maximumEntries;
+    }
+
+    public double getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+
+    public int getMaximumEntries() {
+        return maximumEntries;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    // The earliest simulated time that can still be replayed to
+    public double getEarliestSeconds() {
+        return checkpointCount == 0 ? Double.NaN : checkpoints[0];
+    }
+
+    public void recordStep(double startSeconds, double stepSeconds) {
+        final int last = (entryCount - 1)*ENTRY_SIZE;
+        if (entryCount > 0 && entries[last] == KIND_STEPS && entries[last + 2] == stepSeconds
+                && entries[last + 3] < Integer.MAX_VALUE) {
+            entries[last + 3]++;
+            return;
+        }
+        addEntry(KIND_STEPS, startSeconds, stepSeconds, 1.0, 0.0, 0.0, 0.0);
+    }
+
+    public void recordTorque(double seconds, double torqueX, double torqueY, double torqueZ,
+                             double torqueNewtonMeters, double numSeconds) {
+        addEntry(KIND_TORQUE, seconds, torqueX, torqueY, torqueZ, torqueNewtonMeters, numSeconds);
+    }
+
+    public void recordControl(double seconds, AttitudeController attitudeController) {
+        addEntry(KIND_CONTROL, seconds, 0.0, 0.0, 0.0, 0.0, 0.0);
+        attitudeController.toArray(entries, (entryCount - 1)*ENTRY_SIZE + 2);
+    }
+
+    // The controller settings in effect at a checkpoint, which replays from there start with
+    public AttitudeController getCheckpointController(int checkpoint) {
+        return findController((int) checkpoints[checkpoint*CHECKPOINT_SIZE + CHECKPOINT_ENTRY]);
+    }
+
+    // The controller settings in effect after everything journaled
+    public AttitudeController getLatestController() {
+        return findController(entryCount);
+    }
+
+    public boolean isCheckpointDue(double simulationSeconds) {
+        if (checkpointCount == 0) {
+            return true;
+        }
+        final int latest = (checkpointCount - 1)*CHECKPOINT_SIZE;
+        return simulationSeconds >= checkpoints[latest] + checkpointIntervalSeconds
+                || entryCount - (int) checkpoints[latest + CHECKPOINT_ENTRY] >= maximumEntries/2;
+    }
+
+    // Checkpoints the state reached by everything journaled so far.
+    public void addCheckpoint(double simulationSeconds, double[] state, double carriedSubstepSeconds) {
+        if ((checkpointCount + 1)*CHECKPOINT_SIZE > checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpoints.length*2);
+        }
+        final int checkpoint = checkpointCount*CHECKPOINT_SIZE;
+        checkpoints[checkpoint] = simulationSeconds;
+        System.arraycopy(state, 0, checkpoints, checkpoint + 1, RigidBodyDynamics.STATE_SIZE);
+        checkpoints[checkpoint + CHECKPOINT_CARRIED_SUBSTEP] = carriedSubstepSeconds;
+
+        final int last = (entryCount - 1)*ENTRY_SIZE;
+        if (entryCount > 0 && entries[last] == KIND_STEPS) {
+            checkpoints[checkpoint + CHECKPOINT_ENTRY] = entryCount - 1;
+            checkpoints[checkpoint + CHECKPOINT_STEPS_DONE] = entries[last + 3];
+        } else {
+            checkpoints[checkpoint + CHECKPOINT_ENTRY] = entryCount;
+            checkpoints[checkpoint + CHECKPOINT_STEPS_DONE] = 0;
+        }
+        checkpointCount++;
+
+        if (entryCount >= maximumEntries || checkpointCount >= maximumEntries) {
+            discardHistory();
+        }
+    }
+
+    // Index of the latest checkpoint at or before simulationSeconds, or -1 if there is none.
+    public int findCheckpoint(double simulationSeconds) {
+        int low = 0;
+        int high = checkpointCount - 1;
+        int found = -1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (checkpoints[middle*CHECKPOINT_SIZE] <= simulationSeconds) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    public double getCheckpointSeconds(int checkpoint) {
+        return checkpoints[checkpoint*CHECKPOINT_SIZE];
+    }
+
+    public double getCheckpointCarriedSubstepSeconds(int checkpoint) {
+        return checkpoints[checkpoint*CHECKPOINT_SIZE + CHECKPOINT_CARRIED_SUBSTEP];
+    }
+
+    public void copyCheckpointState(int checkpoint, double[] state) {
+        System.arraycopy(checkpoints, checkpoint*CHECKPOINT_SIZE + 1, state, 0, RigidBodyDynamics.STATE_SIZE);
+    }
+
+    // Replays the journal from a checkpoint, whose state the replayer must already hold, for as long
+    // as the steps end and the torques apply at or before targetSeconds.  The journal is then cut
+    // off where the replay stopped, so that whatever the session does next is journaled after it.
+    // Returns the simulated time reached.
+    public double replay(int checkpoint, double targetSeconds, Replayer replayer) {
+        final int checkpointOffset = checkpoint*CHECKPOINT_SIZE;
+        double simulationSeconds = checkpoints[checkpointOffset];
+        int entry = (int) checkpoints[checkpointOffset + CHECKPOINT_ENTRY];
+        int stepsDone = (int) checkpoints[checkpointOffset + CHECKPOINT_STEPS_DONE];
+
+        replay:
+        for (; entry < entryCount; entry++, stepsDone = 0) {
+            final int offset = entry*ENTRY_SIZE;
+            if (entries[offset] == KIND_TORQUE) {
+                if (entries[offset + 1] > targetSeconds) {
+                    break;
+                }
+                replayer.torque(entries[offset + 2], entries[offset + 3], entries[offset + 4],
+                                entries[offset + 5], entries[offset + 6]);
+                continue;
+            }
+            if (entries[offset] == KIND_CONTROL) {
+                if (entries[offset + 1] > targetSeconds) {
+                    break;
+                }
+                replayer.control(AttitudeController.fromArray(entries, offset + 2));
+                continue;
+            }
+
+            final double stepSeconds = entries[offset + 2];
+            final int stepCount = (int) entries[offset + 3];
+            for (; stepsDone < stepCount; stepsDone++) {
+                if (simulationSeconds + stepSeconds > targetSeconds) {
+                    break replay;
+                }
+                replayer.step(stepSeconds);
+                simulationSeconds += stepSeconds;
+            }
+        }
+
+        // cut off the rest of the journal and the checkpoints that were taken during it
+        if (entry < entryCount && stepsDone > 0) {
+            entries[entry*ENTRY_SIZE + 3] = stepsDone;
+            entryCount = entry + 1;
+        } else {
+            entryCount = entry;
+        }
+        checkpointCount = checkpoint + 1;
+
+        return simulationSeconds;
+    }
+
+    public int getEncodedSize() {
+        int size = 4 + 4;
+        for (int entry = 0; entry < entryCount; entry++) {
+            final double kind = entries[entry*ENTRY_SIZE];
+            size += kind == KIND_STEPS ? 1 + 8 + 8 + 4 : kind == KIND_TORQUE ? 1 + 6*8 : 1 + (ENTRY_SIZE - 1)*8;
+        }
+        return size + checkpointCount*((CHECKPOINT_SIZE - 2)*8 + 4 + 4);
+    }
+
+    // Entries as the kind byte and only the fields the kind uses; counts and positions as ints.
+    public void encode(ByteBuffer buffer) {
+        buffer.putInt(checkpointCount);
+        for (int checkpoint = 0; checkpoint < checkpointCount; checkpoint++) {
+            final int offset = checkpoint*CHECKPOINT_SIZE;
+            for (int i = 0; i < CHECKPOINT_ENTRY; i++) {
+                buffer.putDouble(checkpoints[offset + i]);
+            }
+            buffer.putInt((int) checkpoints[offset + CHECKPOINT_ENTRY]);
+            buffer.putInt((int) checkpoints[offset + CHECKPOINT_STEPS_DONE]);
+        }
+
+        buffer.putInt(entryCount);
+        for (int entry = 0; entry < entryCount; entry++) {
+            final int offset = entry*ENTRY_SIZE;
+            if (entries[offset] == KIND_STEPS) {
+                buffer.put((byte) KIND_STEPS);
+                buffer.putDouble(entries[offset + 1]);
+                buffer.putDouble(entries[offset + 2]);
+                buffer.putInt((int) entries[offset + 3]);
+            } else {
+                final int kind = (int) entries[offset];
+                buffer.put((byte) kind);
+                for (int i = 1; i < (kind == KIND_TORQUE ? TORQUE_ENTRY_SIZE : ENTRY_SIZE); i++) {
+                    buffer.putDouble(entries[offset + i]);
+                }
+            }
+        }
+    }
+
+    public void decode(ByteBuffer buffer) throws SnapshotInvalidException {
+        final int checkpointCount = buffer.getInt();
+        if (checkpointCount < 1 || checkpointCount > buffer.remaining()/((CHECKPOINT_SIZE - 2)*8 + 8)) {
+            throw new SnapshotInvalidException("Invalid checkpoint count " + checkpointCount);
+        }
+        final double[] checkpoints = new double[checkpointCount*CHECKPOINT_SIZE];
+        for (int checkpoint = 0; checkpoint < checkpointCount; checkpoint++) {
+            final int offset = checkpoint*CHECKPOINT_SIZE;
+            for (int i = 0; i < CHECKPOINT_ENTRY; i++) {
+                checkpoints[offset + i] = buffer.getDouble();
+            }
+            checkpoints[offset + CHECKPOINT_ENTRY] = buffer.getInt();
+            checkpoints[offset + CHECKPOINT_STEPS_DONE] = buffer.getInt();
+        }
+
+        final int entryCount = buffer.getInt();
+        if (entryCount < 0 || entryCount > buffer.remaining()/(1 + 8 + 8 + 4)) {
+            throw new SnapshotInvalidException("Invalid journal entry count " + entryCount);
+        }
+        final double[] entries = new double[Math.max(16, entryCount)*ENTRY_SIZE];
+        for (int entry = 0; entry < entryCount; entry++) {
+            final int offset = entry*ENTRY_SIZE;
+            final byte kind = buffer.get();
+            entries[offset] = kind;
+            if (kind == KIND_STEPS) {
+                entries[offset + 1] = buffer.getDouble();
+                entries[offset + 2] = buffer.getDouble();
+                entries[offset + 3] = buffer.getInt();
+                if (!Double.isFinite(entries[offset + 2]) || !(entries[offset + 2] > 0) || entries[offset + 3] < 1) {
+                    throw new SnapshotInvalidException("Invalid steps in journal entry " + entry);
+                }
+            } else if (kind == KIND_TORQUE) {
+                for (int i = 1; i < TORQUE_ENTRY_SIZE; i++) {
+                    entries[offset + i] = buffer.getDouble();
+                    if (!Double.isFinite(entries[offset + i])) {
+                        throw new SnapshotInvalidException("Invalid torque in journal entry " + entry);
+                    }
+                }
+            } else if (kind == KIND_CONTROL) {
+                if (buffer.remaining() < (ENTRY_SIZE - 1)*8) {
+                    throw new SnapshotInvalidException("Truncated journal entry " + entry);
+                }
+                for (int i = 1; i < ENTRY_SIZE; i++) {
+                    entries[offset + i] = buffer.getDouble();
+                }
+                if (AttitudeController.fromArray(entries, offset + 2) == null) {
+                    throw new SnapshotInvalidException("Invalid attitude controller settings in journal entry " + entry);
+                }
+            } else {
+                throw new SnapshotInvalidException("Invalid journal entry kind " + kind);
+            }
+            if (!Double.isFinite(entries[offset + 1])) {
+                throw new SnapshotInvalidException("Journal entry " + entry + " time is not finite");
+            }
+        }
+
+        for (int checkpoint = 0; checkpoint < checkpointCount; checkpoint++) {
+            final int offset = checkpoint*CHECKPOINT_SIZE;
+            final int entry = (int) checkpoints[offset + CHECKPOINT_ENTRY];
+            final int stepsDone = (int) checkpoints[offset + CHECKPOINT_STEPS_DONE];
+            final double carriedSubstepSeconds = checkpoints[offset + CHECKPOINT_CARRIED_SUBSTEP];
+            if (entry < 0 || entry > entryCount
+                    || !Double.isFinite(checkpoints[offset])
+                    || (checkpoint > 0 && checkpoints[offset] < checkpoints[offset - CHECKPOINT_SIZE])
+                    || !isValidState(checkpoints, offset + 1)
+                    || !Double.isFinite(carriedSubstepSeconds) || carriedSubstepSeconds < 0) {
+                throw new SnapshotInvalidException("Invalid checkpoint " + checkpoint);
+            }
+            // steps already taken are only possible part way through a run of steps
+            if (stepsDone < 0 || (stepsDone > 0 && (entry == entryCount
+                                                    || entries[entry*ENTRY_SIZE] != KIND_STEPS
+                                                    || stepsDone > entries[entry*ENTRY_SIZE + 3]))) {
+                throw new SnapshotInvalidException("Invalid replay position in checkpoint " + checkpoint);
+            }
+        }
+
+        this.checkpoints = checkpoints;
+        this.checkpointCount = checkpointCount;
+        this.entries = entries;
+        this.entryCount = entryCount;
+    }
+
+    // Finite, with a quarternion of nearly unit norm, as a session's state always is
+    static boolean isValidState(double[] values, int offset) {
+        for (int i = offset; i < offset + RigidBodyDynamics.STATE_SIZE; i++) {
+            if (!Double.isFinite(values[i])) {
+                return false;
+            }
+        }
+        final double normSquared = values[offset]*values[offset] + values[offset + 1]*values[offset + 1]
+                + values[offset + 2]*values[offset + 2] + values[offset + 3]*values[offset + 3];
+        return Math.abs(normSquared - 1.0) <= QUARTERNION_NORM_TOLERANCE;
+    }
+
+    private void addEntry(int kind, double seconds, double v0, double v1, double v2, double v3, double v4) {
+        if ((entryCount + 1)*ENTRY_SIZE > entries.length) {
+            entries = Arrays.copyOf(entries, entries.length*2);
+        }
+        final int offset = entryCount*ENTRY_SIZE;
+        entries[offset] = kind;
+        entries[offset + 1] = seconds;
+        entries[offset + 2] = v0;
+        entries[offset + 3] = v1;
+        entries[offset + 4] = v2;
+        entries[offset + 5] = v3;
+        entries[offset + 6] = v4;
+        entryCount++;
+    }
+
+    // OFF if no settings were journaled before the entry
+    private AttitudeController findController(int beforeEntry) {
+        for (int entry = beforeEntry - 1; entry >= 0; entry--) {
+            if (entries[entry*ENTRY_SIZE] == KIND_CONTROL) {
+                return AttitudeController.fromArray(entries, entry*ENTRY_SIZE + 2);
+            }
+        }
+        return AttitudeController.OFF;
+    }
+
+    // Keeps only the latest checkpoint and the entries from its replay position on, preceded by
+    // the latest controller settings before it.
+    private void discardHistory() {
+        final int latest = (checkpointCount - 1)*CHECKPOINT_SIZE;
+        final int firstEntry = (int) checkpoints[latest + CHECKPOINT_ENTRY];
+
+        int controlEntry = -1;
+        for (int entry = firstEntry - 1; entry >= 0 && controlEntry < 0; entry--) {
+            if (entries[entry*ENTRY_SIZE] == KIND_CONTROL) {
+                controlEntry = entry;
+            }
+        }
+        final int keptEntry = controlEntry < 0 ? firstEntry : firstEntry - 1;
+        if (controlEntry >= 0 && controlEntry != keptEntry) {
+            System.arraycopy(entries, controlEntry*ENTRY_SIZE, entries, keptEntry*ENTRY_SIZE, ENTRY_SIZE);
+        }
+
+        System.arraycopy(entries, keptEntry*ENTRY_SIZE, entries, 0, (entryCount - keptEntry)*ENTRY_SIZE);
+        entryCount -= keptEntry;
+
+        System.arraycopy(checkpoints, latest, checkpoints, 0, CHECKPOINT_SIZE);
+        checkpoints[CHECKPOINT_ENTRY] = firstEntry - keptEntry;
+        checkpointCount = 1;
+    }
+}
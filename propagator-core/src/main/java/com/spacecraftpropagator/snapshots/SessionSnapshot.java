@@ -0,0 +1,166 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.snapshots;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+// The complete state of a simulation session, as little-endian binary:
+//
+//     int magic, int version, string meshId, string integratorName,
+//     double simulationSeconds, double state[RigidBodyDynamics.STATE_SIZE],
+//     double carriedSubstepSeconds, then the journal as encoded by SessionJournal
+//
+// with each string as a short byte count followed by UTF-8 bytes.
+public class SessionSnapshot {
+
+    static final int MAGIC = 0x5343534e; // "SCSN"
+    static final int VERSION = 1;
+
+    private final String meshId;
+    private final String integratorName;
+    private final double simulationSeconds;
+    private final double[] state;
+    private final double carriedSubstepSeconds;
+    private final SessionJournal journal;
+
+    public SessionSnapshot(String meshId,
+                           String integratorName,
+                           double simulationSeconds,
+                           double[] state,
+                           double carriedSubstepSeconds,
+                           SessionJournal journal) {
+        this.meshId = meshId;
+        this.integratorName = integratorName;
+        this.simulationSeconds = simulationSeconds;
+        this.state = state;
+        this.carriedSubstepSeconds = carriedSubstepSeconds;
+        this.journal = journal;
+    }
+
+    public String getMeshId() {
+        return meshId;
+    }
+
+    public String getIntegratorName() {
+        return integratorName;
+    }
+
+    public double getSimulationSeconds() {
+        return simulationSeconds;
+    }
+
+    public double[] getState() {
+        return state;
+    }
+
+    public double getCarriedSubstepSeconds() {
+        return carriedSubstepSeconds;
+    }
+
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    public byte[] encode() {
+        final byte[] meshIdBytes = meshId.getBytes(StandardCharsets.UTF_8);
+        final byte[] integratorNameBytes = integratorName.getBytes(StandardCharsets.UTF_8);
+        final int size = 4 + 4 + 2 + meshIdBytes.length + 2 + integratorNameBytes.length
+                + 8 + RigidBodyDynamics.STATE_SIZE*8 + 8 + journal.getEncodedSize();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putShort((short) meshIdBytes.length).put(meshIdBytes);
+        buffer.putShort((short) integratorNameBytes.length).put(integratorNameBytes);
+        buffer.putDouble(simulationSeconds);
+        for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+            buffer.putDouble(state[i]);
+        }
+        buffer.putDouble(carriedSubstepSeconds);
+        journal.encode(buffer);
+        return buffer.array();
+    }
+
+    // Reads only as far as the mesh id, to find the spacecraft model a snapshot is of.
+    public static String readMeshId(byte[] bytes) throws SnapshotInvalidException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            checkHeader(buffer);
+            return getString(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new SnapshotInvalidException("Session snapshot is truncated");
+        }
+    }
+
+    // The decoded journal takes the given limits, which need not be those it was recorded with.
+    public static SessionSnapshot decode(byte[] bytes, double checkpointIntervalSeconds, int maximumJournalEntries) throws SnapshotInvalidException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            checkHeader(buffer);
+            final String meshId = getString(buffer);
+            final String integratorName = getString(buffer);
+            final double simulationSeconds = buffer.getDouble();
+            final double[] state = new double[RigidBodyDynamics.STATE_SIZE];
+            for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+                state[i] = buffer.getDouble();
+            }
+            final double carriedSubstepSeconds = buffer.getDouble();
+
+            final SessionJournal journal = new SessionJournal(checkpointIntervalSeconds, maximumJournalEntries);
+            journal.decode(buffer);
+            if (buffer.hasRemaining()) {
+                throw new SnapshotInvalidException(buffer.remaining() + " unexpected bytes after the session snapshot");
+            }
+
+            if (!SessionJournal.isValidState(state, 0)) {
+                throw new SnapshotInvalidException("Session snapshot state is not finite or its quarternion is not of unit norm");
+            }
+            if (!Double.isFinite(simulationSeconds)) {
+                throw new SnapshotInvalidException("Session snapshot time is not finite");
+            }
+            if (!Double.isFinite(carriedSubstepSeconds) || carriedSubstepSeconds < 0) {
+                throw new SnapshotInvalidException("Session snapshot carried substep is not finite and non-negative");
+            }
+
+            return new SessionSnapshot(meshId, integratorName, simulationSeconds, state, carriedSubstepSeconds, journal);
+        } catch (BufferUnderflowException e) {
+            throw new SnapshotInvalidException("Session snapshot is truncated");
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer) throws SnapshotInvalidException {
+        if (buffer.getInt() != MAGIC) {
+            throw new SnapshotInvalidException("Not a session snapshot");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new SnapshotInvalidException("Unsupported session snapshot version " + version);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
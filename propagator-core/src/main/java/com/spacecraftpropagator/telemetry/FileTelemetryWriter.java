@@ -0,0 +1,242 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.spacecraftpropagator.model.TelemetrySampleRecord;
+
+// Appends each run to its own file of fixed-size little-endian records, after an eight byte header
+// of the magic number and the format version:
+//
+//     long sequence, long recordedAtMillis, double simulationSeconds, int kind, int unused,
+//     double values[TelemetryBatch.VALUE_COUNT]
+//
+// Files are only ever appended to, so a reader sees every whole record written before it opened
+// the file.  The most recently written runs keep their files open between batches.
+public class FileTelemetryWriter implements TelemetryWriter {
+
+    public static final String FILE_EXTENSION = ".telemetry";
+
+    static final int MAGIC = 0x5343544c; // "SCTL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 8 + 8 + 8 + 4 + 4 + TelemetryBatch.VALUE_COUNT*8;
+
+    private static final int MAXIMUM_OPEN_FILES = 64;
+
+    // run ids become file names
+    private static final Pattern RUN_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path directory;
+
+    // written by the writer thread only
+    private final Map<String, FileChannel> openFiles = new LinkedHashMap<String, FileChannel>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileChannel> eldest) {
+            if (size() <= MAXIMUM_OPEN_FILES) {
+                return false;
+            }
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+    };
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(0);
+    private boolean[] written = new boolean[0];
+
+    Logger logger = LoggerFactory.getLogger(FileTelemetryWriter.class);
+
+    public FileTelemetryWriter(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        logger.info("Telemetry files are written to {}", this.directory.toAbsolutePath());
+    }
+
+    // Writes the records of each run in the batch with one write call per run.
+    @Override
+    public void write(TelemetryBatch batch) throws IOException {
+        final int count = batch.getCount();
+        if (writeBuffer.capacity() < count*RECORD_BYTES) {
+            writeBuffer = ByteBuffer.allocateDirect(batch.getCapacity()*RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            written = new boolean[batch.getCapacity()];
+        }
+        for (int record = 0; record < count; record++) {
+            written[record] = false;
+        }
+
+        for (int first = 0; first < count; first++) {
+            if (written[first]) {
+                continue;
+            }
+            final String runId = batch.getRunId(first);
+            writeBuffer.clear();
+            for (int record = first; record < count; record++) {
+                if (!written[record] && runId.equals(batch.getRunId(record))) {
+                    putRecord(batch, record);
+                    written[record] = true;
+                }
+            }
+            writeBuffer.flip();
+
+            final FileChannel channel = getOpenFile(runId);
+            while (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer);
+            }
+        }
+    }
+
+    @Override
+    public List<String> listRuns() throws IOException {
+        final List<String> runIds = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                final String fileName = file.getFileName().toString();
+                runIds.add(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+            }
+        }
+        Collections.sort(runIds);
+        return runIds;
+    }
+
+    // Scans the memory-mapped file; the simulated time of a run may go backwards, for example
+    // after a restore, so the whole file is filtered rather than searched.
+    @Override
+    public List<TelemetrySampleRecord> read(String runId, double fromSeconds, double toSeconds, long offset, int limit) throws IOException {
+        final List<TelemetrySampleRecord> samples = new ArrayList<>();
+        if (!RUN_ID_PATTERN.matcher(runId).matches()) {
+            return samples;
+        }
+
+        try (FileChannel channel = FileChannel.open(toFile(runId), StandardOpenOption.READ)) {
+            // one mapping reaches at most 2 GB, some 20 million records
+            final long recordCount = Math.min((channel.size() - HEADER_BYTES)/RECORD_BYTES,
+                                              (Integer.MAX_VALUE - HEADER_BYTES)/RECORD_BYTES);
+            if (recordCount <= 0) {
+                return samples;
+            }
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + recordCount*RECORD_BYTES);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " telemetry file:  " + toFile(runId));
+            }
+
+            long skipped = 0;
+            for (long record = 0; record < recordCount && samples.size() < limit; record++) {
+                final int position = (int) (HEADER_BYTES + record*RECORD_BYTES);
+                final double simulationSeconds = mapped.getDouble(position + 16);
+                if (simulationSeconds < fromSeconds || simulationSeconds > toSeconds) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                samples.add(getRecord(mapped, position));
+            }
+        } catch (NoSuchFileException e) {
+            // nothing recorded for this run
+        }
+        return samples;
+    }
+
+    @Override
+    public void close() {
+        for (FileChannel channel : openFiles.values()) {
+            closeQuietly(channel);
+        }
+        openFiles.clear();
+    }
+
+    private FileChannel getOpenFile(String runId) throws IOException {
+        FileChannel channel = openFiles.get(runId);
+        if (channel == null) {
+            if (!RUN_ID_PATTERN.matcher(runId).matches()) {
+                throw new IOException("Invalid telemetry run id " + runId);
+            }
+            channel = FileChannel.open(toFile(runId), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() == 0) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            }
+            openFiles.put(runId, channel);
+        }
+        return channel;
+    }
+
+    private Path toFile(String runId) {
+        return directory.resolve(runId + FILE_EXTENSION);
+    }
+
+    private void putRecord(TelemetryBatch batch, int record) {
+        writeBuffer.putLong(batch.getSequence(record));
+        writeBuffer.putLong(batch.getRecordedAtMillis(record));
+        writeBuffer.putDouble(batch.getSimulationSeconds(record));
+        writeBuffer.putInt(batch.getKind(record));
+        writeBuffer.putInt(0);
+        for (int value = 0; value < TelemetryBatch.VALUE_COUNT; value++) {
+            writeBuffer.putDouble(batch.getValue(record, value));
+        }
+    }
+
+    private static TelemetrySampleRecord getRecord(ByteBuffer buffer, int position) {
+        final long sequence = buffer.getLong(position);
+        final long recordedAtMillis = buffer.getLong(position + 8);
+        final double simulationSeconds = buffer.getDouble(position + 16);
+        final int kind = buffer.getInt(position + 24);
+        final int values = position + 32;
+
+        if (kind == TelemetryBatch.KIND_TORQUE) {
+            return TelemetrySampleRecord.torque(sequence, simulationSeconds, recordedAtMillis,
+                                                new double[] { buffer.getDouble(values), buffer.getDouble(values + 8), buffer.getDouble(values + 16) },
+                                                buffer.getDouble(values + 24), buffer.getDouble(values + 32));
+        }
+        return TelemetrySampleRecord.step(sequence, simulationSeconds, recordedAtMillis,
+                                          new double[] { buffer.getDouble(values), buffer.getDouble(values + 8),
+                                                         buffer.getDouble(values + 16), buffer.getDouble(values + 24) },
+                                          new double[] { buffer.getDouble(values + 32), buffer.getDouble(values + 40), buffer.getDouble(values + 48) },
+                                          buffer.getDouble(values + 56), buffer.getDouble(values + 64));
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing telemetry file:  ", e);
+        }
+    }
+}
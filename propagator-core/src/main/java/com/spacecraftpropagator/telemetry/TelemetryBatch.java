@@ -0,0 +1,85 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+// Records drained from the ring buffer in one go, laid out one array per field.  The writer thread
+// owns the batch and reuses it for every drain, so writers must not keep references to its arrays.
+public class TelemetryBatch {
+
+    public static final byte KIND_STEP = 1;
+    public static final byte KIND_TORQUE = 2;
+
+    // step records:  qr, qx, qy, qz, wx, wy, wz, sun sensor, IR sensor
+    // torque records:  torque axis x, y, z, torqueNewtonMeters, secondsToApplyTorque, then zeros
+    public static final int VALUE_COUNT = 9;
+
+    private final int capacity;
+    private int count;
+
+    final long[] sequences;
+    final byte[] kinds;
+    final String[] runIds;
+    final double[] simulationSeconds;
+    final long[] recordedAtMillis;
+    final double[] values;
+
+    public TelemetryBatch(int capacity) {
+        this.capacity = capacity;
+        this.sequences = new long[capacity];
+        this.kinds = new byte[capacity];
+        this.runIds = new String[capacity];
+        this.simulationSeconds = new double[capacity];
+        this.recordedAtMillis = new long[capacity];
+        this.values = new double[capacity*VALUE_COUNT];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    void setCount(int count) {
+        this.count = count;
+    }
+
+    public long getSequence(int record) {
+        return sequences[record];
+    }
+
+    public byte getKind(int record) {
+        return kinds[record];
+    }
+
+    public String getRunId(int record) {
+        return runIds[record];
+    }
+
+    public double getSimulationSeconds(int record) {
+        return simulationSeconds[record];
+    }
+
+    public long getRecordedAtMillis(int record) {
+        return recordedAtMillis[record];
+    }
+
+    public double getValue(int record, int value) {
+        return values[record*VALUE_COUNT + value];
+    }
+}
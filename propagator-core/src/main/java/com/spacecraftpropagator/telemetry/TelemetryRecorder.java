@@ -0,0 +1,152 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Records the per-step state and the applied torques of simulation runs.  The simulation threads
+// only copy a few numbers into a preallocated ring slot, and a single writer thread drains the
+// ring in batches to a TelemetryWriter, so recording adds no I/O, locking or allocation to a step.
+// When the writer falls a whole ring behind, new records are dropped and counted rather than
+// slowing the simulation down.
+public class TelemetryRecorder {
+
+    private static final long IDLE_PARK_NANOS = 10000000; // 10 ms
+    private static final long STOP_TIMEOUT_MILLIS = 10000;
+
+    private final TelemetryWriter telemetryWriter;
+    private final TelemetryRingBuffer ringBuffer;
+    private final TelemetryBatch batch;
+    private final Thread writerThread;
+
+    private volatile boolean running;
+
+    private final LongAdder droppedRecords = new LongAdder();
+    // written by the writer thread only
+    private volatile long writtenRecords;
+    private volatile long failedRecords;
+    private long reportedDroppedRecords;
+
+    Logger logger = LoggerFactory.getLogger(TelemetryRecorder.class);
+
+    public TelemetryRecorder(TelemetryWriter telemetryWriter, int ringBufferRecords, int batchRecords) {
+        this.telemetryWriter = telemetryWriter;
+        this.ringBuffer = new TelemetryRingBuffer(ringBufferRecords);
+        this.batch = new TelemetryBatch(Math.max(1, Math.min(batchRecords, ringBuffer.getCapacity())));
+        this.writerThread = new Thread(this::drain, "telemetry-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        writerThread.start();
+        logger.info("Telemetry recorder started:  ring buffer {} records, batches of {}", ringBuffer.getCapacity(), batch.getCapacity());
+    }
+
+    // Writes out what is already in the ring, then closes the writer.
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // state is laid out as by RigidBodyDynamics:  the attitude quarternion, then the body rates.
+    public void recordStep(String runId, double simulationSeconds, double[] state, double sunSensorValue, double irSensorValue) {
+        final long sequence = ringBuffer.claim();
+        if (sequence < 0) {
+            droppedRecords.increment();
+            return;
+        }
+        ringBuffer.publish(sequence, TelemetryBatch.KIND_STEP, runId, simulationSeconds, System.currentTimeMillis(),
+                           state[0], state[1], state[2], state[3], state[4], state[5], state[6],
+                           sunSensorValue, irSensorValue);
+    }
+
+    // The torque axis is as given by the client, in spacecraft coordinates.
+    public void recordTorque(String runId, double simulationSeconds, double torqueX, double torqueY, double torqueZ,
+                             double torqueNewtonMeters, double secondsToApplyTorque) {
+        final long sequence = ringBuffer.claim();
+        if (sequence < 0) {
+            droppedRecords.increment();
+            return;
+        }
+        ringBuffer.publish(sequence, TelemetryBatch.KIND_TORQUE, runId, simulationSeconds, System.currentTimeMillis(),
+                           torqueX, torqueY, torqueZ, torqueNewtonMeters, secondsToApplyTorque, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    public TelemetryWriter getTelemetryWriter() {
+        return telemetryWriter;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    public long getWrittenRecords() {
+        return writtenRecords;
+    }
+
+    public long getFailedRecords() {
+        return failedRecords;
+    }
+
+    private void drain() {
+        while (true) {
+            final int count = ringBuffer.drainTo(batch);
+            if (count == 0 && !running) {
+                break;
+            }
+            // waits for records to pile up unless the writer is behind, so that it runs in
+            // full batches instead of competing with the simulation threads for the processors
+            if (count < batch.getCapacity() && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            try {
+                telemetryWriter.write(batch);
+                writtenRecords += count;
+            } catch (Exception e) {
+                failedRecords += count;
+                logger.error("Error writing {} telemetry records:  ", count, e);
+            }
+
+            final long dropped = droppedRecords.sum();
+            if (dropped != reportedDroppedRecords) {
+                logger.warn("Telemetry ring buffer full:  {} records dropped so far", dropped);
+                reportedDroppedRecords = dropped;
+            }
+        }
+
+        try {
+            telemetryWriter.close();
+        } catch (Exception e) {
+            logger.error("Error closing telemetry writer:  ", e);
+        }
+        logger.info("Telemetry recorder stopped:  {} records written, {} failed, {} dropped",
+                    writtenRecords, failedRecords, droppedRecords.sum());
+    }
+}
@@ -0,0 +1,118 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer, single-consumer ring of preallocated record slots.  Producers claim a
+// sequence with one compare-and-set, fill the slot's fields in place and publish it; they never
+// block or allocate, and a claim fails at once when the consumer is a whole ring behind.  The
+// consumer drains published slots in sequence order.
+class TelemetryRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+    // written by the consumer only
+    private volatile long consumedSequence;
+    // published[slot] is the sequence in the slot plus one, once its fields are written
+    private final AtomicLongArray published;
+
+    private final byte[] kinds;
+    private final String[] runIds;
+    private final double[] simulationSeconds;
+    private final long[] recordedAtMillis;
+    private final double[] values;
+
+    TelemetryRingBuffer(int minimumCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minimumCapacity - 1)) << 1;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        this.kinds = new byte[capacity];
+        this.runIds = new String[capacity];
+        this.simulationSeconds = new double[capacity];
+        this.recordedAtMillis = new long[capacity];
+        this.values = new double[capacity*TelemetryBatch.VALUE_COUNT];
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    // Returns the claimed sequence, or -1 when the ring is full.
+    long claim() {
+        while (true) {
+            final long sequence = nextSequence.get();
+            if (sequence - consumedSequence >= capacity) {
+                return -1;
+            }
+            if (nextSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    void publish(long sequence, byte kind, String runId, double seconds, long millis,
+                 double v0, double v1, double v2, double v3, double v4,
+                 double v5, double v6, double v7, double v8) {
+        final int slot = (int) (sequence & mask);
+        kinds[slot] = kind;
+        runIds[slot] = runId;
+        simulationSeconds[slot] = seconds;
+        recordedAtMillis[slot] = millis;
+        final int offset = slot*TelemetryBatch.VALUE_COUNT;
+        values[offset] = v0;
+        values[offset + 1] = v1;
+        values[offset + 2] = v2;
+        values[offset + 3] = v3;
+        values[offset + 4] = v4;
+        values[offset + 5] = v5;
+        values[offset + 6] = v6;
+        values[offset + 7] = v7;
+        values[offset + 8] = v8;
+        published.lazySet(slot, sequence + 1);
+    }
+
+    // Copies the published records that follow the last drained one, up to the batch capacity,
+    // stopping at the first slot that is claimed but not yet published.
+    int drainTo(TelemetryBatch batch) {
+        final long first = consumedSequence;
+        int count = 0;
+        while (count < batch.getCapacity()) {
+            final long sequence = first + count;
+            final int slot = (int) (sequence & mask);
+            if (published.get(slot) != sequence + 1) {
+                break;
+            }
+            batch.sequences[count] = sequence;
+            batch.kinds[count] = kinds[slot];
+            batch.runIds[count] = runIds[slot];
+            batch.simulationSeconds[count] = simulationSeconds[slot];
+            batch.recordedAtMillis[count] = recordedAtMillis[slot];
+            System.arraycopy(values, slot*TelemetryBatch.VALUE_COUNT,
+                             batch.values, count*TelemetryBatch.VALUE_COUNT, TelemetryBatch.VALUE_COUNT);
+            runIds[slot] = null;
+            count++;
+        }
+        batch.setCount(count);
+        consumedSequence = first + count;
+        return count;
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import com.spacecraftpropagator.model.TelemetrySampleRecord;
+
+// Stores drained telemetry batches and reads recorded runs back.  write() and close() are only
+// called from the recorder's writer thread; the read methods may be called from any thread.
+public interface TelemetryWriter extends Closeable {
+
+    void write(TelemetryBatch batch) throws IOException;
+
+    List<String> listRuns() throws IOException;
+
+    // Records of one run with simulationSeconds in [fromSeconds, toSeconds], in recording order.
+    List<TelemetrySampleRecord> read(String runId, double fromSeconds, double toSeconds, long offset, int limit) throws IOException;
+}
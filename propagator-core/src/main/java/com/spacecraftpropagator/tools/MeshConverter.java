@@ -0,0 +1,55 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.tools;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.MeshFile;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.SpacecraftModelFiles;
+
+// Converts spacecraftPolygonsData.json, and optionally momentOfInertiaValues.json, to a binary
+// mesh file:
+//
+//     MeshConverter <polygons.json> <output.scmesh> [<momentOfInertia.json>]
+public class MeshConverter {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("usage:  MeshConverter <polygons.json> <output" + MeshFile.FILE_EXTENSION + "> [<momentOfInertia.json>]");
+            System.exit(2);
+        }
+
+        final long startNanos = System.nanoTime();
+        final SpacecraftMesh spacecraftMesh = SpacecraftModelFiles.readPolygons(Paths.get(args[0]));
+
+        double[] inertiaTensor = null;
+        if (args.length == 3) {
+            inertiaTensor = SpacecraftModelFiles.readInertiaTensor(Paths.get(args[2]));
+            RigidBodyDynamics.fromInertiaTensor(inertiaTensor); // validates it
+        }
+
+        final Path output = Paths.get(args[1]);
+        new MeshFile(spacecraftMesh, inertiaTensor).write(output);
+
+        System.out.printf("Wrote %s:  mesh %s, %d polygons, %d vertices, %s inertia tensor, in %d ms%n",
+                          output, spacecraftMesh.getMeshId(), spacecraftMesh.getPolygonCount(), spacecraftMesh.getVertexCount(),
+                          inertiaTensor != null ? "with" : "no", (System.nanoTime() - startNanos)/1000000);
+    }
+}
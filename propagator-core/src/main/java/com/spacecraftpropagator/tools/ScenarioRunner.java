@@ -0,0 +1,159 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.AttitudeControllerRecord;
+import com.spacecraftpropagator.model.MeshFile;
+import com.spacecraftpropagator.model.MeshLevelsOfDetail;
+import com.spacecraftpropagator.model.PropagationResult;
+import com.spacecraftpropagator.model.PropagationScenario;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.SpacecraftModelFiles;
+import com.spacecraftpropagator.sensors.Ephemeris;
+import com.spacecraftpropagator.sensors.SensorSuite;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+import com.spacecraftpropagator.snapshots.SessionJournal;
+
+// Runs a PropagationScenario without the web application and writes the PropagationResult, as
+// JSON, or as CSV with one row per sample if the output file name ends in .csv.  The CSV has a
+// column for every value of the scenario's sensor suite file, if it has one, after the sun and IR
+// sensor columns:
+//
+//     ScenarioRunner <scenario.json> <output.json|output.csv>
+public class ScenarioRunner {
+
+    private static final String CSV_EXTENSION = ".csv";
+
+    private static final String[] STAR_TRACKER_COLUMNS = { "r", "x", "y", "z" };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage:  ScenarioRunner <scenario.json> <output.json|output" + CSV_EXTENSION + ">");
+            System.exit(2);
+        }
+
+        final long startNanos = System.nanoTime();
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final Path scenarioFile = Paths.get(args[0]);
+        final PropagationScenario scenario = objectMapper.readValue(scenarioFile.toFile(), PropagationScenario.class);
+        if (scenario.getPropagation() == null) {
+            throw new IllegalArgumentException("Scenario " + scenarioFile + " has no propagation");
+        }
+
+        SpacecraftMesh spacecraftMesh;
+        double[] inertiaTensor = null;
+        if (scenario.getMeshFile() != null) {
+            final MeshFile meshFile = MeshFile.read(scenarioFile.resolveSibling(scenario.getMeshFile()));
+            spacecraftMesh = meshFile.getSpacecraftMesh();
+            inertiaTensor = meshFile.getInertiaTensor();
+        } else {
+            spacecraftMesh = SpacecraftModelFiles.readPolygons(scenarioFile.resolveSibling(scenario.getPolygonsFile()));
+        }
+        if (inertiaTensor == null) {
+            inertiaTensor = SpacecraftModelFiles.readInertiaTensor(scenarioFile.resolveSibling(scenario.getMomentOfInertiaFile()));
+        }
+
+        final SensorSuite sensorSuite = scenario.getSensorSuiteFile() != null
+                ? SpacecraftModelFiles.readSensorSuite(scenarioFile.resolveSibling(scenario.getSensorSuiteFile()))
+                : SensorSuite.DEFAULT;
+        final Ephemeris ephemeris = scenario.getOrbitPeriodSeconds() > 0
+                ? Ephemeris.circularOrbit(new double[] { -1.0, 0.0, 0.0 }, new double[] { 0.0, -1.0, 0.0 }, new double[] { 0.0, 0.0, 1.0 },
+                                          scenario.getOrbitPeriodSeconds(), 1024)
+                : Ephemeris.FIXED;
+
+        final AttitudeIntegratorSettings attitudeIntegratorSettings = new AttitudeIntegratorSettings(scenario.getIntegratorMethod(),
+                scenario.getMaximumStepSeconds(), scenario.getRelativeTolerance(), scenario.getAbsoluteTolerance(), scenario.isAnalyticCoast());
+        final AttitudeModelServiceImpl attitudeModelService = new AttitudeModelServiceImpl(MeshLevelsOfDetail.of(spacecraftMesh),
+                RigidBodyDynamics.fromInertiaTensor(inertiaTensor), attitudeIntegratorSettings.newIntegrator(), null, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                new SessionJournal(SessionJournal.DEFAULT_CHECKPOINT_INTERVAL_SECONDS, SessionJournal.DEFAULT_MAXIMUM_ENTRIES), sensorSuite, ephemeris);
+
+        final AttitudeControllerRecord controllerRecord = scenario.getAttitudeController();
+        if (controllerRecord != null) {
+            attitudeModelService.setAttitudeController(AttitudeController.create(controllerRecord.getMode(),
+                    controllerRecord.getTargetQuarternion(), controllerRecord.getProportionalGain(), controllerRecord.getDerivativeGain(),
+                    controllerRecord.getMaximumTorqueNewtonMeters(), controllerRecord.getControlRateHertz()));
+        }
+
+        final long propagationStartNanos = System.nanoTime();
+        final PropagationResult propagationResult = attitudeModelService.propagate(scenario.getPropagation());
+        final long propagationNanos = System.nanoTime() - propagationStartNanos;
+
+        final Path output = Paths.get(args[1]);
+        if (output.getFileName().toString().endsWith(CSV_EXTENSION)) {
+            writeCsv(propagationResult, scenario.getSensorSuiteFile() != null ? sensorSuite : null, output);
+        } else {
+            objectMapper.writeValue(output.toFile(), propagationResult);
+        }
+
+        System.out.printf("Wrote %s:  %d samples of %d steps of %s s, propagated in %d ms, %d ms in all%n",
+                          output, propagationResult.getSampleCount(), scenario.getPropagation().getStepCount(),
+                          scenario.getPropagation().getStepSeconds(), propagationNanos/1000000, (System.nanoTime() - startNanos)/1000000);
+    }
+
+    // sensorSuite is null for the sun and IR sensor columns only
+    private static void writeCsv(PropagationResult propagationResult, SensorSuite sensorSuite, Path output) throws IOException {
+        final double[] seconds = propagationResult.getSeconds();
+        final double[] attitudeQuarternions = propagationResult.getAttitudeQuarternions();
+        final double[] radiansPerSecond = propagationResult.getRadiansPerSecond();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("seconds,qr,qx,qy,qz,wx,wy,wz,sunSensor,irSensor");
+            if (sensorSuite != null) {
+                for (int i = 0; i < sensorSuite.getSensorCount(); i++) {
+                    if (sensorSuite.getValueCount(i) == 1) {
+                        writer.write("," + sensorSuite.getName(i));
+                    } else {
+                        for (String column : STAR_TRACKER_COLUMNS) {
+                            writer.write("," + sensorSuite.getName(i) + "." + column);
+                        }
+                    }
+                }
+            }
+            writer.newLine();
+            final int valueCount = sensorSuite != null ? sensorSuite.getValueCount() : 0;
+            final StringBuilder row = new StringBuilder();
+            for (int i = 0; i < propagationResult.getSampleCount(); i++) {
+                row.setLength(0);
+                row.append(seconds[i]);
+                for (int j = 0; j < 4; j++) {
+                    row.append(',').append(attitudeQuarternions[i*4 + j]);
+                }
+                for (int j = 0; j < 3; j++) {
+                    row.append(',').append(radiansPerSecond[i*3 + j]);
+                }
+                row.append(',').append(propagationResult.getSunSensorValues()[i])
+                   .append(',').append(propagationResult.getIrSensorValues()[i]);
+                for (int j = 0; j < valueCount; j++) {
+                    row.append(',').append(propagationResult.getSensorValues()[i*valueCount + j]);
+                }
+                writer.write(row.toString());
+                writer.newLine();
+            }
+        }
+    }
+}
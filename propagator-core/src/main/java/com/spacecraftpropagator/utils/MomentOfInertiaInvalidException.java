@@ -18,4 +18,5 @@ package com.spacecraftpropagator.utils;
 
 public class MomentOfInertiaInvalidException extends Exception {
     public MomentOfInertiaInvalidException() { }
+    public MomentOfInertiaInvalidException(String message) { super(message); }
 }
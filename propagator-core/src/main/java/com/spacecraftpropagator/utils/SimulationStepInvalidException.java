@@ -18,4 +18,5 @@ package com.spacecraftpropagator.utils;
 
 public class SimulationStepInvalidException extends Exception {
     public SimulationStepInvalidException() { }
+    public SimulationStepInvalidException(String message) { super(message); }
 }
@@ -0,0 +1,151 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.spacecraftpropagator.model.LinearAlgebra;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+
+// Convergence order of the fixed-step integrators, accuracy of Dormand-Prince at its tolerance,
+// and what every integrator must keep:  a unit quarternion, and for torque-free motion the kinetic
+// energy and the inertial angular momentum.
+public class AttitudeIntegratorsTest {
+
+    private static final double[] INERTIA_TENSOR = { 4.0, 0.3, -0.2,
+                                                     0.3, 6.0, 0.1,
+                                                     -0.2, 0.1, 9.0 };
+    private static final double[] INITIAL_STATE = { 0.9, 0.1, -0.3, 0.2, 0.05, 0.3, 0.5 };
+    private static final double[] TORQUE = { 0.02, -0.01, 0.03 };
+    private static final double[] NO_TORQUE = { 0.0, 0.0, 0.0 };
+
+    private static final double ORDER_SECONDS = 10.0;
+    private static final double CONSERVATION_SECONDS = 1000.0;
+    private static final double CONSERVATION_STEP_SECONDS = 0.05;
+
+    // Halving the step divides the error by 2^order.
+    @Test
+    public void rungeKutta4IsFourthOrder() throws MomentOfInertiaInvalidException {
+        final double order = observedOrder(new RungeKutta4Integrator(0.2), new RungeKutta4Integrator(0.1));
+        assertTrue("observed order " + order, order > 3.7 && order < 4.3);
+    }
+
+    @Test
+    public void lieGroupMidpointIsSecondOrder() throws MomentOfInertiaInvalidException {
+        final double order = observedOrder(new LieGroupMidpointIntegrator(0.2), new LieGroupMidpointIntegrator(0.1));
+        assertTrue("observed order " + order, order > 1.7 && order < 2.3);
+    }
+
+    @Test
+    public void dormandPrinceMeetsItsTolerance() throws MomentOfInertiaInvalidException {
+        final RigidBodyDynamics dynamics = RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR);
+        final double error = error(dynamics, new DormandPrinceIntegrator(1e-9, 1e-12, 10.0), reference(dynamics));
+        assertTrue("error " + error, error < 1e-7);
+    }
+
+    @Test
+    public void quarternionStaysUnit() throws MomentOfInertiaInvalidException {
+        final RigidBodyDynamics dynamics = RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR);
+        for (AttitudeIntegrator integrator : integrators()) {
+            final double[] state = initialState();
+            for (int step = 0; step < 1000; step++) {
+                integrator.integrate(dynamics, state, TORQUE, 0.5);
+                final double norm = Math.sqrt(state[0]*state[0] + state[1]*state[1] + state[2]*state[2] + state[3]*state[3]);
+                assertTrue(integrator.getName() + " step " + step + " norm " + norm, Math.abs(norm - 1.0) < 1e-12);
+            }
+        }
+    }
+
+    // The midpoint method is second order, so its momentum is off by O(h^2), but the error stays
+    // bounded rather than drifting; its energy is kept to round-off.
+    @Test
+    public void torqueFreeMotionConservesEnergyAndMomentum() throws MomentOfInertiaInvalidException {
+        final RigidBodyDynamics dynamics = RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR);
+        final AttitudeIntegrator[] integrators = integrators();
+        final double[] energyTolerances = { 1e-6, 1e-10, 1e-6 };
+        final double[] momentumTolerances = { 1e-6, 1e-4, 1e-6 };
+        for (int i = 0; i < integrators.length; i++) {
+            final AttitudeIntegrator integrator = integrators[i];
+            final double[] state = initialState();
+            final double energy = dynamics.kineticEnergy(state);
+            final double[] momentum = inertialAngularMomentum(dynamics, state);
+
+            for (double seconds = 0.0; seconds < CONSERVATION_SECONDS; seconds += CONSERVATION_STEP_SECONDS) {
+                integrator.integrate(dynamics, state, NO_TORQUE, CONSERVATION_STEP_SECONDS);
+            }
+
+            final double energyError = Math.abs(dynamics.kineticEnergy(state) - energy)/energy;
+            final double[] finalMomentum = inertialAngularMomentum(dynamics, state);
+            final double momentumError = Math.sqrt(square(finalMomentum[0] - momentum[0]) + square(finalMomentum[1] - momentum[1])
+                                                   + square(finalMomentum[2] - momentum[2]))
+                    /Math.sqrt(square(momentum[0]) + square(momentum[1]) + square(momentum[2]));
+            assertTrue(integrator.getName() + " relative energy error " + energyError, energyError < energyTolerances[i]);
+            assertTrue(integrator.getName() + " relative momentum error " + momentumError, momentumError < momentumTolerances[i]);
+        }
+    }
+
+    private static double observedOrder(AttitudeIntegrator coarse, AttitudeIntegrator fine) throws MomentOfInertiaInvalidException {
+        final RigidBodyDynamics dynamics = RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR);
+        final double[] reference = reference(dynamics);
+        return Math.log(error(dynamics, coarse, reference)/error(dynamics, fine, reference))/Math.log(2.0);
+    }
+
+    private static double[] reference(RigidBodyDynamics dynamics) {
+        final double[] state = initialState();
+        new DormandPrinceIntegrator(1e-13, 1e-15, 0.01).integrate(dynamics, state, TORQUE, ORDER_SECONDS);
+        return state;
+    }
+
+    private static double error(RigidBodyDynamics dynamics, AttitudeIntegrator integrator, double[] reference) {
+        final double[] state = initialState();
+        integrator.integrate(dynamics, state, TORQUE, ORDER_SECONDS);
+        double error = 0.0;
+        for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+            error = Math.max(error, Math.abs(state[i] - reference[i]));
+        }
+        return error;
+    }
+
+    // the body-frame angular momentum rotated into viewing coordinates
+    private static double[] inertialAngularMomentum(RigidBodyDynamics dynamics, double[] state) {
+        final double[] bodyMomentum = new double[3];
+        dynamics.angularMomentum(state[4], state[5], state[6], bodyMomentum, 0);
+        final double[] matrix = new double[9];
+        LinearAlgebra.rotationMatrix3x3(state[0], state[1], state[2], state[3], matrix);
+        final double[] momentum = new double[3];
+        LinearAlgebra.matrixVectorMult3x3(matrix, bodyMomentum, momentum, 1);
+        return momentum;
+    }
+
+    private static AttitudeIntegrator[] integrators() {
+        return new AttitudeIntegrator[] { new RungeKutta4Integrator(CONSERVATION_STEP_SECONDS),
+                                          new LieGroupMidpointIntegrator(CONSERVATION_STEP_SECONDS),
+                                          new DormandPrinceIntegrator(1e-9, 1e-12, 10.0) };
+    }
+
+    private static double[] initialState() {
+        final double[] state = INITIAL_STATE.clone();
+        RigidBodyDynamics.normalizeQuarternion(state);
+        return state;
+    }
+
+    private static double square(double x) {
+        return x*x;
+    }
+}
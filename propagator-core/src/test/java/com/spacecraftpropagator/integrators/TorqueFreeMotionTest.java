@@ -0,0 +1,134 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.integrators;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+
+// The closed-form coast against a tight-tolerance Dormand-Prince integration of the same state,
+// for each shape of inertia tensor the solution distinguishes.
+public class TorqueFreeMotionTest {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final double COAST_SECONDS = 250.0;
+
+    // an arbitrary attitude, normalized by state()
+    private static final double[] ATTITUDE = { 0.9, 0.1, -0.3, 0.2 };
+
+    private static final double[] OBLATE = { 3.3, 0.0, 0.0,
+                                             0.0, 3.3, 0.0,
+                                             0.0, 0.0, 10.0 };
+    private static final double[] PROLATE = { 10.0, 0.0, 0.0,
+                                              0.0, 3.3, 0.0,
+                                              0.0, 0.0, 3.3 };
+    private static final double[] TRIAXIAL = { 4.0, 0.0, 0.0,
+                                               0.0, 6.0, 0.0,
+                                               0.0, 0.0, 9.0 };
+    private static final double[] NON_DIAGONAL = { 4.0, 0.3, -0.2,
+                                                   0.3, 6.0, 0.1,
+                                                   -0.2, 0.1, 9.0 };
+
+    @Test
+    public void oblateMatchesIntegrator() throws MomentOfInertiaInvalidException {
+        assertMatchesIntegrator(OBLATE, 0.3, -0.2, 0.5);
+    }
+
+    @Test
+    public void prolateMatchesIntegrator() throws MomentOfInertiaInvalidException {
+        assertMatchesIntegrator(PROLATE, 0.3, -0.2, 0.5);
+    }
+
+    // circulating about the major axis, and about the minor axis
+    @Test
+    public void triaxialMatchesIntegrator() throws MomentOfInertiaInvalidException {
+        assertMatchesIntegrator(TRIAXIAL, 0.05, 0.1, 0.5);
+        assertMatchesIntegrator(TRIAXIAL, 0.5, 0.1, 0.05);
+    }
+
+    @Test
+    public void nonDiagonalMatchesIntegrator() throws MomentOfInertiaInvalidException {
+        assertMatchesIntegrator(NON_DIAGONAL, 0.05, 0.1, 0.5);
+        assertMatchesIntegrator(NON_DIAGONAL, -0.5, 0.2, -0.1);
+    }
+
+    // steady spins, including the unstable one about the intermediate axis
+    @Test
+    public void spinAboutPrincipalAxisMatchesIntegrator() throws MomentOfInertiaInvalidException {
+        assertMatchesIntegrator(TRIAXIAL, 0.7, 0.0, 0.0);
+        assertMatchesIntegrator(TRIAXIAL, 0.0, 0.7, 0.0);
+        assertMatchesIntegrator(TRIAXIAL, 0.0, 0.0, -0.7);
+        assertMatchesIntegrator(OBLATE, 0.0, 0.0, 0.4);
+    }
+
+    @Test
+    public void zeroRatesLeaveStateUnchanged() throws MomentOfInertiaInvalidException {
+        final double[] state = state(0.0, 0.0, 0.0);
+        final double[] expected = state.clone();
+        assertTrue(new TorqueFreeMotion(RigidBodyDynamics.fromInertiaTensor(NON_DIAGONAL)).propagate(state, COAST_SECONDS));
+        assertArrayEquals(expected, state, 0.0);
+    }
+
+    @Test
+    public void propagatingBackRecoversState() throws MomentOfInertiaInvalidException {
+        final TorqueFreeMotion torqueFreeMotion = new TorqueFreeMotion(RigidBodyDynamics.fromInertiaTensor(NON_DIAGONAL));
+        final double[] state = state(0.05, 0.1, 0.5);
+        final double[] expected = state.clone();
+        assertTrue(torqueFreeMotion.propagate(state, COAST_SECONDS));
+        assertTrue(torqueFreeMotion.propagate(state, -COAST_SECONDS));
+        assertStatesEqual(expected, state);
+    }
+
+    // Ja (Jb - Ja) wa^2 = Jc (Jc - Jb) wc^2 puts the motion on the separatrix, which is left to the integrator.
+    @Test
+    public void separatrixFallsBackUntouched() throws MomentOfInertiaInvalidException {
+        final double[] state = state(1.0, 0.2, Math.sqrt(4.0*(6.0 - 4.0)/(9.0*(9.0 - 6.0))));
+        final double[] expected = state.clone();
+        assertFalse(new TorqueFreeMotion(RigidBodyDynamics.fromInertiaTensor(TRIAXIAL)).propagate(state, COAST_SECONDS));
+        assertArrayEquals(expected, state, 0.0);
+    }
+
+    private static void assertMatchesIntegrator(double[] inertiaTensor, double wx, double wy, double wz) throws MomentOfInertiaInvalidException {
+        final RigidBodyDynamics dynamics = RigidBodyDynamics.fromInertiaTensor(inertiaTensor);
+
+        final double[] closedForm = state(wx, wy, wz);
+        assertTrue(new TorqueFreeMotion(dynamics).propagate(closedForm, COAST_SECONDS));
+
+        final double[] integrated = state(wx, wy, wz);
+        new DormandPrinceIntegrator(1e-13, 1e-15, 1.0).integrate(dynamics, integrated, new double[3], COAST_SECONDS);
+
+        assertStatesEqual(integrated, closedForm);
+    }
+
+    // q and -q are the same attitude
+    private static void assertStatesEqual(double[] expected, double[] actual) {
+        final double sign = expected[0]*actual[0] + expected[1]*actual[1] + expected[2]*actual[2] + expected[3]*actual[3] < 0 ? -1.0 : 1.0;
+        for (int i = 0; i < RigidBodyDynamics.STATE_SIZE; i++) {
+            final double difference = Math.abs(expected[i] - (i < 4 ? sign : 1.0)*actual[i]);
+            assertTrue("state[" + i + "] differs by " + difference, difference <= TOLERANCE);
+        }
+    }
+
+    private static double[] state(double wx, double wy, double wz) {
+        final double norm = Math.sqrt(ATTITUDE[0]*ATTITUDE[0] + ATTITUDE[1]*ATTITUDE[1] + ATTITUDE[2]*ATTITUDE[2] + ATTITUDE[3]*ATTITUDE[3]);
+        return new double[] { ATTITUDE[0]/norm, ATTITUDE[1]/norm, ATTITUDE[2]/norm, ATTITUDE[3]/norm, wx, wy, wz };
+    }
+}
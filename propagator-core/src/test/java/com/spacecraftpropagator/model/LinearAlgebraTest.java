@@ -0,0 +1,162 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+
+// The session's rotation matrix path against the per-vertex Quarternion.rotate() path it replaced:
+// after each step the polygons the session projects with the rotation matrix of its attitude
+// quarternion must match the shipped mesh rotated vertex by vertex, with one sandwich product
+// about the axis and through the angle of that quarternion, then culled and projected.
+public class LinearAlgebraTest {
+
+    private static final double TOLERANCE = 1e-10;
+    private static final int STEPS = 25;
+    private static final double STEP_SECONDS = 0.1;
+
+    // the session views the spacecraft from (0, 0, 100) m
+    private static final double VIEWING_DISTANCE = 100.0;
+
+    // polygons this close to edge-on are left out of the comparison, since round-off may cull them either way
+    private static final double EDGE_ON = 1e-9;
+
+    // torque axes, in viewing coordinates, and N-m-s applied before the steps, for a few arbitrary tumbles
+    private static final double[][] TORQUES = { { 1.0, 0.0, 0.0, 0.2 },
+                                                { 0.0, -0.97, 0.24, 5.0 },
+                                                { 0.21, 0.49, -0.77, 40.0 },
+                                                { -0.54, 0.41, 0.65, 300.0 } };
+
+    private static final double[] INERTIA_TENSOR = { 4.0, 0.3, -0.2,
+                                                     0.3, 6.0, 0.1,
+                                                     -0.2, 0.1, 9.0 };
+
+    private static SpacecraftMesh mesh;
+
+    @BeforeClass
+    public static void readMesh() throws IOException, URISyntaxException {
+        mesh = SpacecraftModelFiles.readPolygons(Paths.get(LinearAlgebraTest.class.getResource("/spacecraftPolygonsData.json").toURI()));
+    }
+
+    @Test
+    public void steppedProjectionMatchesQuarternionRotateOnShippedMesh() throws Exception {
+        for (double[] torque : TORQUES) {
+            final AttitudeModelServiceImpl session = new AttitudeModelServiceImpl(mesh, RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR),
+                                                                                  AttitudeIntegratorSettings.defaults().newIntegrator());
+            session.applyTorque(new Quarternion(0.0, torque[0], torque[1], torque[2]), torque[3], 1.0);
+
+            for (int step = 0; step < STEPS; step++) {
+                final List<List<List<Double>>> projected = session.step(STEP_SECONDS);
+                final double[] attitude = session.getAttitudeState().getAttitudeQuarternion();
+                assertPolygonsAgree("step " + step + " of torque " + Arrays.toString(torque), attitude, projected);
+            }
+        }
+    }
+
+    @Test
+    public void rotationMatrixMatchesSandwichProductForNonUnitQuarternion() {
+        final Quarternion q = new Quarternion(2.0, 0.4, -1.0, 3.0);
+        final double[] matrix = new double[9];
+        LinearAlgebra.rotationMatrix3x3(q.getR(), q.getX(), q.getY(), q.getZ(), matrix);
+
+        final double[] v = { 1.5, -0.25, 4.0 };
+        final double[] rotated = new double[3];
+        LinearAlgebra.matrixVectorMult3x3(matrix, v, rotated, 1);
+
+        final Quarternion product = q.qMultiply(q.getR(), q.getX(), q.getY(), q.getZ(), 0.0, v[0], v[1], v[2]);
+        final Quarternion inverse = q.qInverse(q.getR(), q.getX(), q.getY(), q.getZ());
+        final Quarternion expected = q.qMultiply(product.getR(), product.getX(), product.getY(), product.getZ(),
+                                                 inverse.getR(), inverse.getX(), inverse.getY(), inverse.getZ());
+
+        assertEquals(expected.getX(), rotated[0], TOLERANCE);
+        assertEquals(expected.getY(), rotated[1], TOLERANCE);
+        assertEquals(expected.getZ(), rotated[2], TOLERANCE);
+        // a rotation, however large q is
+        assertEquals(Math.sqrt(v[0]*v[0] + v[1]*v[1] + v[2]*v[2]),
+                     Math.sqrt(rotated[0]*rotated[0] + rotated[1]*rotated[1] + rotated[2]*rotated[2]), TOLERANCE);
+    }
+
+    // The session lists its visible polygons in mesh order, so the reference's are matched up in turn.
+    private static void assertPolygonsAgree(String message, double[] attitude, List<List<List<Double>>> projected) {
+        final double sine = Math.sqrt(attitude[1]*attitude[1] + attitude[2]*attitude[2] + attitude[3]*attitude[3]);
+        final Quarternion axis = sine > 0 ? new Quarternion(0.0, attitude[1]/sine, attitude[2]/sine, attitude[3]/sine)
+                                          : new Quarternion(0.0, 1.0, 0.0, 0.0);
+        final double angle = 2.0*Math.atan2(sine, attitude[0]);
+
+        int next = 0;
+        for (int polygon = 0; polygon < mesh.getPolygonCount(); polygon++) {
+            // the viewer is at (0, 0, VIEWING_DISTANCE), and rotating the polygon's plane keeps its offset
+            final Quarternion normal = new Quarternion(0.0, mesh.getNormalX(polygon), mesh.getNormalY(polygon), mesh.getNormalZ(polygon))
+                    .rotate(axis, angle);
+            final double facing = normal.getZ()*VIEWING_DISTANCE - mesh.getPlaneOffset(polygon);
+            final List<List<Double>> expected = rotateAndProject(polygon, axis, angle);
+
+            if (Math.abs(facing) < EDGE_ON) {
+                if (next < projected.size() && agree(expected, projected.get(next))) {
+                    next++;
+                }
+                continue;
+            }
+            if (facing > 0) {
+                assertTrue(message + ":  polygon " + polygon + " is not projected", next < projected.size());
+                final List<List<Double>> actual = projected.get(next++);
+                assertTrue(message + ":  polygon " + polygon + " is " + actual + ", not " + expected, agree(expected, actual));
+            }
+        }
+        assertEquals(message + ":  polygons projected", next, projected.size());
+    }
+
+    // The original path:  Quarternion.rotate() vertex by vertex, then the perspective projection.
+    private static List<List<Double>> rotateAndProject(int polygon, Quarternion axis, double angle) {
+        final List<List<Double>> points = new ArrayList<>();
+        for (int i = mesh.getPolygonStart(polygon); i < mesh.getPolygonEnd(polygon); i++) {
+            final Quarternion v = new Quarternion(0.0, mesh.getVertexCoordinate(i, 0), mesh.getVertexCoordinate(i, 1), mesh.getVertexCoordinate(i, 2))
+                    .rotate(axis, angle);
+            final double scale = 1.0/(1.0 - v.getZ()/VIEWING_DISTANCE);
+            points.add(Arrays.asList(v.getX()*scale, v.getY()*scale, v.getZ()));
+        }
+        return points;
+    }
+
+    private static boolean agree(List<List<Double>> expected, List<List<Double>> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            for (int c = 0; c < 3; c++) {
+                if (!(Math.abs(expected.get(i).get(c) - actual.get(i).get(c)) <= TOLERANCE)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class ProjectionKeyTest {
+
+    private static final String MESH_ID = "mesh";
+    private static final double QUANTIZATION = 1e-6;
+
+    private static final double[][] ATTITUDES = { { 1.0, 0.0, 0.0, 0.0 },
+                                                  { 0.8, 0.2, -0.4, 0.4 },
+                                                  { -0.1, 0.7, 0.7, 0.1 },
+                                                  // half turns, with r exactly 0
+                                                  { 0.0, 1.0, 0.0, 0.0 },
+                                                  { 0.0, 0.0, -0.6, 0.8 },
+                                                  { -0.0, 0.0, 0.0, -1.0 } };
+
+    @Test
+    public void negatedQuarternionHasTheSameKey() {
+        for (double[] attitude : ATTITUDES) {
+            final ProjectionKey key = new ProjectionKey(MESH_ID, 0.0, attitude, QUANTIZATION);
+            final ProjectionKey negatedKey = new ProjectionKey(MESH_ID, 0.0, negate(attitude), QUANTIZATION);
+            assertEquals(key, negatedKey);
+            assertEquals(key.hashCode(), negatedKey.hashCode());
+        }
+    }
+
+    @Test
+    public void attitudesWithinTheQuantizationShareAKey() {
+        final double[] attitude = { 0.8, 0.2, -0.4, 0.4 };
+        final double[] nearby = { 0.8 + 0.2*QUANTIZATION, 0.2 - 0.3*QUANTIZATION, -0.4 + 0.1*QUANTIZATION, 0.4 };
+        final double[] further = { 0.8 + 2.0*QUANTIZATION, 0.2, -0.4, 0.4 };
+
+        final ProjectionKey key = new ProjectionKey(MESH_ID, 0.0, attitude, QUANTIZATION);
+        assertEquals(key, new ProjectionKey(MESH_ID, 0.0, nearby, QUANTIZATION));
+        assertEquals(key, new ProjectionKey(MESH_ID, 0.0, negate(nearby), QUANTIZATION));
+        assertNotEquals(key, new ProjectionKey(MESH_ID, 0.0, further, QUANTIZATION));
+    }
+
+    @Test
+    public void meshAndMinimumExtentArePartOfTheKey() {
+        final double[] attitude = { 0.8, 0.2, -0.4, 0.4 };
+        final ProjectionKey key = new ProjectionKey(MESH_ID, 0.0, attitude, QUANTIZATION);
+        assertNotEquals(key, new ProjectionKey("other mesh", 0.0, attitude, QUANTIZATION));
+        assertNotEquals(key, new ProjectionKey(MESH_ID, 0.01, attitude, QUANTIZATION));
+    }
+
+    // Only the quarternion of a RigidBodyDynamics state is part of the key, not the rates.
+    @Test
+    public void bodyRatesAreNotPartOfTheKey() {
+        final double[] state = { 0.8, 0.2, -0.4, 0.4, 0.0, 0.0, 0.0 };
+        final double[] spinning = { 0.8, 0.2, -0.4, 0.4, 0.3, -1.0, 2.0 };
+        assertEquals(new ProjectionKey(MESH_ID, 0.0, state, QUANTIZATION), new ProjectionKey(MESH_ID, 0.0, spinning, QUANTIZATION));
+    }
+
+    private static double[] negate(double[] attitude) {
+        final double[] negated = new double[attitude.length];
+        for (int i = 0; i < attitude.length; i++) {
+            negated[i] = -attitude[i];
+        }
+        return negated;
+    }
+}
@@ -0,0 +1,170 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.LinearAlgebra;
+import com.spacecraftpropagator.model.ProjectedFrame;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+
+// Projections split into chunks on a pool against the same projections on the calling thread:  each
+// chunk writes only its own polygons, so the frames must be identical, not merely close.
+public class ProjectionTaskTest {
+
+    private static final double VIEWING_DISTANCE = 100.0;
+
+    // small enough that the mesh is split many times, and not a divisor of its polygon count
+    private static final int CHUNK_POLYGONS = 37;
+
+    private static final double[][] ATTITUDES = { { 1.0, 0.0, 0.0, 0.0 },
+                                                  { 0.9, 0.1, -0.3, 0.2 },
+                                                  { 0.2, -0.7, 0.6, 0.3 },
+                                                  { -0.5, 0.5, 0.5, -0.5 } };
+
+    private static final double[] INERTIA_TENSOR = { 4.0, 0.3, -0.2,
+                                                     0.3, 6.0, 0.1,
+                                                     -0.2, 0.1, 9.0 };
+
+    private static SpacecraftMesh mesh;
+    private static ForkJoinPool projectionPool;
+
+    @BeforeClass
+    public static void createMeshAndPool() {
+        mesh = torus(2.0, 0.7, 48, 32);
+        projectionPool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutDownPool() {
+        projectionPool.shutdown();
+    }
+
+    @Test
+    public void parallelProjectionMatchesSequential() {
+        final ProjectedFrame sequentialFrame = new ProjectedFrame(mesh);
+        final ProjectedFrame parallelFrame = new ProjectedFrame(mesh);
+        final double[] attitudeMatrix = new double[9];
+
+        for (double[] attitude : ATTITUDES) {
+            rotationMatrix(attitude, attitudeMatrix);
+            sequentialFrame.projectPolygons(attitudeMatrix, VIEWING_DISTANCE, 0, mesh.getPolygonCount());
+            sequentialFrame.collectVisiblePolygons();
+            projectionPool.invoke(new ProjectionTask(parallelFrame, null, attitudeMatrix, VIEWING_DISTANCE,
+                                                     0, mesh.getPolygonCount(), CHUNK_POLYGONS));
+            parallelFrame.collectVisiblePolygons();
+
+            assertTrue(sequentialFrame.getVisiblePolygonCount() > 0);
+            assertTrue(sequentialFrame.getVisiblePolygonCount() < mesh.getPolygonCount());
+            assertArrayEquals(sequentialFrame.copyVisiblePolygons(), parallelFrame.copyVisiblePolygons());
+            assertArrayEquals(sequentialFrame.getProjectedVertices(), parallelFrame.getProjectedVertices(), 0.0);
+            assertEquals(sequentialFrame.encode(), parallelFrame.encode());
+        }
+    }
+
+    // As when the visible polygons come from the projection cache
+    @Test
+    public void parallelListedProjectionMatchesSequential() {
+        final ProjectedFrame sequentialFrame = new ProjectedFrame(mesh);
+        final ProjectedFrame parallelFrame = new ProjectedFrame(mesh);
+        final double[] attitudeMatrix = new double[9];
+        final int[] listedPolygons = new int[mesh.getPolygonCount()/3];
+        for (int i = 0; i < listedPolygons.length; i++) {
+            listedPolygons[i] = 3*i + 1;
+        }
+
+        for (double[] attitude : ATTITUDES) {
+            rotationMatrix(attitude, attitudeMatrix);
+            sequentialFrame.projectListedPolygons(attitudeMatrix, VIEWING_DISTANCE, listedPolygons, 0, listedPolygons.length);
+            sequentialFrame.setVisiblePolygons(listedPolygons);
+            projectionPool.invoke(new ProjectionTask(parallelFrame, listedPolygons, attitudeMatrix, VIEWING_DISTANCE,
+                                                     0, listedPolygons.length, CHUNK_POLYGONS));
+            parallelFrame.setVisiblePolygons(listedPolygons);
+
+            assertArrayEquals(sequentialFrame.getProjectedVertices(), parallelFrame.getProjectedVertices(), 0.0);
+            assertEquals(sequentialFrame.encode(), parallelFrame.encode());
+        }
+    }
+
+    // Through the session, which projects on the pool once a mesh has parallelProjectionThresholdPolygons
+    @Test
+    public void sessionsProjectTheSameWithAndWithoutPool() throws Exception {
+        final AttitudeModelServiceImpl sequential = newSession(null);
+        final AttitudeModelServiceImpl parallel = newSession(projectionPool);
+        assertEquals(sequential.init(), parallel.init());
+
+        for (int step = 0; step < 20; step++) {
+            if (step % 5 == 0) {
+                sequential.applyTorque(new Quarternion(0.0, 0.3, 0.9, -0.3), 2.0, 0.5);
+                parallel.applyTorque(new Quarternion(0.0, 0.3, 0.9, -0.3), 2.0, 0.5);
+            }
+            assertEquals(sequential.step(0.4), parallel.step(0.4));
+            assertArrayEquals(sequential.stepAttitudeFrame(0.1).getVisiblePolygonMask(),
+                              parallel.stepAttitudeFrame(0.1).getVisiblePolygonMask());
+            assertEquals(sequential.encodeVisibleSpacecraftPolygons(0.0), parallel.encodeVisibleSpacecraftPolygons(0.0));
+        }
+    }
+
+    private static AttitudeModelServiceImpl newSession(ForkJoinPool pool) throws MomentOfInertiaInvalidException {
+        return new AttitudeModelServiceImpl(mesh, RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR),
+                                            AttitudeIntegratorSettings.defaults().newIntegrator(), pool, 1, CHUNK_POLYGONS);
+    }
+
+    private static void rotationMatrix(double[] attitude, double[] matrix) {
+        final double norm = Math.sqrt(attitude[0]*attitude[0] + attitude[1]*attitude[1] + attitude[2]*attitude[2] + attitude[3]*attitude[3]);
+        LinearAlgebra.rotationMatrix3x3(attitude[0]/norm, attitude[1]/norm, attitude[2]/norm, attitude[3]/norm, matrix);
+    }
+
+    // A torus about Z of quadrilaterals wound outwards, with both front- and back-facing polygons
+    // from any direction.
+    private static SpacecraftMesh torus(double majorRadius, double minorRadius, int majorSegments, int minorSegments) {
+        final int polygonCount = majorSegments*minorSegments;
+        final double[] vertices = new double[polygonCount*4*3];
+        final int[] polygonOffsets = new int[polygonCount + 1];
+        final int[][] corners = { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 0, 1 } };
+
+        int vertex = 0;
+        for (int i = 0; i < majorSegments; i++) {
+            for (int j = 0; j < minorSegments; j++) {
+                polygonOffsets[i*minorSegments + j] = vertex;
+                for (int[] corner : corners) {
+                    final double theta = 2.0*Math.PI*(i + corner[0])/majorSegments;
+                    final double phi = 2.0*Math.PI*(j + corner[1])/minorSegments;
+                    final double radius = majorRadius + minorRadius*Math.cos(phi);
+                    vertices[3*vertex] = radius*Math.cos(theta);
+                    vertices[3*vertex + 1] = radius*Math.sin(theta);
+                    vertices[3*vertex + 2] = minorRadius*Math.sin(phi);
+                    vertex++;
+                }
+            }
+        }
+        polygonOffsets[polygonCount] = vertex;
+        return new SpacecraftMesh(vertices, polygonOffsets);
+    }
+}
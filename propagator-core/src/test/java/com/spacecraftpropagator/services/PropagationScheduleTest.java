@@ -0,0 +1,93 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.PropagationRequest;
+import com.spacecraftpropagator.model.PropagationResult;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.ScheduledTorqueRecord;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.TorqueRecord;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+public class PropagationScheduleTest {
+
+    private static final double STEP_SECONDS = 0.5;
+    private static final int STEP_COUNT = 10;
+    private static final double LAST_STEP_START_SECONDS = (STEP_COUNT - 1)*STEP_SECONDS;
+
+    @Test
+    public void torqueAtTheStartOfTheLastStepIsApplied() throws Exception {
+        final AttitudeModelServiceImpl session = newSession();
+        final PropagationResult propagationResult = session.propagate(request(LAST_STEP_START_SECONDS));
+        final double[] rates = propagationResult.getRadiansPerSecond();
+        assertEquals(0.0, rates[rates.length - 4], 0.0);
+        assertNotEquals(0.0, rates[rates.length - 1], 0.0);
+        assertEquals(STEP_COUNT*STEP_SECONDS, session.getSimulationSeconds(), 1e-12);
+    }
+
+    // Rejected before any torque is applied or step taken, rather than dropped
+    @Test
+    public void torquesOutsideThePropagationAreRejected() throws Exception {
+        for (double secondsFromStart : new double[] { LAST_STEP_START_SECONDS + 0.01, STEP_COUNT*STEP_SECONDS, -0.01,
+                                                      Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }) {
+            final AttitudeModelServiceImpl session = newSession();
+            try {
+                session.propagate(request(0.0, secondsFromStart));
+                fail("A torque at " + secondsFromStart + " s was accepted");
+            } catch (SimulationStepInvalidException e) {
+                // expected
+            }
+            assertEquals(0.0, session.getSimulationSeconds(), 0.0);
+            assertArrayEquals(new double[3], session.getAttitudeState().getRadiansPerSecond(), 0.0);
+        }
+    }
+
+    @Test(expected = SimulationStepInvalidException.class)
+    public void scheduledTorqueNeedsATorque() throws Exception {
+        newSession().propagate(new PropagationRequest(STEP_SECONDS, STEP_COUNT, 1, false,
+                                                      Arrays.asList(new ScheduledTorqueRecord(0.0, null))));
+    }
+
+    private static PropagationRequest request(double... secondsFromStart) {
+        final ScheduledTorqueRecord[] torqueSchedule = new ScheduledTorqueRecord[secondsFromStart.length];
+        for (int i = 0; i < secondsFromStart.length; i++) {
+            torqueSchedule[i] = new ScheduledTorqueRecord(secondsFromStart[i], new TorqueRecord(new Quarternion(0.0, 0.0, 0.0, 1.0), 2.0, 0.5));
+        }
+        return new PropagationRequest(STEP_SECONDS, STEP_COUNT, 1, false, Arrays.asList(torqueSchedule));
+    }
+
+    private static AttitudeModelServiceImpl newSession() throws MomentOfInertiaInvalidException {
+        final SpacecraftMesh triangle = new SpacecraftMesh(new double[] { 1.0, 0.0, 0.0,  0.0, 1.0, 0.0,  0.0, 0.0, 1.0 }, new int[] { 0, 3 });
+        return new AttitudeModelServiceImpl(triangle, RigidBodyDynamics.fromInertiaTensor(new double[] { 4.0, 0.0, 0.0,
+                                                                                                         0.0, 6.0, 0.0,
+                                                                                                         0.0, 0.0, 9.0 }),
+                                            AttitudeIntegratorSettings.defaults().newIntegrator());
+    }
+}
@@ -0,0 +1,181 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.snapshots;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.AttitudeState;
+import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.services.AttitudeModelServiceImpl;
+import com.spacecraftpropagator.utils.ControllerSettingsInvalidException;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+// Saving and restoring a session, and seeking within it, against the same steps run straight through:
+// both must reproduce the original run bit for bit.
+public class SessionSnapshotTest {
+
+    private static final double STEP_SECONDS = 0.7;
+    private static final int STEPS = 80;
+
+    private static final double[] INERTIA_TENSOR = { 4.0, 0.3, -0.2,
+                                                     0.3, 6.0, 0.1,
+                                                     -0.2, 0.1, 9.0 };
+
+    // a unit cube, faces wound outwards
+    private static final double[] CUBE_VERTICES = { -0.5, -0.5, -0.5,  -0.5, 0.5, -0.5,  0.5, 0.5, -0.5,  0.5, -0.5, -0.5,
+                                                    -0.5, -0.5, 0.5,  0.5, -0.5, 0.5,  0.5, 0.5, 0.5,  -0.5, 0.5, 0.5,
+                                                    -0.5, -0.5, -0.5,  0.5, -0.5, -0.5,  0.5, -0.5, 0.5,  -0.5, -0.5, 0.5,
+                                                    -0.5, 0.5, -0.5,  -0.5, 0.5, 0.5,  0.5, 0.5, 0.5,  0.5, 0.5, -0.5,
+                                                    -0.5, -0.5, -0.5,  -0.5, -0.5, 0.5,  -0.5, 0.5, 0.5,  -0.5, 0.5, -0.5,
+                                                    0.5, -0.5, -0.5,  0.5, 0.5, -0.5,  0.5, 0.5, 0.5,  0.5, -0.5, 0.5 };
+    private static final int[] CUBE_POLYGON_OFFSETS = { 0, 4, 8, 12, 16, 20, 24 };
+
+    @Test
+    public void restoredSnapshotContinuesTheOriginalRun() throws Exception {
+        final AttitudeModelServiceImpl original = newSession();
+        runScript(original, 0, STEPS/2);
+        final byte[] snapshot = original.saveSnapshot();
+
+        final AttitudeModelServiceImpl restored = newSession();
+        restored.restoreSnapshot(snapshot);
+        assertSameState(original.getAttitudeState(), restored.getAttitudeState());
+        // the journal, checkpoints and carried substep included
+        assertArrayEquals(snapshot, restored.saveSnapshot());
+
+        runScript(original, STEPS/2, STEPS);
+        runScript(restored, STEPS/2, STEPS);
+        assertSameState(original.getAttitudeState(), restored.getAttitudeState());
+        assertArrayEquals(original.saveSnapshot(), restored.saveSnapshot());
+    }
+
+    @Test
+    public void decodedSnapshotMatchesEncodedOne() throws Exception {
+        final AttitudeModelServiceImpl session = newSession();
+        runScript(session, 0, STEPS);
+        final byte[] snapshot = session.saveSnapshot();
+
+        final SessionSnapshot decoded = SessionSnapshot.decode(snapshot, SessionJournal.DEFAULT_CHECKPOINT_INTERVAL_SECONDS,
+                                                               SessionJournal.DEFAULT_MAXIMUM_ENTRIES);
+        assertEquals(session.getSpacecraftMesh().getMeshId(), decoded.getMeshId());
+        assertEquals(session.getSimulationSeconds(), decoded.getSimulationSeconds(), 0.0);
+        final AttitudeState attitudeState = session.getAttitudeState();
+        assertArrayEquals(attitudeState.getAttitudeQuarternion(), Arrays.copyOf(decoded.getState(), 4), 0.0);
+        assertArrayEquals(attitudeState.getRadiansPerSecond(), Arrays.copyOfRange(decoded.getState(), 4, 7), 0.0);
+        assertArrayEquals(snapshot, decoded.encode());
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() throws Exception {
+        final AttitudeModelServiceImpl session = newSession();
+        runScript(session, 0, STEPS);
+        final byte[] snapshot = session.saveSnapshot();
+
+        try {
+            newSession().restoreSnapshot(Arrays.copyOf(snapshot, snapshot.length - 1));
+            fail("A truncated snapshot was restored");
+        } catch (SnapshotInvalidException e) {
+            // expected
+        }
+    }
+
+    // Back to a journaled step, then stepping on as before, as a client replaying from a scrubber.  The
+    // seeks are to steps with no torque or controller change at their start, which the seek itself replays.
+    @Test
+    public void seekThenStepMatchesStraightStepping() throws Exception {
+        final AttitudeModelServiceImpl straight = newSession();
+        runScript(straight, 0, STEPS);
+
+        for (int seekStep : new int[] { 0, 1, 12, 32, 41, 56, STEPS - 1 }) {
+            final AttitudeModelServiceImpl seeking = newSession();
+            runScript(seeking, 0, STEPS);
+            seeking.seekAttitudeFrame(secondsAfter(seekStep));
+            assertEquals(secondsAfter(seekStep), seeking.getSimulationSeconds(), 0.0);
+
+            runScript(seeking, seekStep, STEPS);
+            assertSameState(straight.getAttitudeState(), seeking.getAttitudeState());
+        }
+    }
+
+    // Replaying the whole journal from the latest checkpoint lands on the state the steps reached.
+    @Test
+    public void seekToTheCurrentTimeKeepsTheState() throws Exception {
+        final AttitudeModelServiceImpl session = newSession();
+        runScript(session, 0, STEPS);
+        final AttitudeState end = session.getAttitudeState();
+
+        session.seekAttitudeFrame(secondsAfter(STEPS));
+        assertSameState(end, session.getAttitudeState());
+        runScript(session, STEPS, STEPS + 10);
+
+        final AttitudeModelServiceImpl straight = newSession();
+        runScript(straight, 0, STEPS + 10);
+        assertSameState(straight.getAttitudeState(), session.getAttitudeState());
+    }
+
+    // Steps from step to lastStep, with torques and controller changes at fixed steps, so that a run
+    // split in two does what it does in one piece.
+    private static void runScript(AttitudeModelServiceImpl session, int step, int lastStep) throws SimulationStepInvalidException,
+                                                                                                ControllerSettingsInvalidException {
+        for (; step < lastStep; step++) {
+            if (step % 9 == 4) {
+                session.applyTorque(new Quarternion(0.0, 0.6, -0.8, 0.0), 0.5, 0.2 + 0.01*step);
+            }
+            if (step == 30) {
+                session.setAttitudeController(AttitudeController.create(AttitudeController.MODE_ATTITUDE,
+                                                                        new double[] { 0.9, 0.1, 0.3, -0.2 }, 1.0, 3.0, 0.5, 20.0));
+            }
+            if (step == 55) {
+                session.setAttitudeController(AttitudeController.OFF);
+            }
+            session.advance(STEP_SECONDS);
+        }
+    }
+
+    // The simulated time as the session sums it, which seeks must hit exactly to land between steps.
+    private static double secondsAfter(int steps) {
+        double seconds = 0.0;
+        for (int step = 0; step < steps; step++) {
+            seconds += STEP_SECONDS;
+        }
+        return seconds;
+    }
+
+    private static AttitudeModelServiceImpl newSession() throws MomentOfInertiaInvalidException {
+        return new AttitudeModelServiceImpl(new SpacecraftMesh(CUBE_VERTICES, CUBE_POLYGON_OFFSETS),
+                                            RigidBodyDynamics.fromInertiaTensor(INERTIA_TENSOR),
+                                            AttitudeIntegratorSettings.defaults().newIntegrator());
+    }
+
+    private static void assertSameState(AttitudeState expected, AttitudeState actual) {
+        assertEquals(expected.getSimulationSeconds(), actual.getSimulationSeconds(), 0.0);
+        assertArrayEquals(expected.getAttitudeQuarternion(), actual.getAttitudeQuarternion(), 0.0);
+        assertArrayEquals(expected.getRadiansPerSecond(), actual.getRadiansPerSecond(), 0.0);
+        assertEquals(expected.getAttitudeController().toString(), actual.getAttitudeController().toString());
+    }
+}
@@ -0,0 +1,245 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.spacecraftpropagator.model.TelemetrySampleRecord;
+
+public class TelemetryRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(4, new TelemetryRingBuffer(1).getCapacity());
+        assertEquals(4, new TelemetryRingBuffer(3).getCapacity());
+        assertEquals(8, new TelemetryRingBuffer(5).getCapacity());
+        assertEquals(8, new TelemetryRingBuffer(8).getCapacity());
+        assertEquals(16, new TelemetryRingBuffer(9).getCapacity());
+    }
+
+    // Several laps of the ring, in uneven batches
+    @Test
+    public void drainsRecordsInClaimOrder() {
+        final TelemetryRingBuffer ringBuffer = new TelemetryRingBuffer(8);
+        final TelemetryBatch batch = new TelemetryBatch(3);
+        long produced = 0;
+        long drained = 0;
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1 + round % 6; i++) {
+                publish(ringBuffer, ringBuffer.claim(), produced++);
+            }
+            while (ringBuffer.drainTo(batch) > 0) {
+                for (int record = 0; record < batch.getCount(); record++) {
+                    assertEquals(drained, batch.getSequence(record));
+                    assertRecord(batch, record, drained++);
+                }
+            }
+        }
+        assertEquals(produced, drained);
+    }
+
+    @Test
+    public void claimFailsWhenTheConsumerIsAWholeRingBehind() {
+        final TelemetryRingBuffer ringBuffer = new TelemetryRingBuffer(8);
+        for (long i = 0; i < 8; i++) {
+            assertEquals(i, ringBuffer.claim());
+            publish(ringBuffer, i, i);
+        }
+        assertEquals(-1, ringBuffer.claim());
+        assertEquals(-1, ringBuffer.claim());
+
+        // the records already in the ring are kept, and draining some frees as many slots
+        final TelemetryBatch batch = new TelemetryBatch(3);
+        assertEquals(3, ringBuffer.drainTo(batch));
+        for (int record = 0; record < 3; record++) {
+            assertRecord(batch, record, record);
+        }
+        for (long i = 8; i < 11; i++) {
+            assertEquals(i, ringBuffer.claim());
+            publish(ringBuffer, i, i);
+        }
+        assertEquals(-1, ringBuffer.claim());
+
+        final TelemetryBatch rest = new TelemetryBatch(16);
+        assertEquals(8, ringBuffer.drainTo(rest));
+        for (int record = 0; record < 8; record++) {
+            assertRecord(rest, record, 3 + record);
+        }
+    }
+
+    // A producer that has claimed a slot but not yet published it holds back those claimed after it.
+    @Test
+    public void drainStopsAtAnUnpublishedSlot() {
+        final TelemetryRingBuffer ringBuffer = new TelemetryRingBuffer(8);
+        final TelemetryBatch batch = new TelemetryBatch(8);
+        final long first = ringBuffer.claim();
+        final long second = ringBuffer.claim();
+        publish(ringBuffer, second, second);
+        assertEquals(0, ringBuffer.drainTo(batch));
+
+        publish(ringBuffer, first, first);
+        assertEquals(2, ringBuffer.drainTo(batch));
+        assertRecord(batch, 0, first);
+        assertRecord(batch, 1, second);
+        assertEquals(0, ringBuffer.drainTo(batch));
+    }
+
+    // Every record is either drained, in each producer's own order, or failed to claim.
+    @Test
+    public void concurrentProducersLoseNothingUncounted() throws InterruptedException {
+        final TelemetryRingBuffer ringBuffer = new TelemetryRingBuffer(64);
+        final int producerCount = 4;
+        final int recordsPerProducer = 100000;
+        final AtomicLong dropped = new AtomicLong();
+        final CountDownLatch producersDone = new CountDownLatch(producerCount);
+
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < recordsPerProducer; i++) {
+                    final long sequence = ringBuffer.claim();
+                    if (sequence < 0) {
+                        dropped.incrementAndGet();
+                        continue;
+                    }
+                    ringBuffer.publish(sequence, TelemetryBatch.KIND_STEP, "run" + producer, i, 0L,
+                                       producer, i, 0, 0, 0, 0, 0, 0, 0);
+                }
+                producersDone.countDown();
+            });
+            thread.start();
+        }
+
+        final TelemetryBatch batch = new TelemetryBatch(16);
+        final long[] lastSeen = new long[producerCount];
+        Arrays.fill(lastSeen, -1);
+        long drained = 0;
+        boolean done = false;
+        while (!done) {
+            done = producersDone.getCount() == 0;
+            while (ringBuffer.drainTo(batch) > 0) {
+                for (int record = 0; record < batch.getCount(); record++) {
+                    final int producer = (int) batch.getValue(record, 0);
+                    final long index = (long) batch.getValue(record, 1);
+                    assertEquals("run" + producer, batch.getRunId(record));
+                    assertTrue(index > lastSeen[producer]);
+                    lastSeen[producer] = index;
+                    drained++;
+                }
+            }
+        }
+        assertTrue(producersDone.await(10, TimeUnit.SECONDS));
+        assertEquals((long) producerCount*recordsPerProducer, drained + dropped.get());
+    }
+
+    // The writer is held up in its first write, so the ring fills up behind it.
+    @Test
+    public void recorderCountsTheRecordsItDrops() throws InterruptedException {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ListTelemetryWriter telemetryWriter = new ListTelemetryWriter(writing, release);
+        final TelemetryRecorder telemetryRecorder = new TelemetryRecorder(telemetryWriter, 8, 8);
+        telemetryRecorder.start();
+
+        final double[] state = { 1.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0 };
+        telemetryRecorder.recordStep("run", 0.0, state, 1.0, 1.0);
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < 14; i++) {
+            telemetryRecorder.recordStep("run", i, state, 1.0, 1.0);
+        }
+        assertEquals(5, telemetryRecorder.getDroppedRecords());
+
+        release.countDown();
+        telemetryRecorder.stop();
+        assertEquals(9, telemetryRecorder.getWrittenRecords());
+        final List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            expected.add((double) i);
+        }
+        assertEquals(expected, telemetryWriter.simulationSeconds);
+        assertTrue(telemetryWriter.closed);
+    }
+
+    private static void publish(TelemetryRingBuffer ringBuffer, long sequence, long value) {
+        ringBuffer.publish(sequence, TelemetryBatch.KIND_STEP, "run" + value, value, value,
+                           value, value + 1, value + 2, value + 3, value + 4, value + 5, value + 6, value + 7, value + 8);
+    }
+
+    private static void assertRecord(TelemetryBatch batch, int record, long value) {
+        assertEquals(TelemetryBatch.KIND_STEP, batch.getKind(record));
+        assertEquals("run" + value, batch.getRunId(record));
+        assertEquals(value, batch.getSimulationSeconds(record), 0.0);
+        assertEquals(value, batch.getRecordedAtMillis(record));
+        for (int i = 0; i < TelemetryBatch.VALUE_COUNT; i++) {
+            assertEquals(value + i, batch.getValue(record, i), 0.0);
+        }
+    }
+
+    private static class ListTelemetryWriter implements TelemetryWriter {
+
+        private final CountDownLatch writing;
+        private final CountDownLatch release;
+        final List<Double> simulationSeconds = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean closed;
+
+        ListTelemetryWriter(CountDownLatch writing, CountDownLatch release) {
+            this.writing = writing;
+            this.release = release;
+        }
+
+        @Override
+        public void write(TelemetryBatch batch) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (int record = 0; record < batch.getCount(); record++) {
+                simulationSeconds.add(batch.getSimulationSeconds(record));
+            }
+        }
+
+        @Override
+        public List<String> listRuns() {
+            return Collections.singletonList("run");
+        }
+
+        @Override
+        public List<TelemetrySampleRecord> read(String runId, double fromSeconds, double toSeconds, long offset, int limit) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.controllers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spacecraftpropagator.model.TorqueRecord;
+import com.spacecraftpropagator.services.AttitudeModelService;
+import com.spacecraftpropagator.services.SimulationSessionService;
+import com.spacecraftpropagator.services.SimulationTickService;
+
+// WebSocket endpoint /stream?sessionId=...&framesPerSecond=...  The session is put on the server
+// tick, and every N-th tick's visible polygons are pushed as a binary message in the
+// ProjectedFrame.encode() format, with N the tick rate over framesPerSecond, rounded.  A client
+// that cannot keep up gets the latest frame whenever its previous send completes, and misses the
+// frames in between.  Text messages from the client are TorqueRecord JSON, the same as the
+// /torque request body.  An open stream keeps its session from idling out, through the tick,
+// whether or not the client ever sends anything.  If the session's step fails, the server sends {"error": reason} as a text
+// message and closes the socket with SERVER_ERROR; when the session ends it closes with GOING_AWAY.
+@Component
+public class SpacecraftFrameStreamHandler extends AbstractWebSocketHandler {
+
+    private static final String STREAM_SESSION_ID_ATTRIBUTE = "streamSessionId";
+
+    private static final int SEND_TIME_LIMIT_MSECS = 1000;
+    private static final int SEND_BUFFER_SIZE_LIMIT_BYTES = 1024*1024;
+
+    Logger logger = LoggerFactory.getLogger(SpacecraftFrameStreamHandler.class);
+
+    @Autowired
+    private SimulationSessionService simulationSessionService;
+
+    @Autowired
+    private SimulationTickService simulationTickService;
+
+    @Autowired
+    @Qualifier("frameStreamExecutor")
+    private ScheduledExecutorService frameStreamExecutor;
+
+    @Value("${spacecraft.stream.maximum-frames-per-second:60}")
+    private double maximumFramesPerSecond;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession webSocketSession) throws Exception {
+        final MultiValueMap<String, String> queryParams = UriComponentsBuilder.fromUri(webSocketSession.getUri()).build().getQueryParams();
+        final AttitudeModelService attitudeModelService = simulationSessionService.getSession(queryParams.getFirst("sessionId"));
+        if (attitudeModelService == null) {
+            webSocketSession.close(CloseStatus.BAD_DATA.withReason("No simulation session " + queryParams.getFirst("sessionId")));
+            return;
+        }
+
+        double framesPerSecond = 10.0;
+        try {
+            if (queryParams.getFirst("framesPerSecond") != null) {
+                framesPerSecond = Double.parseDouble(queryParams.getFirst("framesPerSecond"));
+            }
+        } catch (NumberFormatException e) {
+            framesPerSecond = Double.NaN;
+        }
+        final double highestFramesPerSecond = Math.min(maximumFramesPerSecond, simulationTickService.getTicksPerSecond());
+        if (!(framesPerSecond > 0) || framesPerSecond > highestFramesPerSecond) {
+            webSocketSession.close(CloseStatus.BAD_DATA.withReason("framesPerSecond must be greater than 0 and at most " + highestFramesPerSecond));
+            return;
+        }
+
+        // the decorator closes clients whose sends take too long or back up too far
+        final WebSocketSession concurrentSession =
+                new ConcurrentWebSocketSessionDecorator(webSocketSession, SEND_TIME_LIMIT_MSECS, SEND_BUFFER_SIZE_LIMIT_BYTES);
+        final FrameSender frameSender = new FrameSender(concurrentSession);
+        final int everyNTicks = (int) Math.max(1, Math.round(simulationTickService.getTicksPerSecond()/framesPerSecond));
+
+        final String sessionId = queryParams.getFirst("sessionId");
+        webSocketSession.getAttributes().put(STREAM_SESSION_ID_ATTRIBUTE, sessionId);
+        if (!simulationTickService.addFrameListener(sessionId, webSocketSession.getId(), everyNTicks, frameSender)) {
+            webSocketSession.close(CloseStatus.GOING_AWAY.withReason("Simulation session ended"));
+            return;
+        }
+
+        logger.info("Streaming simulation session {} every {} ticks", sessionId, everyNTicks);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession webSocketSession, TextMessage message) throws Exception {
+        final String sessionId = (String) webSocketSession.getAttributes().get(STREAM_SESSION_ID_ATTRIBUTE);
+        final AttitudeModelService attitudeModelService = sessionId != null ? simulationSessionService.getSession(sessionId) : null;
+        if (attitudeModelService == null) {
+            webSocketSession.close(CloseStatus.GOING_AWAY.withReason("Simulation session ended"));
+            return;
+        }
+
+        final TorqueRecord torqueRecord = objectMapper.readValue(message.getPayload(), TorqueRecord.class);
+        attitudeModelService.applyTorque(torqueRecord);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession webSocketSession, CloseStatus status) throws Exception {
+        final String sessionId = (String) webSocketSession.getAttributes().remove(STREAM_SESSION_ID_ATTRIBUTE);
+        if (sessionId != null) {
+            simulationTickService.removeFrameListener(sessionId, webSocketSession.getId());
+        }
+    }
+
+    // Sends one frame at a time per connection, always the latest offered.  Frames offered while
+    // a send is in progress replace each other, so a slow client skips frames instead of queueing them.
+    private class FrameSender implements SimulationTickService.FrameListener {
+
+        private final WebSocketSession webSocketSession;
+        private final AtomicReference<ByteBuffer> pendingFrame = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        FrameSender(WebSocketSession webSocketSession) {
+            this.webSocketSession = webSocketSession;
+        }
+
+        @Override
+        public void frame(ByteBuffer encodedFrame) {
+            pendingFrame.set(encodedFrame);
+            trySend();
+        }
+
+        @Override
+        public void end(boolean failed, String reason) {
+            frameStreamExecutor.execute(() -> {
+                try {
+                    if (failed) {
+                        webSocketSession.sendMessage(new TextMessage(objectMapper.writeValueAsString(Collections.singletonMap("error", reason))));
+                        webSocketSession.close(CloseStatus.SERVER_ERROR);
+                    } else {
+                        webSocketSession.close(CloseStatus.GOING_AWAY.withReason(reason));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Error closing frame stream {}", webSocketSession.getId(), e);
+                }
+            });
+        }
+
+        private void trySend() {
+            if (pendingFrame.get() != null && sending.compareAndSet(false, true)) {
+                frameStreamExecutor.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                final ByteBuffer encodedFrame = pendingFrame.getAndSet(null);
+                if (encodedFrame != null && webSocketSession.isOpen()) {
+                    webSocketSession.sendMessage(new BinaryMessage(encodedFrame));
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ending frame stream {}:  {}", webSocketSession.getId(), e.toString());
+                try {
+                    webSocketSession.close(CloseStatus.SERVER_ERROR);
+                } catch (IOException closeException) {
+                    logger.debug("Error closing frame stream {}", webSocketSession.getId(), closeException);
+                }
+                return;
+            } finally {
+                sending.set(false);
+            }
+            trySend();
+        }
+    }
+}
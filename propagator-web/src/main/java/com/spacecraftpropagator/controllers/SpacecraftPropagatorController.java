@@ -0,0 +1,406 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.controllers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spacecraftpropagator.control.AttitudeController;
+import com.spacecraftpropagator.model.AttitudeControllerRecord;
+import com.spacecraftpropagator.model.AttitudeFrameRecord;
+import com.spacecraftpropagator.model.AttitudeState;
+import com.spacecraftpropagator.model.EnsembleRequest;
+import com.spacecraftpropagator.model.LatestFrameRecord;
+import com.spacecraftpropagator.model.PredictedStateRecord;
+import com.spacecraftpropagator.model.PropagationRequest;
+import com.spacecraftpropagator.model.PropagationResult;
+import com.spacecraftpropagator.model.SensorReadingsRecord;
+import com.spacecraftpropagator.model.SimulationSessionRecord;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.TelemetryPageRecord;
+import com.spacecraftpropagator.model.TickStatisticsRecord;
+import com.spacecraftpropagator.model.TorqueRecord;
+import com.spacecraftpropagator.services.AttitudeModelService;
+import com.spacecraftpropagator.services.EnsembleService;
+import com.spacecraftpropagator.services.SimulationMetrics;
+import com.spacecraftpropagator.services.SimulationSessionService;
+import com.spacecraftpropagator.services.SimulationTickService;
+import com.spacecraftpropagator.services.SpacecraftModelLoader;
+import com.spacecraftpropagator.services.TelemetryService;
+import com.spacecraftpropagator.utils.ControllerSettingsInvalidException;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+public class SpacecraftPropagatorController {
+
+    private static final String FRAMES_POLYGONS = "polygons";
+    private static final String FRAMES_ATTITUDE = "attitude";
+    private static final long MESH_CACHE_MAX_AGE_DAYS = 365;
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int MAXIMUM_RECORDING_PAGE_SIZE = 10000;
+
+    Logger logger = LoggerFactory.getLogger(SpacecraftPropagatorController.class);
+
+    @Autowired
+    private SimulationSessionService simulationSessionService;
+
+    @Autowired
+    private EnsembleService ensembleService;
+
+    @Autowired
+    private SimulationTickService simulationTickService;
+
+    @Autowired
+    private TelemetryService telemetryService;
+
+    @Autowired
+    private SimulationMetrics simulationMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // frames=polygons (the default) returns projected polygons from /init and /step.  frames=attitude
+    // returns the body-frame mesh once, to be cached by its meshId ETag, and is meant to be followed by
+    // /stepAttitude, which returns only the attitude and the visible polygon mask.  model is one of /models.
+    @RequestMapping(value = "/init", method = RequestMethod.PUT, produces=MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SimulationSessionRecord> init(@RequestParam(defaultValue = FRAMES_POLYGONS) String frames,
+                                                        @RequestParam(defaultValue = SpacecraftModelLoader.DEFAULT_MODEL_NAME) String model) {
+        if (!FRAMES_POLYGONS.equals(frames) && !FRAMES_ATTITUDE.equals(frames)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "frames must be " + FRAMES_POLYGONS + " or " + FRAMES_ATTITUDE);
+        }
+
+        final String sessionId = simulationSessionService.createSession(model);
+        if (sessionId == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No spacecraft model " + model);
+        }
+        return toSessionResponse(sessionId, frames);
+    }
+
+    @RequestMapping(value = "/models", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public List<String> models() {
+        return simulationSessionService.getModelNames();
+    }
+
+    // Creates a new session from a snapshot saved by GET /snapshot, and returns it as /init does.
+    @RequestMapping(value = "/snapshot", method = RequestMethod.PUT, consumes=MediaType.APPLICATION_OCTET_STREAM_VALUE, produces=MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SimulationSessionRecord> restoreSnapshot(@RequestParam(defaultValue = FRAMES_POLYGONS) String frames, @RequestBody byte[] snapshot) {
+        if (!FRAMES_POLYGONS.equals(frames) && !FRAMES_ATTITUDE.equals(frames)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "frames must be " + FRAMES_POLYGONS + " or " + FRAMES_ATTITUDE);
+        }
+        try {
+            return toSessionResponse(simulationSessionService.restoreSession(snapshot), frames);
+        } catch (SnapshotInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // The binary state of a session, with its journal of steps and torques, for PUT /snapshot.
+    @RequestMapping(value = "/snapshot", method = RequestMethod.GET, produces=MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] saveSnapshot(@RequestParam String sessionId) {
+        return getSession(sessionId).saveSnapshot();
+    }
+
+    // Moves the session to a simulated time, backwards or forwards, replaying its journal from the
+    // nearest checkpoint.
+    @RequestMapping(value = "/seek", method = RequestMethod.POST, produces=MediaType.APPLICATION_JSON_VALUE)
+    public AttitudeFrameRecord seek(@RequestParam String sessionId, @RequestBody Double simulationSeconds) {
+        try {
+            return getSession(sessionId).seekAttitudeFrame(simulationSeconds);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // The state the session would reach by coasting, without torque, until simulationSeconds.  The
+    // session itself is not stepped.
+    @RequestMapping(value = "/predict", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public PredictedStateRecord predict(@RequestParam String sessionId, @RequestParam double simulationSeconds) {
+        try {
+            return getSession(sessionId).predictState(simulationSeconds);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // The mesh id is a content hash, so a mesh never changes under its id and can be cached for long.
+    @RequestMapping(value = "/mesh", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<List<List<Double>>>> mesh(@RequestParam String meshId, WebRequest webRequest) {
+        final SpacecraftMesh spacecraftMesh = simulationSessionService.getSpacecraftMesh(meshId);
+        if (spacecraftMesh == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No spacecraft mesh " + meshId);
+        }
+        if (webRequest.checkNotModified(spacecraftMesh.getMeshId())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(spacecraftMesh.getMeshId())
+                .cacheControl(CacheControl.maxAge(MESH_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic())
+                .body(spacecraftMesh.toPolygons());
+    }
+    
+    // The polygons are serialized here rather than by the message converter, so that serialization can be timed.
+    @RequestMapping(value = "/step", method = RequestMethod.POST, produces=MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> step(@RequestParam String sessionId,
+                                       @RequestParam(defaultValue = "0") double pixels,
+                                       @RequestBody Double stepSeconds) throws IOException {
+        List<List<List<Double>>> spacecraftPoints;
+        try {
+            spacecraftPoints = getSession(sessionId).step(stepSeconds, pixels);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (spacecraftPoints == null || spacecraftPoints.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No quarternion data returned");
+        }
+
+        final long startNanos = System.nanoTime();
+        final byte[] body = objectMapper.writeValueAsBytes(spacecraftPoints);
+        if (simulationMetrics.isEnabled()) {
+            simulationMetrics.recordSerialization(SimulationMetrics.FORMAT_JSON, System.nanoTime() - startNanos);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @RequestMapping(value = "/stepAttitude", method = RequestMethod.POST, produces=MediaType.APPLICATION_JSON_VALUE)
+    public AttitudeFrameRecord stepAttitude(@RequestParam String sessionId, @RequestBody Double stepSeconds) {
+        try {
+            return getSession(sessionId).stepAttitudeFrame(stepSeconds);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/torque", method = RequestMethod.POST, produces=MediaType.APPLICATION_JSON_VALUE)
+    public List<Double> torque(@RequestParam String sessionId, @RequestBody TorqueRecord torqueRecord) {
+        final AttitudeModelService attitudeModelService = getSession(sessionId);
+
+        // the axis quarternions are built only when debug logging is on, all from one published state
+        if (logger.isDebugEnabled()) {
+            final AttitudeState attitudeState = attitudeModelService.getAttitudeState();
+            logger.debug("******* torque torqueQuarternion is {} **********", torqueRecord.getTorqueQuarternion());
+            logger.debug("torque torqueNewtonMeters is {}", torqueRecord.getTorqueNewtonMeters());
+            logger.debug("spacecraft xAxis is {}, yAxis is {}, zAxis is {}", attitudeState.getXAxisQuarternion(), attitudeState.getYAxisQuarternion(), attitudeState.getZAxisQuarternion());
+            logger.debug("spacecraft xAxis norm is {}, yAxis norm is {}, zAxis norm is {}", attitudeState.getXAxisQuarternion().norm(), attitudeState.getYAxisQuarternion().norm(), attitudeState.getZAxisQuarternion().norm());
+        }
+
+        return attitudeModelService.applyTorque(torqueRecord);
+    }
+
+    // Runs the session's attitude controller inside its steps from now on, instead of the client
+    // reading the sensors and posting /torque every control cycle.
+    @RequestMapping(value = "/controller", method = RequestMethod.PUT, produces=MediaType.APPLICATION_JSON_VALUE)
+    public AttitudeControllerRecord setController(@RequestParam String sessionId, @RequestBody AttitudeControllerRecord attitudeControllerRecord) {
+        final AttitudeController attitudeController;
+        try {
+            attitudeController = AttitudeController.create(attitudeControllerRecord.getMode(),
+                                                           attitudeControllerRecord.getTargetQuarternion(),
+                                                           attitudeControllerRecord.getProportionalGain(),
+                                                           attitudeControllerRecord.getDerivativeGain(),
+                                                           attitudeControllerRecord.getMaximumTorqueNewtonMeters(),
+                                                           attitudeControllerRecord.getControlRateHertz());
+        } catch (ControllerSettingsInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        final AttitudeModelService attitudeModelService = getSession(sessionId);
+        attitudeModelService.setAttitudeController(attitudeController);
+        return toAttitudeControllerRecord(attitudeController);
+    }
+
+    @RequestMapping(value = "/controller", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public AttitudeControllerRecord getController(@RequestParam String sessionId) {
+        return toAttitudeControllerRecord(getSession(sessionId).getAttitudeController());
+    }
+
+    @RequestMapping(value = "/propagate", method = RequestMethod.POST, produces=MediaType.APPLICATION_JSON_VALUE)
+    public PropagationResult propagate(@RequestParam String sessionId, @RequestBody PropagationRequest propagationRequest) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("propagate request is {}", propagationRequest);
+        }
+        try {
+            return getSession(sessionId).propagate(propagationRequest);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Streams one line of JSON statistics per output step, as newline-delimited JSON, while the
+    // ensemble runs.  No session is needed.
+    @RequestMapping(value = "/ensemble", method = RequestMethod.POST, produces=APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> ensemble(@RequestBody EnsembleRequest ensembleRequest) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("ensemble request is {}", ensembleRequest);
+        }
+        try {
+            ensembleService.validate(ensembleRequest);
+        } catch (SimulationStepInvalidException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        final StreamingResponseBody body = outputStream -> ensembleService.run(ensembleRequest, ensembleStatisticsRecord -> {
+            outputStream.write(objectMapper.writeValueAsBytes(ensembleStatisticsRecord));
+            outputStream.write('\n');
+            outputStream.flush();
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    // Puts the session on the server tick, which then advances it in real time; clients read
+    // /latestFrame instead of posting /step.
+    @RequestMapping(value = "/subscribe", method = RequestMethod.PUT)
+    public void subscribe(@RequestParam String sessionId) {
+        getSession(sessionId);
+        if (!simulationTickService.subscribe(sessionId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No simulation session " + sessionId);
+        }
+    }
+
+    @RequestMapping(value = "/subscribe", method = RequestMethod.DELETE)
+    public void unsubscribe(@RequestParam String sessionId) {
+        simulationTickService.unsubscribe(sessionId);
+    }
+
+    @RequestMapping(value = "/latestFrame", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public LatestFrameRecord latestFrame(@RequestParam String sessionId) {
+        getSession(sessionId); // keeps a session that is being read from expiring
+        final LatestFrameRecord latestFrameRecord = simulationTickService.getLatestFrame(sessionId);
+        if (latestFrameRecord == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No frame yet for simulation session " + sessionId + "; is it subscribed?");
+        }
+        return latestFrameRecord;
+    }
+
+    @RequestMapping(value = "/tickStatistics", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public TickStatisticsRecord tickStatistics() {
+        return simulationTickService.getStatistics();
+    }
+
+    // Run ids of the recorded sessions; empty when recording is off.
+    @RequestMapping(value = "/recordings", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public List<String> recordings() throws IOException {
+        return telemetryService.getRecordedRuns();
+    }
+
+    // Pages through the steps and torques recorded for a run between fromSeconds and toSeconds of simulated time.
+    @RequestMapping(value = "/recording", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public TelemetryPageRecord recording(@RequestParam String runId,
+                                         @RequestParam(defaultValue = "0") double fromSeconds,
+                                         @RequestParam(defaultValue = "1e308") double toSeconds,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "1000") int pageSize) throws IOException {
+        if (page < 0 || pageSize <= 0 || pageSize > MAXIMUM_RECORDING_PAGE_SIZE || !(fromSeconds <= toSeconds)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be at least 0, pageSize from 1 to "
+                    + MAXIMUM_RECORDING_PAGE_SIZE + " and fromSeconds at most toSeconds");
+        }
+        final TelemetryPageRecord telemetryPageRecord = telemetryService.getRecordedRun(runId, fromSeconds, toSeconds, page, pageSize);
+        if (telemetryPageRecord == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Telemetry recording is off");
+        }
+        return telemetryPageRecord;
+    }
+
+    @RequestMapping(value = "/getSunSensorValue", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public double getSunSensorValue(@RequestParam String sessionId) {
+        // read without locking the session, so polling never holds up its steps
+        final AttitudeState attitudeState = getSession(sessionId).getAttitudeState();
+        double sunSensorValue = attitudeState.getSunSensorValue(); // will return cosine of angle between spacecraft -X axis and sun vector towards left side of screen
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("+++++++++++++++ xAxis is {}, spacecraft sun sensor value is {} +++++++++++",
+                         attitudeState.getXAxisQuarternion(), sunSensorValue);
+        }
+
+        return sunSensorValue;
+    }
+
+    @RequestMapping(value = "/getIRValue", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public double getIRValue(@RequestParam String sessionId) {
+        final AttitudeState attitudeState = getSession(sessionId).getAttitudeState();
+        double irSensorValue = attitudeState.getIRValue(); // will return cosine of angle between spacecraft -Y axis and IR vector towards bottom of screen, representing IR emissions from Earth
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("+++++++++++++++ yAxis is {}, spacecraft IR value is {} +++++++++++",
+                         attitudeState.getYAxisQuarternion(), irSensorValue);
+        }
+
+        return irSensorValue;
+    }
+
+    // Every sensor of the session's suite, of one and the same instant
+    @RequestMapping(value = "/sensors", method = RequestMethod.GET, produces=MediaType.APPLICATION_JSON_VALUE)
+    public SensorReadingsRecord sensors(@RequestParam String sessionId) {
+        return SensorReadingsRecord.fromAttitudeState(getSession(sessionId).getAttitudeState());
+    }
+
+    private ResponseEntity<SimulationSessionRecord> toSessionResponse(String sessionId, String frames) {
+        final AttitudeModelService attitudeModelService = getSession(sessionId);
+        final String meshId = attitudeModelService.getSpacecraftMesh().getMeshId();
+
+        if (FRAMES_ATTITUDE.equals(frames)) {
+            return ResponseEntity.ok()
+                    .eTag(meshId)
+                    .cacheControl(CacheControl.maxAge(MESH_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS).cachePrivate())
+                    .body(new SimulationSessionRecord(sessionId, meshId, null, attitudeModelService.getSpacecraftMesh().toPolygons()));
+        }
+
+        List<List<List<Double>>> spacecraftPoints = attitudeModelService.init();
+        if (spacecraftPoints == null || spacecraftPoints.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No attitude quarternion data returned");
+        }
+        return ResponseEntity.ok(new SimulationSessionRecord(sessionId, meshId, spacecraftPoints, null));
+    }
+
+    private static AttitudeControllerRecord toAttitudeControllerRecord(AttitudeController attitudeController) {
+        return new AttitudeControllerRecord(attitudeController.getMode(),
+                                            AttitudeController.MODE_ATTITUDE.equals(attitudeController.getMode())
+                                                    ? attitudeController.getTargetQuarternion()
+                                                    : null,
+                                            attitudeController.getProportionalGain(),
+                                            attitudeController.getDerivativeGain(),
+                                            attitudeController.getMaximumTorqueNewtonMeters(),
+                                            attitudeController.getControlRateHertz());
+    }
+
+    private AttitudeModelService getSession(String sessionId) {
+        final AttitudeModelService attitudeModelService = simulationSessionService.getSession(sessionId);
+        if (attitudeModelService == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No simulation session " + sessionId);
+        }
+        return attitudeModelService;
+    }
+}
@@ -0,0 +1,118 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// The projection cache shared by every session, bounded by entries for the visible polygon sets
+// and by bytes for the encoded frames.  Hits, misses, evictions and sizes are published as the
+// cache.* meters tagged cache=spacecraft.projection.visible-polygons and
+// cache=spacecraft.projection.frames.
+@Component
+public class CaffeineProjectionCache implements ProjectionCache {
+
+    private final double quantization;
+
+    // null when the cache is off
+    private final Cache<ProjectionKey, int[]> visiblePolygons;
+    // null when frames are not cached
+    private final Cache<ProjectionKey, ByteBuffer> encodedFrames;
+
+    Logger logger = LoggerFactory.getLogger(CaffeineProjectionCache.class);
+
+    public CaffeineProjectionCache(MeterRegistry meterRegistry,
+                                   @Value("${spacecraft.projection-cache.maximum-entries:10000}") long maximumEntries,
+                                   @Value("${spacecraft.projection-cache.quantization:1e-6}") double quantization,
+                                   @Value("${spacecraft.projection-cache.maximum-frame-megabytes:64}") long maximumFrameMegabytes) {
+        if (!(quantization > 0)) {
+            throw new IllegalArgumentException("spacecraft.projection-cache.quantization must be positive");
+        }
+        this.quantization = quantization;
+
+        if (maximumEntries > 0) {
+            this.visiblePolygons = Caffeine.newBuilder()
+                    .maximumSize(maximumEntries)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, visiblePolygons, "spacecraft.projection.visible-polygons");
+        } else {
+            this.visiblePolygons = null;
+        }
+
+        if (maximumEntries > 0 && maximumFrameMegabytes > 0) {
+            this.encodedFrames = Caffeine.newBuilder()
+                    .maximumWeight(maximumFrameMegabytes*1024*1024)
+                    .weigher((ProjectionKey key, ByteBuffer encodedFrame) -> encodedFrame.capacity())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, encodedFrames, "spacecraft.projection.frames");
+        } else {
+            this.encodedFrames = null;
+        }
+
+        logger.info("Projection cache {}:  {} visible polygon sets, {} MB of frames, quantization {}",
+                    isEnabled() ? "on" : "off", maximumEntries, encodedFrames != null ? maximumFrameMegabytes : 0, quantization);
+    }
+
+    public boolean isEnabled() {
+        return visiblePolygons != null;
+    }
+
+    @Override
+    public double getQuantization() {
+        return quantization;
+    }
+
+    @Override
+    public int[] getVisiblePolygons(ProjectionKey key) {
+        return visiblePolygons.getIfPresent(key);
+    }
+
+    @Override
+    public void putVisiblePolygons(ProjectionKey key, int[] polygons) {
+        visiblePolygons.put(key, polygons);
+    }
+
+    @Override
+    public ByteBuffer getEncodedFrame(ProjectionKey key) {
+        if (encodedFrames == null) {
+            return null;
+        }
+        final ByteBuffer encodedFrame = encodedFrames.getIfPresent(key);
+        return encodedFrame != null ? encodedFrame.duplicate() : null;
+    }
+
+    // A read-only view is kept, so that neither the caller nor later readers can change the bytes
+    // or the position others read from.
+    @Override
+    public void putEncodedFrame(ProjectionKey key, ByteBuffer encodedFrame) {
+        if (encodedFrames != null) {
+            encodedFrames.put(key, encodedFrame.asReadOnlyBuffer());
+        }
+    }
+}
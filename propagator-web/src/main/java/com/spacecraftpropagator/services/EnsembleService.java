@@ -0,0 +1,31 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.io.IOException;
+
+import com.spacecraftpropagator.ensemble.EnsembleStatisticsListener;
+import com.spacecraftpropagator.model.EnsembleRequest;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+public interface EnsembleService {
+
+    // Separate from run(), so that a bad request can be rejected before any statistics are streamed.
+    void validate(EnsembleRequest ensembleRequest) throws SimulationStepInvalidException;
+
+    void run(EnsembleRequest ensembleRequest, EnsembleStatisticsListener listener) throws IOException;
+}
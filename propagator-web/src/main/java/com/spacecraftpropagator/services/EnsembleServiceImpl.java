@@ -0,0 +1,117 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.spacecraftpropagator.ensemble.EnsemblePropagator;
+import com.spacecraftpropagator.ensemble.EnsembleStatisticsListener;
+import com.spacecraftpropagator.integrators.RigidBodyDynamics;
+import com.spacecraftpropagator.model.EnsembleRequest;
+import com.spacecraftpropagator.model.ScheduledTorqueRecord;
+import com.spacecraftpropagator.utils.MomentOfInertiaInvalidException;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+@Service
+public class EnsembleServiceImpl implements EnsembleService {
+
+    private static final int MAXIMUM_HISTOGRAM_BINS = 1000;
+
+    private final SpacecraftModelLoader spacecraftModelLoader;
+    private final EnsemblePropagator ensemblePropagator;
+    private final int maximumMembers;
+
+    Logger logger = LoggerFactory.getLogger(EnsembleServiceImpl.class);
+
+    @Autowired
+    public EnsembleServiceImpl(SpacecraftModelLoader spacecraftModelLoader,
+                               @Qualifier("ensemblePool") ForkJoinPool ensemblePool,
+                               @Value("${spacecraft.ensemble.chunk-members:256}") int chunkMembers,
+                               @Value("${spacecraft.ensemble.maximum-members:100000}") int maximumMembers) {
+        this.spacecraftModelLoader = spacecraftModelLoader;
+        this.ensemblePropagator = new EnsemblePropagator(ensemblePool, chunkMembers);
+        this.maximumMembers = maximumMembers;
+
+        logger.info("Ensembles:  at most {} members ({} MB), {} members per task",
+                    maximumMembers, EnsemblePropagator.estimateMemoryBytes(maximumMembers)/(1024*1024), chunkMembers);
+    }
+
+    @Override
+    public void validate(EnsembleRequest ensembleRequest) throws SimulationStepInvalidException {
+        if (ensembleRequest.getMemberCount() <= 0 || ensembleRequest.getMemberCount() > maximumMembers) {
+            throw new SimulationStepInvalidException("memberCount must be from 1 to " + maximumMembers);
+        }
+        if (!(ensembleRequest.getStepSeconds() > 0) || ensembleRequest.getStepCount() <= 0 || ensembleRequest.getOutputEveryNSteps() <= 0) {
+            throw new SimulationStepInvalidException("stepSeconds, stepCount and outputEveryNSteps must be positive");
+        }
+        if (!(ensembleRequest.getInertiaDispersion() >= 0) || !(ensembleRequest.getRateDispersion() >= 0) || !(ensembleRequest.getTorqueDispersion() >= 0)) {
+            throw new SimulationStepInvalidException("Dispersions must not be negative");
+        }
+        if (ensembleRequest.getInertiaTensor() != null) {
+            try {
+                RigidBodyDynamics.fromInertiaTensor(ensembleRequest.getInertiaTensor());
+            } catch (MomentOfInertiaInvalidException e) {
+                throw new SimulationStepInvalidException(e.getMessage());
+            }
+        }
+        if (ensembleRequest.getInitialRadiansPerSecond() == null || ensembleRequest.getInitialRadiansPerSecond().length != 3) {
+            throw new SimulationStepInvalidException("initialRadiansPerSecond must have 3 elements");
+        }
+        final double[] target = ensembleRequest.getTargetAttitudeQuarternion();
+        if (target == null || target.length != 4 || !(target[0]*target[0] + target[1]*target[1] + target[2]*target[2] + target[3]*target[3] > 0)) {
+            throw new SimulationStepInvalidException("targetAttitudeQuarternion must be 4 elements, not all zero");
+        }
+        if (ensembleRequest.getPercentiles() == null) {
+            throw new SimulationStepInvalidException("percentiles must be given");
+        }
+        for (double percentile : ensembleRequest.getPercentiles()) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new SimulationStepInvalidException("percentiles must be from 0 to 100");
+            }
+        }
+        if (ensembleRequest.getHistogramBins() < 0 || ensembleRequest.getHistogramBins() > MAXIMUM_HISTOGRAM_BINS) {
+            throw new SimulationStepInvalidException("histogramBins must be from 0 to " + MAXIMUM_HISTOGRAM_BINS);
+        }
+        if (ensembleRequest.getTorqueSchedule() != null) {
+            for (ScheduledTorqueRecord scheduledTorqueRecord : ensembleRequest.getTorqueSchedule()) {
+                if (scheduledTorqueRecord.getTorqueRecord() == null || scheduledTorqueRecord.getTorqueRecord().getTorqueQuarternion() == null) {
+                    throw new SimulationStepInvalidException("Every scheduled torque needs a torqueRecord with a torqueQuarternion");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run(EnsembleRequest ensembleRequest, EnsembleStatisticsListener listener) throws IOException {
+        final double[] inertiaTensor = ensembleRequest.getInertiaTensor() != null
+                ? ensembleRequest.getInertiaTensor()
+                : spacecraftModelLoader.getRigidBodyDynamics().getInertiaTensor();
+
+        final long startNanos = System.nanoTime();
+        ensemblePropagator.run(ensembleRequest, inertiaTensor, listener);
+        logger.info("Ensemble of {} members, {} steps, finished in {} ms",
+                    ensembleRequest.getMemberCount(), ensembleRequest.getStepCount(), (System.nanoTime() - startNanos)/1000000);
+    }
+}
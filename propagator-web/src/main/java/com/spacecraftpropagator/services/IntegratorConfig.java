@@ -0,0 +1,43 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+
+@Configuration
+public class IntegratorConfig {
+
+    Logger logger = LoggerFactory.getLogger(IntegratorConfig.class);
+
+    @Bean
+    public AttitudeIntegratorSettings attitudeIntegratorSettings(@Value("${spacecraft.integrator.method:dormand-prince}") String method,
+                                                                 @Value("${spacecraft.integrator.maximum-step-seconds:10.0}") double maximumStepSeconds,
+                                                                 @Value("${spacecraft.integrator.relative-tolerance:1e-9}") double relativeTolerance,
+                                                                 @Value("${spacecraft.integrator.absolute-tolerance:1e-12}") double absoluteTolerance,
+                                                                 @Value("${spacecraft.integrator.analytic-coast:true}") boolean analyticCoast) {
+        final AttitudeIntegratorSettings attitudeIntegratorSettings =
+                new AttitudeIntegratorSettings(method, maximumStepSeconds, relativeTolerance, absoluteTolerance, analyticCoast);
+        logger.info("{}", attitudeIntegratorSettings);
+        return attitudeIntegratorSettings;
+    }
+}
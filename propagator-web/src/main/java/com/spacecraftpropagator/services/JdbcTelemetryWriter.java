@@ -0,0 +1,180 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.spacecraftpropagator.model.TelemetrySampleRecord;
+import com.spacecraftpropagator.telemetry.TelemetryBatch;
+import com.spacecraftpropagator.telemetry.TelemetryWriter;
+
+// Writes telemetry batches to the application's datasource, in-memory H2 unless spring.datasource
+// points elsewhere, such as at PostgreSQL, with one JDBC batch insert per table per batch.  The
+// tables are created on startup if they do not exist.  The ring buffer's sequence restarts at zero
+// with every launch of the application while a restored session keeps its run id, so each row also
+// carries the number of the launch that wrote it, one more than the highest already stored.
+public class JdbcTelemetryWriter implements TelemetryWriter {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS telemetry_step ("
+                + "run_id VARCHAR(64) NOT NULL, sequence BIGINT NOT NULL, simulation_seconds DOUBLE PRECISION NOT NULL, "
+                + "recorded_at_millis BIGINT NOT NULL, qr DOUBLE PRECISION, qx DOUBLE PRECISION, qy DOUBLE PRECISION, "
+                + "qz DOUBLE PRECISION, wx DOUBLE PRECISION, wy DOUBLE PRECISION, wz DOUBLE PRECISION, "
+                + "sun_sensor_value DOUBLE PRECISION, ir_sensor_value DOUBLE PRECISION)",
+        "CREATE INDEX IF NOT EXISTS telemetry_step_run ON telemetry_step (run_id, simulation_seconds)",
+        "CREATE TABLE IF NOT EXISTS telemetry_torque ("
+                + "run_id VARCHAR(64) NOT NULL, sequence BIGINT NOT NULL, simulation_seconds DOUBLE PRECISION NOT NULL, "
+                + "recorded_at_millis BIGINT NOT NULL, tx DOUBLE PRECISION, ty DOUBLE PRECISION, tz DOUBLE PRECISION, "
+                + "torque_newton_meters DOUBLE PRECISION, seconds_to_apply_torque DOUBLE PRECISION)",
+        "CREATE INDEX IF NOT EXISTS telemetry_torque_run ON telemetry_torque (run_id, simulation_seconds)",
+        // tables created before launches were numbered
+        "ALTER TABLE telemetry_step ADD COLUMN IF NOT EXISTS launch BIGINT DEFAULT 0 NOT NULL",
+        "ALTER TABLE telemetry_torque ADD COLUMN IF NOT EXISTS launch BIGINT DEFAULT 0 NOT NULL"
+    };
+
+    private static final String SELECT_LAUNCH = "SELECT COALESCE(MAX(launch), 0) + 1 FROM ("
+            + "SELECT launch FROM telemetry_step UNION ALL SELECT launch FROM telemetry_torque) launches";
+
+    private static final String INSERT_STEP = "INSERT INTO telemetry_step (launch, run_id, sequence, simulation_seconds, recorded_at_millis, "
+            + "qr, qx, qy, qz, wx, wy, wz, sun_sensor_value, ir_sensor_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TORQUE = "INSERT INTO telemetry_torque (launch, run_id, sequence, simulation_seconds, recorded_at_millis, "
+            + "tx, ty, tz, torque_newton_meters, seconds_to_apply_torque) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_RUNS = "SELECT run_id FROM telemetry_step UNION SELECT run_id FROM telemetry_torque ORDER BY run_id";
+
+    // steps and torques interleaved in recording order, across launches
+    private static final String SELECT_RECORDS = "SELECT * FROM ("
+            + "SELECT launch, sequence, " + TelemetryBatch.KIND_STEP + " AS kind, simulation_seconds, recorded_at_millis, "
+            + "qr AS v0, qx AS v1, qy AS v2, qz AS v3, wx AS v4, wy AS v5, wz AS v6, sun_sensor_value AS v7, ir_sensor_value AS v8 "
+            + "FROM telemetry_step WHERE run_id = ? AND simulation_seconds BETWEEN ? AND ? "
+            + "UNION ALL "
+            + "SELECT launch, sequence, " + TelemetryBatch.KIND_TORQUE + ", simulation_seconds, recorded_at_millis, "
+            + "tx, ty, tz, torque_newton_meters, seconds_to_apply_torque, "
+            + "CAST(NULL AS DOUBLE PRECISION), CAST(NULL AS DOUBLE PRECISION), CAST(NULL AS DOUBLE PRECISION), CAST(NULL AS DOUBLE PRECISION) "
+            + "FROM telemetry_torque WHERE run_id = ? AND simulation_seconds BETWEEN ? AND ?"
+            + ") records ORDER BY launch, sequence LIMIT ? OFFSET ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long launch;
+
+    // written by the writer thread only
+    private final List<Integer> steps = new ArrayList<>();
+    private final List<Integer> torques = new ArrayList<>();
+
+    Logger logger = LoggerFactory.getLogger(JdbcTelemetryWriter.class);
+
+    public JdbcTelemetryWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+        launch = jdbcTemplate.queryForObject(SELECT_LAUNCH, Long.class);
+        logger.info("Telemetry tables ready for launch {}", launch);
+    }
+
+    @Override
+    public void write(TelemetryBatch batch) {
+        steps.clear();
+        torques.clear();
+        for (int record = 0; record < batch.getCount(); record++) {
+            (batch.getKind(record) == TelemetryBatch.KIND_TORQUE ? torques : steps).add(record);
+        }
+
+        if (!steps.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STEP, new RecordSetter(launch, batch, steps, TelemetryBatch.VALUE_COUNT));
+        }
+        if (!torques.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TORQUE, new RecordSetter(launch, batch, torques, 5));
+        }
+    }
+
+    @Override
+    public List<String> listRuns() {
+        return jdbcTemplate.queryForList(SELECT_RUNS, String.class);
+    }
+
+    @Override
+    public List<TelemetrySampleRecord> read(String runId, double fromSeconds, double toSeconds, long offset, int limit) {
+        return jdbcTemplate.query(SELECT_RECORDS,
+                                  JdbcTelemetryWriter::toSampleRecord,
+                                  runId, fromSeconds, toSeconds, runId, fromSeconds, toSeconds, limit, offset);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static TelemetrySampleRecord toSampleRecord(ResultSet resultSet, int row) throws SQLException {
+        final long sequence = resultSet.getLong("sequence");
+        final double simulationSeconds = resultSet.getDouble("simulation_seconds");
+        final long recordedAtMillis = resultSet.getLong("recorded_at_millis");
+
+        if (resultSet.getInt("kind") == TelemetryBatch.KIND_TORQUE) {
+            return TelemetrySampleRecord.torque(sequence, simulationSeconds, recordedAtMillis,
+                                                new double[] { resultSet.getDouble("v0"), resultSet.getDouble("v1"), resultSet.getDouble("v2") },
+                                                resultSet.getDouble("v3"), resultSet.getDouble("v4"));
+        }
+        return TelemetrySampleRecord.step(sequence, simulationSeconds, recordedAtMillis,
+                                          new double[] { resultSet.getDouble("v0"), resultSet.getDouble("v1"),
+                                                         resultSet.getDouble("v2"), resultSet.getDouble("v3") },
+                                          new double[] { resultSet.getDouble("v4"), resultSet.getDouble("v5"), resultSet.getDouble("v6") },
+                                          resultSet.getDouble("v7"), resultSet.getDouble("v8"));
+    }
+
+    private static class RecordSetter implements BatchPreparedStatementSetter {
+
+        private final long launch;
+        private final TelemetryBatch batch;
+        private final List<Integer> records;
+        private final int valueCount;
+
+        RecordSetter(long launch, TelemetryBatch batch, List<Integer> records, int valueCount) {
+            this.launch = launch;
+            this.batch = batch;
+            this.records = records;
+            this.valueCount = valueCount;
+        }
+
+        @Override
+        public void setValues(PreparedStatement statement, int i) throws SQLException {
+            final int record = records.get(i);
+            statement.setLong(1, launch);
+            statement.setString(2, batch.getRunId(record));
+            statement.setLong(3, batch.getSequence(record));
+            statement.setDouble(4, batch.getSimulationSeconds(record));
+            statement.setLong(5, batch.getRecordedAtMillis(record));
+            for (int value = 0; value < valueCount; value++) {
+                statement.setDouble(6 + value, batch.getValue(record, value));
+            }
+        }
+
+        @Override
+        public int getBatchSize() {
+            return records.size();
+        }
+    }
+}
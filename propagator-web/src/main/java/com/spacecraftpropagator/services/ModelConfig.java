@@ -0,0 +1,50 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.spacecraftpropagator.sensors.Ephemeris;
+
+@Configuration
+public class ModelConfig {
+
+    @Bean
+    public SpacecraftModelLoader spacecraftModelLoader(@Value("${spacecraft.models.directory:models}") String modelsDirectory,
+                                                       @Value("${spacecraft.lod.maximum-levels:6}") int maximumLevelsOfDetail,
+                                                       @Value("${spacecraft.lod.minimum-polygons:5000}") int levelOfDetailMinimumPolygons,
+                                                       @Value("${spacecraft.lod.default-pixels-per-meter:13.5}") double defaultPixelsPerMeter,
+                                                       @Value("${spacecraft.lod.tolerance-pixels:1.0}") double tolerancePixels,
+                                                       @Value("${spacecraft.lod.minimum-polygon-pixels:1.0}") double minimumPolygonPixels) {
+        return new SpacecraftModelLoader(modelsDirectory, maximumLevelsOfDetail, levelOfDetailMinimumPolygons,
+                                         defaultPixelsPerMeter, tolerancePixels, minimumPolygonPixels);
+    }
+
+    // An orbit period of 0 keeps the Earth where the original sensors saw it.
+    @Bean
+    public Ephemeris ephemeris(@Value("${spacecraft.ephemeris.sun-direction:-1,0,0}") double[] sunDirection,
+                               @Value("${spacecraft.ephemeris.earth-direction:0,-1,0}") double[] earthDirection,
+                               @Value("${spacecraft.ephemeris.orbit-normal:0,0,1}") double[] orbitNormal,
+                               @Value("${spacecraft.ephemeris.orbit-period-seconds:0}") double orbitPeriodSeconds,
+                               @Value("${spacecraft.ephemeris.samples:1024}") int sampleCount) {
+        return orbitPeriodSeconds > 0
+                ? Ephemeris.circularOrbit(sunDirection, earthDirection, orbitNormal, orbitPeriodSeconds, sampleCount)
+                : Ephemeris.fixed(sunDirection, earthDirection);
+    }
+}
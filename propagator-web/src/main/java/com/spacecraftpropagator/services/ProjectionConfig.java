@@ -0,0 +1,52 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Worker pools for projecting large meshes and for ensembles.  They are separate from the common
+// pool, which parallel streams and other libraries running on the Tomcat request threads may also
+// be using, and from each other, so that a long ensemble cannot hold up interactive sessions.
+@Configuration
+public class ProjectionConfig {
+
+    Logger logger = LoggerFactory.getLogger(ProjectionConfig.class);
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool projectionPool(@Value("${spacecraft.projection.parallelism:0}") int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        logger.info("Projection pool parallelism {}", parallelism);
+        return new ForkJoinPool(parallelism);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool ensemblePool(@Value("${spacecraft.ensemble.parallelism:0}") int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        logger.info("Ensemble pool parallelism {}", parallelism);
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -0,0 +1,153 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Meters for the simulation hot paths, published by Actuator at /actuator/prometheus and
+// /actuator/metrics.  Every step, projection and serialization is timed into a percentile
+// histogram; the step timer's count gives the steps per second.
+//
+// Reading a thread's allocation counter costs about as much as a small step, so the allocation
+// per step and the integrator error are only measured on every traceEverySteps-th step of each
+// session, which is also logged.  0 turns the sampling off.
+@Component
+public class SimulationMetrics implements PropagationMetrics {
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
+
+    private final boolean enabled;
+    private final int traceEverySteps;
+
+    private final Timer stepTimer;
+    private final Timer projectionTimer;
+    private final Timer jsonSerializationTimer;
+    private final Timer binarySerializationTimer;
+    private final DistributionSummary stepAllocation;
+    private final DistributionSummary integratorError;
+
+    private final MeterRegistry meterRegistry;
+
+    // null if the JVM cannot count allocations per thread
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    Logger logger = LoggerFactory.getLogger(SimulationMetrics.class);
+
+    public SimulationMetrics(MeterRegistry meterRegistry,
+                             @Value("${spacecraft.metrics.enabled:true}") boolean enabled,
+                             @Value("${spacecraft.metrics.trace-every-steps:0}") int traceEverySteps) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.traceEverySteps = Math.max(0, traceEverySteps);
+
+        this.stepTimer = Timer.builder("spacecraft.step")
+                .description("Time to advance one session by one step")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.projectionTimer = Timer.builder("spacecraft.projection")
+                .description("Time to cull and project one session's mesh")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.jsonSerializationTimer = Timer.builder("spacecraft.serialization")
+                .description("Time to serialize one frame")
+                .tag("format", FORMAT_JSON)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.binarySerializationTimer = Timer.builder("spacecraft.serialization")
+                .description("Time to serialize one frame")
+                .tag("format", FORMAT_BINARY)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.stepAllocation = DistributionSummary.builder("spacecraft.step.allocation")
+                .description("Heap allocated by one sampled step")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.integratorError = DistributionSummary.builder("spacecraft.integrator.error")
+                .description("Normalized error estimate of the last substep of a sampled step")
+                .register(meterRegistry);
+
+        final java.lang.management.ThreadMXBean platformThreadMXBean = ManagementFactory.getThreadMXBean();
+        if (platformThreadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) platformThreadMXBean).isThreadAllocatedMemorySupported()) {
+            this.threadMXBean = (com.sun.management.ThreadMXBean) platformThreadMXBean;
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threadMXBean = null;
+        }
+
+        logger.info("Simulation metrics {}, tracing every {} steps", enabled ? "on" : "off", this.traceEverySteps);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> void registerGauge(String name, String description, T object, ToDoubleFunction<T> value) {
+        Gauge.builder(name, object, value).description(description).register(meterRegistry);
+    }
+
+    @Override
+    public boolean isTraced(long stepCount) {
+        return traceEverySteps > 0 && stepCount % traceEverySteps == 0;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    @Override
+    public void recordStep(long stepNanos) {
+        stepTimer.record(stepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordProjection(long projectionNanos) {
+        projectionTimer.record(projectionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSerialization(String format, long serializationNanos) {
+        (FORMAT_BINARY.equals(format) ? binarySerializationTimer : jsonSerializationTimer).record(serializationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void traceStep(String sessionId, double simulationSeconds, double[] state,
+                          long stepNanos, long allocatedBytes, double errorNorm) {
+        if (allocatedBytes >= 0) {
+            stepAllocation.record(allocatedBytes);
+        }
+        if (!Double.isNaN(errorNorm)) {
+            integratorError.record(errorNorm);
+        }
+        logger.info("Step trace:  session {}, {} s, {} ns, {} bytes allocated, integrator error {}, state {}",
+                    sessionId, simulationSeconds, stepNanos, allocatedBytes, errorNorm, Arrays.toString(state));
+    }
+}
@@ -0,0 +1,33 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.util.List;
+
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+public interface SimulationSessionService {
+    // null if there is no such spacecraft model
+    String createSession(String modelName);
+    String restoreSession(byte[] snapshot) throws SnapshotInvalidException;
+    AttitudeModelService getSession(String sessionId);
+    boolean isActive(String sessionId);
+    long getActiveSessionCount();
+    SpacecraftMesh getSpacecraftMesh(String meshId);
+    List<String> getModelNames();
+}
@@ -0,0 +1,261 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.spacecraftpropagator.integrators.AttitudeIntegratorSettings;
+import com.spacecraftpropagator.model.SpacecraftMesh;
+import com.spacecraftpropagator.model.SpacecraftModel;
+import com.spacecraftpropagator.sensors.Ephemeris;
+import com.spacecraftpropagator.snapshots.SessionJournal;
+import com.spacecraftpropagator.snapshots.SessionSnapshot;
+import com.spacecraftpropagator.utils.SnapshotInvalidException;
+
+// When spacecraft.snapshots.directory is set, the sessions are saved there on shutdown and
+// restored, under the same session ids, on the next startup.
+@Service
+public class SimulationSessionServiceImpl implements SimulationSessionService {
+
+    private final SpacecraftModelLoader spacecraftModelLoader;
+
+    private final Cache<String, AttitudeModelService> sessions;
+
+    private final AttitudeIntegratorSettings attitudeIntegratorSettings;
+
+    private final Ephemeris ephemeris;
+
+    private final TelemetryService telemetryService;
+    private final SimulationMetrics simulationMetrics;
+    private final CaffeineProjectionCache projectionCache;
+
+    private final ForkJoinPool projectionPool;
+    private final int parallelProjectionThresholdPolygons;
+    private final int parallelProjectionChunkPolygons;
+
+    private final double maximumControlStepSeconds;
+    private final int maximumControlSubsteps;
+
+    private final double checkpointIntervalSeconds;
+    private final int maximumJournalEntries;
+    // null when sessions are not kept across restarts
+    private final Path snapshotsDirectory;
+
+    private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+
+    Logger logger = LoggerFactory.getLogger(SimulationSessionServiceImpl.class);
+
+    @Autowired
+    public SimulationSessionServiceImpl(SpacecraftModelLoader spacecraftModelLoader,
+                                        @Value("${spacecraft.sessions.maximum-sessions:1000}") long maximumSessions,
+                                        @Value("${spacecraft.sessions.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+                                        AttitudeIntegratorSettings attitudeIntegratorSettings,
+                                        Ephemeris ephemeris,
+                                        TelemetryService telemetryService,
+                                        SimulationMetrics simulationMetrics,
+                                        CaffeineProjectionCache projectionCache,
+                                        @Qualifier("projectionPool") ForkJoinPool projectionPool,
+                                        @Value("${spacecraft.projection.parallel-threshold-polygons:20000}") int parallelProjectionThresholdPolygons,
+                                        @Value("${spacecraft.projection.parallel-chunk-polygons:4096}") int parallelProjectionChunkPolygons,
+                                        @Value("${spacecraft.controller.maximum-step-seconds:60.0}") double maximumControlStepSeconds,
+                                        @Value("${spacecraft.controller.maximum-substeps-per-step:100000}") int maximumControlSubsteps,
+                                        @Value("${spacecraft.snapshots.checkpoint-interval-seconds:10.0}") double checkpointIntervalSeconds,
+                                        @Value("${spacecraft.snapshots.maximum-journal-entries:10000}") int maximumJournalEntries,
+                                        @Value("${spacecraft.snapshots.directory:}") String snapshotsDirectory) {
+        if (!(checkpointIntervalSeconds > 0) || maximumJournalEntries < 2) {
+            throw new IllegalArgumentException("spacecraft.snapshots.checkpoint-interval-seconds must be positive and maximum-journal-entries at least 2");
+        }
+        if (!(maximumControlStepSeconds > 0) || maximumControlSubsteps < 1) {
+            throw new IllegalArgumentException("spacecraft.controller.maximum-step-seconds and maximum-substeps-per-step must be positive");
+        }
+        this.spacecraftModelLoader = spacecraftModelLoader;
+        this.attitudeIntegratorSettings = attitudeIntegratorSettings;
+        this.ephemeris = ephemeris;
+        this.telemetryService = telemetryService;
+        this.simulationMetrics = simulationMetrics;
+        this.projectionCache = projectionCache;
+        this.projectionPool = projectionPool;
+        this.parallelProjectionThresholdPolygons = parallelProjectionThresholdPolygons;
+        this.parallelProjectionChunkPolygons = parallelProjectionChunkPolygons;
+        this.maximumControlStepSeconds = maximumControlStepSeconds;
+        this.maximumControlSubsteps = maximumControlSubsteps;
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+        this.maximumJournalEntries = maximumJournalEntries;
+        this.snapshotsDirectory = snapshotsDirectory.isEmpty() ? null : Paths.get(snapshotsDirectory);
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSessions)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .removalListener((String sessionId, AttitudeModelService session, RemovalCause cause) ->
+                        logger.info("Simulation session {} removed ({})", sessionId, cause))
+                .build();
+
+        simulationMetrics.registerGauge("spacecraft.sessions.active", "Simulation sessions in the session cache",
+                                        this, SimulationSessionServiceImpl::getActiveSessionCount);
+
+        logger.info("Simulation sessions:  maximum {}, idle timeout {} minutes", maximumSessions, idleTimeoutMinutes);
+    }
+
+    @PostConstruct
+    public void restoreSavedSessions() {
+        if (snapshotsDirectory == null || !Files.isDirectory(snapshotsDirectory)) {
+            return;
+        }
+
+        int restored = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(snapshotsDirectory, "*" + SNAPSHOT_FILE_EXTENSION)) {
+            for (Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final String sessionId = fileName.substring(0, fileName.length() - SNAPSHOT_FILE_EXTENSION.length());
+                try {
+                    sessions.put(sessionId, restore(sessionId, Files.readAllBytes(file)));
+                    Files.delete(file);
+                    restored++;
+                } catch (IOException | SnapshotInvalidException e) {
+                    logger.error("Error restoring simulation session from {}:  ", file, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Error reading simulation session snapshots from {}:  ", snapshotsDirectory, e);
+        }
+        logger.info("Restored {} simulation sessions from {}", restored, snapshotsDirectory);
+    }
+
+    @PreDestroy
+    public void saveSessions() {
+        if (snapshotsDirectory == null) {
+            return;
+        }
+
+        int saved = 0;
+        try {
+            Files.createDirectories(snapshotsDirectory);
+            for (Map.Entry<String, AttitudeModelService> session : sessions.asMap().entrySet()) {
+                Files.write(snapshotsDirectory.resolve(session.getKey() + SNAPSHOT_FILE_EXTENSION), session.getValue().saveSnapshot());
+                saved++;
+            }
+        } catch (IOException e) {
+            logger.error("Error saving simulation sessions to {}:  ", snapshotsDirectory, e);
+        }
+        logger.info("Saved {} simulation sessions to {}", saved, snapshotsDirectory);
+    }
+
+    @Override
+    public String createSession(String modelName) {
+        final SpacecraftModel model = spacecraftModelLoader.getModel(modelName);
+        if (model == null) {
+            return null;
+        }
+        final String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, newSession(sessionId, model));
+        return sessionId;
+    }
+
+    // The restored session gets a new session id, so a snapshot can be restored any number of times.
+    @Override
+    public String restoreSession(byte[] snapshot) throws SnapshotInvalidException {
+        final String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, restore(sessionId, snapshot));
+        return sessionId;
+    }
+
+    @Override
+    public AttitudeModelService getSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        return sessions.getIfPresent(sessionId);
+    }
+
+    // Unlike getSession(), does not count as an access, so it does not keep an idle session alive.
+    @Override
+    public boolean isActive(String sessionId) {
+        return sessionId != null && sessions.asMap().containsKey(sessionId);
+    }
+
+    @Override
+    public long getActiveSessionCount() {
+        return sessions.estimatedSize();
+    }
+
+    @Override
+    public SpacecraftMesh getSpacecraftMesh(String meshId) {
+        final SpacecraftModel model = spacecraftModelLoader.getModelByMeshId(meshId);
+        return model != null ? model.getSpacecraftMesh() : null;
+    }
+
+    @Override
+    public List<String> getModelNames() {
+        return spacecraftModelLoader.getModelNames();
+    }
+
+    // The snapshot's mesh id picks the spacecraft model.
+    private AttitudeModelServiceImpl restore(String sessionId, byte[] snapshot) throws SnapshotInvalidException {
+        final String meshId = SessionSnapshot.readMeshId(snapshot);
+        final SpacecraftModel model = spacecraftModelLoader.getModelByMeshId(meshId);
+        if (model == null) {
+            throw new SnapshotInvalidException("No spacecraft model has mesh " + meshId);
+        }
+        final AttitudeModelServiceImpl session = newSession(sessionId, model);
+        session.restoreSnapshot(snapshot);
+        return session;
+    }
+
+    private AttitudeModelServiceImpl newSession(String sessionId, SpacecraftModel model) {
+        final AttitudeModelServiceImpl session = new AttitudeModelServiceImpl(model.getLevelsOfDetail(),
+                                                                              model.getRigidBodyDynamics(),
+                                                                              attitudeIntegratorSettings.newIntegrator(),
+                                                                              projectionPool,
+                                                                              parallelProjectionThresholdPolygons,
+                                                                              parallelProjectionChunkPolygons,
+                                                                              new SessionJournal(checkpointIntervalSeconds, maximumJournalEntries),
+                                                                              model.getSensorSuite(),
+                                                                              ephemeris);
+        session.setControlStepLimits(maximumControlStepSeconds, maximumControlSubsteps);
+        if (telemetryService.isRecording()) {
+            session.startRecording(telemetryService.getTelemetryRecorder(), sessionId);
+        }
+        if (simulationMetrics.isEnabled()) {
+            session.startMetrics(simulationMetrics, sessionId);
+        }
+        if (projectionCache.isEnabled()) {
+            session.startProjectionCache(projectionCache);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,49 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+
+import com.spacecraftpropagator.model.LatestFrameRecord;
+import com.spacecraftpropagator.model.TickStatisticsRecord;
+
+// Server-side simulation clock.  Subscribed sessions are advanced together at a fixed tick rate,
+// and clients read their latest frame or receive it through a frame listener.
+public interface SimulationTickService {
+
+    // Both methods are called on the tick thread, so they must hand off rather than block.
+    interface FrameListener {
+        // the session's ProjectedFrame.encode() output
+        void frame(ByteBuffer encodedFrame);
+
+        // Called once when the frames stop for good:  failed is false when the session has ended,
+        // and true when its step failed, with the reason.
+        void end(boolean failed, String reason);
+    }
+
+    boolean subscribe(String sessionId);
+    void unsubscribe(String sessionId);
+
+    // The listener receives a frame every everyNTicks ticks, or on the first tick after that many
+    // when ticks are skipped.  While it is attached the tick keeps the session from idling out.
+    boolean addFrameListener(String sessionId, String listenerId, int everyNTicks, FrameListener listener);
+    void removeFrameListener(String sessionId, String listenerId);
+
+    LatestFrameRecord getLatestFrame(String sessionId);
+    TickStatisticsRecord getStatistics();
+    double getTicksPerSecond();
+}
@@ -0,0 +1,276 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.spacecraftpropagator.model.AttitudeFrameRecord;
+import com.spacecraftpropagator.model.LatestFrameRecord;
+import com.spacecraftpropagator.model.TickStatisticsRecord;
+import com.spacecraftpropagator.utils.SimulationStepInvalidException;
+
+// Advances every subscribed session once per tick, in one pass over a packed array of
+// subscriptions on a single thread, so the CPU per tick grows with the number of subscribed
+// sessions instead of with request traffic.  Ticks are numbered from the wall clock:  when a tick
+// overruns its period the ticks it crowded out are skipped, and the next tick advances the
+// sessions over all the elapsed time in one step, so simulated time keeps pace with real time.
+@Service
+public class SimulationTickServiceImpl implements SimulationTickService {
+
+    private final SimulationSessionService simulationSessionService;
+    private final SimulationMetrics simulationMetrics;
+    // a single thread, so that ticks never overlap
+    private final ScheduledExecutorService simulationTickExecutor;
+    private final double ticksPerSecond;
+    private final long tickPeriodNanos;
+
+    private final Map<String, TickSubscription> subscriptionsById = new ConcurrentHashMap<>();
+
+    // copy-on-write, so the tick iterates without locking
+    private volatile TickSubscription[] subscriptions = new TickSubscription[0];
+
+    // written by the tick thread only
+    private long startNanos;
+    private long lastTick = -1;
+    private volatile long ticks;
+    private volatile long overrunTicks;
+    private volatile long skippedTicks;
+    private volatile long lastTickMicros;
+    private volatile long maximumTickMicros;
+
+    Logger logger = LoggerFactory.getLogger(SimulationTickServiceImpl.class);
+
+    @Autowired
+    public SimulationTickServiceImpl(SimulationSessionService simulationSessionService,
+                                     SimulationMetrics simulationMetrics,
+                                     @Value("${spacecraft.tick.ticks-per-second:60}") double ticksPerSecond) {
+        if (!(ticksPerSecond > 0)) {
+            throw new IllegalArgumentException("spacecraft.tick.ticks-per-second must be positive");
+        }
+        this.simulationSessionService = simulationSessionService;
+        this.simulationMetrics = simulationMetrics;
+        this.simulationTickExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "simulation-tick"));
+        this.ticksPerSecond = ticksPerSecond;
+        this.tickPeriodNanos = Math.round(1e9/ticksPerSecond);
+    }
+
+    @PostConstruct
+    public void start() {
+        startNanos = System.nanoTime();
+        simulationTickExecutor.scheduleAtFixedRate(this::tick, tickPeriodNanos, tickPeriodNanos, TimeUnit.NANOSECONDS);
+        logger.info("Simulation tick started at {} ticks per second", ticksPerSecond);
+    }
+
+    @PreDestroy
+    public void stop() {
+        simulationTickExecutor.shutdownNow();
+    }
+
+    // Subscribing and unsubscribing hold the same lock as removeIfUnused, so a subscription is never
+    // dropped between being looked up and being marked as in use.
+    @Override
+    public synchronized boolean subscribe(String sessionId) {
+        final TickSubscription subscription = getOrCreateSubscription(sessionId);
+        if (subscription == null) {
+            return false;
+        }
+        subscription.explicit = true;
+        return true;
+    }
+
+    @Override
+    public synchronized void unsubscribe(String sessionId) {
+        final TickSubscription subscription = subscriptionsById.get(sessionId);
+        if (subscription != null) {
+            subscription.explicit = false;
+            removeIfUnused(subscription);
+        }
+    }
+
+    @Override
+    public synchronized boolean addFrameListener(String sessionId, String listenerId, int everyNTicks, FrameListener listener) {
+        final TickSubscription subscription = getOrCreateSubscription(sessionId);
+        if (subscription == null) {
+            return false;
+        }
+        subscription.frameListeners.put(listenerId, new TickSubscription.ScheduledListener(Math.max(1, everyNTicks), listener));
+        return true;
+    }
+
+    @Override
+    public synchronized void removeFrameListener(String sessionId, String listenerId) {
+        final TickSubscription subscription = subscriptionsById.get(sessionId);
+        if (subscription != null) {
+            subscription.frameListeners.remove(listenerId);
+            removeIfUnused(subscription);
+        }
+    }
+
+    @Override
+    public LatestFrameRecord getLatestFrame(String sessionId) {
+        final TickSubscription subscription = subscriptionsById.get(sessionId);
+        return subscription == null ? null : subscription.latestFrame;
+    }
+
+    @Override
+    public TickStatisticsRecord getStatistics() {
+        return new TickStatisticsRecord(ticksPerSecond, subscriptions.length, ticks, overrunTicks, skippedTicks,
+                                        lastTickMicros, maximumTickMicros);
+    }
+
+    @Override
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    private synchronized TickSubscription getOrCreateSubscription(String sessionId) {
+        TickSubscription subscription = subscriptionsById.get(sessionId);
+        if (subscription == null) {
+            final AttitudeModelService attitudeModelService = simulationSessionService.getSession(sessionId);
+            if (attitudeModelService == null) {
+                return null;
+            }
+            subscription = new TickSubscription(sessionId, attitudeModelService);
+            subscriptionsById.put(sessionId, subscription);
+
+            final TickSubscription[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            updated[updated.length - 1] = subscription;
+            subscriptions = updated;
+        }
+        return subscription;
+    }
+
+    private synchronized void removeIfUnused(TickSubscription subscription) {
+        if (subscription.explicit || !subscription.frameListeners.isEmpty()) {
+            return;
+        }
+        remove(subscription);
+    }
+
+    private synchronized boolean remove(TickSubscription subscription) {
+        if (subscriptionsById.remove(subscription.sessionId, subscription)) {
+            subscriptions = Arrays.stream(subscriptions).filter(s -> s != subscription).toArray(TickSubscription[]::new);
+            return true;
+        }
+        return false;
+    }
+
+    // Takes the subscription off the tick and tells its listeners, outside the lock, so that
+    // their clients are closed rather than left waiting for frames.
+    private void end(TickSubscription subscription, boolean failed, String reason) {
+        if (!remove(subscription)) {
+            return;
+        }
+        for (TickSubscription.ScheduledListener scheduledListener : subscription.frameListeners.values()) {
+            try {
+                scheduledListener.listener.end(failed, reason);
+            } catch (RuntimeException e) {
+                logger.warn("Error ending a frame listener of simulation session {}:  {}", subscription.sessionId, e.toString());
+            }
+        }
+    }
+
+    private void tick() {
+        final long tickStartNanos = System.nanoTime();
+        final long tick = (tickStartNanos - startNanos)/tickPeriodNanos;
+        final long elapsedTicks = tick - lastTick;
+        if (elapsedTicks <= 0) {
+            return;
+        }
+        if (lastTick >= 0 && elapsedTicks > 1) {
+            skippedTicks += elapsedTicks - 1;
+        }
+        lastTick = tick;
+
+        final double stepSeconds = elapsedTicks/ticksPerSecond;
+        for (TickSubscription subscription : subscriptions) {
+            try {
+                tickSubscription(subscription, tick, stepSeconds);
+            } catch (RuntimeException | SimulationStepInvalidException e) {
+                // an exception would cancel the fixed-rate tick for every session
+                logger.warn("Unsubscribing simulation session {} from the tick:  {}", subscription.sessionId, e.toString());
+                end(subscription, true, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+
+        final long tickMicros = (System.nanoTime() - tickStartNanos)/1000;
+        if (tickMicros*1000 > tickPeriodNanos) {
+            overrunTicks++;
+        }
+        lastTickMicros = tickMicros;
+        maximumTickMicros = Math.max(maximumTickMicros, tickMicros);
+        ticks++;
+    }
+
+    private void tickSubscription(TickSubscription subscription, long tick, double stepSeconds) throws SimulationStepInvalidException {
+        // a session that is being streamed is in use even if no request touches it
+        final boolean active = subscription.frameListeners.isEmpty()
+                ? simulationSessionService.isActive(subscription.sessionId)
+                : simulationSessionService.getSession(subscription.sessionId) != null;
+        if (!active) {
+            end(subscription, false, "Simulation session ended");
+            return;
+        }
+
+        final AttitudeModelService attitudeModelService = subscription.attitudeModelService;
+        final AttitudeFrameRecord frame;
+        final double simulationSeconds;
+        ByteBuffer encodedFrame = null;
+        synchronized (attitudeModelService) {
+            frame = attitudeModelService.stepAttitudeFrame(stepSeconds);
+            // the session's own time, which /step, /seek, /propagate and restores also move
+            simulationSeconds = attitudeModelService.getSimulationSeconds();
+            for (TickSubscription.ScheduledListener scheduledListener : subscription.frameListeners.values()) {
+                if (scheduledListener.isDue(tick)) {
+                    // timed with the projection, unless the projection cache already holds the frame
+                    final long startNanos = System.nanoTime();
+                    encodedFrame = attitudeModelService.encodeVisibleSpacecraftPolygons(0.0);
+                    if (simulationMetrics.isEnabled()) {
+                        simulationMetrics.recordSerialization(SimulationMetrics.FORMAT_BINARY, System.nanoTime() - startNanos);
+                    }
+                    break;
+                }
+            }
+        }
+
+        subscription.latestFrame = new LatestFrameRecord(tick, simulationSeconds, frame);
+
+        if (encodedFrame != null) {
+            for (TickSubscription.ScheduledListener scheduledListener : subscription.frameListeners.values()) {
+                if (scheduledListener.isDue(tick)) {
+                    scheduledListener.lastSentTick = tick;
+                    scheduledListener.listener.frame(encodedFrame.duplicate());
+                }
+            }
+        }
+    }
+}
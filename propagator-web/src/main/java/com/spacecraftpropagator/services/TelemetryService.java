@@ -16,16 +16,16 @@
 
 package com.spacecraftpropagator.services;
 
+import java.io.IOException;
 import java.util.List;
 
-import com.spacecraftpropagator.model.Quarternion;
+import com.spacecraftpropagator.model.TelemetryPageRecord;
+import com.spacecraftpropagator.telemetry.TelemetryRecorder;
 
-public interface AttitudeModelService {
-    List<List<List<Double>>> init();
-    List<List<List<Double>>> step(double stepSeconds);
-    List<Double> applyTorque(Quarternion torqueQuarternion, double torqueNewtonMeters, double numSeconds);
-    Quarternion getXAxisQuarternion();
-    Quarternion getYAxisQuarternion();
-    Quarternion getZAxisQuarternion();
-    List<List<List<Double>>> getVisible2DProjectedSpacecraftPolygons();
+public interface TelemetryService {
+    boolean isRecording();
+    // null when recording is off
+    TelemetryRecorder getTelemetryRecorder();
+    List<String> getRecordedRuns() throws IOException;
+    TelemetryPageRecord getRecordedRun(String runId, double fromSeconds, double toSeconds, int page, int pageSize) throws IOException;
 }
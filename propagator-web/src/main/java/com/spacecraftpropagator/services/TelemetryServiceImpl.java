@@ -0,0 +1,110 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.spacecraftpropagator.model.TelemetryPageRecord;
+import com.spacecraftpropagator.model.TelemetrySampleRecord;
+import com.spacecraftpropagator.telemetry.FileTelemetryWriter;
+import com.spacecraftpropagator.telemetry.TelemetryRecorder;
+
+// Recording is off unless spacecraft.telemetry.mode is jdbc or file.  Every session created while
+// recording is on is recorded as a run named by its session id.
+@Service
+public class TelemetryServiceImpl implements TelemetryService {
+
+    public static final String MODE_OFF = "off";
+    public static final String MODE_JDBC = "jdbc";
+    public static final String MODE_FILE = "file";
+
+    private final TelemetryRecorder telemetryRecorder;
+
+    Logger logger = LoggerFactory.getLogger(TelemetryServiceImpl.class);
+
+    @Autowired
+    public TelemetryServiceImpl(@Value("${spacecraft.telemetry.mode:off}") String mode,
+                                @Value("${spacecraft.telemetry.ring-buffer-records:65536}") int ringBufferRecords,
+                                @Value("${spacecraft.telemetry.batch-records:1024}") int batchRecords,
+                                @Value("${spacecraft.telemetry.directory:telemetry}") String directory,
+                                JdbcTemplate jdbcTemplate) throws IOException {
+        if (MODE_JDBC.equals(mode)) {
+            this.telemetryRecorder = new TelemetryRecorder(new JdbcTelemetryWriter(jdbcTemplate), ringBufferRecords, batchRecords);
+        } else if (MODE_FILE.equals(mode)) {
+            this.telemetryRecorder = new TelemetryRecorder(new FileTelemetryWriter(Paths.get(directory)), ringBufferRecords, batchRecords);
+        } else if (MODE_OFF.equals(mode)) {
+            this.telemetryRecorder = null;
+        } else {
+            throw new IllegalArgumentException("spacecraft.telemetry.mode must be " + MODE_OFF + ", " + MODE_JDBC + " or " + MODE_FILE);
+        }
+
+        if (telemetryRecorder != null) {
+            telemetryRecorder.start();
+        }
+        logger.info("Telemetry recording mode:  {}", mode);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (telemetryRecorder != null) {
+            telemetryRecorder.stop();
+        }
+    }
+
+    @Override
+    public boolean isRecording() {
+        return telemetryRecorder != null;
+    }
+
+    @Override
+    public TelemetryRecorder getTelemetryRecorder() {
+        return telemetryRecorder;
+    }
+
+    @Override
+    public List<String> getRecordedRuns() throws IOException {
+        if (telemetryRecorder == null) {
+            return Collections.emptyList();
+        }
+        return telemetryRecorder.getTelemetryWriter().listRuns();
+    }
+
+    // Reads one record past the page to tell whether there is another page.
+    @Override
+    public TelemetryPageRecord getRecordedRun(String runId, double fromSeconds, double toSeconds, int page, int pageSize) throws IOException {
+        if (telemetryRecorder == null) {
+            return null;
+        }
+        final List<TelemetrySampleRecord> samples = telemetryRecorder.getTelemetryWriter()
+                .read(runId, fromSeconds, toSeconds, (long) page*pageSize, pageSize + 1);
+        final boolean morePages = samples.size() > pageSize;
+        return new TelemetryPageRecord(runId, fromSeconds, toSeconds, page, pageSize, morePages,
+                                       morePages ? samples.subList(0, pageSize) : samples);
+    }
+}
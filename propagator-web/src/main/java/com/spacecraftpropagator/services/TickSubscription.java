@@ -0,0 +1,56 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.spacecraftpropagator.model.LatestFrameRecord;
+
+// One session on the server tick.  Written by the tick thread; latestFrame is read by request threads.
+class TickSubscription {
+
+    static class ScheduledListener {
+        final int everyNTicks;
+        final SimulationTickService.FrameListener listener;
+        // written by the tick thread only; far enough back that the first tick sends
+        long lastSentTick = Long.MIN_VALUE/2;
+
+        ScheduledListener(int everyNTicks, SimulationTickService.FrameListener listener) {
+            this.everyNTicks = everyNTicks;
+            this.listener = listener;
+        }
+
+        boolean isDue(long tick) {
+            return tick - lastSentTick >= everyNTicks;
+        }
+    }
+
+    final String sessionId;
+    final AttitudeModelService attitudeModelService;
+    final Map<String, ScheduledListener> frameListeners = new ConcurrentHashMap<>();
+
+    // subscribed through subscribe(), rather than only for as long as it has frame listeners
+    volatile boolean explicit;
+
+    volatile LatestFrameRecord latestFrame;
+
+    TickSubscription(String sessionId, AttitudeModelService attitudeModelService) {
+        this.sessionId = sessionId;
+        this.attitudeModelService = attitudeModelService;
+    }
+}
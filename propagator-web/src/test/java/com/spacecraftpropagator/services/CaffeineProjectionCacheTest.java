@@ -0,0 +1,110 @@
+// Copyright (C) 2024, M. Yang 
+// 
+//     This program is free software: you can redistribute it and/or modify
+//     it under the terms of the GNU General Public License as published by
+//     the Free Software Foundation, either version 3 of the License, or
+//     (at your option) any later version.
+// 
+//     This program is distributed in the hope that it will be useful, 
+//     but WITHOUT ANY WARRANTY; without even the implied warranty of
+//     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the 
+//     GNU General Public License for more details.
+// 
+//     For further details, please see the README.md file included
+//     with this software, and/or the GNU General Public License html
+//     file which is also included with this software.
+
+package com.spacecraftpropagator.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CaffeineProjectionCacheTest {
+
+    private static final double QUANTIZATION = 1e-6;
+
+    private static final double[] ATTITUDE = { 0.8, 0.2, -0.4, 0.4 };
+    private static final double[] NEGATED_ATTITUDE = { -0.8, -0.2, 0.4, -0.4 };
+
+    @Test
+    public void negatedQuarternionHitsTheSameEntries() {
+        final CaffeineProjectionCache projectionCache = new CaffeineProjectionCache(new SimpleMeterRegistry(), 100, QUANTIZATION, 1);
+        final int[] visiblePolygons = { 1, 4, 5 };
+        projectionCache.putVisiblePolygons(key(ATTITUDE), visiblePolygons);
+        projectionCache.putEncodedFrame(key(ATTITUDE), ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+
+        assertSame(visiblePolygons, projectionCache.getVisiblePolygons(key(NEGATED_ATTITUDE)));
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), projectionCache.getEncodedFrame(key(NEGATED_ATTITUDE)));
+        assertNull(projectionCache.getVisiblePolygons(key(new double[] { 0.8, 0.2, 0.4, 0.4 })));
+    }
+
+    // Each reader gets a read-only buffer of its own over the cached bytes.
+    @Test
+    public void encodedFramesAreReadOnlyAndIndependent() {
+        final CaffeineProjectionCache projectionCache = new CaffeineProjectionCache(new SimpleMeterRegistry(), 100, QUANTIZATION, 1);
+        projectionCache.putEncodedFrame(key(ATTITUDE), ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }));
+
+        final ByteBuffer first = projectionCache.getEncodedFrame(key(ATTITUDE));
+        final ByteBuffer second = projectionCache.getEncodedFrame(key(ATTITUDE));
+        assertTrue(first.isReadOnly());
+        first.getInt();
+        assertEquals(0, second.position());
+        final byte[] bytes = new byte[4];
+        second.get(bytes);
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, bytes);
+    }
+
+    @Test
+    public void framesAreNotCachedWithoutMegabytes() {
+        final CaffeineProjectionCache projectionCache = new CaffeineProjectionCache(new SimpleMeterRegistry(), 100, QUANTIZATION, 0);
+        assertTrue(projectionCache.isEnabled());
+        projectionCache.putEncodedFrame(key(ATTITUDE), ByteBuffer.wrap(new byte[] { 1 }));
+        assertNull(projectionCache.getEncodedFrame(key(ATTITUDE)));
+    }
+
+    @Test
+    public void cacheIsOffWithoutEntries() {
+        assertFalse(new CaffeineProjectionCache(new SimpleMeterRegistry(), 0, QUANTIZATION, 64).isEnabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantizationMustBePositive() {
+        new CaffeineProjectionCache(new SimpleMeterRegistry(), 100, 0.0, 64);
+    }
+
+    @Test
+    public void hitsAndMissesArePublished() {
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final CaffeineProjectionCache projectionCache = new CaffeineProjectionCache(meterRegistry, 100, QUANTIZATION, 1);
+        projectionCache.getVisiblePolygons(key(ATTITUDE));
+        projectionCache.putVisiblePolygons(key(ATTITUDE), new int[] { 0 });
+        projectionCache.getVisiblePolygons(key(ATTITUDE));
+        projectionCache.getVisiblePolygons(key(NEGATED_ATTITUDE));
+
+        assertEquals(2.0, gets(meterRegistry, "hit"), 0.0);
+        assertEquals(1.0, gets(meterRegistry, "miss"), 0.0);
+    }
+
+    private static double gets(MeterRegistry meterRegistry, String result) {
+        final FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tags("cache", "spacecraft.projection.visible-polygons", "result", result)
+                .functionCounter();
+        return counter.count();
+    }
+
+    private static ProjectionKey key(double[] attitude) {
+        return new ProjectionKey("mesh", 0.0, attitude, QUANTIZATION);
+    }
+}